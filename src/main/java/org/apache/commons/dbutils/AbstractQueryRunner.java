@@ -30,7 +30,10 @@ import java.sql.SQLException;
 import java.sql.SQLFeatureNotSupportedException;
 import java.sql.Statement;
 import java.sql.Types;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
+import java.util.ServiceLoader;
 
 import javax.sql.DataSource;
 
@@ -41,6 +44,49 @@ import javax.sql.DataSource;
  */
 public abstract class AbstractQueryRunner {
 
+    /**
+     * Binds values without a matching {@link ParameterHandler}.
+     */
+    private static final ParameterHandler<Object> SET_OBJECT = new ParameterHandler<Object>() {
+
+        @Override
+        public void apply(final PreparedStatement stmt, final int parameterIndex, final Object value) throws SQLException {
+            stmt.setObject(parameterIndex, value);
+        }
+
+        @Override
+        public boolean match(final Class<?> valueType) {
+            return true;
+        }
+    };
+
+    /**
+     * The {@link ParameterHandler} implementations found with a ServiceLoader, in classpath order.
+     */
+    private static final List<ParameterHandler<?>> PARAMETER_HANDLERS = new ArrayList<>();
+
+    /**
+     * The {@link ParameterHandler} of each parameter class, resolved once per class.
+     */
+    private static final ClassValue<ParameterHandler<Object>> PARAMETER_HANDLER_BY_CLASS = new ClassValue<ParameterHandler<Object>>() {
+
+        @Override
+        @SuppressWarnings("unchecked")
+        protected ParameterHandler<Object> computeValue(final Class<?> type) {
+            for (final ParameterHandler<?> handler : PARAMETER_HANDLERS) {
+                if (handler.match(type)) {
+                    return (ParameterHandler<Object>) handler;
+                }
+            }
+            return SET_OBJECT;
+        }
+    };
+
+    static {
+        // Use a ServiceLoader to find implementations
+        ServiceLoader.load(ParameterHandler.class).forEach(PARAMETER_HANDLERS::add);
+    }
+
     /**
      * Is {@link ParameterMetaData#getParameterType(int)} broken (have we tried
      * it yet)?
@@ -60,12 +106,40 @@ public abstract class AbstractQueryRunner {
      */
     private final StatementConfiguration stmtConfig;
 
+    /**
+     * Cache of prepared statements, may be null.
+     */
+    private final StatementCache statementCache;
+
+    /**
+     * Cache of parameter metadata by SQL, may be null.
+     */
+    private final ParameterMetaDataCache parameterMetaDataCache;
+
+    /**
+     * The connection of the transaction of the current thread, see
+     * {@link QueryRunner#inTransaction(TransactionCallback)}.
+     */
+    private final ThreadLocal<Connection> transaction = new ThreadLocal<>();
+
+    /**
+     * The deadline of the call the current thread runs.
+     */
+    private final ThreadLocal<Deadline> deadline = new ThreadLocal<>();
+
+    /**
+     * The statement configuration of the call the current thread runs, overriding {@link #stmtConfig}.
+     */
+    private final ThreadLocal<StatementConfiguration> callConfig = new ThreadLocal<>();
+
     /**
      * Default constructor, sets pmdKnownBroken to false, ds to null and stmtConfig to null.
      */
     public AbstractQueryRunner() {
         ds = null;
         this.stmtConfig = null;
+        this.statementCache = null;
+        this.parameterMetaDataCache = null;
     }
 
     /**
@@ -82,6 +156,8 @@ public abstract class AbstractQueryRunner {
         this.pmdKnownBroken = pmdKnownBroken;
         ds = null;
         this.stmtConfig = null;
+        this.statementCache = null;
+        this.parameterMetaDataCache = null;
     }
 
     /**
@@ -95,6 +171,8 @@ public abstract class AbstractQueryRunner {
     public AbstractQueryRunner(final DataSource ds) {
         this.ds = ds;
         this.stmtConfig = null;
+        this.statementCache = null;
+        this.parameterMetaDataCache = null;
     }
 
     /**
@@ -116,6 +194,8 @@ public abstract class AbstractQueryRunner {
         this.pmdKnownBroken = pmdKnownBroken;
         this.ds = ds;
         this.stmtConfig = null;
+        this.statementCache = null;
+        this.parameterMetaDataCache = null;
     }
 
     /**
@@ -133,6 +213,50 @@ public abstract class AbstractQueryRunner {
         this.pmdKnownBroken = pmdKnownBroken;
         this.ds = ds;
         this.stmtConfig = stmtConfig;
+        this.statementCache = null;
+        this.parameterMetaDataCache = null;
+    }
+
+    /**
+     * Constructor for QueryRunner that takes a {@code DataSource}, a {@code StatementConfiguration}, a
+     * {@code StatementCache}, and controls the use of {@code ParameterMetaData}.  Methods that do not take a
+     * {@code Connection} parameter will retrieve connections from this {@code DataSource}.
+     *
+     * @param ds The {@code DataSource} to retrieve connections from, may be null.
+     * @param pmdKnownBroken Some drivers don't support {@link java.sql.ParameterMetaData#getParameterType(int)};
+     * if {@code pmdKnownBroken} is set to true, we won't even try it; if false, we'll try it,
+     * and if it breaks, we'll remember not to use it again.
+     * @param stmtConfig The configuration to apply to statements when they are prepared, may be null.
+     * @param statementCache The cache to reuse prepared statements of caller supplied connections from, may be null.
+     * @since 1.9.0
+     */
+    public AbstractQueryRunner(final DataSource ds, final boolean pmdKnownBroken, final StatementConfiguration stmtConfig,
+            final StatementCache statementCache) {
+        this(ds, pmdKnownBroken, stmtConfig, statementCache, null);
+    }
+
+    /**
+     * Constructor for QueryRunner that takes a {@code DataSource}, a {@code StatementConfiguration}, a
+     * {@code StatementCache}, a {@code ParameterMetaDataCache}, and controls the use of {@code ParameterMetaData}.
+     * Methods that do not take a {@code Connection} parameter will retrieve connections from this
+     * {@code DataSource}.
+     *
+     * @param ds The {@code DataSource} to retrieve connections from, may be null.
+     * @param pmdKnownBroken Some drivers don't support {@link java.sql.ParameterMetaData#getParameterType(int)};
+     * if {@code pmdKnownBroken} is set to true, we won't even try it; if false, we'll try it,
+     * and if it breaks, we'll remember not to use it again.
+     * @param stmtConfig The configuration to apply to statements when they are prepared, may be null.
+     * @param statementCache The cache to reuse prepared statements of caller supplied connections from, may be null.
+     * @param parameterMetaDataCache The cache of parameter metadata by SQL, may be null.
+     * @since 1.9.0
+     */
+    public AbstractQueryRunner(final DataSource ds, final boolean pmdKnownBroken, final StatementConfiguration stmtConfig,
+            final StatementCache statementCache, final ParameterMetaDataCache parameterMetaDataCache) {
+        this.pmdKnownBroken = pmdKnownBroken;
+        this.ds = ds;
+        this.stmtConfig = stmtConfig;
+        this.statementCache = statementCache;
+        this.parameterMetaDataCache = parameterMetaDataCache;
     }
 
     /**
@@ -147,6 +271,8 @@ public abstract class AbstractQueryRunner {
     public AbstractQueryRunner(final DataSource ds, final StatementConfiguration stmtConfig) {
         this.ds = ds;
         this.stmtConfig = stmtConfig;
+        this.statementCache = null;
+        this.parameterMetaDataCache = null;
     }
 
     /**
@@ -158,6 +284,85 @@ public abstract class AbstractQueryRunner {
     public AbstractQueryRunner(final StatementConfiguration stmtConfig) {
         this.ds = null;
         this.stmtConfig = stmtConfig;
+        this.statementCache = null;
+        this.parameterMetaDataCache = null;
+    }
+
+    /**
+     * Finds the properties of a bean class in the given order.
+     *
+     * @param type The bean class.
+     * @param propertyNames The property names.
+     * @return The property descriptors, in the order of {@code propertyNames}.
+     */
+    static PropertyDescriptor[] beanProperties(final Class<?> type, final String... propertyNames) {
+        PropertyDescriptor[] descriptors;
+        try {
+            descriptors = Introspector.getBeanInfo(type).getPropertyDescriptors();
+        } catch (final IntrospectionException e) {
+            throw new IllegalArgumentException("Couldn't introspect bean " + type.toString(), e);
+        }
+        final PropertyDescriptor[] sorted = new PropertyDescriptor[propertyNames.length];
+        for (int i = 0; i < propertyNames.length; i++) {
+            final String propertyName = propertyNames[i];
+            if (propertyName == null) {
+                throw new NullPointerException("propertyName can't be null: " + i);
+            }
+            boolean found = false;
+            for (final PropertyDescriptor descriptor : descriptors) {
+                if (propertyName.equals(descriptor.getName())) {
+                    sorted[i] = descriptor;
+                    found = true;
+                    break;
+                }
+            }
+            if (!found) {
+                throw new IllegalStateException("Couldn't find bean property: " + type + " " + propertyName);
+            }
+        }
+        return sorted;
+    }
+
+    /**
+     * Reads the given properties of a bean.
+     *
+     * @param bean The bean.
+     * @param properties The properties to read.
+     * @return The property values, in the order of {@code properties}.
+     */
+    static Object[] beanValues(final Object bean, final PropertyDescriptor[] properties) {
+        final Object[] params = new Object[properties.length];
+        for (int i = 0; i < properties.length; i++) {
+            final PropertyDescriptor property = properties[i];
+            Object value = null;
+            final Method method = property.getReadMethod();
+            if (method == null) {
+                throw new IllegalArgumentException("No read method for bean property " + bean.getClass() + " " + property.getName());
+            }
+            try {
+                value = method.invoke(bean);
+            } catch (final IllegalArgumentException e) {
+                throw new IllegalArgumentException("Couldn't invoke method with 0 arguments: " + method, e);
+            } catch (final InvocationTargetException | IllegalAccessException e) {
+                throw new IllegalArgumentException("Couldn't invoke method: " + method, e);
+            }
+            params[i] = value;
+        }
+        return params;
+    }
+
+    /**
+     * Gets the result set concurrency of a configuration, read only if not set.
+     */
+    private static int resultSetConcurrency(final StatementConfiguration config) {
+        return config.isResultSetConcurrencySet() ? config.getResultSetConcurrency() : ResultSet.CONCUR_READ_ONLY;
+    }
+
+    /**
+     * Gets the result set type of a configuration, forward only if not set.
+     */
+    private static int resultSetType(final StatementConfiguration config) {
+        return config.isResultSetTypeSet() ? config.getResultSetType() : ResultSet.TYPE_FORWARD_ONLY;
     }
 
     /**
@@ -172,6 +377,9 @@ public abstract class AbstractQueryRunner {
      * @since 1.1
      */
     protected void close(final Connection conn) throws SQLException {
+        if (statementCache != null && conn != null) {
+            statementCache.close(conn);
+        }
         DbUtils.close(conn);
     }
 
@@ -193,7 +401,8 @@ public abstract class AbstractQueryRunner {
     /**
      * Close a {@code Statement}. This implementation avoids closing if
      * null and does <strong>not</strong> suppress any exceptions. Subclasses
-     * can override to provide special handling like logging.
+     * can override to provide special handling like logging. Statements of
+     * the {@link StatementCache} are put back into the cache instead.
      *
      * @param stmt
      *            Statement to close
@@ -202,7 +411,10 @@ public abstract class AbstractQueryRunner {
      * @since 1.1
      */
     protected void close(final Statement stmt) throws SQLException {
-        DbUtils.close(stmt);
+        release(stmt);
+        if (statementCache == null || !statementCache.release(stmt)) {
+            DbUtils.close(stmt);
+        }
     }
 
     /**
@@ -212,6 +424,9 @@ public abstract class AbstractQueryRunner {
      * @since 1.8.0
      */
     protected void closeQuietly(final Connection conn) {
+        if (statementCache != null && conn != null) {
+            statementCache.close(conn);
+        }
         DbUtils.closeQuietly(conn);
     }
 
@@ -226,40 +441,88 @@ public abstract class AbstractQueryRunner {
     }
 
     /**
-     * Calls {@link DbUtils#closeQuietly(Statement)}.
+     * Calls {@link DbUtils#closeQuietly(Statement)}, or puts a statement of
+     * the {@link StatementCache} back into the cache.
      *
      * @param statement ResultSet to close.
      * @since 1.8.0
      */
     protected void closeQuietly(final Statement statement) {
-        DbUtils.closeQuietly(statement);
+        release(statement);
+        if (statementCache == null || !statementCache.release(statement)) {
+            DbUtils.closeQuietly(statement);
+        }
     }
 
-    private void configureStatement(final Statement stmt) throws SQLException {
+    private void configureStatement(final Statement stmt, final String sql) throws SQLException {
+        final StatementConfiguration config = getStatementConfiguration();
 
-        if (stmtConfig != null) {
-            if (stmtConfig.isFetchDirectionSet()) {
-                stmt.setFetchDirection(stmtConfig.getFetchDirection());
+        if (config != null) {
+            if (config.isFetchDirectionSet()) {
+                stmt.setFetchDirection(config.getFetchDirection());
             }
 
-            if (stmtConfig.isFetchSizeSet()) {
-                stmt.setFetchSize(stmtConfig.getFetchSize());
+            if (config.isAdaptiveFetchSizeSet()) {
+                stmt.setFetchSize(config.getAdaptiveFetchSize().getFetchSize(sql));
+            } else if (config.isFetchSizeSet()) {
+                stmt.setFetchSize(config.getFetchSize());
             }
 
-            if (stmtConfig.isMaxFieldSizeSet()) {
-                stmt.setMaxFieldSize(stmtConfig.getMaxFieldSize());
+            if (config.isMaxFieldSizeSet()) {
+                stmt.setMaxFieldSize(config.getMaxFieldSize());
             }
 
-            if (stmtConfig.isMaxRowsSet()) {
-                stmt.setMaxRows(stmtConfig.getMaxRows());
+            if (config.isLargeMaxRowsSet()) {
+                stmt.setLargeMaxRows(config.getLargeMaxRows());
+            } else if (config.isMaxRowsSet()) {
+                stmt.setMaxRows(config.getMaxRows());
             }
 
-            if (stmtConfig.isQueryTimeoutSet()) {
-                stmt.setQueryTimeout(stmtConfig.getQueryTimeout());
+            if (config.isQueryTimeoutSet()) {
+                stmt.setQueryTimeout(config.getQueryTimeout());
+            }
+
+            if (config.isPoolableSet()) {
+                stmt.setPoolable(config.getPoolable());
+            }
+
+            if (config.isEscapeProcessingSet()) {
+                stmt.setEscapeProcessing(config.getEscapeProcessing());
             }
         }
     }
 
+    /**
+     * Creates a {@code Statement} for SQL without parameters, with the
+     * result set options and the configuration of the current call, and the
+     * limits of its deadline.
+     *
+     * @param conn The connection to create the statement with.
+     * @param sql The SQL the statement will execute.
+     * @return A configured {@code Statement}.
+     * @throws SQLException if a database access error occurs
+     */
+    Statement createStatement(final Connection conn, final String sql) throws SQLException {
+        final StatementConfiguration config = getStatementConfiguration();
+        @SuppressWarnings("resource")
+        final Statement stmt;
+        if (config == null || !config.isResultSetTypeSet() && !config.isResultSetConcurrencySet() && !config.isResultSetHoldabilitySet()) {
+            stmt = conn.createStatement();
+        } else if (config.isResultSetHoldabilitySet()) {
+            stmt = conn.createStatement(resultSetType(config), resultSetConcurrency(config), config.getResultSetHoldability());
+        } else {
+            stmt = conn.createStatement(resultSetType(config), resultSetConcurrency(config));
+        }
+        try {
+            configureStatement(stmt, sql);
+            register(stmt);
+        } catch (final SQLException e) {
+            stmt.close();
+            throw e;
+        }
+        return stmt;
+    }
+
     /**
      * Fill the {@code PreparedStatement} replacement parameters with the
      * given objects.
@@ -331,7 +594,7 @@ public abstract class AbstractQueryRunner {
                 if (call != null && params[i] instanceof OutParameter) {
                     ((OutParameter<?>) params[i]).register(call, i + 1);
                 } else {
-                    stmt.setObject(i + 1, params[i]);
+                    setParameter(stmt, i + 1, params[i]);
                 }
             } else {
                 // VARCHAR works with many drivers regardless
@@ -354,6 +617,48 @@ public abstract class AbstractQueryRunner {
         }
     }
 
+    /**
+     * Binds a non-null parameter value. This implementation uses the first
+     * {@link ParameterHandler} found with a {@code ServiceLoader} that matches
+     * the class of the value, such as {@code setInt} for an {@code Integer},
+     * and {@code setObject} for classes no handler matches. Subclasses can
+     * override this method to bind values differently.
+     *
+     * @param stmt The statement to fill.
+     * @param parameterIndex The position of the parameter, a 1-based index.
+     * @param value The value to bind, never null.
+     * @throws SQLException if a database access error occurs
+     * @since 1.9.0
+     */
+    protected void setParameter(final PreparedStatement stmt, final int parameterIndex, final Object value) throws SQLException {
+        PARAMETER_HANDLER_BY_CLASS.get(value.getClass()).apply(stmt, parameterIndex, value);
+    }
+
+    /**
+     * Fill the {@code PreparedStatement} replacement parameters with the given
+     * objects, taking the parameter metadata from the
+     * {@link ParameterMetaDataCache} if the runner has one.
+     *
+     * @param stmt PreparedStatement to fill
+     * @param sql The SQL {@code stmt} was prepared with.
+     * @param params Query replacement parameters; {@code null} is a valid value to pass in.
+     * @throws SQLException if a database access error occurs
+     */
+    void fillStatementForSql(final PreparedStatement stmt, final String sql, final Object... params) throws SQLException {
+        if (parameterMetaDataCache == null) {
+            fillStatement(stmt, params);
+            return;
+        }
+        ParameterMetaData pmd = null;
+        if (!pmdKnownBroken) {
+            pmd = getParameterMetaData(stmt, sql);
+            if (pmd == null) {
+                pmdKnownBroken = true;
+            }
+        }
+        fillStatement(stmt, pmd, params);
+    }
+
     /**
      * Fill the {@code PreparedStatement} replacement parameters with the
      * given object's bean property values.
@@ -370,24 +675,7 @@ public abstract class AbstractQueryRunner {
      */
     public void fillStatementWithBean(final PreparedStatement stmt, final Object bean,
             final PropertyDescriptor[] properties) throws SQLException {
-        final Object[] params = new Object[properties.length];
-        for (int i = 0; i < properties.length; i++) {
-            final PropertyDescriptor property = properties[i];
-            Object value = null;
-            final Method method = property.getReadMethod();
-            if (method == null) {
-                throw new IllegalArgumentException("No read method for bean property " + bean.getClass() + " " + property.getName());
-            }
-            try {
-                value = method.invoke(bean);
-            } catch (final IllegalArgumentException e) {
-                throw new IllegalArgumentException("Couldn't invoke method with 0 arguments: " + method, e);
-            } catch (final InvocationTargetException | IllegalAccessException e) {
-                throw new IllegalArgumentException("Couldn't invoke method: " + method, e);
-            }
-            params[i] = value;
-        }
-        fillStatement(stmt, params);
+        fillStatement(stmt, beanValues(bean, properties));
     }
 
     /**
@@ -407,31 +695,7 @@ public abstract class AbstractQueryRunner {
      */
     public void fillStatementWithBean(final PreparedStatement stmt, final Object bean,
             final String... propertyNames) throws SQLException {
-        PropertyDescriptor[] descriptors;
-        try {
-            descriptors = Introspector.getBeanInfo(bean.getClass()).getPropertyDescriptors();
-        } catch (final IntrospectionException e) {
-            throw new IllegalArgumentException("Couldn't introspect bean " + bean.getClass().toString(), e);
-        }
-        final PropertyDescriptor[] sorted = new PropertyDescriptor[propertyNames.length];
-        for (int i = 0; i < propertyNames.length; i++) {
-            final String propertyName = propertyNames[i];
-            if (propertyName == null) {
-                throw new NullPointerException("propertyName can't be null: " + i);
-            }
-            boolean found = false;
-            for (final PropertyDescriptor descriptor : descriptors) {
-                if (propertyName.equals(descriptor.getName())) {
-                    sorted[i] = descriptor;
-                    found = true;
-                    break;
-                }
-            }
-            if (!found) {
-                throw new IllegalStateException("Couldn't find bean property: " + bean.getClass() + " " + propertyName);
-            }
-        }
-        fillStatementWithBean(stmt, bean, sorted);
+        fillStatement(stmt, BeanParameterPlan.of(bean.getClass(), propertyNames).extract(bean));
     }
 
     /**
@@ -445,6 +709,130 @@ public abstract class AbstractQueryRunner {
         return this.ds;
     }
 
+    /**
+     * Gets the {@code ParameterMetaData} of a statement prepared for the given
+     * SQL, from the {@link ParameterMetaDataCache} if the runner has one.
+     *
+     * @param stmt PreparedStatement of which to query the metadata of parameters
+     * @param sql The SQL {@code stmt} was prepared with.
+     * @return The metadata of parameters, or null if {@code pmdKnownBroken}
+     * @throws SQLException if a database access error occurs
+     */
+    ParameterMetaData getParameterMetaData(final PreparedStatement stmt, final String sql) throws SQLException {
+        if (parameterMetaDataCache == null || pmdKnownBroken) {
+            return getParameterMetaData(stmt);
+        }
+        try {
+            return parameterMetaDataCache.get(sql, stmt);
+        } catch (final SQLFeatureNotSupportedException ex) {
+            pmdKnownBroken = true;
+            return null;
+        }
+    }
+
+    /**
+     * Gets the statement configuration of the call the current thread runs.
+     *
+     * @return The statement configuration of the call if it has one, else the
+     * one of this runner, or null if none was given.
+     */
+    StatementConfiguration getStatementConfiguration() {
+        final StatementConfiguration config = callConfig.get();
+        return config != null ? config : stmtConfig;
+    }
+
+    /**
+     * Gets the cache of parameter metadata.
+     *
+     * @return The cache of parameter metadata, or null if parameter metadata is not cached.
+     * @since 1.9.0
+     */
+    public ParameterMetaDataCache getParameterMetaDataCache() {
+        return parameterMetaDataCache;
+    }
+
+    /**
+     * Gets the cache of prepared statements.
+     *
+     * @return The cache of prepared statements, or null if statements are not cached.
+     * @since 1.9.0
+     */
+    public StatementCache getStatementCache() {
+        return statementCache;
+    }
+
+    /**
+     * Gets the statement configuration bound to the call the current thread runs.
+     *
+     * @return The configuration, null if the call has none of its own.
+     */
+    StatementConfiguration getCallConfiguration() {
+        return callConfig.get();
+    }
+
+    /**
+     * Gets the deadline of the call the current thread runs.
+     *
+     * @return The deadline, null if the call has none.
+     */
+    Deadline getDeadline() {
+        return deadline.get();
+    }
+
+    /**
+     * Gets the connection of the transaction the current thread runs in.
+     *
+     * @return The connection, closing it has no effect; null outside of a transaction.
+     */
+    Connection getTransactionConnection() {
+        return transaction.get();
+    }
+
+    /**
+     * Binds the statement configuration of a call to the current thread, so
+     * that the statements it creates use it instead of the one of this runner.
+     *
+     * @param config The configuration, null to unbind.
+     */
+    void setCallConfiguration(final StatementConfiguration config) {
+        if (config == null) {
+            callConfig.remove();
+        } else {
+            callConfig.set(config);
+        }
+    }
+
+    /**
+     * Binds the deadline of a call to the current thread, so that the
+     * statements it prepares are limited and cancelled by it.
+     *
+     * @param callDeadline The deadline, null to unbind.
+     */
+    void setDeadline(final Deadline callDeadline) {
+        if (callDeadline == null) {
+            deadline.remove();
+        } else {
+            deadline.set(callDeadline);
+        }
+    }
+
+    /**
+     * Binds the connection of a transaction to the current thread, so that
+     * {@link #prepareConnection()} returns it.
+     *
+     * @param conn The connection, closing it must have no effect; null to unbind.
+     */
+    void setTransactionConnection(final Connection conn) {
+        if (conn == null) {
+            transaction.remove();
+            return;
+        }
+        if (statementCache != null) {
+            statementCache.bypass(conn);
+        }
+        transaction.set(conn);
+    }
+
     /**
      * Gets the {@code ParameterMetaData} of the prepared statement, if the {@code pmdKnownBroken}
      * is set to false.
@@ -482,6 +870,39 @@ public abstract class AbstractQueryRunner {
         return pmdKnownBroken;
     }
 
+    /**
+     * Measures the rows read from the results of a query, if the
+     * configuration of the current call learns fetch sizes.
+     *
+     * @param stmt The statement of the query.
+     * @param sql The SQL of the query.
+     * @param resultSet The results.
+     * @return The results, measured by the {@link AdaptiveFetchSize} of the configuration if it has one.
+     * @throws SQLException if a database access error occurs
+     */
+    ResultSet measure(final Statement stmt, final String sql, final ResultSet resultSet) throws SQLException {
+        final StatementConfiguration config = getStatementConfiguration();
+        if (config == null || !config.isAdaptiveFetchSizeSet() || resultSet == null) {
+            return resultSet;
+        }
+        return config.getAdaptiveFetchSize().measure(sql, stmt.getFetchSize(), resultSet);
+    }
+
+    /**
+     * Creates a {@code PreparedStatement} with the result set options of the
+     * configuration of the current call.
+     */
+    private PreparedStatement newPreparedStatement(final Connection conn, final String sql) throws SQLException {
+        final StatementConfiguration config = getStatementConfiguration();
+        if (config == null || !config.isResultSetTypeSet() && !config.isResultSetConcurrencySet() && !config.isResultSetHoldabilitySet()) {
+            return conn.prepareStatement(sql);
+        }
+        if (config.isResultSetHoldabilitySet()) {
+            return conn.prepareStatement(sql, resultSetType(config), resultSetConcurrency(config), config.getResultSetHoldability());
+        }
+        return conn.prepareStatement(sql, resultSetType(config), resultSetConcurrency(config));
+    }
+
     /**
      * Factory method that creates and initializes a
      * {@code CallableStatement} object for the given SQL.
@@ -502,7 +923,14 @@ public abstract class AbstractQueryRunner {
     protected CallableStatement prepareCall(final Connection conn, final String sql)
             throws SQLException {
 
-        return conn.prepareCall(sql);
+        final CallableStatement call = conn.prepareCall(sql);
+        try {
+            register(call);
+        } catch (final SQLException e) {
+            call.close();
+            throw e;
+        }
+        return call;
     }
 
     /**
@@ -510,7 +938,9 @@ public abstract class AbstractQueryRunner {
      * object. {@code QueryRunner} methods always call this method to
      * retrieve connections from its DataSource. Subclasses can override this
      * method to provide special {@code Connection} configuration if
-     * needed. This implementation simply calls {@code ds.getConnection()}.
+     * needed. This implementation calls {@code ds.getConnection()}, or returns
+     * the connection of the transaction the current thread runs in
+     * {@link QueryRunner#inTransaction(TransactionCallback)}.
      *
      * @return An initialized {@code Connection}.
      * @throws SQLException
@@ -518,12 +948,20 @@ public abstract class AbstractQueryRunner {
      * @since 1.1
      */
     protected Connection prepareConnection() throws SQLException {
+        final Connection bound = transaction.get();
+        if (bound != null) {
+            return bound;
+        }
         if (getDataSource() == null) {
             throw new SQLException(
                     "QueryRunner requires a DataSource to be "
                             + "invoked in this way, or a Connection should be passed in");
         }
-        return getDataSource().getConnection();
+        final Connection conn = getDataSource().getConnection();
+        if (statementCache != null) {
+            statementCache.bypass(conn);
+        }
+        return conn;
     }
 
     /**
@@ -532,7 +970,8 @@ public abstract class AbstractQueryRunner {
      * {@code QueryRunner} methods always call this method to prepare
      * statements for them. Subclasses can override this method to provide
      * special PreparedStatement configuration if needed. This implementation
-     * simply calls {@code conn.prepareStatement(sql)}.
+     * simply calls {@code conn.prepareStatement(sql)}, or takes an idle
+     * statement from the {@link StatementCache} if the runner has one.
      *
      * @param conn
      *            The {@code Connection} used to create the
@@ -546,15 +985,29 @@ public abstract class AbstractQueryRunner {
     protected PreparedStatement prepareStatement(final Connection conn, final String sql)
             throws SQLException {
 
+        final boolean cacheable = statementCache != null && deadline.get() == null && callConfig.get() == null;
+        if (cacheable) {
+            final PreparedStatement cached = statementCache.take(conn, sql, StatementCache.NO_RETURNED_KEYS, stmtConfig);
+            if (cached != null) {
+                if (stmtConfig != null && stmtConfig.isAdaptiveFetchSizeSet()) {
+                    cached.setFetchSize(stmtConfig.getAdaptiveFetchSize().getFetchSize(sql));
+                }
+                return cached;
+            }
+        }
         @SuppressWarnings("resource")
         final
-        PreparedStatement ps = conn.prepareStatement(sql);
+        PreparedStatement ps = newPreparedStatement(conn, sql);
         try {
-            configureStatement(ps);
+            configureStatement(ps, sql);
+            register(ps);
         } catch (final SQLException e) {
             ps.close();
             throw e;
         }
+        if (cacheable) {
+            statementCache.lease(conn, sql, StatementCache.NO_RETURNED_KEYS, stmtConfig, ps);
+        }
         return ps;
     }
 
@@ -566,7 +1019,8 @@ public abstract class AbstractQueryRunner {
      * special PreparedStatement configuration if needed. This implementation
      * simply calls {@code conn.prepareStatement(sql, returnedKeys)}
      * which will result in the ability to retrieve the automatically-generated
-     * keys from an auto_increment column.
+     * keys from an auto_increment column, or takes an idle statement from the
+     * {@link StatementCache} if the runner has one.
      *
      * @param conn
      *            The {@code Connection} used to create the
@@ -584,11 +1038,64 @@ public abstract class AbstractQueryRunner {
     protected PreparedStatement prepareStatement(final Connection conn, final String sql, final int returnedKeys)
             throws SQLException {
 
+        final boolean cacheable = statementCache != null && deadline.get() == null && callConfig.get() == null;
+        if (cacheable) {
+            final PreparedStatement cached = statementCache.take(conn, sql, returnedKeys, stmtConfig);
+            if (cached != null) {
+                if (stmtConfig != null && stmtConfig.isAdaptiveFetchSizeSet()) {
+                    cached.setFetchSize(stmtConfig.getAdaptiveFetchSize().getFetchSize(sql));
+                }
+                return cached;
+            }
+        }
         @SuppressWarnings("resource")
         final
         PreparedStatement ps = conn.prepareStatement(sql, returnedKeys);
         try {
-            configureStatement(ps);
+            configureStatement(ps, sql);
+            register(ps);
+        } catch (final SQLException e) {
+            ps.close();
+            throw e;
+        }
+        if (cacheable) {
+            statementCache.lease(conn, sql, returnedKeys, stmtConfig, ps);
+        }
+        return ps;
+    }
+
+    /**
+     * Factory method that creates and initializes a
+     * {@code PreparedStatement} object for the given SQL that returns the
+     * values of the given columns as generated keys. {@code QueryRunner}
+     * methods always call this method to prepare such statements for them.
+     * Subclasses can override this method to provide special
+     * PreparedStatement configuration if needed. This implementation simply
+     * calls {@code conn.prepareStatement(sql, columnNames)}; such statements
+     * are not cached by the {@link StatementCache}.
+     *
+     * @param conn
+     *            The {@code Connection} used to create the
+     *            {@code PreparedStatement}
+     * @param sql
+     *            The SQL statement to prepare.
+     * @param columnNames
+     *            The names of the columns of the generated keys.
+     *
+     * @return An initialized {@code PreparedStatement}.
+     * @throws SQLException
+     *             if a database access error occurs
+     * @since 1.9.0
+     */
+    protected PreparedStatement prepareStatement(final Connection conn, final String sql, final String[] columnNames)
+            throws SQLException {
+
+        @SuppressWarnings("resource")
+        final
+        PreparedStatement ps = conn.prepareStatement(sql, columnNames);
+        try {
+            configureStatement(ps, sql);
+            register(ps);
         } catch (final SQLException e) {
             ps.close();
             throw e;
@@ -596,6 +1103,29 @@ public abstract class AbstractQueryRunner {
         return ps;
     }
 
+    /**
+     * Limits a statement about to run to the deadline of the current call, if any.
+     *
+     * @param stmt The statement.
+     * @throws SQLException if the deadline passed or is cancelled
+     */
+    void register(final Statement stmt) throws SQLException {
+        final Deadline callDeadline = deadline.get();
+        if (callDeadline != null) {
+            callDeadline.register(stmt);
+        }
+    }
+
+    /**
+     * Stops the deadline of the current call, if any, from cancelling a statement that completed.
+     */
+    private void release(final Statement stmt) {
+        final Deadline callDeadline = deadline.get();
+        if (callDeadline != null && stmt != null) {
+            callDeadline.release(stmt);
+        }
+    }
+
     /**
      * Throws a new exception with a more informative error message.
      *
@@ -0,0 +1,460 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.dbutils;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.sql.ResultSet;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Learns a fetch size per SQL string from the results of earlier executions,
+ * so that each round trip to fetch rows takes about a target time and fits a
+ * memory budget. Narrow, fast rows get large fetch sizes; wide or slow rows
+ * get small ones.
+ *
+ * <pre>
+ * AdaptiveFetchSize fetchSizes = new AdaptiveFetchSize.Builder()
+ *     .targetLatency(Duration.ofMillis(20))
+ *     .memoryBudget(4 * 1024 * 1024)
+ *     .build();
+ * QueryRunner runner = new QueryRunner(dataSource, new StatementConfiguration.Builder().adaptiveFetchSize(fetchSizes).build());
+ * ...
+ * fetchSizes.getEstimates().forEach((sql, estimate) -&gt; log.info(sql + ": " + estimate));
+ * </pre>
+ *
+ * <p>
+ * The queries of a {@code QueryRunner} whose {@link StatementConfiguration}
+ * has an {@code AdaptiveFetchSize} get the learned fetch size of their SQL, or
+ * the initial fetch size for SQL not seen yet. While the handler reads the
+ * results, the time spent in {@link ResultSet#next()} and the size of the
+ * values read are measured; when the results are closed, the cost per row is
+ * averaged into the estimate of the SQL and the fetch size moves toward the
+ * number of rows that take the target latency per round trip, and whose
+ * values fit the memory budget. The fetch size changes by at most a factor
+ * of 2 per execution, and does not grow for results smaller than it.
+ * </p>
+ * <p>
+ * The sizes of values are estimates: two bytes per character of strings,
+ * the length of byte arrays, and eight bytes for other values. Estimates
+ * are kept for a bounded number of SQL strings, least recently used first
+ * out. This class is thread safe.
+ * </p>
+ *
+ * @since 1.9.0
+ */
+public class AdaptiveFetchSize {
+
+    /**
+     * Builder class for {@code AdaptiveFetchSize}.
+     */
+    public static final class Builder {
+
+        private int initialFetchSize = DEFAULT_INITIAL_FETCH_SIZE;
+        private int minFetchSize = DEFAULT_MIN_FETCH_SIZE;
+        private int maxFetchSize = DEFAULT_MAX_FETCH_SIZE;
+        private Duration targetLatency = Duration.ofMillis(DEFAULT_TARGET_LATENCY_MILLIS);
+        private long memoryBudget = DEFAULT_MEMORY_BUDGET;
+        private int maxEntries = DEFAULT_MAX_ENTRIES;
+
+        /**
+         * Constructs a new instance.
+         */
+        public Builder() {
+            // empty
+        }
+
+        /**
+         * Builds a new {@link AdaptiveFetchSize}.
+         *
+         * @return A new and configured {@link AdaptiveFetchSize}.
+         */
+        public AdaptiveFetchSize build() {
+            if (minFetchSize > maxFetchSize || initialFetchSize < minFetchSize || initialFetchSize > maxFetchSize) {
+                throw new IllegalArgumentException("Invalid fetch sizes: initial " + initialFetchSize + ", min " + minFetchSize + ", max " + maxFetchSize);
+            }
+            return new AdaptiveFetchSize(this);
+        }
+
+        /**
+         * Sets the fetch size of SQL not seen yet, {@value AdaptiveFetchSize#DEFAULT_INITIAL_FETCH_SIZE} by default.
+         *
+         * @param initialFetchSize The initial fetch size.
+         * @return This builder for chaining.
+         */
+        public Builder initialFetchSize(final int initialFetchSize) {
+            this.initialFetchSize = initialFetchSize;
+            return this;
+        }
+
+        /**
+         * Sets the number of SQL strings to keep estimates for, {@value AdaptiveFetchSize#DEFAULT_MAX_ENTRIES} by default.
+         *
+         * @param maxEntries The number of SQL strings, at least 1.
+         * @return This builder for chaining.
+         */
+        public Builder maxEntries(final int maxEntries) {
+            if (maxEntries < 1) {
+                throw new IllegalArgumentException("maxEntries must be positive: " + maxEntries);
+            }
+            this.maxEntries = maxEntries;
+            return this;
+        }
+
+        /**
+         * Sets the largest fetch size, {@value AdaptiveFetchSize#DEFAULT_MAX_FETCH_SIZE} by default.
+         *
+         * @param maxFetchSize The largest fetch size.
+         * @return This builder for chaining.
+         */
+        public Builder maxFetchSize(final int maxFetchSize) {
+            this.maxFetchSize = maxFetchSize;
+            return this;
+        }
+
+        /**
+         * Sets the estimated bytes of the rows of one round trip not to
+         * exceed, {@value AdaptiveFetchSize#DEFAULT_MEMORY_BUDGET} by default.
+         *
+         * @param memoryBudget The number of bytes per round trip.
+         * @return This builder for chaining.
+         */
+        public Builder memoryBudget(final long memoryBudget) {
+            if (memoryBudget < 1) {
+                throw new IllegalArgumentException("memoryBudget must be positive: " + memoryBudget);
+            }
+            this.memoryBudget = memoryBudget;
+            return this;
+        }
+
+        /**
+         * Sets the smallest fetch size, {@value AdaptiveFetchSize#DEFAULT_MIN_FETCH_SIZE} by default.
+         *
+         * @param minFetchSize The smallest fetch size, at least 1.
+         * @return This builder for chaining.
+         */
+        public Builder minFetchSize(final int minFetchSize) {
+            if (minFetchSize < 1) {
+                throw new IllegalArgumentException("minFetchSize must be positive: " + minFetchSize);
+            }
+            this.minFetchSize = minFetchSize;
+            return this;
+        }
+
+        /**
+         * Sets the time a round trip should take, {@value AdaptiveFetchSize#DEFAULT_TARGET_LATENCY_MILLIS} ms by default.
+         *
+         * @param targetLatency The time per round trip.
+         * @return This builder for chaining.
+         */
+        public Builder targetLatency(final Duration targetLatency) {
+            if (targetLatency.isNegative() || targetLatency.isZero()) {
+                throw new IllegalArgumentException("targetLatency must be positive: " + targetLatency);
+            }
+            this.targetLatency = targetLatency;
+            return this;
+        }
+    }
+
+    /**
+     * The learned values of one SQL string.
+     */
+    public static final class Estimate {
+
+        private final int fetchSize;
+
+        private final double nanosPerRow;
+
+        private final double bytesPerRow;
+
+        private final long executions;
+
+        private Estimate(final int fetchSize, final double nanosPerRow, final double bytesPerRow, final long executions) {
+            this.fetchSize = fetchSize;
+            this.nanosPerRow = nanosPerRow;
+            this.bytesPerRow = bytesPerRow;
+            this.executions = executions;
+        }
+
+        /**
+         * Gets the average estimated size of a row.
+         *
+         * @return The number of bytes per row.
+         */
+        public double getBytesPerRow() {
+            return bytesPerRow;
+        }
+
+        /**
+         * Gets the number of executions measured.
+         *
+         * @return The number of executions.
+         */
+        public long getExecutions() {
+            return executions;
+        }
+
+        /**
+         * Gets the fetch size of the next execution.
+         *
+         * @return The fetch size.
+         */
+        public int getFetchSize() {
+            return fetchSize;
+        }
+
+        /**
+         * Gets the average time to fetch a row.
+         *
+         * @return The time per row in nanoseconds.
+         */
+        public double getNanosPerRow() {
+            return nanosPerRow;
+        }
+
+        /**
+         * Gets the expected time of a round trip with the fetch size.
+         *
+         * @return The time per round trip.
+         */
+        public Duration getRoundTripLatency() {
+            return Duration.ofNanos((long) (nanosPerRow * fetchSize));
+        }
+
+        @Override
+        public String toString() {
+            return "Estimate [fetchSize=" + fetchSize + ", nanosPerRow=" + nanosPerRow + ", bytesPerRow=" + bytesPerRow + ", executions=" + executions
+                    + "]";
+        }
+    }
+
+    /**
+     * The default initial fetch size.
+     */
+    public static final int DEFAULT_INITIAL_FETCH_SIZE = 100;
+
+    /**
+     * The default smallest fetch size.
+     */
+    public static final int DEFAULT_MIN_FETCH_SIZE = 10;
+
+    /**
+     * The default largest fetch size.
+     */
+    public static final int DEFAULT_MAX_FETCH_SIZE = 10_000;
+
+    /**
+     * The default target latency of a round trip in milliseconds.
+     */
+    public static final long DEFAULT_TARGET_LATENCY_MILLIS = 50;
+
+    /**
+     * The default memory budget of a round trip in bytes.
+     */
+    public static final long DEFAULT_MEMORY_BUDGET = 8 * 1024 * 1024;
+
+    /**
+     * The default number of SQL strings to keep estimates for.
+     */
+    public static final int DEFAULT_MAX_ENTRIES = 1024;
+
+    /**
+     * The weight of a new measurement in the averages.
+     */
+    private static final double SMOOTHING = 0.25;
+
+    /**
+     * Calls a method of the measured result set.
+     */
+    private static Object invoke(final ResultSet resultSet, final Method method, final Object[] args) throws Throwable {
+        try {
+            return method.invoke(resultSet, args);
+        } catch (final InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Estimates the size of a value read from a result set.
+     */
+    private static long sizeOf(final Object value) {
+        if (value == null) {
+            return 1;
+        }
+        if (value instanceof String) {
+            return 2L * ((String) value).length();
+        }
+        if (value instanceof byte[]) {
+            return ((byte[]) value).length;
+        }
+        return 8;
+    }
+
+    private final int initialFetchSize;
+
+    private final int minFetchSize;
+
+    private final int maxFetchSize;
+
+    private final long targetLatencyNanos;
+
+    private final long memoryBudget;
+
+    private final int maxEntries;
+
+    /**
+     * Estimates by SQL, least recently used first, guarded by {@code this}.
+     */
+    private final LinkedHashMap<String, Estimate> estimates;
+
+    private AdaptiveFetchSize(final Builder builder) {
+        this.initialFetchSize = builder.initialFetchSize;
+        this.minFetchSize = builder.minFetchSize;
+        this.maxFetchSize = builder.maxFetchSize;
+        this.targetLatencyNanos = builder.targetLatency.toNanos();
+        this.memoryBudget = builder.memoryBudget;
+        this.maxEntries = builder.maxEntries;
+        this.estimates = new LinkedHashMap<String, Estimate>(16, 0.75f, true) {
+
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<String, Estimate> eldest) {
+                return size() > AdaptiveFetchSize.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Removes all estimates.
+     */
+    public synchronized void clear() {
+        estimates.clear();
+    }
+
+    /**
+     * Gets the estimate of a SQL string.
+     *
+     * @param sql The SQL.
+     * @return The estimate, null if no execution of the SQL was measured.
+     */
+    public synchronized Estimate getEstimate(final String sql) {
+        return estimates.get(sql);
+    }
+
+    /**
+     * Gets the estimates of all SQL strings.
+     *
+     * @return A copy of the estimates by SQL, least recently used first.
+     */
+    public synchronized Map<String, Estimate> getEstimates() {
+        return Collections.unmodifiableMap(new LinkedHashMap<>(estimates));
+    }
+
+    /**
+     * Gets the fetch size of the next execution of a SQL string.
+     *
+     * @param sql The SQL.
+     * @return The learned fetch size, or the initial fetch size for SQL not seen yet.
+     */
+    public synchronized int getFetchSize(final String sql) {
+        final Estimate estimate = estimates.get(sql);
+        return estimate != null ? estimate.fetchSize : initialFetchSize;
+    }
+
+    /**
+     * Wraps a result set to measure the rows the handler reads, and records
+     * the measurement when the result set is closed.
+     *
+     * @param sql The SQL of the statement.
+     * @param fetchSize The fetch size of the statement.
+     * @param resultSet The results.
+     * @return The measuring result set.
+     */
+    ResultSet measure(final String sql, final int fetchSize, final ResultSet resultSet) {
+        final long[] counters = new long[3]; // rows, nanos in next(), bytes
+        final boolean[] recorded = new boolean[1];
+        return ProxyFactory.instance().createResultSet((proxy, method, args) -> {
+            final String name = method.getName();
+            if ("next".equals(name)) {
+                final long start = System.nanoTime();
+                final Object hasNext = invoke(resultSet, method, args);
+                counters[1] += System.nanoTime() - start;
+                if (Boolean.TRUE.equals(hasNext)) {
+                    counters[0]++;
+                }
+                return hasNext;
+            }
+            if ("close".equals(name) && !recorded[0]) {
+                recorded[0] = true;
+                record(sql, fetchSize, counters[0], counters[1], counters[2]);
+            }
+            final Object value = invoke(resultSet, method, args);
+            if (args != null && args.length > 0 && name.startsWith("get") && method.getReturnType() != void.class) {
+                counters[2] += sizeOf(value);
+            }
+            return value;
+        });
+    }
+
+    /**
+     * Records a measured execution of a SQL string.
+     *
+     * @param sql The SQL.
+     * @param fetchSize The fetch size of the execution.
+     * @param rows The number of rows read.
+     * @param nanos The time spent fetching the rows.
+     * @param bytes The estimated size of the values read.
+     */
+    synchronized void record(final String sql, final int fetchSize, final long rows, final long nanos, final long bytes) {
+        if (rows == 0) {
+            return;
+        }
+        final double nanosPerRow = Math.max(1, (double) nanos / rows);
+        final double bytesPerRow = Math.max(1, (double) bytes / rows);
+        final Estimate previous = estimates.get(sql);
+        final double averageNanos = previous == null ? nanosPerRow : previous.nanosPerRow + SMOOTHING * (nanosPerRow - previous.nanosPerRow);
+        final double averageBytes = previous == null ? bytesPerRow : previous.bytesPerRow + SMOOTHING * (bytesPerRow - previous.bytesPerRow);
+        final int current = Math.max(fetchSize, 1);
+        double target = Math.min(targetLatencyNanos / averageNanos, memoryBudget / averageBytes);
+        if (rows < current) {
+            // all rows came in one round trip, more would not have helped
+            target = Math.min(target, current);
+        }
+        target = Math.max(current / 2.0, Math.min(current * 2.0, target));
+        final int next = (int) Math.max(minFetchSize, Math.min(maxFetchSize, target));
+        estimates.put(sql, new Estimate(next, averageNanos, averageBytes, previous == null ? 1 : previous.executions + 1));
+    }
+
+    /**
+     * Gets the number of SQL strings with an estimate.
+     *
+     * @return The number of estimates.
+     */
+    public synchronized int size() {
+        return estimates.size();
+    }
+
+    @Override
+    public String toString() {
+        return "AdaptiveFetchSize [initialFetchSize=" + initialFetchSize + ", minFetchSize=" + minFetchSize + ", maxFetchSize=" + maxFetchSize
+                + ", targetLatency=" + Duration.ofNanos(targetLatencyNanos) + ", memoryBudget=" + memoryBudget + ", size=" + size() + "]";
+    }
+}
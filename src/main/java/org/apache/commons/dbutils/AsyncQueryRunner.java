@@ -20,9 +20,16 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.Objects;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import javax.sql.DataSource;
 
@@ -30,6 +37,19 @@ import javax.sql.DataSource;
  * Executes SQL queries with pluggable strategies for handling
  * {@code ResultSet}s.  This class is thread safe.
  *
+ * <p>
+ * The {@code *Async} methods return {@code CompletableFuture}s, so results
+ * can be composed without blocking a thread on {@code Future.get()}. A runner
+ * created by {@link #withVirtualThreads(ExecutorService, QueryRunner)} runs
+ * each of those calls on its own virtual thread on Java 21 and later.
+ * </p>
+ *
+ * <pre>
+ * AsyncQueryRunner runner = AsyncQueryRunner.withVirtualThreads(executorService, new QueryRunner(dataSource));
+ * runner.queryAsync("SELECT name FROM person WHERE id = ?", new ScalarHandler&lt;String&gt;(), id)
+ *     .thenAccept(System.out::println);
+ * </pre>
+ *
  * @see ResultSetHandler
  * @since 1.4
  */
@@ -217,10 +237,48 @@ public class AsyncQueryRunner extends AbstractQueryRunner {
 
     }
 
+    /**
+     * Creates a runner whose {@code *Async} methods go through a
+     * {@link Bulkhead} at {@link Bulkhead#PRIORITY_NORMAL}, which limits the
+     * calls in flight against the {@code DataSource} and rejects calls when
+     * its queue is full. The methods that return a plain {@code Future} run on
+     * the given {@code ExecutorService}.
+     *
+     * @param executorService The {@code ExecutorService} instance used by the methods that return a {@code Future}.
+     * @param queryRunner The {@code QueryRunner} instance to use for the queries.
+     * @param bulkhead The bulkhead of the {@code *Async} methods.
+     * @return A new runner.
+     * @since 1.9.0
+     */
+    public static AsyncQueryRunner withBulkhead(final ExecutorService executorService, final QueryRunner queryRunner, final Bulkhead bulkhead) {
+        return new AsyncQueryRunner(executorService, queryRunner, Objects.requireNonNull(bulkhead, "bulkhead"));
+    }
+
+    /**
+     * Creates a runner whose {@code *Async} methods run each call on a new
+     * virtual thread if the Java runtime supports them, that is, on Java 21
+     * and later. On older runtimes, and for the methods that return a plain
+     * {@code Future}, calls run on the given {@code ExecutorService}.
+     *
+     * @param executorService The {@code ExecutorService} instance used when virtual threads are not available.
+     * @param queryRunner The {@code QueryRunner} instance to use for the queries.
+     * @return A new runner.
+     * @since 1.9.0
+     */
+    public static AsyncQueryRunner withVirtualThreads(final ExecutorService executorService, final QueryRunner queryRunner) {
+        final Executor virtualThreads = VirtualThreads.perTaskExecutor();
+        return new AsyncQueryRunner(executorService, queryRunner, virtualThreads != null ? virtualThreads : executorService);
+    }
+
     private final ExecutorService executorService;
 
     private final QueryRunner queryRunner;
 
+    /**
+     * Runs the calls of the {@code *Async} methods.
+     */
+    private final Executor asyncExecutor;
+
     /**
      * @param pmdKnownBroken Some drivers don't support {@link java.sql.ParameterMetaData#getParameterType(int)};
      * if {@code pmdKnownBroken} is set to true, we won't even try it; if false, we'll try it,
@@ -252,6 +310,7 @@ public class AsyncQueryRunner extends AbstractQueryRunner {
         super(ds, pmdKnownBroken);
         this.executorService = executorService;
         this.queryRunner = new QueryRunner(ds, pmdKnownBroken);
+        this.asyncExecutor = executorService;
     }
 
     /**
@@ -286,8 +345,13 @@ public class AsyncQueryRunner extends AbstractQueryRunner {
      * @since 1.5
      */
     public AsyncQueryRunner(final ExecutorService executorService, final QueryRunner queryRunner) {
+        this(executorService, queryRunner, executorService);
+    }
+
+    private AsyncQueryRunner(final ExecutorService executorService, final QueryRunner queryRunner, final Executor asyncExecutor) {
         this.executorService = executorService;
         this.queryRunner = queryRunner;
+        this.asyncExecutor = asyncExecutor;
     }
 
     /**
@@ -321,6 +385,34 @@ public class AsyncQueryRunner extends AbstractQueryRunner {
         return executorService.submit(() -> queryRunner.batch(sql, params));
     }
 
+    /**
+     * Executes {@link QueryRunner#batch(Connection, String, Object[][])} asynchronously.
+     *
+     * @param conn The {@code Connection} to use to run the query.  The caller is
+     * responsible for closing this Connection.
+     * @param sql The SQL to execute.
+     * @param params An array of query replacement parameters.  Each row in
+     * this array is one set of batch replacement values.
+     * @return A {@code CompletableFuture} of the number of rows updated per statement.
+     * @since 1.9.0
+     */
+    public CompletableFuture<int[]> batchAsync(final Connection conn, final String sql, final Object[][] params) {
+        return supplyAsync(() -> queryRunner.batch(conn, sql, params));
+    }
+
+    /**
+     * Executes {@link QueryRunner#batch(String, Object[][])} asynchronously.
+     *
+     * @param sql The SQL to execute.
+     * @param params An array of query replacement parameters.  Each row in
+     * this array is one set of batch replacement values.
+     * @return A {@code CompletableFuture} of the number of rows updated per statement.
+     * @since 1.9.0
+     */
+    public CompletableFuture<int[]> batchAsync(final String sql, final Object[][] params) {
+        return supplyAsync(() -> queryRunner.batch(sql, params));
+    }
+
     /**
      * Executes {@link QueryRunner#insert(Connection, String, ResultSetHandler)} asynchronously.
      *
@@ -385,6 +477,35 @@ public class AsyncQueryRunner extends AbstractQueryRunner {
         return executorService.submit(() -> queryRunner.insert(sql, rsh, params));
     }
 
+    /**
+     * Executes {@link QueryRunner#insert(Connection, String, ResultSetHandler, Object...)} asynchronously.
+     *
+     * @param <T> Return type expected
+     * @param conn {@link Connection} to use to execute the SQL statement
+     * @param sql SQL insert statement to execute
+     * @param rsh {@link ResultSetHandler} for handling the generated keys
+     * @param params Parameter values for substitution in the SQL statement
+     * @return A {@code CompletableFuture} of the result of the handler.
+     * @since 1.9.0
+     */
+    public <T> CompletableFuture<T> insertAsync(final Connection conn, final String sql, final ResultSetHandler<T> rsh, final Object... params) {
+        return supplyAsync(() -> queryRunner.insert(conn, sql, rsh, params));
+    }
+
+    /**
+     * Executes {@link QueryRunner#insert(String, ResultSetHandler, Object...)} asynchronously.
+     *
+     * @param <T> Return type expected
+     * @param sql SQL insert statement to execute
+     * @param rsh {@link ResultSetHandler} for handling the generated keys
+     * @param params Parameter values for substitution in the SQL statement
+     * @return A {@code CompletableFuture} of the result of the handler.
+     * @since 1.9.0
+     */
+    public <T> CompletableFuture<T> insertAsync(final String sql, final ResultSetHandler<T> rsh, final Object... params) {
+        return supplyAsync(() -> queryRunner.insert(sql, rsh, params));
+    }
+
     /**
      * {@link QueryRunner#insertBatch(Connection, String, ResultSetHandler, Object[][])} asynchronously.
      *
@@ -487,6 +608,144 @@ public class AsyncQueryRunner extends AbstractQueryRunner {
         return executorService.submit(() -> queryRunner.query(sql, rsh, params));
     }
 
+    /**
+     * Executes {@link QueryRunner#query(Connection, String, ResultSetHandler, Object...)} asynchronously.
+     *
+     * @param <T> The type of object that the handler returns
+     * @param conn The connection to execute the query in.
+     * @param sql The query to execute.
+     * @param rsh The handler that converts the results into an object.
+     * @param params The replacement parameters.
+     * @return A {@code CompletableFuture} of the result of the handler.
+     * @since 1.9.0
+     */
+    public <T> CompletableFuture<T> queryAsync(final Connection conn, final String sql, final ResultSetHandler<T> rsh, final Object... params) {
+        return supplyAsync(() -> queryRunner.query(conn, sql, rsh, params));
+    }
+
+    /**
+     * Executes {@link QueryRunner#query(Deadline, String, ResultSetHandler, Object...)} asynchronously.
+     *
+     * <p>
+     * The future fails with a {@code TimeoutException} when the deadline
+     * passes, without waiting for the call. Cancelling the future, or the
+     * deadline passing, cancels the statement with
+     * {@link java.sql.Statement#cancel()}, so that the call releases its
+     * connection as soon as the driver gives up.
+     * </p>
+     *
+     * @param <T> The type of object that the handler returns
+     * @param deadline The deadline of the call.
+     * @param sql The query to execute.
+     * @param rsh The handler that converts the results into an object.
+     * @param params The replacement parameters.
+     * @return A {@code CompletableFuture} of the result of the handler.
+     * @since 1.9.0
+     */
+    public <T> CompletableFuture<T> queryAsync(final Deadline deadline, final String sql, final ResultSetHandler<T> rsh, final Object... params) {
+        return supplyAsync(deadline, () -> queryRunner.query(deadline, sql, rsh, params));
+    }
+
+    /**
+     * Executes {@link QueryRunner#query(String, ResultSetHandler, Object...)} asynchronously.
+     *
+     * @param <T> The type of object that the handler returns
+     * @param sql The query to execute.
+     * @param rsh The handler that converts the results into an object.
+     * @param params The replacement parameters.
+     * @return A {@code CompletableFuture} of the result of the handler.
+     * @since 1.9.0
+     */
+    public <T> CompletableFuture<T> queryAsync(final String sql, final ResultSetHandler<T> rsh, final Object... params) {
+        return supplyAsync(() -> queryRunner.query(sql, rsh, params));
+    }
+
+    /**
+     * Executes {@link QueryRunner#query(String, ResultSetHandler, Object...)}
+     * asynchronously, sharing the execution with identical calls already in
+     * flight.
+     *
+     * @param <T> The type of object that the handler returns
+     * @param coalescer Tracks the queries in flight.
+     * @param sql The query to execute.
+     * @param rsh The handler that converts the results into an object.
+     * @param params The replacement parameters.
+     * @return A {@code CompletableFuture} of a copy of the result of the handler.
+     * @see QueryCoalescer
+     * @since 1.9.0
+     */
+    public <T> CompletableFuture<T> queryCoalescedAsync(final QueryCoalescer coalescer, final String sql, final ResultSetHandler<T> rsh,
+            final Object... params) {
+        return coalescer.executeAsync(queryRunner.getDataSource(), sql, rsh, params, () -> queryAsync(sql, rsh, params));
+    }
+
+    /**
+     * Runs a call on the executor of the {@code *Async} methods. The future
+     * completes exceptionally with the {@code SQLException} of the call, or
+     * with a {@code RejectedExecutionException} if the executor does not
+     * accept the call.
+     *
+     * @param <T> The type of the result.
+     * @param call The call.
+     * @return A {@code CompletableFuture} of the result of the call.
+     */
+    private <T> CompletableFuture<T> supplyAsync(final Callable<T> call) {
+        if (asyncExecutor instanceof Bulkhead) {
+            // Fails the future if the executor rejects the call once it leaves the queue.
+            return ((Bulkhead) asyncExecutor).submit(Bulkhead.PRIORITY_NORMAL, call);
+        }
+        final CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            asyncExecutor.execute(() -> {
+                try {
+                    future.complete(call.call());
+                } catch (final Throwable e) { // NOPMD
+                    future.completeExceptionally(e);
+                }
+            });
+        } catch (final RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /**
+     * Runs a call on the executor of the {@code *Async} methods, and cancels
+     * the deadline of the call if its future is cancelled or times out. The
+     * future fails with a {@code TimeoutException} once the deadline passed,
+     * whether the timer or the call notices it first.
+     *
+     * @param <T> The type of the result.
+     * @param deadline The deadline of the call.
+     * @param call The call.
+     * @return A {@code CompletableFuture} of the result of the call.
+     */
+    private <T> CompletableFuture<T> supplyAsync(final Deadline deadline, final Callable<T> call) {
+        Objects.requireNonNull(deadline, "deadline");
+        if (deadline.isExpired()) {
+            return CompletableFuture.failedFuture(new TimeoutException("Deadline passed"));
+        }
+        final CompletableFuture<T> future = supplyAsync(() -> {
+            try {
+                return call.call();
+            } catch (final SQLException e) {
+                if (!deadline.isExpired()) {
+                    throw e;
+                }
+                final TimeoutException timeout = new TimeoutException("Deadline passed");
+                timeout.initCause(e);
+                throw timeout;
+            }
+        });
+        future.orTimeout(deadline.getRemaining().toNanos(), TimeUnit.NANOSECONDS);
+        future.whenComplete((result, e) -> {
+            if (e instanceof CancellationException || e instanceof TimeoutException) {
+                deadline.cancel();
+            }
+        });
+        return future;
+    }
+
     /**
      * Execute an SQL INSERT, UPDATE, or DELETE query without replacement
      * parameters.
@@ -574,4 +833,54 @@ public class AsyncQueryRunner extends AbstractQueryRunner {
         return executorService.submit(() -> Integer.valueOf(queryRunner.update(sql, params)));
     }
 
+    /**
+     * Executes {@link QueryRunner#update(Connection, String, Object...)} asynchronously.
+     *
+     * @param conn The connection to use to run the query.
+     * @param sql The SQL to execute.
+     * @param params The query replacement parameters.
+     * @return A {@code CompletableFuture} of the number of rows updated.
+     * @since 1.9.0
+     */
+    public CompletableFuture<Integer> updateAsync(final Connection conn, final String sql, final Object... params) {
+        return supplyAsync(() -> Integer.valueOf(queryRunner.update(conn, sql, params)));
+    }
+
+    /**
+     * Executes {@link QueryRunner#update(String, Object...)} asynchronously.
+     *
+     * @param sql The SQL statement to execute.
+     * @param params Initializes the PreparedStatement's IN (i.e. '?')
+     * parameters.
+     * @return A {@code CompletableFuture} of the number of rows updated.
+     * @since 1.9.0
+     */
+    public CompletableFuture<Integer> updateAsync(final String sql, final Object... params) {
+        return supplyAsync(() -> Integer.valueOf(queryRunner.update(sql, params)));
+    }
+
+    /**
+     * Executes {@link QueryRunner#update(Deadline, String, Object...)} asynchronously.
+     *
+     * @param deadline The deadline of the call.
+     * @param sql The SQL to execute.
+     * @param params The replacement parameters.
+     * @return A {@code CompletableFuture} of the number of rows updated.
+     * @see #queryAsync(Deadline, String, ResultSetHandler, Object...)
+     * @since 1.9.0
+     */
+    public CompletableFuture<Integer> updateAsync(final Deadline deadline, final String sql, final Object... params) {
+        return supplyAsync(deadline, () -> Integer.valueOf(queryRunner.update(deadline, sql, params)));
+    }
+
+    /**
+     * Tests whether the {@code *Async} methods run each call on a virtual thread.
+     *
+     * @return Whether the {@code *Async} methods use virtual threads.
+     * @since 1.9.0
+     */
+    public boolean usesVirtualThreads() {
+        return asyncExecutor != executorService && !(asyncExecutor instanceof Bulkhead);
+    }
+
 }
@@ -166,6 +166,11 @@ public class BasicRowProcessor implements RowProcessor {
      */
     private final BeanProcessor convert;
 
+    /**
+     * Canonicalizes column values of arrays and maps, may be null.
+     */
+    private final ValueInterner interner;
+
     /**
      * BasicRowProcessor constructor.  Bean processing defaults to a
      * BeanProcessor instance.
@@ -182,7 +187,42 @@ public class BasicRowProcessor implements RowProcessor {
      * @since 1.1
      */
     public BasicRowProcessor(final BeanProcessor convert) {
+        this(convert, null);
+    }
+
+    /**
+     * BasicRowProcessor constructor that interns the column values of the
+     * arrays and maps it creates.  Beans are interned only if
+     * {@code convert} was created with a {@code ValueInterner} too.
+     *
+     * @param convert The BeanProcessor to use when converting columns to
+     * bean properties.
+     * @param interner The interner for column values, null to disable interning.
+     * @since 1.9.0
+     */
+    public BasicRowProcessor(final BeanProcessor convert, final ValueInterner interner) {
         this.convert = convert;
+        this.interner = interner;
+    }
+
+    /**
+     * Gets the key of a column: its label, else its name, else its index.
+     *
+     * @param rsmd The metadata of the {@code ResultSet}.
+     * @param index The column index, starting at 1.
+     * @return The column key, never null.
+     * @throws SQLException Thrown if a database access error occurs
+     */
+    private static String columnKey(final ResultSetMetaData rsmd, final int index) throws SQLException {
+        String propKey = rsmd.getColumnLabel(index);
+        if (propKey == null || 0 == propKey.length()) {
+          propKey = rsmd.getColumnName(index);
+        }
+        if (propKey == null || 0 == propKey.length()) {
+          // The column index can't be null
+          propKey = Integer.toString(index);
+        }
+        return propKey;
     }
 
     /**
@@ -202,8 +242,14 @@ public class BasicRowProcessor implements RowProcessor {
         final int cols = meta.getColumnCount();
         final Object[] result = new Object[cols];
 
-        for (int i = 0; i < cols; i++) {
-            result[i] = resultSet.getObject(i + 1);
+        if (interner == null) {
+            for (int i = 0; i < cols; i++) {
+                result[i] = resultSet.getObject(i + 1);
+            }
+        } else {
+            for (int i = 0; i < cols; i++) {
+                result[i] = interner.intern(columnKey(meta, i + 1), resultSet.getObject(i + 1));
+            }
         }
 
         return result;
@@ -266,15 +312,9 @@ public class BasicRowProcessor implements RowProcessor {
         final Map<String, Object> result = createCaseInsensitiveHashMap(cols);
 
         for (int i = 1; i <= cols; i++) {
-            String propKey = rsmd.getColumnLabel(i);
-            if (propKey == null || 0 == propKey.length()) {
-              propKey = rsmd.getColumnName(i);
-            }
-            if (propKey == null || 0 == propKey.length()) {
-              // The column index can't be null
-              propKey = Integer.toString(i);
-            }
-            result.put(propKey, resultSet.getObject(i));
+            final String propKey = columnKey(rsmd, i);
+            final Object value = resultSet.getObject(i);
+            result.put(propKey, interner == null ? value : interner.intern(propKey, value));
         }
 
         return result;
@@ -0,0 +1,146 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.dbutils;
+
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A compiled plan that reads an ordered list of properties from beans of one
+ * class into statement parameters. Introspection happens once when the plan
+ * is built; extraction calls a {@code MethodHandle} per property. Plans are
+ * cached per bean class and property list.
+ *
+ * <p>
+ * This class is thread safe.
+ * </p>
+ */
+final class BeanParameterPlan {
+
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+    /**
+     * Plans by bean class, then by property names.
+     */
+    private static final ClassValue<ConcurrentMap<List<String>, BeanParameterPlan>> PLANS = new ClassValue<ConcurrentMap<List<String>, BeanParameterPlan>>() {
+
+        @Override
+        protected ConcurrentMap<List<String>, BeanParameterPlan> computeValue(final Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    /**
+     * Gets the plan of a bean class and property list.
+     *
+     * @param type The bean class.
+     * @param propertyNames The names of the properties to read, in parameter order.
+     * @return The plan, never null.
+     */
+    static BeanParameterPlan of(final Class<?> type, final String... propertyNames) {
+        final ConcurrentMap<List<String>, BeanParameterPlan> plans = PLANS.get(type);
+        final List<String> key = Arrays.asList(propertyNames);
+        final BeanParameterPlan plan = plans.get(key);
+        if (plan != null) {
+            return plan;
+        }
+        // Built outside computeIfAbsent, the property names may be invalid.
+        final BeanParameterPlan created = new BeanParameterPlan(type, AbstractQueryRunner.beanProperties(type, propertyNames));
+        final BeanParameterPlan previous = plans.putIfAbsent(Arrays.asList(propertyNames.clone()), created);
+        return previous != null ? previous : created;
+    }
+
+    private final Class<?> type;
+
+    private final Method[] methods;
+
+    private final MethodHandle[] getters;
+
+    private BeanParameterPlan(final Class<?> type, final PropertyDescriptor[] properties) {
+        this.type = type;
+        this.methods = new Method[properties.length];
+        this.getters = new MethodHandle[properties.length];
+        final MethodHandles.Lookup lookup = MethodHandles.lookup();
+        for (int i = 0; i < properties.length; i++) {
+            final Method method = properties[i].getReadMethod();
+            if (method == null) {
+                throw new IllegalArgumentException("No read method for bean property " + type + " " + properties[i].getName());
+            }
+            methods[i] = method;
+            try {
+                getters[i] = lookup.unreflect(method).asType(GETTER_TYPE);
+            } catch (final IllegalAccessException e) {
+                throw new IllegalArgumentException("Couldn't invoke method: " + method, e);
+            }
+        }
+    }
+
+    /**
+     * Reads the properties of a bean into a new array.
+     *
+     * @param bean The bean, an instance of the plan's class.
+     * @return The property values, in parameter order.
+     */
+    Object[] extract(final Object bean) {
+        final Object[] params = new Object[getters.length];
+        extract(bean, params);
+        return params;
+    }
+
+    /**
+     * Reads the properties of a bean into an existing array.
+     *
+     * @param bean The bean, an instance of the plan's class.
+     * @param params The array to fill, at least {@link #size()} long.
+     */
+    void extract(final Object bean, final Object[] params) {
+        for (int i = 0; i < getters.length; i++) {
+            try {
+                params[i] = (Object) getters[i].invokeExact(bean);
+            } catch (final Error e) {
+                throw e;
+            } catch (final Throwable e) { // NOPMD
+                throw new IllegalArgumentException("Couldn't invoke method: " + methods[i], e);
+            }
+        }
+    }
+
+    /**
+     * Gets the bean class of this plan.
+     *
+     * @return The bean class.
+     */
+    Class<?> getType() {
+        return type;
+    }
+
+    /**
+     * Gets the number of properties read.
+     *
+     * @return The number of properties read.
+     */
+    int size() {
+        return getters.length;
+    }
+}
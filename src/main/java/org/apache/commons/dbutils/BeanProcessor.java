@@ -90,6 +90,11 @@ public class BeanProcessor {
      */
     private final Map<String, String> columnToPropertyOverrides;
 
+    /**
+     * Canonicalizes column values before they are set on beans, may be null.
+     */
+    private final ValueInterner interner;
+
     /**
      * Constructor for BeanProcessor.
      */
@@ -104,10 +109,23 @@ public class BeanProcessor {
      * @since 1.5
      */
     public BeanProcessor(final Map<String, String> columnToPropertyOverrides) {
+        this(columnToPropertyOverrides, null);
+    }
+
+    /**
+     * Constructor for BeanProcessor configured with column to property name overrides
+     * and a {@code ValueInterner} for the values set on bean properties.
+     *
+     * @param columnToPropertyOverrides ResultSet column to bean property name overrides
+     * @param interner The interner for column values, null to disable interning.
+     * @since 1.9.0
+     */
+    public BeanProcessor(final Map<String, String> columnToPropertyOverrides, final ValueInterner interner) {
         if (columnToPropertyOverrides == null) {
             throw new IllegalArgumentException("columnToPropertyOverrides map cannot be null");
         }
         this.columnToPropertyOverrides = columnToPropertyOverrides;
+        this.interner = interner;
     }
 
     /**
@@ -150,6 +168,30 @@ public class BeanProcessor {
         }
     }
 
+    /**
+     * Gets the labels of the columns for interning, or null if this processor
+     * does not intern values.
+     *
+     * @param rsmd The {@code ResultSetMetaData} containing column information.
+     * @return The column labels indexed from 1, or null.
+     * @throws SQLException Thrown if a database access error occurs
+     */
+    private String[] columnLabels(final ResultSetMetaData rsmd) throws SQLException {
+        if (interner == null) {
+            return null;
+        }
+        final int cols = rsmd.getColumnCount();
+        final String[] labels = new String[cols + 1];
+        for (int col = 1; col <= cols; col++) {
+            String columnName = rsmd.getColumnLabel(col);
+            if (columnName == null || 0 == columnName.length()) {
+              columnName = rsmd.getColumnName(col);
+            }
+            labels[col] = columnName;
+        }
+        return labels;
+    }
+
     /**
      * Creates a new object and initializes its fields from the ResultSet.
      *
@@ -158,12 +200,13 @@ public class BeanProcessor {
      * @param type The bean type (the return type of the object).
      * @param props The property descriptors.
      * @param columnToProperty The column indices in the result set.
+     * @param columnLabels The column labels used to intern values, or null.
      * @return An initialized object.
      * @throws SQLException Thrown if a database error occurs.
      */
-    private <T> T createBean(final ResultSet resultSet, final Class<T> type, final PropertyDescriptor[] props, final int[] columnToProperty)
-            throws SQLException {
-        return populateBean(resultSet, this.newInstance(type), props, columnToProperty);
+    private <T> T createBean(final ResultSet resultSet, final Class<T> type, final PropertyDescriptor[] props, final int[] columnToProperty,
+            final String[] columnLabels) throws SQLException {
+        return populateBean(resultSet, this.newInstance(type), props, columnToProperty, columnLabels);
     }
 
     /** Does nothing. */
@@ -326,7 +369,7 @@ public class BeanProcessor {
         final ResultSetMetaData rsmd = resultSet.getMetaData();
         final int[] columnToProperty = mapColumnsToProperties(rsmd, props);
 
-        return populateBean(resultSet, bean, props, columnToProperty);
+        return populateBean(resultSet, bean, props, columnToProperty, columnLabels(rsmd));
     }
 
     /**
@@ -337,11 +380,12 @@ public class BeanProcessor {
      * @param bean The bean to be populated.
      * @param props The property descriptors.
      * @param columnToProperty The column indices in the result set.
+     * @param columnLabels The column labels used to intern values, or null.
      * @return An initialized object.
      * @throws SQLException Thrown if a database error occurs.
      */
     private <T> T populateBean(final ResultSet resultSet, final T bean,
-            final PropertyDescriptor[] props, final int[] columnToProperty)
+            final PropertyDescriptor[] props, final int[] columnToProperty, final String[] columnLabels)
             throws SQLException {
 
         for (int i = 1; i < columnToProperty.length; i++) {
@@ -359,6 +403,8 @@ public class BeanProcessor {
 
                 if (value == null && propType.isPrimitive()) {
                     value = PRIMITIVE_DEFAULTS.get(propType);
+                } else if (columnLabels != null) {
+                    value = interner.intern(columnLabels[i], value);
                 }
             }
 
@@ -510,8 +556,9 @@ public class BeanProcessor {
         final PropertyDescriptor[] props = propertyDescriptors(type);
         final ResultSetMetaData rsmd = resultSet.getMetaData();
         final int[] columnToProperty = mapColumnsToProperties(rsmd, props);
+        final String[] columnLabels = columnLabels(rsmd);
         do {
-            results.add(this.createBean(resultSet, type, props, columnToProperty));
+            results.add(this.createBean(resultSet, type, props, columnToProperty, columnLabels));
         } while (resultSet.next()); // NOPMD False positive CheckResultSet
         return results;
     }
@@ -0,0 +1,400 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.dbutils;
+
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.ParameterMetaData;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.stream.Stream;
+
+/**
+ * Loads a stream of rows with batched statements, without holding more than
+ * one or two batches in memory, unlike {@link QueryRunner#batch(Connection, String, Object[][])}
+ * which needs the whole parameter matrix and sends it as a single batch.
+ *
+ * <pre>
+ * BulkLoader loader = new BulkLoader.Builder()
+ *     .batchSize(5_000)
+ *     .commitInterval(10)
+ *     .progressListener((rows, batches) -&gt; log.info(rows + " rows loaded"))
+ *     .build();
+ * long rows = loader.loadCsv(conn, "INSERT INTO person (id, name) VALUES (?, ?)", channel);
+ * </pre>
+ *
+ * <p>
+ * Rows come from an {@code Iterator<Object[]>}, a {@code Stream} of beans or
+ * a CSV {@code ReadableByteChannel}. Rows are gathered into batches of
+ * {@code batchSize} parameter sets and each batch is executed with
+ * {@code executeBatch}. In double-buffered mode the next batch is read on the
+ * configured {@code Executor} while the current one executes, so parsing and
+ * database round trips overlap; the source is still read by one thread at a
+ * time.
+ * </p>
+ * <p>
+ * With a positive {@code commitInterval} the loader commits every
+ * {@code commitInterval} batches and after the last one. If the connection
+ * was in auto-commit mode it is switched off for the load and restored
+ * afterwards, and on failure the uncommitted batches are rolled back. Without
+ * a commit interval, transactions are left to the caller.
+ * </p>
+ * <p>
+ * This class is thread safe; each load uses its own statement.
+ * </p>
+ *
+ * @since 1.9.0
+ */
+public class BulkLoader {
+
+    /**
+     * Builder class for {@code BulkLoader} for more flexible construction.
+     */
+    public static final class Builder {
+
+        private QueryRunner queryRunner;
+        private int batchSize = DEFAULT_BATCH_SIZE;
+        private int commitInterval;
+        private ProgressListener progressListener;
+        private Executor executor;
+
+        /**
+         * Constructs a new instance.
+         */
+        public Builder() {
+            // empty
+        }
+
+        /**
+         * Sets the number of rows sent in each batch.
+         *
+         * @param batchSize The number of rows sent in each batch, must be positive.
+         * @return This builder for chaining.
+         */
+        public Builder batchSize(final int batchSize) {
+            if (batchSize <= 0) {
+                throw new IllegalArgumentException("batchSize must be positive: " + batchSize);
+            }
+            this.batchSize = batchSize;
+            return this;
+        }
+
+        /**
+         * Builds a new {@link BulkLoader}.
+         *
+         * @return A new and configured {@link BulkLoader}.
+         */
+        public BulkLoader build() {
+            return new BulkLoader(queryRunner != null ? queryRunner : new QueryRunner(), batchSize, commitInterval,
+                    progressListener, executor);
+        }
+
+        /**
+         * Sets the number of batches after which the loader commits.
+         *
+         * @param commitInterval The number of batches per commit, or 0 to leave transactions to the caller.
+         * @return This builder for chaining.
+         */
+        public Builder commitInterval(final int commitInterval) {
+            if (commitInterval < 0) {
+                throw new IllegalArgumentException("commitInterval must not be negative: " + commitInterval);
+            }
+            this.commitInterval = commitInterval;
+            return this;
+        }
+
+        /**
+         * Reads the next batch on the given {@code Executor} while the current
+         * batch executes.
+         *
+         * @param executor The executor that reads ahead, or null to read and execute in turn.
+         * @return This builder for chaining.
+         */
+        public Builder doubleBuffered(final Executor executor) {
+            this.executor = executor;
+            return this;
+        }
+
+        /**
+         * Sets the listener notified after each executed batch.
+         *
+         * @param progressListener The listener, may be null.
+         * @return This builder for chaining.
+         */
+        public Builder progressListener(final ProgressListener progressListener) {
+            this.progressListener = progressListener;
+            return this;
+        }
+
+        /**
+         * Sets the {@code QueryRunner} that prepares and fills the statements,
+         * so its {@link StatementConfiguration} and {@code pmdKnownBroken}
+         * setting apply.
+         *
+         * @param queryRunner The runner, or null for a default {@code QueryRunner}.
+         * @return This builder for chaining.
+         */
+        public Builder queryRunner(final QueryRunner queryRunner) {
+            this.queryRunner = queryRunner;
+            return this;
+        }
+    }
+
+    /**
+     * Notified after each executed batch.
+     */
+    @FunctionalInterface
+    public interface ProgressListener {
+
+        /**
+         * Called after a batch was executed, and committed if the loader commits.
+         *
+         * @param rows The number of rows loaded so far.
+         * @param batches The number of batches executed so far.
+         */
+        void progress(long rows, long batches);
+    }
+
+    /**
+     * The default number of rows sent in each batch.
+     */
+    public static final int DEFAULT_BATCH_SIZE = 1000;
+
+    private static Object[][] join(final CompletableFuture<Object[][]> future) {
+        try {
+            return future.join();
+        } catch (final CompletionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+
+    private final QueryRunner queryRunner;
+
+    private final int batchSize;
+
+    private final int commitInterval;
+
+    private final ProgressListener progressListener;
+
+    private final Executor executor;
+
+    private BulkLoader(final QueryRunner queryRunner, final int batchSize, final int commitInterval,
+            final ProgressListener progressListener, final Executor executor) {
+        this.queryRunner = queryRunner;
+        this.batchSize = batchSize;
+        this.commitInterval = commitInterval;
+        this.progressListener = progressListener;
+        this.executor = executor;
+    }
+
+    /**
+     * Loads rows of parameters.
+     *
+     * @param conn The connection to use.
+     * @param sql The SQL to execute for each row, usually an INSERT.
+     * @param rows The rows of replacement parameters.
+     * @return The number of rows loaded.
+     * @throws SQLException if a database access error occurs or a row cannot be read
+     */
+    public long load(final Connection conn, final String sql, final Iterator<Object[]> rows) throws SQLException {
+        if (conn == null) {
+            throw new SQLException("Null connection");
+        }
+
+        if (sql == null) {
+            throw new SQLException("Null SQL statement");
+        }
+
+        if (rows == null) {
+            throw new SQLException("Null rows");
+        }
+
+        final boolean restoreAutoCommit = commitInterval > 0 && conn.getAutoCommit();
+        if (restoreAutoCommit) {
+            conn.setAutoCommit(false);
+        }
+        PreparedStatement stmt = null;
+        Object[][] chunk = null;
+        CompletableFuture<Object[][]> pending = null;
+        long loaded = 0;
+        long batches = 0;
+        boolean success = false;
+        try {
+            try {
+                stmt = queryRunner.prepareStatement(conn, sql);
+                final ParameterMetaData pmd = queryRunner.getParameterMetaData(stmt, sql);
+                chunk = nextChunk(rows);
+                while (chunk.length > 0) {
+                    if (executor != null) {
+                        pending = CompletableFuture.supplyAsync(() -> nextChunk(rows), executor);
+                    }
+                    for (final Object[] row : chunk) {
+                        queryRunner.fillStatement(stmt, pmd, row);
+                        stmt.addBatch();
+                    }
+                    stmt.executeBatch();
+                    loaded += chunk.length;
+                    batches++;
+                    if (commitInterval > 0 && batches % commitInterval == 0) {
+                        conn.commit();
+                    }
+                    if (progressListener != null) {
+                        progressListener.progress(loaded, batches);
+                    }
+                    chunk = pending != null ? join(pending) : nextChunk(rows);
+                    pending = null;
+                }
+                if (commitInterval > 0 && batches % commitInterval != 0) {
+                    conn.commit();
+                }
+                success = true;
+            } catch (final SQLException e) {
+                queryRunner.rethrow(e, sql, (Object[]) chunk);
+            } catch (final UncheckedIOException e) {
+                throw new SQLException("Cannot read rows after row " + loaded + ": " + e.getCause().getMessage(), e.getCause());
+            } finally {
+                if (pending != null) {
+                    // Never return while the source is still being read.
+                    pending.handle((result, failure) -> null).join();
+                }
+                queryRunner.close(stmt);
+            }
+        } catch (final SQLException | RuntimeException | Error e) {
+            if (restoreAutoCommit) {
+                if (!success) {
+                    DbUtils.rollbackQuietly(conn);
+                }
+                try {
+                    conn.setAutoCommit(true);
+                } catch (final SQLException suppressed) {
+                    e.addSuppressed(suppressed);
+                }
+            }
+            throw e;
+        }
+        if (restoreAutoCommit) {
+            conn.setAutoCommit(true);
+        }
+        return loaded;
+    }
+
+    /**
+     * Loads the properties of beans.
+     *
+     * @param <T> The type of the beans.
+     * @param conn The connection to use.
+     * @param sql The SQL to execute for each bean, usually an INSERT.
+     * @param beans The beans; the stream is not closed.
+     * @param propertyNames The names of the properties bound to the statement parameters, in order.
+     * @return The number of beans loaded.
+     * @throws SQLException if a database access error occurs
+     */
+    public <T> long loadBeans(final Connection conn, final String sql, final Stream<T> beans, final String... propertyNames)
+            throws SQLException {
+        if (beans == null) {
+            throw new SQLException("Null beans");
+        }
+        final Iterator<T> source = beans.iterator();
+        return load(conn, sql, new Iterator<Object[]>() {
+
+            private BeanParameterPlan plan;
+
+            @Override
+            public boolean hasNext() {
+                return source.hasNext();
+            }
+
+            @Override
+            public Object[] next() {
+                final T bean = source.next();
+                if (plan == null || plan.getType() != bean.getClass()) {
+                    plan = BeanParameterPlan.of(bean.getClass(), propertyNames);
+                }
+                return plan.extract(bean);
+            }
+        });
+    }
+
+    /**
+     * Loads a UTF-8 CSV file with a header record and comma delimiters, as
+     * written by {@link org.apache.commons.dbutils.handlers.CsvExportHandler}.
+     *
+     * @param conn The connection to use.
+     * @param sql The SQL to execute for each record, usually an INSERT.
+     * @param csv The CSV content; the channel is not closed.
+     * @return The number of records loaded.
+     * @throws SQLException if a database access error occurs or the CSV cannot be read
+     */
+    public long loadCsv(final Connection conn, final String sql, final ReadableByteChannel csv) throws SQLException {
+        return loadCsv(conn, sql, csv, ',', true, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Loads an RFC 4180 CSV file. Each record binds its fields as String
+     * parameters; an empty unquoted field binds SQL NULL and an empty quoted
+     * field binds the empty String.
+     *
+     * @param conn The connection to use.
+     * @param sql The SQL to execute for each record, usually an INSERT.
+     * @param csv The CSV content; the channel is not closed.
+     * @param delimiter The field delimiter.
+     * @param header Whether the first record is a header to skip.
+     * @param charset The charset of the content.
+     * @return The number of records loaded.
+     * @throws SQLException if a database access error occurs or the CSV cannot be read
+     */
+    public long loadCsv(final Connection conn, final String sql, final ReadableByteChannel csv, final char delimiter,
+            final boolean header, final Charset charset) throws SQLException {
+        if (csv == null) {
+            throw new SQLException("Null CSV channel");
+        }
+        Objects.requireNonNull(charset, "charset");
+        final CsvRowIterator rows;
+        try {
+            rows = new CsvRowIterator(Channels.newReader(csv, charset.newDecoder(), -1), delimiter, header);
+        } catch (final UncheckedIOException e) {
+            throw new SQLException("Cannot read CSV header: " + e.getCause().getMessage(), e.getCause());
+        }
+        return load(conn, sql, rows);
+    }
+
+    private Object[][] nextChunk(final Iterator<Object[]> rows) {
+        final Object[][] chunk = new Object[batchSize][];
+        int count = 0;
+        while (count < batchSize && rows.hasNext()) {
+            chunk[count++] = rows.next();
+        }
+        return count == batchSize ? chunk : Arrays.copyOf(chunk, count);
+    }
+}
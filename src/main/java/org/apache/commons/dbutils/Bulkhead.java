@@ -0,0 +1,429 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.dbutils;
+
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Limits the number of JDBC calls in flight against a {@code DataSource}.
+ * Calls beyond the limit wait in a bounded queue, highest priority first and
+ * in submission order within a priority; calls beyond the queue are rejected
+ * at once instead of piling up in front of an exhausted connection pool.
+ * Admitted calls run on the given {@code Executor}, so no thread waits while
+ * a call is queued.
+ *
+ * <pre>
+ * Bulkhead bulkhead = new Bulkhead(executorService, 20, 200);
+ * AsyncQueryRunner runner = AsyncQueryRunner.withBulkhead(executorService, new QueryRunner(dataSource), bulkhead);
+ * runner.queryAsync(sql, handler, id);
+ * // or, with an explicit priority
+ * bulkhead.submit(Bulkhead.PRIORITY_HIGH, () -&gt; queryRunner.query(sql, handler, id));
+ * </pre>
+ *
+ * <p>
+ * The bulkhead counts queue and execution times and rejections. This class
+ * is thread safe.
+ * </p>
+ *
+ * @since 1.9.0
+ */
+public class Bulkhead implements Executor {
+
+    /**
+     * A queued call.
+     */
+    private static final class Entry implements Comparable<Entry> {
+
+        private final Runnable task;
+
+        /**
+         * The future of the call, failed if the executor rejects the call, may be null.
+         */
+        private final CompletableFuture<?> future;
+
+        private final int priority;
+
+        private final long sequence;
+
+        private final long enqueuedNanos;
+
+        private Entry(final Runnable task, final CompletableFuture<?> future, final int priority, final long sequence) {
+            this.task = task;
+            this.future = future;
+            this.priority = priority;
+            this.sequence = sequence;
+            this.enqueuedNanos = System.nanoTime();
+        }
+
+        @Override
+        public int compareTo(final Entry other) {
+            final int result = Integer.compare(other.priority, priority);
+            return result != 0 ? result : Long.compare(sequence, other.sequence);
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            return this == obj;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(sequence);
+        }
+    }
+
+    /**
+     * A call submitted with a future, which is completed only once the
+     * bulkhead has accounted for the call, so that callers waiting on the
+     * future see up to date counters.
+     *
+     * @param <T> The type of the result.
+     */
+    private static final class Submission<T> implements Runnable {
+
+        private final Callable<T> call;
+
+        private final CompletableFuture<T> future;
+
+        private T result;
+
+        private Throwable failure;
+
+        private Submission(final Callable<T> call, final CompletableFuture<T> future) {
+            this.call = call;
+            this.future = future;
+        }
+
+        private void complete() {
+            if (failure != null) {
+                future.completeExceptionally(failure);
+            } else {
+                future.complete(result);
+            }
+        }
+
+        @Override
+        public void run() {
+            if (future.isDone()) {
+                // Cancelled while queued.
+                return;
+            }
+            try {
+                result = call.call();
+            } catch (final Throwable e) { // NOPMD
+                failure = e;
+            }
+        }
+    }
+
+    /**
+     * The priority of calls made through {@link #execute(Runnable)}.
+     */
+    public static final int PRIORITY_NORMAL = 0;
+
+    /**
+     * A priority above normal, for calls that should overtake queued ones.
+     */
+    public static final int PRIORITY_HIGH = 10;
+
+    /**
+     * A priority below normal, for background work.
+     */
+    public static final int PRIORITY_LOW = -10;
+
+    private static void max(final AtomicLong max, final long value) {
+        max.accumulateAndGet(value, Math::max);
+    }
+
+    private final Executor executor;
+
+    private final int maxConcurrent;
+
+    private final int maxQueued;
+
+    /**
+     * Guarded by {@code this}.
+     */
+    private final PriorityQueue<Entry> queue = new PriorityQueue<>();
+
+    /**
+     * Guarded by {@code this}.
+     */
+    private int inFlight;
+
+    /**
+     * Guarded by {@code this}.
+     */
+    private long sequence;
+
+    private final LongAdder completed = new LongAdder();
+
+    private final LongAdder rejected = new LongAdder();
+
+    private final LongAdder queueNanos = new LongAdder();
+
+    private final AtomicLong maxQueueNanos = new AtomicLong();
+
+    private final LongAdder executionNanos = new LongAdder();
+
+    private final AtomicLong maxExecutionNanos = new AtomicLong();
+
+    /**
+     * Creates a new bulkhead.
+     *
+     * @param executor The executor that runs admitted calls.
+     * @param maxConcurrent The maximum number of calls in flight, at least 1.
+     * @param maxQueued The maximum number of waiting calls, 0 to reject all calls beyond {@code maxConcurrent}.
+     */
+    public Bulkhead(final Executor executor, final int maxConcurrent, final int maxQueued) {
+        if (maxConcurrent < 1) {
+            throw new IllegalArgumentException("maxConcurrent must be positive: " + maxConcurrent);
+        }
+        if (maxQueued < 0) {
+            throw new IllegalArgumentException("maxQueued must not be negative: " + maxQueued);
+        }
+        this.executor = Objects.requireNonNull(executor, "executor");
+        this.maxConcurrent = maxConcurrent;
+        this.maxQueued = maxQueued;
+    }
+
+    /**
+     * Hands a call to the executor.
+     *
+     * @param entry The call.
+     * @throws RejectedExecutionException if the executor rejects the call.
+     */
+    private void dispatch(final Entry entry) {
+        final long startNanos = System.nanoTime();
+        final long waited = startNanos - entry.enqueuedNanos;
+        queueNanos.add(waited);
+        max(maxQueueNanos, waited);
+        try {
+            executor.execute(() -> {
+                final long runNanos = System.nanoTime();
+                try {
+                    entry.task.run();
+                } finally {
+                    final long ran = System.nanoTime() - runNanos;
+                    executionNanos.add(ran);
+                    max(maxExecutionNanos, ran);
+                    completed.increment();
+                    release();
+                    if (entry.task instanceof Submission) {
+                        ((Submission<?>) entry.task).complete();
+                    }
+                }
+            });
+        } catch (final RuntimeException e) {
+            release();
+            throw e;
+        }
+    }
+
+    /**
+     * Runs a task at {@link #PRIORITY_NORMAL}.
+     *
+     * @param task The task.
+     * @throws RejectedExecutionException if the queue is full.
+     */
+    @Override
+    public void execute(final Runnable task) {
+        execute(PRIORITY_NORMAL, task);
+    }
+
+    /**
+     * Runs a task at a priority. A queued task that the executor rejects
+     * once it leaves the queue is dropped and counted as rejected; use
+     * {@link #submit(int, Callable)} to have such calls fail their future.
+     *
+     * @param priority The priority, higher runs first.
+     * @param task The task.
+     * @throws RejectedExecutionException if the queue is full.
+     */
+    public void execute(final int priority, final Runnable task) {
+        execute(priority, task, null);
+    }
+
+    private void execute(final int priority, final Runnable task, final CompletableFuture<?> future) {
+        Objects.requireNonNull(task, "task");
+        final Entry entry;
+        synchronized (this) {
+            entry = new Entry(task, future, priority, sequence++);
+            if (inFlight >= maxConcurrent) {
+                if (queue.size() >= maxQueued) {
+                    rejected.increment();
+                    throw new RejectedExecutionException("Bulkhead full: " + inFlight + " in flight, " + queue.size() + " queued");
+                }
+                queue.add(entry);
+                return;
+            }
+            inFlight++;
+        }
+        dispatch(entry);
+    }
+
+    /**
+     * Gets the number of calls that have completed, normally or not.
+     *
+     * @return The number of completed calls.
+     */
+    public long getCompletedCount() {
+        return completed.sum();
+    }
+
+    /**
+     * Gets the total time completed and running calls spent executing.
+     *
+     * @return The total execution time, in nanoseconds.
+     */
+    public long getExecutionTimeNanos() {
+        return executionNanos.sum();
+    }
+
+    /**
+     * Gets the number of calls in flight.
+     *
+     * @return The number of calls in flight.
+     */
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    /**
+     * Gets the maximum number of calls in flight.
+     *
+     * @return The maximum number of calls in flight.
+     */
+    public int getMaxConcurrent() {
+        return maxConcurrent;
+    }
+
+    /**
+     * Gets the longest time a call spent executing.
+     *
+     * @return The longest execution time, in nanoseconds.
+     */
+    public long getMaxExecutionTimeNanos() {
+        return maxExecutionNanos.get();
+    }
+
+    /**
+     * Gets the maximum number of waiting calls.
+     *
+     * @return The maximum number of waiting calls.
+     */
+    public int getMaxQueued() {
+        return maxQueued;
+    }
+
+    /**
+     * Gets the longest time a call waited in the queue.
+     *
+     * @return The longest queue time, in nanoseconds.
+     */
+    public long getMaxQueueTimeNanos() {
+        return maxQueueNanos.get();
+    }
+
+    /**
+     * Gets the number of waiting calls.
+     *
+     * @return The number of waiting calls.
+     */
+    public synchronized int getQueued() {
+        return queue.size();
+    }
+
+    /**
+     * Gets the total time admitted calls spent waiting in the queue.
+     *
+     * @return The total queue time, in nanoseconds.
+     */
+    public long getQueueTimeNanos() {
+        return queueNanos.sum();
+    }
+
+    /**
+     * Gets the number of calls rejected because the queue was full or
+     * because the executor did not accept them.
+     *
+     * @return The number of rejected calls.
+     */
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    /**
+     * Frees the slot of a finished call and admits the next queued one.
+     */
+    private void release() {
+        Entry next;
+        synchronized (this) {
+            next = queue.poll();
+            if (next == null) {
+                inFlight--;
+                return;
+            }
+        }
+        // The slot passes to the next call.
+        try {
+            dispatch(next);
+        } catch (final RuntimeException e) {
+            // The executor rejected a queued call; dispatch released its slot.
+            rejected.increment();
+            if (next.future != null) {
+                next.future.completeExceptionally(e);
+            }
+        }
+    }
+
+    /**
+     * Submits a call at a priority. The future completes exceptionally with
+     * the exception of the call, or with a {@code RejectedExecutionException}
+     * if the queue is full.
+     *
+     * @param <T> The type of the result.
+     * @param priority The priority, higher runs first.
+     * @param call The call.
+     * @return A {@code CompletableFuture} of the result of the call.
+     */
+    public <T> CompletableFuture<T> submit(final int priority, final Callable<T> call) {
+        Objects.requireNonNull(call, "call");
+        final CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            execute(priority, new Submission<>(call, future), future);
+        } catch (final RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    @Override
+    public String toString() {
+        synchronized (this) {
+            return "Bulkhead [inFlight=" + inFlight + ", queued=" + queue.size() + ", maxConcurrent=" + maxConcurrent + ", maxQueued=" + maxQueued
+                    + ", rejected=" + rejected.sum() + "]";
+        }
+    }
+}
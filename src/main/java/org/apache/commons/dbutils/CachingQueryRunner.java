@@ -0,0 +1,224 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.dbutils;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Objects;
+
+import javax.sql.DataSource;
+
+/**
+ * A {@code QueryRunner} that caches the results of queries run on its
+ * {@code DataSource} in a {@link QueryResultCache}, and removes the cached
+ * results of the tables its writes touch.
+ *
+ * <p>
+ * The {@code query} methods that retrieve a connection from the
+ * {@code DataSource} use the cache; those given a {@code Connection}, or
+ * running in {@link #inTransaction(TransactionCallback)}, never do, since
+ * they may see uncommitted changes of their transaction. Queries with a
+ * per-call {@code StatementConfiguration} bypass the cache too, since a
+ * limit such as {@code maxRows} changes their result. All
+ * {@code update}, {@code insert}, {@code batch} and {@code execute} methods
+ * invalidate once the statement completes, whether the connection is the
+ * caller's or not. A write in a caller's transaction therefore invalidates
+ * before it commits; a query of another thread that reads the old rows
+ * between the write and the commit is cached until its entry expires, so
+ * set a time to live when writes run in explicit transactions.
+ * </p>
+ *
+ * @see QueryResultCache
+ * @since 1.9.0
+ */
+public class CachingQueryRunner extends QueryRunner {
+
+    private final QueryResultCache cache;
+
+    /**
+     * Constructs a runner that takes connections from a {@code DataSource}.
+     *
+     * @param ds The {@code DataSource} to retrieve connections from.
+     * @param cache The cache of query results.
+     */
+    public CachingQueryRunner(final DataSource ds, final QueryResultCache cache) {
+        super(ds);
+        this.cache = Objects.requireNonNull(cache, "cache");
+    }
+
+    /**
+     * Constructs a runner that takes a {@code DataSource}, a {@code StatementConfiguration}, a
+     * {@code StatementCache}, a {@code ParameterMetaDataCache}, and controls the use of {@code ParameterMetaData}.
+     *
+     * @param ds The {@code DataSource} to retrieve connections from, may be null.
+     * @param pmdKnownBroken Some drivers don't support {@link java.sql.ParameterMetaData#getParameterType(int)};
+     * if {@code pmdKnownBroken} is set to true, we won't even try it; if false, we'll try it,
+     * and if it breaks, we'll remember not to use it again.
+     * @param stmtConfig The configuration to apply to statements when they are prepared, may be null.
+     * @param statementCache The cache to reuse prepared statements of caller supplied connections from, may be null.
+     * @param parameterMetaDataCache The cache of parameter metadata by SQL, may be null.
+     * @param cache The cache of query results.
+     */
+    public CachingQueryRunner(final DataSource ds, final boolean pmdKnownBroken, final StatementConfiguration stmtConfig,
+            final StatementCache statementCache, final ParameterMetaDataCache parameterMetaDataCache, final QueryResultCache cache) {
+        super(ds, pmdKnownBroken, stmtConfig, statementCache, parameterMetaDataCache);
+        this.cache = Objects.requireNonNull(cache, "cache");
+    }
+
+    /**
+     * Constructs a runner that takes connections from a {@code DataSource} and configures statements.
+     *
+     * @param ds The {@code DataSource} to retrieve connections from.
+     * @param stmtConfig The configuration to apply to statements when they are prepared.
+     * @param cache The cache of query results.
+     */
+    public CachingQueryRunner(final DataSource ds, final StatementConfiguration stmtConfig, final QueryResultCache cache) {
+        super(ds, stmtConfig);
+        this.cache = Objects.requireNonNull(cache, "cache");
+    }
+
+    /**
+     * Runs a batch, then invalidates the tables it writes.
+     */
+    @Override
+    public int[] batch(final Connection conn, final String sql, final Iterable<?> beans, final String... propertyNames) throws SQLException {
+        try {
+            return super.batch(conn, sql, beans, propertyNames);
+        } finally {
+            invalidate(sql);
+        }
+    }
+
+    /**
+     * Runs a batch, then invalidates the tables it writes.
+     */
+    @Override
+    public int[] batch(final Connection conn, final String sql, final Object[][] params) throws SQLException {
+        try {
+            return super.batch(conn, sql, params);
+        } finally {
+            invalidate(sql);
+        }
+    }
+
+    /**
+     * Runs a statement, then invalidates the tables it writes.
+     */
+    @Override
+    public int execute(final Connection conn, final String sql, final Object... params) throws SQLException {
+        try {
+            return super.execute(conn, sql, params);
+        } finally {
+            invalidate(sql);
+        }
+    }
+
+    /**
+     * Runs a statement, then invalidates the tables it writes.
+     */
+    @Override
+    public <T> List<T> execute(final Connection conn, final String sql, final ResultSetHandler<T> rsh, final Object... params) throws SQLException {
+        try {
+            return super.execute(conn, sql, rsh, params);
+        } finally {
+            invalidate(sql);
+        }
+    }
+
+    /**
+     * Gets the cache of query results.
+     *
+     * @return The cache.
+     */
+    public QueryResultCache getQueryResultCache() {
+        return cache;
+    }
+
+    /**
+     * Runs an INSERT, then invalidates the tables it writes.
+     */
+    @Override
+    public <T> T insert(final Connection conn, final String sql, final ResultSetHandler<T> rsh, final Object... params) throws SQLException {
+        try {
+            return super.insert(conn, sql, rsh, params);
+        } finally {
+            invalidate(sql);
+        }
+    }
+
+    /**
+     * Runs a batch of INSERTs, then invalidates the tables it writes.
+     */
+    @Override
+    public <T> T insertBatch(final Connection conn, final String sql, final ResultSetHandler<T> rsh, final Object[][] params) throws SQLException {
+        try {
+            return super.insertBatch(conn, sql, rsh, params);
+        } finally {
+            invalidate(sql);
+        }
+    }
+
+    /**
+     * Runs a batch of INSERTs, then invalidates the tables it writes.
+     */
+    @Override
+    public long[] insertBatchKeys(final Connection conn, final String sql, final String[] keyColumns, final Object[][] params) throws SQLException {
+        try {
+            return super.insertBatchKeys(conn, sql, keyColumns, params);
+        } finally {
+            invalidate(sql);
+        }
+    }
+
+    private void invalidate(final String sql) {
+        if (sql != null) {
+            cache.invalidate(sql);
+        }
+    }
+
+    /**
+     * Returns the cached result of the query, or runs it and caches the result.
+     */
+    @Override
+    public <T> T query(final String sql, final ResultSetHandler<T> rsh) throws SQLException {
+        return query(sql, rsh, (Object[]) null);
+    }
+
+    /**
+     * Returns the cached result of the query, or runs it and caches the result.
+     */
+    @Override
+    public <T> T query(final String sql, final ResultSetHandler<T> rsh, final Object... params) throws SQLException {
+        if (sql == null || rsh == null || getTransactionConnection() != null || getCallConfiguration() != null) {
+            return super.query(sql, rsh, params);
+        }
+        return cache.query(getDataSource(), sql, rsh, params, () -> super.query(sql, rsh, params));
+    }
+
+    /**
+     * Runs an UPDATE, INSERT or DELETE, then invalidates the tables it writes.
+     */
+    @Override
+    public int update(final Connection conn, final String sql, final Object... params) throws SQLException {
+        try {
+            return super.update(conn, sql, params);
+        } finally {
+            invalidate(sql);
+        }
+    }
+}
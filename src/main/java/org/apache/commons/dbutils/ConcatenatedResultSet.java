@@ -0,0 +1,106 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.dbutils;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Presents several forward-only {@code ResultSet}s of the same columns as one,
+ * row after row. Calls other than {@code next()} and {@code close()} go to the
+ * current {@code ResultSet}.
+ *
+ * <pre>
+ * ResultSet keys = ConcatenatedResultSet.concatenate(first.getGeneratedKeys(), second.getGeneratedKeys());
+ * </pre>
+ *
+ * <p>
+ * This class is not thread safe.
+ * </p>
+ */
+final class ConcatenatedResultSet implements InvocationHandler {
+
+    /**
+     * Concatenates {@code ResultSet}s.
+     *
+     * @param resultSets The {@code ResultSet}s, at least one, with the same columns.
+     * @return A {@code ResultSet} that closes all of them when closed.
+     */
+    static ResultSet concatenate(final ResultSet... resultSets) {
+        return resultSets.length == 1 ? resultSets[0] : ProxyFactory.instance().createResultSet(new ConcatenatedResultSet(resultSets));
+    }
+
+    private final ResultSet[] resultSets;
+
+    private int current;
+
+    private ConcatenatedResultSet(final ResultSet[] resultSets) {
+        this.resultSets = resultSets.clone();
+    }
+
+    private void close() throws SQLException {
+        SQLException failure = null;
+        for (final ResultSet resultSet : resultSets) {
+            try {
+                resultSet.close();
+            } catch (final SQLException e) {
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.setNextException(e);
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    @Override
+    public Object invoke(final Object proxy, final Method method, final Object[] args) throws Throwable {
+        switch (method.getName()) {
+        case "next":
+            return Boolean.valueOf(next());
+        case "close":
+            close();
+            return null;
+        case "equals":
+            return Boolean.valueOf(proxy == args[0]);
+        case "hashCode":
+            return Integer.valueOf(System.identityHashCode(proxy));
+        default:
+            try {
+                return method.invoke(resultSets[current], args);
+            } catch (final InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    private boolean next() throws SQLException {
+        while (!resultSets[current].next()) {
+            if (current == resultSets.length - 1) {
+                return false;
+            }
+            current++;
+        }
+        return true;
+    }
+}
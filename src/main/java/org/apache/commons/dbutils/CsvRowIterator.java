@@ -0,0 +1,171 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.dbutils;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Reads RFC 4180 records from a {@code Reader}, one {@code Object[]} of
+ * Strings per record. An empty unquoted field is read as {@code null} and an
+ * empty quoted field as the empty String, the way
+ * {@link org.apache.commons.dbutils.handlers.CsvExportHandler} writes them.
+ *
+ * <p>
+ * I/O errors are thrown as {@code UncheckedIOException}. This class is not
+ * thread safe.
+ * </p>
+ */
+final class CsvRowIterator implements Iterator<Object[]> {
+
+    private static final int EOF = -1;
+
+    /**
+     * Marks that no character was pushed back.
+     */
+    private static final int NONE = -2;
+
+    private final Reader reader;
+
+    private final char delimiter;
+
+    private final char[] buffer = new char[8192];
+
+    private int position;
+
+    private int limit;
+
+    private int pushedBack = NONE;
+
+    private final StringBuilder field = new StringBuilder();
+
+    private final List<Object> fields = new ArrayList<>();
+
+    private Object[] next;
+
+    private long records;
+
+    /**
+     * Creates a new iterator.
+     *
+     * @param reader The reader to read from.
+     * @param delimiter The field delimiter.
+     * @param header Whether the first record is a header to skip.
+     */
+    CsvRowIterator(final Reader reader, final char delimiter, final boolean header) {
+        if (delimiter == '"' || delimiter == '\r' || delimiter == '\n') {
+            throw new IllegalArgumentException("Invalid delimiter: " + delimiter);
+        }
+        this.reader = reader;
+        this.delimiter = delimiter;
+        if (header && hasNext()) {
+            next();
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null) {
+            try {
+                next = readRecord();
+            } catch (final IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return next != null;
+    }
+
+    @Override
+    public Object[] next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        final Object[] row = next;
+        next = null;
+        return row;
+    }
+
+    private int read() throws IOException {
+        if (pushedBack != NONE) {
+            final int c = pushedBack;
+            pushedBack = NONE;
+            return c;
+        }
+        if (position == limit) {
+            limit = reader.read(buffer);
+            position = 0;
+            if (limit <= 0) {
+                limit = 0;
+                return EOF;
+            }
+        }
+        return buffer[position++];
+    }
+
+    private Object[] readRecord() throws IOException {
+        int c = read();
+        if (c == EOF) {
+            return null;
+        }
+        records++;
+        fields.clear();
+        while (true) {
+            field.setLength(0);
+            if (c == '"') {
+                while (true) {
+                    c = read();
+                    if (c == EOF) {
+                        throw new IOException("Unterminated quoted field in record " + records);
+                    }
+                    if (c == '"') {
+                        c = read();
+                        if (c != '"') {
+                            break;
+                        }
+                    }
+                    field.append((char) c);
+                }
+                if (c != delimiter && c != '\r' && c != '\n' && c != EOF) {
+                    throw new IOException("Unexpected character after quoted field in record " + records + ": " + (char) c);
+                }
+                fields.add(field.toString());
+            } else {
+                while (c != delimiter && c != '\r' && c != '\n' && c != EOF) {
+                    field.append((char) c);
+                    c = read();
+                }
+                fields.add(field.length() == 0 ? null : field.toString());
+            }
+            if (c == delimiter) {
+                c = read();
+                continue;
+            }
+            if (c == '\r') {
+                c = read();
+                if (c != '\n') {
+                    pushedBack = c;
+                }
+            }
+            return fields.toArray();
+        }
+    }
+}
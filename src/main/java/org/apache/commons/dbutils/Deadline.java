@@ -0,0 +1,177 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.dbutils;
+
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A point in time by which a call must complete, which can also be
+ * cancelled early from another thread.
+ *
+ * <pre>
+ * Deadline deadline = Deadline.after(Duration.ofSeconds(2));
+ * List&lt;Order&gt; orders = runner.query(deadline, sql, handler, customerId);
+ * // or, asynchronously; cancelling the future cancels the statement
+ * CompletableFuture&lt;List&lt;Order&gt;&gt; future = asyncRunner.queryAsync(deadline, sql, handler, customerId);
+ * </pre>
+ *
+ * <p>
+ * The statements a {@code QueryRunner} prepares under a deadline get a
+ * query timeout of the time remaining, rounded up to whole seconds, and are
+ * cancelled with {@link Statement#cancel()} by {@link #cancel()}, also while
+ * their results are being handled. A call that starts after its deadline
+ * fails with a {@link SQLTimeoutException} without taking a connection. This
+ * class is thread safe.
+ * </p>
+ *
+ * @since 1.9.0
+ */
+public final class Deadline {
+
+    /**
+     * The SQLState of calls failing because their deadline is cancelled.
+     */
+    public static final String SQL_STATE_CANCELLED = "HY008";
+
+    /**
+     * Creates a deadline some time from now.
+     *
+     * @param timeout The time allowed.
+     * @return A new deadline.
+     */
+    public static Deadline after(final Duration timeout) {
+        Objects.requireNonNull(timeout, "timeout");
+        return new Deadline(System.nanoTime() + timeout.toNanos());
+    }
+
+    private static void cancel(final Statement stmt) {
+        try {
+            if (!stmt.isClosed()) {
+                stmt.cancel();
+            }
+        } catch (final SQLException ignored) {
+            // the statement completed meanwhile
+        }
+    }
+
+    private final long deadlineNanos;
+
+    private volatile boolean cancelled;
+
+    /**
+     * The statements running under this deadline.
+     */
+    private final Set<Statement> statements = ConcurrentHashMap.newKeySet();
+
+    private Deadline(final long deadlineNanos) {
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    /**
+     * Cancels the calls running under this deadline and fails the calls that
+     * have yet to start.
+     */
+    public void cancel() {
+        cancelled = true;
+        statements.forEach(Deadline::cancel);
+    }
+
+    /**
+     * Checks that calls can still run under this deadline.
+     *
+     * @throws SQLException if the deadline is cancelled, or a {@code SQLTimeoutException} if it passed
+     */
+    void check() throws SQLException {
+        if (cancelled) {
+            throw new SQLException("Call cancelled", SQL_STATE_CANCELLED);
+        }
+        if (isExpired()) {
+            throw new SQLTimeoutException("Deadline passed " + Duration.ofNanos(-remainingNanos()) + " ago");
+        }
+    }
+
+    /**
+     * Gets the time remaining.
+     *
+     * @return The time remaining, zero once the deadline passed.
+     */
+    public Duration getRemaining() {
+        return Duration.ofNanos(Math.max(0, remainingNanos()));
+    }
+
+    /**
+     * Tests whether {@link #cancel()} was called.
+     *
+     * @return Whether this deadline is cancelled.
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Tests whether the deadline passed.
+     *
+     * @return Whether no time remains.
+     */
+    public boolean isExpired() {
+        return remainingNanos() <= 0;
+    }
+
+    /**
+     * Registers a statement to cancel with this deadline, and limits its
+     * query timeout to the time remaining.
+     *
+     * @param stmt A statement about to run.
+     * @throws SQLException if no time remains, or the statement fails
+     */
+    void register(final Statement stmt) throws SQLException {
+        check();
+        final long seconds = Math.max(1, (remainingNanos() + 999_999_999) / 1_000_000_000);
+        final int current = stmt.getQueryTimeout();
+        if (current == 0 || current > seconds) {
+            stmt.setQueryTimeout((int) Math.min(Integer.MAX_VALUE, seconds));
+        }
+        statements.add(stmt);
+        if (cancelled) {
+            cancel(stmt);
+        }
+    }
+
+    /**
+     * Stops tracking a statement that completed.
+     *
+     * @param stmt The statement.
+     */
+    void release(final Statement stmt) {
+        statements.remove(stmt);
+    }
+
+    private long remainingNanos() {
+        return deadlineNanos - System.nanoTime();
+    }
+
+    @Override
+    public String toString() {
+        return "Deadline [remaining=" + getRemaining() + ", cancelled=" + cancelled + "]";
+    }
+}
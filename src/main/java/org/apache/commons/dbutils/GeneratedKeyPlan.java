@@ -0,0 +1,149 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.dbutils;
+
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.LongFunction;
+
+/**
+ * A compiled plan that writes generated keys into a property of beans of one
+ * class. Introspection happens once when the plan is built; each key is
+ * converted to the property type and written through a {@code MethodHandle}.
+ * Plans are cached per bean class and property name.
+ *
+ * <p>
+ * This class is thread safe.
+ * </p>
+ */
+final class GeneratedKeyPlan {
+
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+    /**
+     * Plans by bean class, then by property name.
+     */
+    private static final ClassValue<ConcurrentMap<String, GeneratedKeyPlan>> PLANS = new ClassValue<ConcurrentMap<String, GeneratedKeyPlan>>() {
+
+        @Override
+        protected ConcurrentMap<String, GeneratedKeyPlan> computeValue(final Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    /**
+     * Gets the conversion of keys to a property type.
+     *
+     * @param type The property type.
+     * @return The conversion, null if keys can't be converted to the type.
+     */
+    private static LongFunction<Object> converter(final Class<?> type) {
+        if (type == long.class || type == Long.class || type == Object.class || type == Number.class) {
+            return Long::valueOf;
+        }
+        if (type == int.class || type == Integer.class) {
+            return key -> Integer.valueOf(Math.toIntExact(key));
+        }
+        if (type == BigInteger.class) {
+            return BigInteger::valueOf;
+        }
+        if (type == BigDecimal.class) {
+            return BigDecimal::valueOf;
+        }
+        if (type == String.class) {
+            return Long::toString;
+        }
+        return null;
+    }
+
+    /**
+     * Gets the plan of a bean class and property.
+     *
+     * @param type The bean class.
+     * @param propertyName The name of the property to write.
+     * @return The plan, never null.
+     */
+    static GeneratedKeyPlan of(final Class<?> type, final String propertyName) {
+        final ConcurrentMap<String, GeneratedKeyPlan> plans = PLANS.get(type);
+        final GeneratedKeyPlan plan = plans.get(propertyName);
+        if (plan != null) {
+            return plan;
+        }
+        // Built outside computeIfAbsent, the property name may be invalid.
+        final GeneratedKeyPlan created = new GeneratedKeyPlan(type, AbstractQueryRunner.beanProperties(type, propertyName)[0]);
+        final GeneratedKeyPlan previous = plans.putIfAbsent(propertyName, created);
+        return previous != null ? previous : created;
+    }
+
+    private final Class<?> type;
+
+    private final Method method;
+
+    private final MethodHandle setter;
+
+    private final LongFunction<Object> converter;
+
+    private GeneratedKeyPlan(final Class<?> type, final PropertyDescriptor property) {
+        this.type = type;
+        this.method = property.getWriteMethod();
+        if (method == null) {
+            throw new IllegalArgumentException("No write method for bean property " + type + " " + property.getName());
+        }
+        this.converter = converter(property.getPropertyType());
+        if (converter == null) {
+            throw new IllegalArgumentException("Can't write generated keys to bean property " + type + " " + property.getName() + " of type "
+                    + property.getPropertyType());
+        }
+        try {
+            this.setter = MethodHandles.lookup().unreflect(method).asType(SETTER_TYPE);
+        } catch (final IllegalAccessException e) {
+            throw new IllegalArgumentException("Couldn't invoke method: " + method, e);
+        }
+    }
+
+    /**
+     * Writes a generated key into a bean.
+     *
+     * @param bean The bean, an instance of the plan's class.
+     * @param key The generated key.
+     */
+    void apply(final Object bean, final long key) {
+        try {
+            setter.invokeExact(bean, converter.apply(key));
+        } catch (final Error e) {
+            throw e;
+        } catch (final Throwable e) { // NOPMD
+            throw new IllegalArgumentException("Couldn't invoke method: " + method, e);
+        }
+    }
+
+    /**
+     * Gets the bean class of this plan.
+     *
+     * @return The bean class.
+     */
+    Class<?> getType() {
+        return type;
+    }
+}
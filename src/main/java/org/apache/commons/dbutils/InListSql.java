@@ -0,0 +1,252 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.dbutils;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Positional SQL whose {@code Collection} parameters expand into lists of
+ * placeholders, as in {@code IN (?, ?, ?, ?)}. A list is padded up to the next
+ * power of two by repeating its last value, so a statement has about
+ * log2(N) distinct shapes for lists of up to N values; an empty list binds a
+ * single SQL NULL, which matches no rows. A list longer than the maximum
+ * size is split over several executions.
+ *
+ * <p>
+ * Parsed statements and their expanded shapes are cached. This class is
+ * thread safe.
+ * </p>
+ */
+final class InListSql {
+
+    /**
+     * One execution of an expanded statement.
+     */
+    static final class Execution {
+
+        private final String sql;
+
+        private final Object[] params;
+
+        private Execution(final String sql, final Object[] params) {
+            this.sql = sql;
+            this.params = params;
+        }
+
+        /**
+         * Gets the parameters, one per placeholder.
+         *
+         * @return The parameters.
+         */
+        Object[] getParams() {
+            return params;
+        }
+
+        /**
+         * Gets the expanded SQL.
+         *
+         * @return The expanded SQL.
+         */
+        String getSql() {
+            return sql;
+        }
+    }
+
+    /**
+     * The default maximum number of values of an IN-list. Some databases,
+     * such as Oracle, reject longer lists.
+     */
+    static final int DEFAULT_MAX_IN_LIST_SIZE = 1000;
+
+    /**
+     * The maximum number of parsed statements cached.
+     */
+    static final int MAX_CACHED_STATEMENTS = 256;
+
+    private static final Map<String, InListSql> STATEMENTS = new LinkedHashMap<String, InListSql>(16, 0.75f, true) {
+
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<String, InListSql> eldest) {
+            return size() > MAX_CACHED_STATEMENTS;
+        }
+    };
+
+    /**
+     * Gets the number of placeholders of a list: its size rounded up to a
+     * power of two, at most {@code maxSize}.
+     *
+     * @param size The number of values.
+     * @param maxSize The maximum number of placeholders.
+     * @return The number of placeholders, at least 1.
+     */
+    static int bucket(final int size, final int maxSize) {
+        if (size <= 1) {
+            return 1;
+        }
+        final int power = Integer.highestOneBit(size - 1) << 1;
+        return power <= 0 || power > maxSize ? Math.max(size, maxSize) : power;
+    }
+
+    /**
+     * Gets the parsed form of positional SQL.
+     *
+     * @param sql The SQL text.
+     * @return The parsed SQL.
+     * @throws SQLException if the SQL has an unterminated literal or comment.
+     */
+    static InListSql of(final String sql) throws SQLException {
+        InListSql parsed;
+        synchronized (STATEMENTS) {
+            parsed = STATEMENTS.get(sql);
+        }
+        if (parsed == null) {
+            final List<Integer> offsets = new ArrayList<>();
+            int i = 0;
+            try {
+                while (i < sql.length()) {
+                    final int next = SqlText.skipQuotedOrComment(sql, i);
+                    if (next != i) {
+                        i = next;
+                    } else {
+                        if (sql.charAt(i) == '?') {
+                            offsets.add(i);
+                        }
+                        i++;
+                    }
+                }
+            } catch (final IllegalArgumentException e) {
+                throw new SQLException(e.getMessage(), e);
+            }
+            parsed = new InListSql(sql, offsets.stream().mapToInt(Integer::intValue).toArray());
+            synchronized (STATEMENTS) {
+                STATEMENTS.put(sql, parsed);
+            }
+        }
+        return parsed;
+    }
+
+    private final String sql;
+
+    /**
+     * The offsets of the placeholders in {@code sql}.
+     */
+    private final int[] offsets;
+
+    /**
+     * Expanded SQL by the number of placeholders of each parameter.
+     */
+    private final ConcurrentMap<List<Integer>, String> shapes = new ConcurrentHashMap<>();
+
+    private InListSql(final String sql, final int[] offsets) {
+        this.sql = sql;
+        this.offsets = offsets;
+    }
+
+    /**
+     * Expands the {@code Collection} parameters.
+     *
+     * @param params The parameters, one per placeholder of the unexpanded SQL.
+     * @param maxSize The maximum number of values of an IN-list.
+     * @return The executions, more than one if a list is longer than {@code maxSize}.
+     * @throws SQLException if the number of parameters is wrong, or more than one list is too long.
+     */
+    List<Execution> expand(final Object[] params, final int maxSize) throws SQLException {
+        if (params.length != offsets.length) {
+            throw new SQLException("Wrong number of parameters: expected " + offsets.length + ", was given " + params.length);
+        }
+        int split = -1;
+        boolean collections = false;
+        for (int i = 0; i < params.length; i++) {
+            if (params[i] instanceof Collection) {
+                collections = true;
+                if (((Collection<?>) params[i]).size() > maxSize) {
+                    if (split >= 0) {
+                        throw new SQLException("Only one IN-list may exceed " + maxSize + " values, parameters " + (split + 1) + " and " + (i + 1)
+                                + " do");
+                    }
+                    split = i;
+                }
+            }
+        }
+        if (!collections) {
+            return Collections.singletonList(new Execution(sql, params));
+        }
+        if (split < 0) {
+            return Collections.singletonList(execution(params, maxSize));
+        }
+        final List<?> values = new ArrayList<>((Collection<?>) params[split]);
+        final List<Execution> executions = new ArrayList<>((values.size() + maxSize - 1) / maxSize);
+        final Object[] chunkParams = params.clone();
+        for (int from = 0; from < values.size(); from += maxSize) {
+            chunkParams[split] = values.subList(from, Math.min(from + maxSize, values.size()));
+            executions.add(execution(chunkParams, maxSize));
+        }
+        return executions;
+    }
+
+    private Execution execution(final Object[] params, final int maxSize) {
+        final Integer[] sizes = new Integer[params.length];
+        int count = 0;
+        for (int i = 0; i < params.length; i++) {
+            sizes[i] = params[i] instanceof Collection ? bucket(((Collection<?>) params[i]).size(), maxSize) : 1;
+            count += sizes[i];
+        }
+        final Object[] expanded = new Object[count];
+        int p = 0;
+        for (int i = 0; i < params.length; i++) {
+            if (params[i] instanceof Collection) {
+                Object last = null;
+                for (final Iterator<?> values = ((Collection<?>) params[i]).iterator(); values.hasNext();) {
+                    last = values.next();
+                    expanded[p++] = last;
+                }
+                final int end = p - ((Collection<?>) params[i]).size() + sizes[i];
+                while (p < end) {
+                    expanded[p++] = last;
+                }
+            } else {
+                expanded[p++] = params[i];
+            }
+        }
+        return new Execution(shapes.computeIfAbsent(Arrays.asList(sizes), this::sql), expanded);
+    }
+
+    private String sql(final List<Integer> sizes) {
+        final StringBuilder sb = new StringBuilder(sql.length() + 3 * sizes.size());
+        int from = 0;
+        for (int i = 0; i < offsets.length; i++) {
+            sb.append(sql, from, offsets[i]).append('?');
+            for (int j = 1; j < sizes.get(i); j++) {
+                sb.append(", ?");
+            }
+            from = offsets[i] + 1;
+        }
+        return sb.append(sql, from, sql.length()).toString();
+    }
+}
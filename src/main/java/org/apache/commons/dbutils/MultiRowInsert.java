@@ -0,0 +1,253 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.dbutils;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A single-row {@code INSERT ... VALUES (...)} statement split around its
+ * row of values, so that it can be repeated into a multi-row
+ * {@code INSERT ... VALUES (...), (...), ...}. Statements are recognized when
+ * they start with {@code INSERT}, have exactly one parenthesized row after
+ * {@code VALUES} and nothing but a semicolon or comments after it, and have
+ * no placeholders outside of the row. Anything else, such as
+ * {@code INSERT ... SELECT} or {@code ON CONFLICT} clauses, is not rewritten.
+ *
+ * <p>
+ * Parsed statements and the rewritten SQL of each row count are cached.
+ * This class is thread safe.
+ * </p>
+ */
+final class MultiRowInsert {
+
+    /**
+     * The maximum number of parsed statements cached.
+     */
+    static final int MAX_CACHED_STATEMENTS = 256;
+
+    /**
+     * Marks a statement that cannot be rewritten in the cache.
+     */
+    private static final MultiRowInsert NOT_REWRITABLE = new MultiRowInsert("", "", "", 0);
+
+    private static final Map<String, MultiRowInsert> STATEMENTS = new LinkedHashMap<String, MultiRowInsert>(16, 0.75f, true) {
+
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<String, MultiRowInsert> eldest) {
+            return size() > MAX_CACHED_STATEMENTS;
+        }
+    };
+
+    /**
+     * Gets the parsed form of an INSERT statement.
+     *
+     * @param sql The SQL text.
+     * @return The parsed statement, or null if it cannot be rewritten.
+     */
+    static MultiRowInsert of(final String sql) {
+        MultiRowInsert insert;
+        synchronized (STATEMENTS) {
+            insert = STATEMENTS.get(sql);
+        }
+        if (insert == null) {
+            insert = parse(sql);
+            if (insert == null) {
+                insert = NOT_REWRITABLE;
+            }
+            synchronized (STATEMENTS) {
+                STATEMENTS.put(sql, insert);
+            }
+        }
+        return insert == NOT_REWRITABLE ? null : insert;
+    }
+
+    /**
+     * Parses an INSERT statement.
+     *
+     * @param sql The SQL text.
+     * @return The parsed statement, or null if it cannot be rewritten.
+     */
+    static MultiRowInsert parse(final String sql) {
+        try {
+            int i = SqlText.skipWhitespaceAndComments(sql, 0);
+            if (!SqlText.isKeyword(sql, i, "INSERT")) {
+                return null;
+            }
+            // Find VALUES outside of any parentheses, such as a column list.
+            int depth = 0;
+            int values = -1;
+            while (i < sql.length() && values < 0) {
+                final int next = SqlText.skipQuotedOrComment(sql, i);
+                if (next != i) {
+                    i = next;
+                    continue;
+                }
+                final char c = sql.charAt(i);
+                if (c == '(') {
+                    depth++;
+                } else if (c == ')') {
+                    depth--;
+                } else if (c == '?' || c == ';') {
+                    return null;
+                } else if (depth == 0 && SqlText.isKeyword(sql, i, "VALUES")) {
+                    values = i;
+                } else if (depth == 0 && SqlText.isKeyword(sql, i, "SELECT")) {
+                    return null;
+                }
+                i++;
+            }
+            if (values < 0) {
+                return null;
+            }
+            final int rowStart = SqlText.skipWhitespaceAndComments(sql, values + "VALUES".length());
+            if (rowStart == sql.length() || sql.charAt(rowStart) != '(') {
+                return null;
+            }
+            // Find the end of the row and count its placeholders.
+            int parameters = 0;
+            depth = 0;
+            i = rowStart;
+            do {
+                final int next = SqlText.skipQuotedOrComment(sql, i);
+                if (next != i) {
+                    i = next;
+                    continue;
+                }
+                final char c = sql.charAt(i);
+                if (c == '(') {
+                    depth++;
+                } else if (c == ')') {
+                    depth--;
+                } else if (c == '?') {
+                    parameters++;
+                }
+                i++;
+            } while (depth > 0 && i < sql.length());
+            if (depth != 0) {
+                return null;
+            }
+            final int rowEnd = i;
+            i = SqlText.skipWhitespaceAndComments(sql, rowEnd);
+            if (i < sql.length() && sql.charAt(i) == ';') {
+                i = SqlText.skipWhitespaceAndComments(sql, i + 1);
+            }
+            if (i < sql.length()) {
+                return null;
+            }
+            return new MultiRowInsert(sql.substring(0, rowStart), sql.substring(rowStart, rowEnd), sql.substring(rowEnd), parameters);
+        } catch (final IllegalArgumentException e) {
+            // Unterminated literal or comment; let the driver report it.
+            return null;
+        }
+    }
+
+    /**
+     * Spreads the update count of a multi-row statement over its rows. When
+     * the count does not equal the number of rows, as with rows skipped by
+     * the database, the count of each row is unknown.
+     *
+     * @param count The update count of the statement.
+     * @param counts The update counts of the rows.
+     * @param from The index of the first row of the statement.
+     * @param rows The number of rows of the statement.
+     */
+    static void spread(final int count, final int[] counts, final int from, final int rows) {
+        final int each;
+        if (count == rows) {
+            each = 1;
+        } else if (count == 0 || count == Statement.EXECUTE_FAILED) {
+            each = count;
+        } else {
+            each = Statement.SUCCESS_NO_INFO;
+        }
+        for (int i = from; i < from + rows; i++) {
+            counts[i] = each;
+        }
+    }
+
+    private final String prefix;
+
+    private final String row;
+
+    private final String suffix;
+
+    private final int parameterCount;
+
+    private final ConcurrentMap<Integer, String> sqlByRows = new ConcurrentHashMap<>();
+
+    private MultiRowInsert(final String prefix, final String row, final String suffix, final int parameterCount) {
+        this.prefix = prefix;
+        this.row = row;
+        this.suffix = suffix;
+        this.parameterCount = parameterCount;
+    }
+
+    /**
+     * Copies the parameters of consecutive rows into one array.
+     *
+     * @param params The parameters of all rows.
+     * @param from The index of the first row to copy.
+     * @param rows The number of rows to copy.
+     * @param into The array to copy to, {@code rows * getParameterCount()} long.
+     * @throws SQLException if a row does not have {@link #getParameterCount()} parameters.
+     */
+    void copy(final Object[][] params, final int from, final int rows, final Object[] into) throws SQLException {
+        for (int i = 0; i < rows; i++) {
+            final Object[] rowParams = params[from + i];
+            final int count = rowParams == null ? 0 : rowParams.length;
+            if (count != parameterCount) {
+                throw new SQLException("Wrong number of parameters: expected " + parameterCount + ", was given " + count);
+            }
+            if (count > 0) {
+                System.arraycopy(rowParams, 0, into, i * parameterCount, count);
+            }
+        }
+    }
+
+    /**
+     * Gets the number of placeholders of a single row.
+     *
+     * @return The number of placeholders of a single row.
+     */
+    int getParameterCount() {
+        return parameterCount;
+    }
+
+    /**
+     * Gets the SQL that inserts a number of rows.
+     *
+     * @param rows The number of rows, at least 1.
+     * @return The SQL text.
+     */
+    String sql(final int rows) {
+        return sqlByRows.computeIfAbsent(rows, r -> {
+            final StringBuilder sb = new StringBuilder(prefix.length() + r * (row.length() + 2) + suffix.length());
+            sb.append(prefix).append(row);
+            for (int i = 1; i < r; i++) {
+                sb.append(", ").append(row);
+            }
+            return sb.append(suffix).toString();
+        });
+    }
+}
@@ -0,0 +1,232 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.dbutils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * SQL with named parameters such as {@code :name}, translated to positional
+ * {@code ?} placeholders. Names start with a letter or {@code _}; a name may
+ * appear several times. Colons inside string literals, quoted identifiers and
+ * comments, and {@code ::} casts, are left alone.
+ *
+ * <pre>
+ * NamedSql named = NamedSql.of("SELECT * FROM person WHERE last_name = :name OR maiden_name = :name");
+ * runner.query(named.getSql(), handler, named.bind(Collections.singletonMap("name", "Doe")));
+ * // or
+ * runner.queryNamed("SELECT * FROM person WHERE id = :id", handler, personBean);
+ * </pre>
+ *
+ * <p>
+ * Parsed statements are cached by SQL text, so parsing happens once per
+ * statement and binding copies values into an array. This class is
+ * immutable and thread safe.
+ * </p>
+ *
+ * @since 1.9.0
+ */
+public final class NamedSql {
+
+    /**
+     * The maximum number of parsed statements cached by {@link #of(String)}.
+     */
+    public static final int MAX_CACHED_STATEMENTS = 1024;
+
+    private static final Map<String, NamedSql> STATEMENTS = new LinkedHashMap<String, NamedSql>(16, 0.75f, true) {
+
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<String, NamedSql> eldest) {
+            return size() > MAX_CACHED_STATEMENTS;
+        }
+    };
+
+    /**
+     * Gets the parsed form of SQL with named parameters, from the cache if
+     * it was parsed before.
+     *
+     * @param sql The SQL with named parameters.
+     * @return The parsed SQL.
+     * @throws IllegalArgumentException if the SQL has an unterminated literal
+     * or comment, or mixes named and positional parameters.
+     */
+    public static NamedSql of(final String sql) {
+        NamedSql named;
+        synchronized (STATEMENTS) {
+            named = STATEMENTS.get(sql);
+        }
+        if (named == null) {
+            named = parse(sql);
+            synchronized (STATEMENTS) {
+                STATEMENTS.put(sql, named);
+            }
+        }
+        return named;
+    }
+
+    /**
+     * Parses SQL with named parameters, without caching.
+     *
+     * @param sql The SQL with named parameters.
+     * @return The parsed SQL.
+     */
+    static NamedSql parse(final String sql) {
+        final StringBuilder positional = new StringBuilder(sql.length());
+        final Map<String, Integer> nameIndexes = new LinkedHashMap<>();
+        final List<Integer> positions = new ArrayList<>();
+        boolean questionMark = false;
+        int i = 0;
+        while (i < sql.length()) {
+            final int next = SqlText.skipQuotedOrComment(sql, i);
+            if (next != i) {
+                positional.append(sql, i, next);
+                i = next;
+                continue;
+            }
+            final char c = sql.charAt(i);
+            if (c == ':' && i + 1 < sql.length() && sql.charAt(i + 1) == ':') {
+                positional.append("::");
+                i += 2;
+            } else if (c == ':' && i + 1 < sql.length() && (Character.isLetter(sql.charAt(i + 1)) || sql.charAt(i + 1) == '_')) {
+                int end = i + 2;
+                while (end < sql.length() && (Character.isLetterOrDigit(sql.charAt(end)) || sql.charAt(end) == '_')) {
+                    end++;
+                }
+                final String name = sql.substring(i + 1, end);
+                positions.add(nameIndexes.computeIfAbsent(name, k -> nameIndexes.size()));
+                positional.append('?');
+                i = end;
+            } else {
+                questionMark |= c == '?';
+                positional.append(c);
+                i++;
+            }
+        }
+        if (questionMark && !positions.isEmpty()) {
+            throw new IllegalArgumentException("Cannot mix named and positional parameters: " + sql);
+        }
+        final int[] nameOfPosition = new int[positions.size()];
+        for (int p = 0; p < nameOfPosition.length; p++) {
+            nameOfPosition[p] = positions.get(p);
+        }
+        return new NamedSql(positional.toString(), nameIndexes.keySet().toArray(new String[0]), nameOfPosition);
+    }
+
+    private final String sql;
+
+    /**
+     * The distinct names, in order of first appearance.
+     */
+    private final String[] names;
+
+    /**
+     * The index in {@code names} of the name at each placeholder.
+     */
+    private final int[] nameOfPosition;
+
+    private NamedSql(final String sql, final String[] names, final int[] nameOfPosition) {
+        this.sql = sql;
+        this.names = names;
+        this.nameOfPosition = nameOfPosition;
+    }
+
+    /**
+     * Binds the properties of a bean, or the entries of a {@code Map}, to the
+     * placeholders.
+     *
+     * @param params A {@code Map} from names to values, or a bean with a
+     * readable property for each name; may be null only if there are no parameters.
+     * @return The positional parameters, in placeholder order.
+     * @throws IllegalArgumentException if a value is missing.
+     */
+    public Object[] bind(final Object params) {
+        if (params instanceof Map) {
+            return bind((Map<?, ?>) params);
+        }
+        if (params == null) {
+            if (names.length > 0) {
+                throw new IllegalArgumentException("Null parameters for " + Arrays.toString(names));
+            }
+            return new Object[0];
+        }
+        return expand(BeanParameterPlan.of(params.getClass(), names).extract(params));
+    }
+
+    /**
+     * Binds the entries of a {@code Map} to the placeholders.
+     *
+     * @param params The values by name; a name mapped to null binds SQL NULL.
+     * @return The positional parameters, in placeholder order.
+     * @throws IllegalArgumentException if a name has no entry.
+     */
+    public Object[] bind(final Map<?, ?> params) {
+        final Object[] values = new Object[names.length];
+        for (int i = 0; i < names.length; i++) {
+            values[i] = params.get(names[i]);
+            if (values[i] == null && !params.containsKey(names[i])) {
+                throw new IllegalArgumentException("Missing value for named parameter: " + names[i]);
+            }
+        }
+        return expand(values);
+    }
+
+    private Object[] expand(final Object[] values) {
+        final Object[] params = new Object[nameOfPosition.length];
+        for (int i = 0; i < params.length; i++) {
+            params[i] = values[nameOfPosition[i]];
+        }
+        return params;
+    }
+
+    /**
+     * Gets the number of placeholders of the positional SQL.
+     *
+     * @return The number of placeholders.
+     */
+    public int getParameterCount() {
+        return nameOfPosition.length;
+    }
+
+    /**
+     * Gets the distinct parameter names, in order of first appearance.
+     *
+     * @return The parameter names, unmodifiable.
+     */
+    public List<String> getParameterNames() {
+        return Collections.unmodifiableList(Arrays.asList(names));
+    }
+
+    /**
+     * Gets the SQL with {@code ?} placeholders.
+     *
+     * @return The positional SQL.
+     */
+    public String getSql() {
+        return sql;
+    }
+
+    @Override
+    public String toString() {
+        return sql;
+    }
+}
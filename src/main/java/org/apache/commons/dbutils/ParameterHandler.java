@@ -0,0 +1,49 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.dbutils;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/**
+ * Defines how to bind a parameter value of a given Java type to a {@link PreparedStatement}, typically with the typed setter that matches the type, such as
+ * {@link PreparedStatement#setInt(int, int)}, instead of {@link PreparedStatement#setObject(int, Object)}. Implementations are found with a
+ * {@link java.util.ServiceLoader} and the first one that matches a type is used for all values of that type.
+ *
+ * @param <T> The parameter type.
+ * @since 1.9.0
+ */
+public interface ParameterHandler<T> {
+
+    /**
+     * Binds a non-null value to a statement parameter. This method is only called if {@link #match(Class)} returns true for the class of {@code value}.
+     *
+     * @param stmt           The statement to fill.
+     * @param parameterIndex The position of the parameter, a 1-based index.
+     * @param value          The value to bind, never null.
+     * @throws SQLException Thrown if the parameterIndex is not valid; if a database access error occurs or this method is called on a closed statement
+     */
+    void apply(PreparedStatement stmt, int parameterIndex, T value) throws SQLException;
+
+    /**
+     * Tests whether to bind values of type {@code valueType}.
+     *
+     * @param valueType The class of the parameter value.
+     * @return true is this parameter handler handles this {@code valueType}; false otherwise.
+     */
+    boolean match(Class<?> valueType);
+}
@@ -0,0 +1,289 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.dbutils;
+
+import java.sql.ParameterMetaData;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A bounded LRU cache of statement parameter metadata keyed by SQL text, so
+ * that {@code QueryRunner} asks the driver for the parameter count and the
+ * SQL types of null parameters once per SQL string instead of once per
+ * execution. Several drivers make a server round trip for
+ * {@link PreparedStatement#getParameterMetaData()} or
+ * {@link ParameterMetaData#getParameterType(int)}.
+ *
+ * <pre>
+ * ParameterMetaDataCache pmdCache = new ParameterMetaDataCache(512);
+ * QueryRunner runner = new QueryRunner(dataSource, false, null, null, pmdCache);
+ * ...
+ * // after ALTER TABLE
+ * pmdCache.invalidateAll();
+ * </pre>
+ *
+ * <p>
+ * The parameter count is recorded on first use; the type of a parameter is
+ * recorded the first time that parameter is bound to null. Invalidate the
+ * affected SQL, or the whole cache, after schema changes.
+ * </p>
+ * <p>
+ * This class is thread safe.
+ * </p>
+ *
+ * @since 1.9.0
+ */
+public class ParameterMetaDataCache {
+
+    /**
+     * A {@code ParameterMetaData} backed by a cached shape. The live metadata
+     * of the statement is only fetched for types not recorded yet.
+     */
+    private static final class CachedParameterMetaData implements ParameterMetaData {
+
+        private final Shape shape;
+
+        private final PreparedStatement stmt;
+
+        private ParameterMetaData live;
+
+        private CachedParameterMetaData(final Shape shape, final PreparedStatement stmt, final ParameterMetaData live) {
+            this.shape = shape;
+            this.stmt = stmt;
+            this.live = live;
+        }
+
+        @Override
+        public String getParameterClassName(final int param) throws SQLException {
+            return live().getParameterClassName(param);
+        }
+
+        @Override
+        public int getParameterCount() {
+            return shape.count;
+        }
+
+        @Override
+        public int getParameterMode(final int param) throws SQLException {
+            return live().getParameterMode(param);
+        }
+
+        @Override
+        public int getParameterType(final int param) throws SQLException {
+            int type = shape.types.get(param - 1);
+            if (type == UNKNOWN_TYPE) {
+                type = live().getParameterType(param);
+                shape.types.set(param - 1, type);
+            }
+            return type;
+        }
+
+        @Override
+        public String getParameterTypeName(final int param) throws SQLException {
+            return live().getParameterTypeName(param);
+        }
+
+        @Override
+        public int getPrecision(final int param) throws SQLException {
+            return live().getPrecision(param);
+        }
+
+        @Override
+        public int getScale(final int param) throws SQLException {
+            return live().getScale(param);
+        }
+
+        @Override
+        public int isNullable(final int param) throws SQLException {
+            return live().isNullable(param);
+        }
+
+        @Override
+        public boolean isSigned(final int param) throws SQLException {
+            return live().isSigned(param);
+        }
+
+        @Override
+        public boolean isWrapperFor(final Class<?> iface) throws SQLException {
+            return iface.isInstance(this) || live().isWrapperFor(iface);
+        }
+
+        private ParameterMetaData live() throws SQLException {
+            if (live == null) {
+                live = stmt.getParameterMetaData();
+                if (live == null) {
+                    throw new SQLFeatureNotSupportedException("No ParameterMetaData");
+                }
+            }
+            return live;
+        }
+
+        @Override
+        public <T> T unwrap(final Class<T> iface) throws SQLException {
+            if (iface.isInstance(this)) {
+                return iface.cast(this);
+            }
+            return live().unwrap(iface);
+        }
+    }
+
+    /**
+     * The parameter count and the known parameter types of one SQL string.
+     */
+    private static final class Shape {
+
+        private final int count;
+
+        private final AtomicIntegerArray types;
+
+        private Shape(final int count) {
+            this.count = count;
+            this.types = new AtomicIntegerArray(count);
+            for (int i = 0; i < count; i++) {
+                types.set(i, UNKNOWN_TYPE);
+            }
+        }
+    }
+
+    /**
+     * The default maximum number of SQL strings kept.
+     */
+    public static final int DEFAULT_MAX_ENTRIES = 1024;
+
+    /**
+     * Marks a parameter type that was not fetched yet.
+     */
+    private static final int UNKNOWN_TYPE = Integer.MIN_VALUE;
+
+    private final int maxEntries;
+
+    /**
+     * Guarded by {@code this}.
+     */
+    private final LinkedHashMap<String, Shape> shapes;
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * Creates a cache that keeps up to {@link #DEFAULT_MAX_ENTRIES} SQL strings.
+     */
+    public ParameterMetaDataCache() {
+        this(DEFAULT_MAX_ENTRIES);
+    }
+
+    /**
+     * Creates a cache.
+     *
+     * @param maxEntries The maximum number of SQL strings kept, must be positive.
+     */
+    public ParameterMetaDataCache(final int maxEntries) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("maxEntries must be positive: " + maxEntries);
+        }
+        this.maxEntries = maxEntries;
+        this.shapes = new LinkedHashMap<String, Shape>(16, 0.75f, true) {
+
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<String, Shape> eldest) {
+                return size() > ParameterMetaDataCache.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Gets the parameter metadata of a statement, from the cache when the SQL
+     * was seen before.
+     *
+     * @param sql The SQL the statement was prepared with.
+     * @param stmt The statement.
+     * @return The parameter metadata, or null if the driver returned none.
+     * @throws SQLException if a database access error occurs
+     */
+    ParameterMetaData get(final String sql, final PreparedStatement stmt) throws SQLException {
+        Shape shape;
+        synchronized (this) {
+            shape = shapes.get(sql);
+        }
+        if (shape != null) {
+            hits.incrementAndGet();
+            return new CachedParameterMetaData(shape, stmt, null);
+        }
+        misses.incrementAndGet();
+        final ParameterMetaData live = stmt.getParameterMetaData();
+        if (live == null) {
+            return null;
+        }
+        shape = new Shape(live.getParameterCount());
+        synchronized (this) {
+            shapes.put(sql, shape);
+        }
+        return new CachedParameterMetaData(shape, stmt, live);
+    }
+
+    /**
+     * Gets the number of lookups answered from the cache.
+     *
+     * @return The number of hits.
+     */
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    /**
+     * Gets the number of lookups that fetched metadata from the driver.
+     *
+     * @return The number of misses.
+     */
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    /**
+     * Forgets the metadata of one SQL string, for example after the tables it
+     * uses were altered.
+     *
+     * @param sql The SQL.
+     */
+    public synchronized void invalidate(final String sql) {
+        shapes.remove(sql);
+    }
+
+    /**
+     * Forgets all metadata.
+     */
+    public synchronized void invalidateAll() {
+        shapes.clear();
+    }
+
+    /**
+     * Gets the number of SQL strings cached.
+     *
+     * @return The number of SQL strings cached.
+     */
+    public synchronized int size() {
+        return shapes.size();
+    }
+}
@@ -0,0 +1,280 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.dbutils;
+
+import java.lang.reflect.Array;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * Shares one in-flight execution between concurrent identical queries, so that
+ * a burst of threads reading the same rows occupies one connection instead of
+ * one each. Calls coalesce when they use the same {@code DataSource}, SQL,
+ * parameters (compared with {@link Arrays#deepEquals(Object[], Object[])}) and
+ * an equal {@code ResultSetHandler}. Handlers compare by identity unless they
+ * override {@code equals}, so share handler instances between callers that
+ * should coalesce.
+ *
+ * <pre>
+ * QueryCoalescer coalescer = new QueryCoalescer();
+ * ResultSetHandler&lt;List&lt;Person&gt;&gt; handler = new BeanListHandler&lt;&gt;(Person.class);
+ * ...
+ * List&lt;Person&gt; people = runner.queryCoalesced(coalescer, "SELECT * FROM person WHERE city = ?", handler, city);
+ * </pre>
+ *
+ * <p>
+ * Only calls that overlap in time share a result; nothing is kept once the
+ * execution completes. Every caller, the one that ran the query included,
+ * receives its own copy of the shared result made by the copier. The
+ * {@linkplain #DEFAULT_COPIER default copier} copies lists, sets and arrays
+ * and exposes maps as unmodifiable views, recursively; other values,
+ * including beans, are shared as they are. Supply a copier that clones beans
+ * when callers modify the beans they get back.
+ * </p>
+ * <p>
+ * Coalescing applies to calls that get their connection from the
+ * {@code DataSource}. Calls on a caller's {@code Connection} see the
+ * transaction of that connection, and are never coalesced.
+ * </p>
+ * <p>
+ * This class is thread safe.
+ * </p>
+ *
+ * @since 1.9.0
+ */
+public class QueryCoalescer {
+
+    /**
+     * Copies lists, sets and arrays, and wraps maps in unmodifiable views,
+     * recursively through list, set and array elements. Other values are
+     * returned as they are.
+     */
+    public static final UnaryOperator<Object> DEFAULT_COPIER = QueryCoalescer::copy;
+
+    private static Object copy(final Object value) {
+        if (value instanceof List) {
+            final List<?> list = (List<?>) value;
+            final List<Object> copy = new ArrayList<>(list.size());
+            list.forEach(element -> copy.add(copy(element)));
+            return copy;
+        }
+        if (value instanceof Set) {
+            final Set<?> set = (Set<?>) value;
+            final Set<Object> copy = new LinkedHashSet<>(set.size() * 4 / 3 + 1);
+            set.forEach(element -> copy.add(copy(element)));
+            return copy;
+        }
+        if (value instanceof Map) {
+            // A copy would lose the lookup rules of maps such as the case insensitive rows of BasicRowProcessor.
+            return Collections.unmodifiableMap((Map<?, ?>) value);
+        }
+        if (value instanceof Object[]) {
+            final Object[] array = ((Object[]) value).clone();
+            for (int i = 0; i < array.length; i++) {
+                array[i] = copy(array[i]);
+            }
+            return array;
+        }
+        if (value != null && value.getClass().isArray()) {
+            final int length = Array.getLength(value);
+            final Object array = Array.newInstance(value.getClass().getComponentType(), length);
+            System.arraycopy(value, 0, array, 0, length);
+            return array;
+        }
+        return value;
+    }
+
+    private static SQLException toSQLException(final Throwable cause) {
+        if (cause instanceof RuntimeException) {
+            throw (RuntimeException) cause;
+        }
+        if (cause instanceof Error) {
+            throw (Error) cause;
+        }
+        if (cause instanceof SQLException) {
+            final SQLException e = (SQLException) cause;
+            return new SQLException(e.getMessage(), e.getSQLState(), e.getErrorCode(), e);
+        }
+        return new SQLException(cause);
+    }
+
+    private static Throwable unwrap(final Throwable e) {
+        return e instanceof CompletionException || e instanceof ExecutionException ? e.getCause() : e;
+    }
+
+    private final ConcurrentHashMap<QueryKey, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    private final UnaryOperator<Object> copier;
+
+    private final AtomicLong executions = new AtomicLong();
+
+    private final AtomicLong hits = new AtomicLong();
+
+    /**
+     * Creates a coalescer with the {@link #DEFAULT_COPIER}.
+     */
+    public QueryCoalescer() {
+        this(DEFAULT_COPIER);
+    }
+
+    /**
+     * Creates a coalescer.
+     *
+     * @param copier Makes the copy of the shared result that each caller
+     * receives. Use {@link UnaryOperator#identity()} for results that are
+     * immutable.
+     */
+    public QueryCoalescer(final UnaryOperator<Object> copier) {
+        this.copier = Objects.requireNonNull(copier, "copier");
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T copyOf(final Object value) {
+        return (T) copier.apply(value);
+    }
+
+    /**
+     * Runs a query, or waits for an identical query already in flight.
+     *
+     * @param <T> The type of the result.
+     * @param source Identifies the database, usually the {@code DataSource}.
+     * @param sql The SQL.
+     * @param rsh The handler.
+     * @param params The parameters.
+     * @param call Runs the query when no identical query is in flight.
+     * @return A copy of the result.
+     * @throws SQLException if the shared execution failed
+     */
+    <T> T execute(final Object source, final String sql, final ResultSetHandler<T> rsh, final Object[] params, final Callable<T> call)
+            throws SQLException {
+        final QueryKey key = new QueryKey(source, sql, rsh, params);
+        final CompletableFuture<Object> created = new CompletableFuture<>();
+        final CompletableFuture<Object> existing = inFlight.putIfAbsent(key, created);
+        if (existing != null) {
+            hits.incrementAndGet();
+            try {
+                return copyOf(existing.get());
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SQLException("Interrupted while waiting for a coalesced query", e);
+            } catch (final ExecutionException | CancellationException e) {
+                throw toSQLException(unwrap(e));
+            }
+        }
+        executions.incrementAndGet();
+        final T result;
+        try {
+            result = call.call();
+        } catch (final Throwable e) { // NOPMD
+            inFlight.remove(key, created);
+            created.completeExceptionally(e);
+            if (e instanceof SQLException) {
+                throw (SQLException) e;
+            }
+            throw toSQLException(e);
+        }
+        inFlight.remove(key, created);
+        created.complete(result);
+        return copyOf(result);
+    }
+
+    /**
+     * Starts a query, or joins an identical query already in flight.
+     *
+     * @param <T> The type of the result.
+     * @param source Identifies the database, usually the {@code DataSource}.
+     * @param sql The SQL.
+     * @param rsh The handler.
+     * @param params The parameters.
+     * @param call Starts the query when no identical query is in flight.
+     * @return A future of a copy of the result.
+     */
+    <T> CompletableFuture<T> executeAsync(final Object source, final String sql, final ResultSetHandler<T> rsh, final Object[] params,
+            final Supplier<CompletableFuture<T>> call) {
+        final QueryKey key = new QueryKey(source, sql, rsh, params);
+        final CompletableFuture<Object> created = new CompletableFuture<>();
+        final CompletableFuture<Object> existing = inFlight.putIfAbsent(key, created);
+        if (existing != null) {
+            hits.incrementAndGet();
+            return existing.thenApply(this::copyOf);
+        }
+        executions.incrementAndGet();
+        try {
+            call.get().whenComplete((result, e) -> {
+                inFlight.remove(key, created);
+                if (e != null) {
+                    created.completeExceptionally(unwrap(e));
+                } else {
+                    created.complete(result);
+                }
+            });
+        } catch (final RuntimeException e) {
+            inFlight.remove(key, created);
+            created.completeExceptionally(e);
+        }
+        return created.thenApply(this::copyOf);
+    }
+
+    /**
+     * Gets the number of queries that ran, one per group of coalesced calls.
+     *
+     * @return The number of executions.
+     */
+    public long getExecutionCount() {
+        return executions.get();
+    }
+
+    /**
+     * Gets the number of calls that shared the execution of an identical call
+     * instead of running the query.
+     *
+     * @return The number of coalesced calls.
+     */
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    /**
+     * Gets the number of queries currently running.
+     *
+     * @return The number of queries in flight.
+     */
+    public int getInFlight() {
+        return inFlight.size();
+    }
+
+    @Override
+    public String toString() {
+        return "QueryCoalescer [executions=" + getExecutionCount() + ", hits=" + getHitCount() + ", inFlight=" + getInFlight() + "]";
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.dbutils;
+
+import java.util.Arrays;
+
+/**
+ * Identifies the result of a query: the database it runs on, the SQL, the
+ * parameters and the handler. Parameters are compared with
+ * {@link Arrays#deepEquals(Object[], Object[])}; the handler with its
+ * {@code equals} method, identity unless it overrides it.
+ */
+final class QueryKey {
+
+    private final Object[] parts;
+
+    private final int hashCode;
+
+    /**
+     * Creates a key.
+     *
+     * @param source Identifies the database, usually the {@code DataSource}.
+     * @param sql The SQL.
+     * @param rsh The handler.
+     * @param params The parameters, copied.
+     */
+    QueryKey(final Object source, final String sql, final ResultSetHandler<?> rsh, final Object[] params) {
+        this.parts = new Object[] { source, sql, rsh, params == null ? new Object[0] : params.clone() };
+        this.hashCode = Arrays.deepHashCode(parts);
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        return this == obj || obj instanceof QueryKey && hashCode == ((QueryKey) obj).hashCode && Arrays.deepEquals(parts, ((QueryKey) obj).parts);
+    }
+
+    @Override
+    public int hashCode() {
+        return hashCode;
+    }
+}
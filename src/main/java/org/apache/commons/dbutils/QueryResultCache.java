@@ -0,0 +1,527 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.dbutils;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.function.ToLongFunction;
+import java.util.function.UnaryOperator;
+
+/**
+ * A cache of query results used by {@link CachingQueryRunner}, keyed by
+ * {@code DataSource}, SQL, parameters and handler. Handlers compare by
+ * identity unless they override {@code equals}, so share handler instances
+ * between calls that should hit the same entries.
+ *
+ * <pre>
+ * QueryResultCache cache = new QueryResultCache.Builder()
+ *     .maxEntries(10_000)
+ *     .ttl(Duration.ofMinutes(5))
+ *     .ttl("SELECT * FROM exchange_rate", Duration.ofSeconds(10))
+ *     .tables("{call refresh_rates()}", "exchange_rate")
+ *     .build();
+ * QueryRunner runner = new CachingQueryRunner(dataSource, cache);
+ * </pre>
+ *
+ * <p>
+ * Each entry records the tables its query reads, declared with
+ * {@link Builder#tables(String, String...)} or found in the SQL by a simple
+ * scan of the names after {@code FROM} and {@code JOIN}. Queries whose tables
+ * are not known are not cached. Writes through a {@code CachingQueryRunner}
+ * remove the entries of the tables they touch once the statement completes,
+ * or all entries when their tables are not known, such as for stored
+ * procedure calls without declared tables. Writes made by other processes or
+ * other runners are only seen when entries expire.
+ * </p>
+ * <p>
+ * Entries are evicted least recently used first once the cache holds more
+ * than {@linkplain Builder#maxEntries(long) a number of entries} or
+ * {@linkplain Builder#maxWeight(long, ToLongFunction) a total weight}.
+ * Every caller receives its own copy of a cached result made by the
+ * {@linkplain Builder#copier(UnaryOperator) copier}, by default
+ * {@link QueryCoalescer#DEFAULT_COPIER}.
+ * </p>
+ * <p>
+ * This class is thread safe.
+ * </p>
+ *
+ * @see CachingQueryRunner
+ * @since 1.9.0
+ */
+public class QueryResultCache {
+
+    /**
+     * Builder class for {@code QueryResultCache}.
+     */
+    public static final class Builder {
+
+        private long maxEntries = DEFAULT_MAX_ENTRIES;
+        private long maxWeight = Long.MAX_VALUE;
+        private ToLongFunction<Object> weigher = value -> 1;
+        private Duration ttl;
+        private final Map<String, Duration> ttls = new HashMap<>();
+        private final Map<String, Set<String>> tables = new HashMap<>();
+        private UnaryOperator<Object> copier = QueryCoalescer.DEFAULT_COPIER;
+        private LongSupplier ticker = System::nanoTime;
+
+        /**
+         * Constructs a new instance.
+         */
+        public Builder() {
+            // empty
+        }
+
+        /**
+         * Builds a new {@link QueryResultCache}.
+         *
+         * @return A new and configured {@link QueryResultCache}.
+         */
+        public QueryResultCache build() {
+            return new QueryResultCache(this);
+        }
+
+        /**
+         * Sets how each caller gets its own copy of a cached result.
+         *
+         * @param copier Copies a cached result. Use {@link UnaryOperator#identity()}
+         * for results that are immutable.
+         * @return This builder for chaining.
+         */
+        public Builder copier(final UnaryOperator<Object> copier) {
+            this.copier = Objects.requireNonNull(copier, "copier");
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of entries, {@value QueryResultCache#DEFAULT_MAX_ENTRIES} by default.
+         *
+         * @param maxEntries The maximum number of entries, must be positive.
+         * @return This builder for chaining.
+         */
+        public Builder maxEntries(final long maxEntries) {
+            if (maxEntries <= 0) {
+                throw new IllegalArgumentException("maxEntries must be positive: " + maxEntries);
+            }
+            this.maxEntries = maxEntries;
+            return this;
+        }
+
+        /**
+         * Sets the maximum total weight of the entries, unbounded by default.
+         * Results heavier than {@code maxWeight} on their own are not cached.
+         *
+         * @param maxWeight The maximum total weight, must be positive.
+         * @param weigher Computes the weight of a result, such as its number of rows.
+         * @return This builder for chaining.
+         */
+        public Builder maxWeight(final long maxWeight, final ToLongFunction<Object> weigher) {
+            if (maxWeight <= 0) {
+                throw new IllegalArgumentException("maxWeight must be positive: " + maxWeight);
+            }
+            this.maxWeight = maxWeight;
+            this.weigher = Objects.requireNonNull(weigher, "weigher");
+            return this;
+        }
+
+        /**
+         * Declares the tables a statement reads or writes, instead of finding
+         * them in its SQL.
+         *
+         * @param sql The SQL of the statement.
+         * @param tables The table names, compared ignoring case and schema.
+         * @return This builder for chaining.
+         */
+        public Builder tables(final String sql, final String... tables) {
+            final Set<String> names = new HashSet<>();
+            for (final String table : tables) {
+                names.add(SqlText.tableName(table));
+            }
+            this.tables.put(Objects.requireNonNull(sql, "sql"), names);
+            return this;
+        }
+
+        /**
+         * Sets the clock used for the time to live, for tests.
+         *
+         * @param ticker Returns the current time in nanoseconds.
+         * @return This builder for chaining.
+         */
+        Builder ticker(final LongSupplier ticker) {
+            this.ticker = ticker;
+            return this;
+        }
+
+        /**
+         * Sets how long results are kept, forever by default.
+         *
+         * @param ttl The time to live, or null to keep results until they
+         * are evicted or invalidated.
+         * @return This builder for chaining.
+         */
+        public Builder ttl(final Duration ttl) {
+            this.ttl = ttl;
+            return this;
+        }
+
+        /**
+         * Sets how long the results of one query are kept.
+         *
+         * @param sql The SQL of the query.
+         * @param ttl The time to live; {@link Duration#ZERO} does not cache the query.
+         * @return This builder for chaining.
+         */
+        public Builder ttl(final String sql, final Duration ttl) {
+            this.ttls.put(Objects.requireNonNull(sql, "sql"), Objects.requireNonNull(ttl, "ttl"));
+            return this;
+        }
+    }
+
+    /**
+     * A cached result.
+     */
+    private static final class Entry {
+
+        private final Object value;
+        private final long weight;
+        private final long expiresAt;
+        private final Set<String> tables;
+
+        private Entry(final Object value, final long weight, final long expiresAt, final Set<String> tables) {
+            this.value = value;
+            this.weight = weight;
+            this.expiresAt = expiresAt;
+            this.tables = tables;
+        }
+    }
+
+    /**
+     * The default maximum number of entries.
+     */
+    public static final long DEFAULT_MAX_ENTRIES = 1000;
+
+    /**
+     * Marks entries that never expire.
+     */
+    private static final long NEVER = Long.MAX_VALUE;
+
+    private static <T> T run(final Callable<T> call) throws SQLException {
+        try {
+            return call.call();
+        } catch (final SQLException | RuntimeException e) {
+            throw e;
+        } catch (final Exception e) {
+            throw new SQLException(e);
+        }
+    }
+
+    private final long maxEntries;
+
+    private final long maxWeight;
+
+    private final ToLongFunction<Object> weigher;
+
+    private final Duration ttl;
+
+    private final Map<String, Duration> ttls;
+
+    private final Map<String, Set<String>> tables;
+
+    private final UnaryOperator<Object> copier;
+
+    private final LongSupplier ticker;
+
+    /**
+     * Guarded by {@code this}, in access order.
+     */
+    private final LinkedHashMap<QueryKey, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * The keys of the entries reading each table. Guarded by {@code this}.
+     */
+    private final Map<String, Set<QueryKey>> keysByTable = new HashMap<>();
+
+    /**
+     * When each table was last invalidated, on the {@link #clock}. Guarded by {@code this}.
+     */
+    private final Map<String, Long> invalidated = new HashMap<>();
+
+    /**
+     * Counts invalidations. Guarded by {@code this}.
+     */
+    private long clock;
+
+    /**
+     * When all entries were last invalidated, on the {@link #clock}. Guarded by {@code this}.
+     */
+    private long allInvalidated;
+
+    /**
+     * Guarded by {@code this}.
+     */
+    private long totalWeight;
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+    private final AtomicLong evictions = new AtomicLong();
+
+    private QueryResultCache(final Builder builder) {
+        this.maxEntries = builder.maxEntries;
+        this.maxWeight = builder.maxWeight;
+        this.weigher = builder.weigher;
+        this.ttl = builder.ttl;
+        this.ttls = new HashMap<>(builder.ttls);
+        this.tables = new HashMap<>(builder.tables);
+        this.copier = builder.copier;
+        this.ticker = builder.ticker;
+    }
+
+    /**
+     * Gets the number of entries removed because the cache was full or they
+     * expired. Invalidated entries are not counted.
+     *
+     * @return The number of evictions.
+     */
+    public long getEvictionCount() {
+        return evictions.get();
+    }
+
+    /**
+     * Gets the number of lookups answered from the cache.
+     *
+     * @return The number of hits.
+     */
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    /**
+     * Gets the number of lookups that ran the query.
+     *
+     * @return The number of misses.
+     */
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    /**
+     * Gets the total weight of the entries.
+     *
+     * @return The total weight, the number of entries unless a weigher is set.
+     */
+    public synchronized long getWeight() {
+        return totalWeight;
+    }
+
+    /**
+     * Removes the entries of the tables a statement writes.
+     *
+     * @param sql The SQL of the statement.
+     */
+    void invalidate(final String sql) {
+        final Set<String> names = tablesOf(sql);
+        if (names.isEmpty()) {
+            invalidateAll();
+        } else {
+            invalidateTables(names);
+        }
+    }
+
+    /**
+     * Removes all entries.
+     */
+    public synchronized void invalidateAll() {
+        allInvalidated = ++clock;
+        entries.clear();
+        keysByTable.clear();
+        totalWeight = 0;
+    }
+
+    /**
+     * Removes the entries of queries reading any of the given tables.
+     *
+     * @param tableNames The table names, compared ignoring case and schema.
+     */
+    public void invalidateTables(final String... tableNames) {
+        invalidateTables(Arrays.asList(tableNames));
+    }
+
+    /**
+     * Removes the entries of queries reading any of the given tables.
+     *
+     * @param tableNames The table names, compared ignoring case and schema.
+     */
+    public synchronized void invalidateTables(final Collection<String> tableNames) {
+        final long now = ++clock;
+        for (final String table : tableNames) {
+            final String name = SqlText.tableName(table);
+            invalidated.put(name, now);
+            final Set<QueryKey> keys = keysByTable.remove(name);
+            if (keys != null) {
+                for (final QueryKey key : keys) {
+                    final Entry entry = entries.get(key);
+                    if (entry != null) {
+                        remove(key, entry);
+                    }
+                }
+            }
+        }
+    }
+
+    private synchronized void put(final QueryKey key, final Object value, final Set<String> names, final long expiresAt, final long since) {
+        if (allInvalidated > since) {
+            return;
+        }
+        for (final String name : names) {
+            if (invalidated.getOrDefault(name, 0L) > since) {
+                // A write completed while the query ran; its result may be stale.
+                return;
+            }
+        }
+        final long weight = weigher.applyAsLong(value);
+        if (weight > maxWeight) {
+            return;
+        }
+        final Entry previous = entries.get(key);
+        if (previous != null) {
+            remove(key, previous);
+        }
+        entries.put(key, new Entry(value, weight, expiresAt, names));
+        totalWeight += weight;
+        for (final String name : names) {
+            keysByTable.computeIfAbsent(name, k -> new HashSet<>()).add(key);
+        }
+        final Iterator<Map.Entry<QueryKey, Entry>> eldest = entries.entrySet().iterator();
+        while (entries.size() > maxEntries || totalWeight > maxWeight) {
+            final Map.Entry<QueryKey, Entry> evicted = eldest.next();
+            eldest.remove();
+            unlink(evicted.getKey(), evicted.getValue());
+            evictions.incrementAndGet();
+        }
+    }
+
+    /**
+     * Returns a cached result, or runs the query and caches its result.
+     *
+     * @param <T> The type of the result.
+     * @param source Identifies the database, usually the {@code DataSource}.
+     * @param sql The SQL.
+     * @param rsh The handler.
+     * @param params The parameters.
+     * @param call Runs the query.
+     * @return A copy of the result.
+     * @throws SQLException if the query fails
+     */
+    @SuppressWarnings("unchecked")
+    <T> T query(final Object source, final String sql, final ResultSetHandler<T> rsh, final Object[] params, final Callable<T> call)
+            throws SQLException {
+        final Duration timeToLive = ttl(sql);
+        final Set<String> names = tablesOf(sql);
+        if (names.isEmpty() || timeToLive != null && (timeToLive.isZero() || timeToLive.isNegative())) {
+            return run(call);
+        }
+        final QueryKey key = new QueryKey(source, sql, rsh, params);
+        final long since;
+        synchronized (this) {
+            final Entry entry = entries.get(key);
+            if (entry != null) {
+                if (entry.expiresAt == NEVER || ticker.getAsLong() - entry.expiresAt < 0) {
+                    hits.incrementAndGet();
+                    return (T) copier.apply(entry.value);
+                }
+                remove(key, entry);
+                evictions.incrementAndGet();
+            }
+            since = clock;
+        }
+        misses.incrementAndGet();
+        final long started = ticker.getAsLong();
+        final T result = run(call);
+        final long expiresAt = timeToLive == null ? NEVER : started + timeToLive.toNanos();
+        put(key, result, names, expiresAt, since);
+        return (T) copier.apply(result);
+    }
+
+    private void remove(final QueryKey key, final Entry entry) {
+        entries.remove(key);
+        unlink(key, entry);
+    }
+
+    /**
+     * Gets the number of entries.
+     *
+     * @return The number of entries.
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Gets the tables a statement reads or writes.
+     *
+     * @param sql The SQL of the statement.
+     * @return The declared tables, or the tables found in the SQL; empty if not known.
+     */
+    private Set<String> tablesOf(final String sql) {
+        final Set<String> names = tables.get(sql);
+        if (names != null) {
+            return names;
+        }
+        try {
+            return SqlText.tableNames(sql);
+        } catch (final IllegalArgumentException e) {
+            return Collections.emptySet();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "QueryResultCache [size=" + size() + ", weight=" + getWeight() + ", hits=" + getHitCount() + ", misses=" + getMissCount()
+                + ", evictions=" + getEvictionCount() + "]";
+    }
+
+    private Duration ttl(final String sql) {
+        return ttls.getOrDefault(sql, ttl);
+    }
+
+    private void unlink(final QueryKey key, final Entry entry) {
+        totalWeight -= entry.weight;
+        for (final String name : entry.tables) {
+            final Set<QueryKey> keys = keysByTable.get(name);
+            if (keys != null) {
+                keys.remove(key);
+                if (keys.isEmpty()) {
+                    keysByTable.remove(name);
+                }
+            }
+        }
+    }
+}
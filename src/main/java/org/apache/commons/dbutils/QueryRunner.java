@@ -16,15 +16,19 @@
  */
 package org.apache.commons.dbutils;
 
+import java.lang.reflect.InvocationTargetException;
 import java.sql.CallableStatement;
 import java.sql.Connection;
 import java.sql.ParameterMetaData;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Savepoint;
 import java.sql.Statement;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Objects;
 
 import javax.sql.DataSource;
 
@@ -36,6 +40,43 @@ import javax.sql.DataSource;
  */
 public class QueryRunner extends AbstractQueryRunner {
 
+    /**
+     * A call of the methods of this runner.
+     *
+     * @param <T> The type of the result.
+     */
+    @FunctionalInterface
+    private interface Call<T> {
+        T call() throws SQLException;
+    }
+
+    /**
+     * Reads one generated key per row.
+     *
+     * @param resultSet The generated keys.
+     * @param rows The number of rows inserted.
+     * @return The keys of the first column, in order.
+     * @throws SQLException if the keys can't be read, or there is not exactly one non-null key per row
+     */
+    private static long[] generatedKeys(final ResultSet resultSet, final int rows) throws SQLException {
+        final long[] keys = new long[rows];
+        int count = 0;
+        while (resultSet.next()) {
+            if (count == rows) {
+                throw new SQLException("More generated keys than the " + rows + " rows inserted");
+            }
+            keys[count] = resultSet.getLong(1);
+            if (resultSet.wasNull()) {
+                throw new SQLException("Null generated key for row " + count);
+            }
+            count++;
+        }
+        if (count != rows) {
+            throw new SQLException(count + " generated keys for the " + rows + " rows inserted; the driver may need key column names");
+        }
+        return keys;
+    }
+
     /**
      * Constructor for QueryRunner.
      */
@@ -94,6 +135,44 @@ public class QueryRunner extends AbstractQueryRunner {
         super(ds, pmdKnownBroken, stmtConfig);
     }
 
+    /**
+     * Constructor for QueryRunner that takes a {@code DataSource}, a {@code StatementConfiguration}, a
+     * {@code StatementCache}, and controls the use of {@code ParameterMetaData}.  Methods that do not take a
+     * {@code Connection} parameter will retrieve connections from this {@code DataSource}.
+     *
+     * @param ds The {@code DataSource} to retrieve connections from, may be null.
+     * @param pmdKnownBroken Some drivers don't support {@link java.sql.ParameterMetaData#getParameterType(int)};
+     * if {@code pmdKnownBroken} is set to true, we won't even try it; if false, we'll try it,
+     * and if it breaks, we'll remember not to use it again.
+     * @param stmtConfig The configuration to apply to statements when they are prepared, may be null.
+     * @param statementCache The cache to reuse prepared statements of caller supplied connections from, may be null.
+     * @since 1.9.0
+     */
+    public QueryRunner(final DataSource ds, final boolean pmdKnownBroken, final StatementConfiguration stmtConfig,
+            final StatementCache statementCache) {
+        super(ds, pmdKnownBroken, stmtConfig, statementCache);
+    }
+
+    /**
+     * Constructor for QueryRunner that takes a {@code DataSource}, a {@code StatementConfiguration}, a
+     * {@code StatementCache}, a {@code ParameterMetaDataCache}, and controls the use of {@code ParameterMetaData}.
+     * Methods that do not take a {@code Connection} parameter will retrieve connections from this
+     * {@code DataSource}.
+     *
+     * @param ds The {@code DataSource} to retrieve connections from, may be null.
+     * @param pmdKnownBroken Some drivers don't support {@link java.sql.ParameterMetaData#getParameterType(int)};
+     * if {@code pmdKnownBroken} is set to true, we won't even try it; if false, we'll try it,
+     * and if it breaks, we'll remember not to use it again.
+     * @param stmtConfig The configuration to apply to statements when they are prepared, may be null.
+     * @param statementCache The cache to reuse prepared statements of caller supplied connections from, may be null.
+     * @param parameterMetaDataCache The cache of parameter metadata by SQL, may be null.
+     * @since 1.9.0
+     */
+    public QueryRunner(final DataSource ds, final boolean pmdKnownBroken, final StatementConfiguration stmtConfig,
+            final StatementCache statementCache, final ParameterMetaDataCache parameterMetaDataCache) {
+        super(ds, pmdKnownBroken, stmtConfig, statementCache, parameterMetaDataCache);
+    }
+
     /**
      * Constructor for QueryRunner that takes a {@code DataSource} to use and a {@code StatementConfiguration}.
      *
@@ -117,9 +196,48 @@ public class QueryRunner extends AbstractQueryRunner {
         super(stmtConfig);
     }
 
+    /**
+     * Adds rows of a multi-row INSERT to a statement, one batch entry per
+     * {@code width} rows, and executes them.
+     *
+     * @param stmt The statement of {@code insert.sql(width)}.
+     * @param insert The parsed INSERT.
+     * @param width The number of rows per batch entry.
+     * @param params The parameters of all rows.
+     * @param from The index of the first row to add.
+     * @param to The index after the last row to add, {@code from} plus a multiple of {@code width}.
+     * @param counts The update counts of all rows, or null if not needed.
+     * @throws SQLException if a database access error occurs
+     */
+    private void addMultiRowBatch(final PreparedStatement stmt, final MultiRowInsert insert, final int width, final Object[][] params,
+            final int from, final int to, final int[] counts) throws SQLException {
+        final ParameterMetaData pmd = getParameterMetaData(stmt, insert.sql(width));
+        final Object[] chunk = new Object[width * insert.getParameterCount()];
+        for (int row = from; row < to; row += width) {
+            insert.copy(params, row, width, chunk);
+            this.fillStatement(stmt, pmd, chunk);
+            stmt.addBatch();
+        }
+        final int[] updated = stmt.executeBatch();
+        if (counts != null) {
+            for (int i = 0; i < updated.length; i++) {
+                MultiRowInsert.spread(updated[i], counts, from + i * width, width);
+            }
+        }
+    }
+
     /**
      * Execute a batch of SQL INSERT, UPDATE, or DELETE queries.
      *
+     * <p>
+     * If the {@link StatementConfiguration} sets a multi-row INSERT width
+     * greater than 1 and {@code sql} is a simple single-row
+     * {@code INSERT ... VALUES (...)}, the rows are sent as multi-row INSERTs
+     * of that many rows each, plus one for the remaining rows. The update
+     * count of each row is then 1 if its statement inserted all of its rows,
+     * or {@link Statement#SUCCESS_NO_INFO} if it inserted only some of them.
+     * </p>
+     *
      * @param conn The Connection to use to run the query.  The caller is
      * responsible for closing this Connection.
      * @param sql The SQL to execute.
@@ -128,6 +246,7 @@ public class QueryRunner extends AbstractQueryRunner {
      * @return The number of rows updated per statement.
      * @throws SQLException Thrown if a database access error occurs
      * @since 1.1
+     * @see StatementConfiguration.Builder#multiRowInsertWidth(Integer)
      */
     public int[] batch(final Connection conn, final String sql, final Object[][] params) throws SQLException {
         if (conn == null) {
@@ -142,6 +261,11 @@ public class QueryRunner extends AbstractQueryRunner {
             throw new SQLException("Null parameters. If parameters aren't need, pass an empty array.");
         }
 
+        final MultiRowInsert insert = multiRowInsert(sql, params.length);
+        if (insert != null) {
+            return batchMultiRow(conn, sql, insert, params);
+        }
+
         PreparedStatement stmt = null;
         ParameterMetaData pmd = null;
         int[] rows = null;
@@ -149,7 +273,7 @@ public class QueryRunner extends AbstractQueryRunner {
             stmt = this.prepareStatement(conn, sql);
             // When the batch size is large, prefetching parameter metadata before filling
             // the statement can reduce lots of JDBC communications.
-            pmd = getParameterMetaData(stmt);
+            pmd = getParameterMetaData(stmt, sql);
 
             for (final Object[] param : params) {
                 this.fillStatement(stmt, pmd, param);
@@ -185,6 +309,110 @@ public class QueryRunner extends AbstractQueryRunner {
         }
     }
 
+    private int[] batchMultiRow(final Connection conn, final String sql, final MultiRowInsert insert, final Object[][] params)
+            throws SQLException {
+        final int width = getStatementConfiguration().getMultiRowInsertWidth();
+        final int split = params.length - params.length % width;
+        final int[] rows = new int[params.length];
+        PreparedStatement stmt = null;
+        PreparedStatement last = null;
+        try {
+            if (split > 0) {
+                stmt = this.prepareStatement(conn, insert.sql(width));
+                addMultiRowBatch(stmt, insert, width, params, 0, split, rows);
+            }
+            if (split < params.length) {
+                last = this.prepareStatement(conn, insert.sql(params.length - split));
+                addMultiRowBatch(last, insert, params.length - split, params, split, params.length, rows);
+            }
+        } catch (final SQLException e) {
+            rethrow(e, sql, (Object[]) params);
+        } finally {
+            try {
+                close(stmt);
+            } finally {
+                close(last);
+            }
+        }
+
+        return rows;
+    }
+
+    /**
+     * Execute a batch of SQL INSERT, UPDATE, or DELETE queries, one per bean,
+     * with the replacement parameters read from bean properties. Properties
+     * are introspected once per bean class and read through cached method
+     * handles; a single parameter array is reused for all beans.
+     *
+     * @param conn The Connection to use to run the query.  The caller is
+     * responsible for closing this Connection.
+     * @param sql The SQL to execute.
+     * @param beans The beans, one set of batch replacement values each.
+     * @param propertyNames The names of the bean properties, in parameter order.
+     * @return The number of rows updated per statement.
+     * @throws SQLException Thrown if a database access error occurs
+     * @since 1.9.0
+     */
+    public int[] batch(final Connection conn, final String sql, final Iterable<?> beans, final String... propertyNames) throws SQLException {
+        if (conn == null) {
+            throw new SQLException("Null connection");
+        }
+
+        if (sql == null) {
+            throw new SQLException("Null SQL statement");
+        }
+
+        if (beans == null) {
+            throw new SQLException("Null beans. If there are no beans, pass an empty collection.");
+        }
+
+        PreparedStatement stmt = null;
+        final Object[] params = new Object[propertyNames.length];
+        int[] rows = null;
+        try {
+            stmt = this.prepareStatement(conn, sql);
+            final ParameterMetaData pmd = getParameterMetaData(stmt, sql);
+
+            BeanParameterPlan plan = null;
+            for (final Object bean : beans) {
+                if (plan == null || plan.getType() != bean.getClass()) {
+                    plan = BeanParameterPlan.of(bean.getClass(), propertyNames);
+                }
+                plan.extract(bean, params);
+                this.fillStatement(stmt, pmd, params);
+                stmt.addBatch();
+            }
+            rows = stmt.executeBatch();
+
+        } catch (final SQLException e) {
+            rethrow(e, sql, params);
+        } finally {
+            close(stmt);
+        }
+
+        return rows;
+    }
+
+    /**
+     * Execute a batch of SQL INSERT, UPDATE, or DELETE queries, one per bean,
+     * with the replacement parameters read from bean properties.  The
+     * {@code Connection} is retrieved from the {@code DataSource}
+     * set in the constructor.  This {@code Connection} must be in
+     * auto-commit mode or the update will not be saved.
+     *
+     * @param sql The SQL to execute.
+     * @param beans The beans, one set of batch replacement values each.
+     * @param propertyNames The names of the bean properties, in parameter order.
+     * @return The number of rows updated per statement.
+     * @throws SQLException Thrown if a database access error occurs
+     * @since 1.9.0
+     */
+    public int[] batch(final String sql, final Iterable<?> beans, final String... propertyNames) throws SQLException {
+        try (Connection conn = prepareConnection()) {
+            return this.batch(conn, sql, beans, propertyNames);
+        }
+    }
+
     /**
      * Execute an SQL statement, including a stored procedure call, which does
      * not return any result sets.
@@ -218,7 +446,7 @@ public class QueryRunner extends AbstractQueryRunner {
 
         try {
             stmt = prepareCall(conn, sql);
-            this.fillStatement(stmt, params);
+            this.fillStatementForSql(stmt, sql, params);
             stmt.execute();
             rows = stmt.getUpdateCount();
             retrieveOutParameters(stmt, params);
@@ -273,7 +501,7 @@ public class QueryRunner extends AbstractQueryRunner {
 
         try {
             stmt = prepareCall(conn, sql);
-            this.fillStatement(stmt, params);
+            this.fillStatementForSql(stmt, sql, params);
             boolean moreResultSets = stmt.execute();
             // Handle multiple result sets by passing them through the handler
             // retaining the final result
@@ -352,6 +580,128 @@ public class QueryRunner extends AbstractQueryRunner {
         }
     }
 
+    /**
+     * Expands the {@code Collection} parameters of positional SQL into
+     * IN-lists.
+     *
+     * @param sql The SQL to execute.
+     * @param params The parameters.
+     * @return The executions, more than one if an IN-list is split.
+     * @throws SQLException if the parameters cannot be expanded.
+     */
+    private List<InListSql.Execution> expandInLists(final String sql, final Object... params) throws SQLException {
+        final StatementConfiguration stmtConfig = getStatementConfiguration();
+        final int maxInListSize = stmtConfig != null && stmtConfig.isMaxInListSizeSet() ? stmtConfig.getMaxInListSize() : InListSql.DEFAULT_MAX_IN_LIST_SIZE;
+        return InListSql.of(sql).expand(params != null ? params : new Object[0], maxInListSize);
+    }
+
+    /**
+     * Runs work in a savepoint of the transaction of the current thread.
+     *
+     * @param <T> The type of the result of the work.
+     * @param conn The connection of the transaction.
+     * @param callback The work.
+     * @return The result of the work.
+     * @throws SQLException if the work or the savepoint fails
+     */
+    private <T> T inSavepoint(final Connection conn, final TransactionCallback<T> callback) throws SQLException {
+        final Savepoint savepoint = conn.setSavepoint();
+        final T result;
+        try {
+            result = callback.doInTransaction(conn);
+        } catch (final SQLException | RuntimeException | Error e) {
+            try {
+                conn.rollback(savepoint);
+            } catch (final SQLException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            throw e;
+        }
+        try {
+            conn.releaseSavepoint(savepoint);
+        } catch (final SQLFeatureNotSupportedException e) { // NOPMD
+            // The savepoint is released when the transaction ends.
+        }
+        return result;
+    }
+
+    /**
+     * Runs work in a transaction on one connection from the {@code DataSource}.
+     * While the work runs, the methods of this runner that take no
+     * {@code Connection} use the connection of the transaction on the calling
+     * thread instead of taking and closing one each. The transaction is
+     * committed with {@link DbUtils#commitAndClose(Connection)} when the work
+     * returns, and rolled back with {@link DbUtils#rollbackAndClose(Connection)}
+     * when it throws.
+     *
+     * <pre>
+     * long id = runner.inTransaction(tx -&gt; {
+     *     runner.update("UPDATE account SET balance = balance - ? WHERE id = ?", amount, from);
+     *     runner.update("UPDATE account SET balance = balance + ? WHERE id = ?", amount, to);
+     *     return runner.insert("INSERT INTO transfer (amount) VALUES (?)", new ScalarHandler&lt;Long&gt;(), amount);
+     * });
+     * </pre>
+     *
+     * <p>
+     * A call made by the work of another call is nested: it runs in a
+     * savepoint of the enclosing transaction, which it rolls back to when its
+     * work throws. Work running on other threads, such as the calls of an
+     * {@code AsyncQueryRunner}, does not take part in the transaction.
+     * </p>
+     *
+     * @param <T> The type of the result of the work.
+     * @param callback The work.
+     * @return The result of the work.
+     * @throws SQLException if a database access error occurs, or the work throws it
+     * @since 1.9.0
+     */
+    public <T> T inTransaction(final TransactionCallback<T> callback) throws SQLException {
+        final Connection bound = getTransactionConnection();
+        if (bound != null) {
+            return inSavepoint(bound, callback);
+        }
+        final Connection conn = prepareConnection();
+        final Connection scoped;
+        try {
+            conn.setAutoCommit(false);
+            scoped = ProxyFactory.instance().createConnection((proxy, method, args) -> {
+                switch (method.getName()) {
+                case "close":
+                    return null;
+                case "equals":
+                    return Boolean.valueOf(proxy == args[0]);
+                case "hashCode":
+                    return Integer.valueOf(System.identityHashCode(proxy));
+                default:
+                    try {
+                        return method.invoke(conn, args);
+                    } catch (final InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                }
+            });
+        } catch (final SQLException | RuntimeException e) {
+            closeQuietly(conn);
+            throw e;
+        }
+        setTransactionConnection(scoped);
+        final T result;
+        try {
+            result = callback.doInTransaction(scoped);
+        } catch (final SQLException | RuntimeException | Error e) {
+            setTransactionConnection(null);
+            try {
+                DbUtils.rollbackAndClose(conn);
+            } catch (final SQLException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            throw e;
+        }
+        setTransactionConnection(null);
+        DbUtils.commitAndClose(conn);
+        return result;
+    }
+
     /**
      * Execute an SQL INSERT query without replacement parameters.
      *
@@ -401,10 +751,11 @@ public class QueryRunner extends AbstractQueryRunner {
             if (params != null && params.length > 0) {
                 final PreparedStatement ps = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
                 stmt = ps;
-                this.fillStatement(ps, params);
+                register(ps);
+                this.fillStatementForSql(ps, sql, params);
                 ps.executeUpdate();
             } else {
-                stmt = conn.createStatement();
+                stmt = createStatement(conn, sql);
                 stmt.executeUpdate(sql, Statement.RETURN_GENERATED_KEYS);
             }
             try (ResultSet resultSet = stmt.getGeneratedKeys()) {
@@ -462,6 +813,16 @@ public class QueryRunner extends AbstractQueryRunner {
     /**
      * Executes the given batch of INSERT SQL statements.
      *
+     * <p>
+     * If the {@link StatementConfiguration} sets a multi-row INSERT width
+     * greater than 1 and {@code sql} is a simple single-row
+     * {@code INSERT ... VALUES (...)}, the rows are sent as multi-row INSERTs,
+     * as by {@link #batch(Connection, String, Object[][])}. The handler then
+     * receives the generated keys of all statements in one
+     * {@code ResultSet}, in the order of the rows, provided the driver returns
+     * the keys of every row of a multi-row INSERT.
+     * </p>
+     *
      * @param <T> The type of object that the handler returns
      * @param conn The connection to use to run the query.
      * @param sql The SQL to execute.
@@ -485,13 +846,18 @@ public class QueryRunner extends AbstractQueryRunner {
             throw new SQLException("Null parameters. If parameters aren't need, pass an empty array.");
         }
 
+        final MultiRowInsert insert = multiRowInsert(sql, params.length);
+        if (insert != null) {
+            return insertBatchMultiRow(conn, sql, rsh, insert, params);
+        }
+
         PreparedStatement stmt = null;
         T generatedKeys = null;
         try {
             stmt = this.prepareStatement(conn, sql, Statement.RETURN_GENERATED_KEYS);
 
             for (final Object[] param : params) {
-                this.fillStatement(stmt, param);
+                this.fillStatementForSql(stmt, sql, param);
                 stmt.addBatch();
             }
             stmt.executeBatch();
@@ -528,6 +894,269 @@ public class QueryRunner extends AbstractQueryRunner {
         }
     }
 
+    /**
+     * Executes the given batch of INSERT SQL statements and returns one
+     * generated key per row, in the order of the rows.
+     *
+     * <p>
+     * The keys are read as {@code long} from the first column of the
+     * generated keys. Some drivers only return the keys of the columns named
+     * when the statement is prepared; {@code keyColumns} names them, or is
+     * null to let the driver choose. A multi-row INSERT width set by the
+     * {@link StatementConfiguration} applies when {@code keyColumns} is null,
+     * as by {@link #insertBatch(Connection, String, ResultSetHandler, Object[][])}.
+     * </p>
+     *
+     * @param conn The connection to use to run the query.
+     * @param sql The SQL to execute.
+     * @param keyColumns The names of the key columns, null to let the driver choose.
+     * @param params The query replacement parameters, one array per row.
+     * @return The generated keys, one per row.
+     * @throws SQLException Thrown if a database access error occurs, or the
+     * driver does not return exactly one non-null key per row
+     * @since 1.9.0
+     */
+    public long[] insertBatchKeys(final Connection conn, final String sql, final String[] keyColumns, final Object[][] params) throws SQLException {
+        if (keyColumns == null) {
+            return insertBatch(conn, sql, resultSet -> generatedKeys(resultSet, params.length), params);
+        }
+
+        if (conn == null) {
+            throw new SQLException("Null connection");
+        }
+
+        if (sql == null) {
+            throw new SQLException("Null SQL statement");
+        }
+
+        if (params == null) {
+            throw new SQLException("Null parameters. If parameters aren't need, pass an empty array.");
+        }
+
+        PreparedStatement stmt = null;
+        long[] generatedKeys = null;
+        try {
+            stmt = this.prepareStatement(conn, sql, keyColumns);
+
+            for (final Object[] param : params) {
+                this.fillStatementForSql(stmt, sql, param);
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+            try (ResultSet resultSet = stmt.getGeneratedKeys()) {
+                generatedKeys = generatedKeys(resultSet, params.length);
+            }
+        } catch (final SQLException e) {
+            rethrow(e, sql, (Object[]) params);
+        } finally {
+            close(stmt);
+        }
+
+        return generatedKeys;
+    }
+
+    /**
+     * Executes a batch of INSERT statements, one per bean, with the
+     * replacement parameters read from bean properties, and writes the
+     * generated key of each row into a property of its bean. Properties are
+     * introspected once per bean class and accessed through cached method
+     * handles.
+     *
+     * @param conn The connection to use to run the query.
+     * @param sql The SQL to execute.
+     * @param keyColumns The names of the key columns, null to let the driver choose.
+     * @param keyProperty The name of the bean property to write the generated key to,
+     * a {@code long}, {@code int}, {@code Long}, {@code Integer}, {@code BigInteger},
+     * {@code BigDecimal} or {@code String}.
+     * @param beans The beans, one row each.
+     * @param propertyNames The names of the bean properties, in parameter order.
+     * @return The generated keys, one per bean.
+     * @throws SQLException Thrown if a database access error occurs, or the
+     * driver does not return exactly one non-null key per row
+     * @see #insertBatchKeys(Connection, String, String[], Object[][])
+     * @since 1.9.0
+     */
+    public long[] insertBatchKeys(final Connection conn, final String sql, final String[] keyColumns, final String keyProperty, final List<?> beans,
+            final String... propertyNames) throws SQLException {
+        if (beans == null) {
+            throw new SQLException("Null beans. If there are no beans, pass an empty list.");
+        }
+        Objects.requireNonNull(keyProperty, "keyProperty");
+
+        final Object[][] params = new Object[beans.size()][];
+        final GeneratedKeyPlan[] keyPlans = new GeneratedKeyPlan[params.length];
+        BeanParameterPlan plan = null;
+        GeneratedKeyPlan keyPlan = null;
+        for (int i = 0; i < params.length; i++) {
+            final Object bean = beans.get(i);
+            if (plan == null || plan.getType() != bean.getClass()) {
+                plan = BeanParameterPlan.of(bean.getClass(), propertyNames);
+                keyPlan = GeneratedKeyPlan.of(bean.getClass(), keyProperty);
+            }
+            params[i] = plan.extract(bean);
+            keyPlans[i] = keyPlan;
+        }
+        final long[] keys = insertBatchKeys(conn, sql, keyColumns, params);
+        for (int i = 0; i < keys.length; i++) {
+            keyPlans[i].apply(beans.get(i), keys[i]);
+        }
+        return keys;
+    }
+
+    /**
+     * Executes a batch of INSERT statements, one per bean, and writes the
+     * generated key of each row into a property of its bean. The
+     * {@code Connection} is retrieved from the {@code DataSource}
+     * set in the constructor.  This {@code Connection} must be in
+     * auto-commit mode or the insert will not be saved.
+     *
+     * @param sql The SQL to execute.
+     * @param keyColumns The names of the key columns, null to let the driver choose.
+     * @param keyProperty The name of the bean property to write the generated key to.
+     * @param beans The beans, one row each.
+     * @param propertyNames The names of the bean properties, in parameter order.
+     * @return The generated keys, one per bean.
+     * @throws SQLException Thrown if a database access error occurs, or the
+     * driver does not return exactly one non-null key per row
+     * @see #insertBatchKeys(Connection, String, String[], String, List, String...)
+     * @since 1.9.0
+     */
+    public long[] insertBatchKeys(final String sql, final String[] keyColumns, final String keyProperty, final List<?> beans,
+            final String... propertyNames) throws SQLException {
+        try (Connection conn = prepareConnection()) {
+            return insertBatchKeys(conn, sql, keyColumns, keyProperty, beans, propertyNames);
+        }
+    }
+
+    /**
+     * Executes the given batch of INSERT SQL statements and returns one
+     * generated key per row. The {@code Connection} is retrieved from the
+     * {@code DataSource} set in the constructor.  This {@code Connection}
+     * must be in auto-commit mode or the insert will not be saved.
+     *
+     * @param sql The SQL to execute.
+     * @param keyColumns The names of the key columns, null to let the driver choose.
+     * @param params The query replacement parameters, one array per row.
+     * @return The generated keys, one per row.
+     * @throws SQLException Thrown if a database access error occurs, or the
+     * driver does not return exactly one non-null key per row
+     * @see #insertBatchKeys(Connection, String, String[], Object[][])
+     * @since 1.9.0
+     */
+    public long[] insertBatchKeys(final String sql, final String[] keyColumns, final Object[][] params) throws SQLException {
+        try (Connection conn = prepareConnection()) {
+            return insertBatchKeys(conn, sql, keyColumns, params);
+        }
+    }
+
+    private <T> T insertBatchMultiRow(final Connection conn, final String sql, final ResultSetHandler<T> rsh, final MultiRowInsert insert,
+            final Object[][] params) throws SQLException {
+        final int width = getStatementConfiguration().getMultiRowInsertWidth();
+        final int split = params.length - params.length % width;
+        PreparedStatement stmt = null;
+        PreparedStatement last = null;
+        T generatedKeys = null;
+        try {
+            if (split > 0) {
+                stmt = this.prepareStatement(conn, insert.sql(width), Statement.RETURN_GENERATED_KEYS);
+                addMultiRowBatch(stmt, insert, width, params, 0, split, null);
+            }
+            if (split < params.length) {
+                last = this.prepareStatement(conn, insert.sql(params.length - split), Statement.RETURN_GENERATED_KEYS);
+                addMultiRowBatch(last, insert, params.length - split, params, split, params.length, null);
+            }
+            final ResultSet[] keys = stmt == null ? new ResultSet[] { last.getGeneratedKeys() }
+                    : last == null ? new ResultSet[] { stmt.getGeneratedKeys() }
+                    : new ResultSet[] { stmt.getGeneratedKeys(), last.getGeneratedKeys() };
+            try (ResultSet resultSet = ConcatenatedResultSet.concatenate(keys)) {
+                generatedKeys = rsh.handle(resultSet);
+            }
+        } catch (final SQLException e) {
+            rethrow(e, sql, (Object[]) params);
+        } finally {
+            try {
+                close(stmt);
+            } finally {
+                close(last);
+            }
+        }
+
+        return generatedKeys;
+    }
+
+    /**
+     * Executes the given INSERT SQL statement with named parameters such as
+     * {@code :name}.  The caller is responsible for closing the connection.
+     *
+     * @param <T> The type of object that the handler returns
+     * @param conn The connection to use to run the query.
+     * @param sql The SQL to execute, with named parameters.
+     * @param rsh The handler used to create the result object from
+     * the {@code ResultSet} of auto-generated keys.
+     * @param params A {@code Map} from parameter names to values, or a bean
+     * with a readable property for each parameter name.
+     * @return An object generated by the handler.
+     * @throws SQLException Thrown if a database access error occurs
+     * @see NamedSql
+     * @since 1.9.0
+     */
+    public <T> T insertNamed(final Connection conn, final String sql, final ResultSetHandler<T> rsh, final Object params) throws SQLException {
+        final NamedSql named = namedSql(sql);
+        return insert(conn, named.getSql(), rsh, named.bind(params));
+    }
+
+    /**
+     * Executes the given INSERT SQL statement with named parameters such as
+     * {@code :name}.  The {@code Connection} is retrieved from the
+     * {@code DataSource} set in the constructor.  This {@code Connection}
+     * must be in auto-commit mode or the insert will not be saved.
+     *
+     * @param <T> The type of object that the handler returns
+     * @param sql The SQL to execute, with named parameters.
+     * @param rsh The handler used to create the result object from
+     * the {@code ResultSet} of auto-generated keys.
+     * @param params A {@code Map} from parameter names to values, or a bean
+     * with a readable property for each parameter name.
+     * @return An object generated by the handler.
+     * @throws SQLException Thrown if a database access error occurs
+     * @see NamedSql
+     * @since 1.9.0
+     */
+    public <T> T insertNamed(final String sql, final ResultSetHandler<T> rsh, final Object params) throws SQLException {
+        final NamedSql named = namedSql(sql);
+        return insert(named.getSql(), rsh, named.bind(params));
+    }
+
+    /**
+     * Gets the multi-row form of a batched INSERT, if it is enabled and
+     * applies.
+     *
+     * @param sql The SQL of the batch.
+     * @param rows The number of rows of the batch.
+     * @return The parsed INSERT, or null to run the batch as is.
+     */
+    private MultiRowInsert multiRowInsert(final String sql, final int rows) {
+        final StatementConfiguration stmtConfig = getStatementConfiguration();
+        if (rows < 2 || stmtConfig == null || !stmtConfig.isMultiRowInsertWidthSet() || stmtConfig.getMultiRowInsertWidth() < 2) {
+            return null;
+        }
+        return MultiRowInsert.of(sql);
+    }
+
+    /**
+     * Gets the parsed form of SQL with named parameters.
+     *
+     * @param sql The SQL with named parameters.
+     * @return The parsed SQL.
+     * @throws SQLException if {@code sql} is null.
+     */
+    private NamedSql namedSql(final String sql) throws SQLException {
+        if (sql == null) {
+            throw new SQLException("Null SQL statement");
+        }
+        return NamedSql.of(sql);
+    }
+
     /**
      * Execute an SQL SELECT query with a single replacement parameter. The
      * caller is responsible for closing the connection.
@@ -579,6 +1208,28 @@ public class QueryRunner extends AbstractQueryRunner {
         return this.<T>query(conn, sql, rsh, (Object[]) null);
     }
 
+    /**
+     * Executes the given SELECT SQL query and returns a result object, with a
+     * statement configuration for this call only. The caller is responsible
+     * for closing the connection.
+     *
+     * @param <T> The type of object that the handler returns
+     * @param conn The connection to execute the query in.
+     * @param config The configuration of the statements of this call,
+     * replacing the one of this runner.
+     * @param sql The query to execute.
+     * @param rsh The handler that converts the results into an object.
+     * @param params The replacement parameters.
+     * @return The object returned by the handler.
+     * @throws SQLException if a database access error occurs
+     * @see #query(StatementConfiguration, String, ResultSetHandler, Object...)
+     * @since 1.9.0
+     */
+    public <T> T query(final Connection conn, final StatementConfiguration config, final String sql, final ResultSetHandler<T> rsh,
+            final Object... params) throws SQLException {
+        return withConfiguration(config, () -> query(conn, sql, rsh, params));
+    }
+
     /**
      * Execute an SQL SELECT query with replacement parameters.  The
      * caller is responsible for closing the connection.
@@ -612,11 +1263,11 @@ public class QueryRunner extends AbstractQueryRunner {
             if (params != null && params.length > 0) {
                 final PreparedStatement ps = this.prepareStatement(conn, sql);
                 stmt = ps;
-                this.fillStatement(ps, params);
-                resultSet = wrap(ps.executeQuery());
+                this.fillStatementForSql(ps, sql, params);
+                resultSet = measure(ps, sql, wrap(ps.executeQuery()));
             } else {
-                stmt = conn.createStatement();
-                resultSet = wrap(stmt.executeQuery(sql));
+                stmt = createStatement(conn, sql);
+                resultSet = measure(stmt, sql, wrap(stmt.executeQuery(sql)));
             }
             result = rsh.handle(resultSet);
 
@@ -716,6 +1367,218 @@ public class QueryRunner extends AbstractQueryRunner {
         }
     }
 
+    /**
+     * Executes the given SELECT SQL query and returns a result object,
+     * giving up at a deadline. The {@code Connection} is retrieved from the
+     * {@code DataSource} set in the constructor.
+     *
+     * <p>
+     * The statement gets a query timeout of the time remaining, and
+     * {@link Deadline#cancel()} cancels it while it runs or while its results
+     * are handled.
+     * </p>
+     *
+     * @param <T> The type of object that the handler returns
+     * @param deadline The deadline of the call.
+     * @param sql The SQL statement to execute.
+     * @param rsh The handler used to create the result object from
+     * the {@code ResultSet}.
+     * @param params Initialize the PreparedStatement's IN parameters with
+     * this array.
+     * @return An object generated by the handler.
+     * @throws SQLException Thrown if a database access error occurs, the
+     * deadline passes or is cancelled
+     * @since 1.9.0
+     */
+    public <T> T query(final Deadline deadline, final String sql, final ResultSetHandler<T> rsh, final Object... params) throws SQLException {
+        return withDeadline(deadline, () -> query(sql, rsh, params));
+    }
+
+    /**
+     * Executes the given SELECT SQL query and returns a result object, with a
+     * statement configuration for this call only, such as a larger fetch size
+     * or a streaming cursor for an export. The {@code Connection} is retrieved
+     * from the {@code DataSource} set in the constructor.
+     *
+     * @param <T> The type of object that the handler returns
+     * @param config The configuration of the statements of this call,
+     * replacing the one of this runner; see
+     * {@link StatementConfiguration.Builder#Builder(StatementConfiguration)}
+     * to override some of its values.
+     * @param sql The SQL statement to execute.
+     * @param rsh The handler used to create the result object from
+     * the {@code ResultSet}.
+     * @param params Initialize the PreparedStatement's IN parameters with
+     * this array.
+     * @return An object generated by the handler.
+     * @throws SQLException Thrown if a database access error occurs
+     * @since 1.9.0
+     */
+    public <T> T query(final StatementConfiguration config, final String sql, final ResultSetHandler<T> rsh, final Object... params)
+            throws SQLException {
+        return withConfiguration(config, () -> query(sql, rsh, params));
+    }
+
+    /**
+     * Executes the given SELECT SQL query and returns a result object,
+     * sharing the execution with identical calls already in flight.
+     * The {@code Connection} is retrieved from the
+     * {@code DataSource} set in the constructor. In
+     * {@link #inTransaction(TransactionCallback)} the query runs on its own,
+     * since its result may include uncommitted changes of the transaction.
+     *
+     * @param <T> The type of object that the handler returns
+     * @param coalescer Tracks the queries in flight.
+     * @param sql The SQL statement to execute.
+     * @param rsh The handler used to create the result object from
+     * the {@code ResultSet}.
+     * @param params Initialize the PreparedStatement's IN parameters with
+     * this array.
+     * @return A copy of the object generated by the handler.
+     * @throws SQLException Thrown if a database access error occurs
+     * @see QueryCoalescer
+     * @since 1.9.0
+     */
+    public <T> T queryCoalesced(final QueryCoalescer coalescer, final String sql, final ResultSetHandler<T> rsh, final Object... params)
+            throws SQLException {
+        if (getTransactionConnection() != null) {
+            return query(sql, rsh, params);
+        }
+        return coalescer.execute(getDataSource(), sql, rsh, params, () -> query(sql, rsh, params));
+    }
+
+    /**
+     * Execute an SQL SELECT query with named parameters such as
+     * {@code :name}.  The caller is responsible for closing the connection.
+     *
+     * @param <T> The type of object that the handler returns
+     * @param conn The connection to execute the query in.
+     * @param sql The query to execute, with named parameters.
+     * @param rsh The handler that converts the results into an object.
+     * @param params A {@code Map} from parameter names to values, or a bean
+     * with a readable property for each parameter name.
+     * @return The object returned by the handler.
+     * @throws SQLException Thrown if a database access error occurs
+     * @see NamedSql
+     * @since 1.9.0
+     */
+    public <T> T queryNamed(final Connection conn, final String sql, final ResultSetHandler<T> rsh, final Object params) throws SQLException {
+        final NamedSql named = namedSql(sql);
+        return this.<T>query(conn, named.getSql(), rsh, named.bind(params));
+    }
+
+    /**
+     * Execute an SQL SELECT query whose {@code Collection} parameters expand
+     * into IN-lists, as in {@code WHERE id IN (?)}.  The caller is
+     * responsible for closing the connection.
+     *
+     * <p>
+     * Each list is padded to a power of two by repeating its last value, so
+     * that few distinct statements reach the statement caches of the driver
+     * and the database; an empty list binds a single NULL. A list longer than
+     * {@link StatementConfiguration#getMaxInListSize()}, 1000 by default, is
+     * split over several executions whose rows reach the handler as one
+     * {@code ResultSet}. Only one list may be that long, and splitting only
+     * gives the same rows as a single query when the list is a plain filter:
+     * ordering, grouping and limits apply per execution.
+     * </p>
+     *
+     * @param <T> The type of object that the handler returns
+     * @param conn The connection to execute the query in.
+     * @param sql The query to execute.
+     * @param rsh The handler that converts the results into an object.
+     * @param params The replacement parameters; a {@code Collection} binds
+     * one placeholder per value.
+     * @return The object returned by the handler.
+     * @throws SQLException Thrown if a database access error occurs
+     * @since 1.9.0
+     */
+    public <T> T queryExpanded(final Connection conn, final String sql, final ResultSetHandler<T> rsh, final Object... params) throws SQLException {
+        if (conn == null) {
+            throw new SQLException("Null connection");
+        }
+
+        if (sql == null) {
+            throw new SQLException("Null SQL statement");
+        }
+
+        if (rsh == null) {
+            throw new SQLException("Null ResultSetHandler");
+        }
+
+        final List<InListSql.Execution> executions = expandInLists(sql, params);
+        if (executions.size() == 1) {
+            return this.<T>query(conn, executions.get(0).getSql(), rsh, executions.get(0).getParams());
+        }
+
+        final PreparedStatement[] stmts = new PreparedStatement[executions.size()];
+        final ResultSet[] resultSets = new ResultSet[executions.size()];
+        T result = null;
+
+        try {
+            for (int i = 0; i < stmts.length; i++) {
+                final InListSql.Execution execution = executions.get(i);
+                stmts[i] = this.prepareStatement(conn, execution.getSql());
+                this.fillStatementForSql(stmts[i], execution.getSql(), execution.getParams());
+                resultSets[i] = wrap(stmts[i].executeQuery());
+            }
+            result = rsh.handle(ConcatenatedResultSet.concatenate(resultSets));
+
+        } catch (final SQLException e) {
+            rethrow(e, sql, params);
+
+        } finally {
+            for (int i = 0; i < stmts.length; i++) {
+                closeQuietly(resultSets[i]);
+                closeQuietly(stmts[i]);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Execute an SQL SELECT query whose {@code Collection} parameters expand
+     * into IN-lists, as by
+     * {@link #queryExpanded(Connection, String, ResultSetHandler, Object...)}.
+     * The {@code Connection} is retrieved from the {@code DataSource} set in
+     * the constructor.
+     *
+     * @param <T> The type of object that the handler returns
+     * @param sql The query to execute.
+     * @param rsh The handler that converts the results into an object.
+     * @param params The replacement parameters; a {@code Collection} binds
+     * one placeholder per value.
+     * @return The object returned by the handler.
+     * @throws SQLException Thrown if a database access error occurs
+     * @since 1.9.0
+     */
+    public <T> T queryExpanded(final String sql, final ResultSetHandler<T> rsh, final Object... params) throws SQLException {
+        try (Connection conn = prepareConnection()) {
+            return this.<T>queryExpanded(conn, sql, rsh, params);
+        }
+    }
+
+    /**
+     * Execute an SQL SELECT query with named parameters such as
+     * {@code :name}.  The {@code Connection} is retrieved from the
+     * {@code DataSource} set in the constructor.
+     *
+     * @param <T> The type of object that the handler returns
+     * @param sql The query to execute, with named parameters.
+     * @param rsh The handler that converts the results into an object.
+     * @param params A {@code Map} from parameter names to values, or a bean
+     * with a readable property for each parameter name.
+     * @return The object returned by the handler.
+     * @throws SQLException Thrown if a database access error occurs
+     * @see NamedSql
+     * @since 1.9.0
+     */
+    public <T> T queryNamed(final String sql, final ResultSetHandler<T> rsh, final Object params) throws SQLException {
+        final NamedSql named = namedSql(sql);
+        return this.<T>query(named.getSql(), rsh, named.bind(params));
+    }
+
     /**
      * Set the value on all the {@link OutParameter} instances in the
      * {@code params} array using the OUT parameter values from the
@@ -788,10 +1651,10 @@ public class QueryRunner extends AbstractQueryRunner {
             if (params != null && params.length > 0) {
                 final PreparedStatement ps = this.prepareStatement(conn, sql);
                 stmt = ps;
-                this.fillStatement(ps, params);
+                this.fillStatementForSql(ps, sql, params);
                 rows = ps.executeUpdate();
             } else {
-                stmt = conn.createStatement();
+                stmt = createStatement(conn, sql);
                 rows = stmt.executeUpdate(sql);
             }
 
@@ -857,4 +1720,138 @@ public class QueryRunner extends AbstractQueryRunner {
             return this.update(conn, sql, params);
         }
     }
+
+    /**
+     * Executes the given INSERT, UPDATE, or DELETE SQL statement, giving up
+     * at a deadline. The {@code Connection} is retrieved from the
+     * {@code DataSource} set in the constructor.
+     *
+     * @param deadline The deadline of the call.
+     * @param sql The SQL statement to execute.
+     * @param params Initializes the PreparedStatement's IN (i.e. '?')
+     * parameters.
+     * @return The number of rows updated.
+     * @throws SQLException Thrown if a database access error occurs, the
+     * deadline passes or is cancelled
+     * @see #query(Deadline, String, ResultSetHandler, Object...)
+     * @since 1.9.0
+     */
+    public int update(final Deadline deadline, final String sql, final Object... params) throws SQLException {
+        return withDeadline(deadline, () -> update(sql, params)).intValue();
+    }
+
+    /**
+     * Execute an SQL INSERT, UPDATE, or DELETE query whose {@code Collection}
+     * parameters expand into IN-lists, as by
+     * {@link #queryExpanded(Connection, String, ResultSetHandler, Object...)}.
+     * When a list is split, the executions are not atomic unless the
+     * connection is in a transaction.
+     *
+     * @param conn The connection to use to run the query.
+     * @param sql The SQL to execute.
+     * @param params The replacement parameters; a {@code Collection} binds
+     * one placeholder per value.
+     * @return The number of rows updated by all executions.
+     * @throws SQLException Thrown if a database access error occurs
+     * @since 1.9.0
+     */
+    public int updateExpanded(final Connection conn, final String sql, final Object... params) throws SQLException {
+        if (sql == null) {
+            throw new SQLException("Null SQL statement");
+        }
+
+        int rows = 0;
+        for (final InListSql.Execution execution : expandInLists(sql, params)) {
+            rows += this.update(conn, execution.getSql(), execution.getParams());
+        }
+        return rows;
+    }
+
+    /**
+     * Execute an SQL INSERT, UPDATE, or DELETE query whose {@code Collection}
+     * parameters expand into IN-lists.  The {@code Connection} is retrieved
+     * from the {@code DataSource} set in the constructor.  This
+     * {@code Connection} must be in auto-commit mode or the update will not
+     * be saved.
+     *
+     * @param sql The SQL to execute.
+     * @param params The replacement parameters; a {@code Collection} binds
+     * one placeholder per value.
+     * @return The number of rows updated by all executions.
+     * @throws SQLException Thrown if a database access error occurs
+     * @see #updateExpanded(Connection, String, Object...)
+     * @since 1.9.0
+     */
+    public int updateExpanded(final String sql, final Object... params) throws SQLException {
+        try (Connection conn = prepareConnection()) {
+            return this.updateExpanded(conn, sql, params);
+        }
+    }
+
+    /**
+     * Execute an SQL INSERT, UPDATE, or DELETE query with named parameters
+     * such as {@code :name}.
+     *
+     * @param conn The connection to use to run the query.
+     * @param sql The SQL to execute, with named parameters.
+     * @param params A {@code Map} from parameter names to values, or a bean
+     * with a readable property for each parameter name.
+     * @return The number of rows updated.
+     * @throws SQLException Thrown if a database access error occurs
+     * @see NamedSql
+     * @since 1.9.0
+     */
+    public int updateNamed(final Connection conn, final String sql, final Object params) throws SQLException {
+        final NamedSql named = namedSql(sql);
+        return update(conn, named.getSql(), named.bind(params));
+    }
+
+    /**
+     * Execute an SQL INSERT, UPDATE, or DELETE query with named parameters
+     * such as {@code :name}.  The {@code Connection} is retrieved from the
+     * {@code DataSource} set in the constructor.  This {@code Connection}
+     * must be in auto-commit mode or the update will not be saved.
+     *
+     * @param sql The SQL to execute, with named parameters.
+     * @param params A {@code Map} from parameter names to values, or a bean
+     * with a readable property for each parameter name.
+     * @return The number of rows updated.
+     * @throws SQLException Thrown if a database access error occurs
+     * @see NamedSql
+     * @since 1.9.0
+     */
+    public int updateNamed(final String sql, final Object params) throws SQLException {
+        final NamedSql named = namedSql(sql);
+        return update(named.getSql(), named.bind(params));
+    }
+
+    /**
+     * Runs a call with a statement configuration bound to the current thread.
+     */
+    private <T> T withConfiguration(final StatementConfiguration config, final Call<T> call) throws SQLException {
+        Objects.requireNonNull(config, "config");
+        final StatementConfiguration enclosing = getCallConfiguration();
+        setCallConfiguration(config);
+        try {
+            return call.call();
+        } finally {
+            setCallConfiguration(enclosing);
+        }
+    }
+
+    /**
+     * Runs a call with a deadline bound to the current thread. The call
+     * fails at once if the deadline passed, before taking a connection.
+     */
+    private <T> T withDeadline(final Deadline deadline, final Call<T> call) throws SQLException {
+        Objects.requireNonNull(deadline, "deadline");
+        deadline.check();
+        final Deadline enclosing = getDeadline();
+        setDeadline(deadline);
+        try {
+            return call.call();
+        } finally {
+            setDeadline(enclosing);
+        }
+    }
 }
@@ -0,0 +1,206 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.dbutils;
+
+import java.sql.SQLException;
+import java.sql.SQLTransientException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * When and how often {@link RetryingQueryRunner} retries a failed call.
+ *
+ * <pre>
+ * RetryPolicy policy = new RetryPolicy.Builder()
+ *     .maxAttempts(5)
+ *     .backoff(Duration.ofMillis(20), Duration.ofSeconds(2))
+ *     .build();
+ * </pre>
+ *
+ * <p>
+ * A failure is transient if any exception of its chain is a
+ * {@link SQLTransientException}, or has an SQLState starting with one of the
+ * transient prefixes; by default {@code 40}, the class of serialization
+ * failures ({@code 40001}) and deadlocks ({@code 40P01}). Retries wait an
+ * exponentially growing backoff with full jitter: a random time between zero
+ * and {@code initialBackoff * 2^(attempt - 1)}, capped at {@code maxBackoff}.
+ * </p>
+ *
+ * @since 1.9.0
+ */
+public class RetryPolicy {
+
+    /**
+     * Builder class for {@code RetryPolicy}.
+     */
+    public static final class Builder {
+
+        private int maxAttempts = DEFAULT_MAX_ATTEMPTS;
+        private Duration initialBackoff = Duration.ofMillis(DEFAULT_INITIAL_BACKOFF_MILLIS);
+        private Duration maxBackoff = Duration.ofMillis(DEFAULT_MAX_BACKOFF_MILLIS);
+        private String[] transientSqlStates = { "40" };
+
+        /**
+         * Constructs a new instance.
+         */
+        public Builder() {
+            // empty
+        }
+
+        /**
+         * Sets the backoff between attempts.
+         *
+         * @param initialBackoff The upper bound of the wait before the first retry.
+         * @param maxBackoff The upper bound of the wait before any retry.
+         * @return This builder for chaining.
+         */
+        public Builder backoff(final Duration initialBackoff, final Duration maxBackoff) {
+            if (initialBackoff.isNegative() || maxBackoff.compareTo(initialBackoff) < 0) {
+                throw new IllegalArgumentException("Invalid backoff: " + initialBackoff + ", " + maxBackoff);
+            }
+            this.initialBackoff = initialBackoff;
+            this.maxBackoff = maxBackoff;
+            return this;
+        }
+
+        /**
+         * Builds a new {@link RetryPolicy}.
+         *
+         * @return A new and configured {@link RetryPolicy}.
+         */
+        public RetryPolicy build() {
+            return new RetryPolicy(this);
+        }
+
+        /**
+         * Sets the number of attempts of a call, {@value RetryPolicy#DEFAULT_MAX_ATTEMPTS} by default.
+         *
+         * @param maxAttempts The number of attempts, 1 to never retry.
+         * @return This builder for chaining.
+         */
+        public Builder maxAttempts(final int maxAttempts) {
+            if (maxAttempts <= 0) {
+                throw new IllegalArgumentException("maxAttempts must be positive: " + maxAttempts);
+            }
+            this.maxAttempts = maxAttempts;
+            return this;
+        }
+
+        /**
+         * Sets the SQLState prefixes of transient failures, replacing the default {@code 40}.
+         *
+         * @param prefixes The SQLStates or SQLState prefixes, such as {@code "40001"} or {@code "08"}.
+         * @return This builder for chaining.
+         */
+        public Builder transientSqlStates(final String... prefixes) {
+            this.transientSqlStates = prefixes.clone();
+            for (final String prefix : transientSqlStates) {
+                Objects.requireNonNull(prefix, "prefix");
+            }
+            return this;
+        }
+    }
+
+    /**
+     * The default number of attempts.
+     */
+    public static final int DEFAULT_MAX_ATTEMPTS = 3;
+
+    private static final long DEFAULT_INITIAL_BACKOFF_MILLIS = 50;
+
+    private static final long DEFAULT_MAX_BACKOFF_MILLIS = 5_000;
+
+    private final int maxAttempts;
+
+    private final long initialBackoffNanos;
+
+    private final long maxBackoffNanos;
+
+    private final String[] transientSqlStates;
+
+    private RetryPolicy(final Builder builder) {
+        this.maxAttempts = builder.maxAttempts;
+        this.initialBackoffNanos = builder.initialBackoff.toNanos();
+        this.maxBackoffNanos = builder.maxBackoff.toNanos();
+        this.transientSqlStates = builder.transientSqlStates;
+    }
+
+    /**
+     * Gets a random wait before a retry.
+     *
+     * @param attempt The number of the attempt that failed, starting at 1.
+     * @return The wait, between zero and the capped exponential backoff.
+     */
+    public Duration getBackoff(final int attempt) {
+        final int shift = Math.min(Math.max(attempt - 1, 0), Long.SIZE - 2);
+        final long bound = initialBackoffNanos > maxBackoffNanos >> shift ? maxBackoffNanos : initialBackoffNanos << shift;
+        return Duration.ofNanos(bound <= 0 ? 0 : ThreadLocalRandom.current().nextLong(bound + 1));
+    }
+
+    /**
+     * Gets the number of attempts of a call.
+     *
+     * @return The number of attempts, at least 1.
+     */
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    /**
+     * Tests whether a failure may succeed when retried.
+     *
+     * @param e The failure.
+     * @return Whether an exception in the chain of {@code e}, or in the causes
+     * of one of them, is transient.
+     */
+    public boolean isTransient(final SQLException e) {
+        final Set<Throwable> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (SQLException next = e; next != null && seen.add(next); next = next.getNextException()) {
+            for (Throwable cause = next; cause != null; cause = cause.getCause()) {
+                if (cause != next && !seen.add(cause)) {
+                    break;
+                }
+                if (cause instanceof SQLTransientException || cause instanceof SQLException && isTransientState(((SQLException) cause).getSQLState())) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private boolean isTransientState(final String state) {
+        if (state != null) {
+            for (final String prefix : transientSqlStates) {
+                if (state.startsWith(prefix)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return "RetryPolicy [maxAttempts=" + maxAttempts + ", initialBackoff=" + Duration.ofNanos(initialBackoffNanos) + ", maxBackoff="
+                + Duration.ofNanos(maxBackoffNanos) + ", transientSqlStates=" + Arrays.toString(transientSqlStates) + "]";
+    }
+}
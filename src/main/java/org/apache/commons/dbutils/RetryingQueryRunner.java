@@ -0,0 +1,326 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.dbutils;
+
+import java.sql.BatchUpdateException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.sql.DataSource;
+
+/**
+ * A {@code QueryRunner} that retries calls failing with transient errors,
+ * such as deadlocks and serialization failures, and isolates the failing rows
+ * of batches.
+ *
+ * <p>
+ * The methods that take no {@code Connection} run each attempt on a new
+ * connection from the {@code DataSource}, retrying as the
+ * {@link RetryPolicy} allows. Calls given a {@code Connection}, or running in
+ * {@link #inTransaction(TransactionCallback)}, are never retried: a transient
+ * failure rolls back the whole transaction, which only its owner can replay.
+ * </p>
+ * <p>
+ * {@link #batch(String, Object[][])} runs each batch in its own transaction.
+ * When a batch fails with a {@link BatchUpdateException}, or keeps failing
+ * with transient errors, it is rolled back and split in halves that are run
+ * separately, down to single rows. The rows that succeed are committed; if
+ * any row fails, a {@code BatchUpdateException} is thrown after the others
+ * are committed, with {@link Statement#EXECUTE_FAILED} as the update count of
+ * the failed rows and their exceptions chained with
+ * {@link SQLException#getNextException()}.
+ * </p>
+ *
+ * @see RetryPolicy
+ * @since 1.9.0
+ */
+public class RetryingQueryRunner extends QueryRunner {
+
+    /**
+     * A call on a connection.
+     *
+     * @param <T> The type of the result.
+     */
+    @FunctionalInterface
+    private interface Call<T> {
+        T call(Connection conn) throws SQLException;
+    }
+
+    private static boolean isBatchFailure(final SQLException e) {
+        for (SQLException next = e; next != null; next = next.getNextException()) {
+            if (next instanceof BatchUpdateException || next.getCause() instanceof BatchUpdateException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private final RetryPolicy policy;
+
+    private final AtomicLong retries = new AtomicLong();
+
+    /**
+     * Constructs a runner that takes connections from a {@code DataSource}.
+     *
+     * @param ds The {@code DataSource} to retrieve connections from.
+     * @param policy When to retry.
+     */
+    public RetryingQueryRunner(final DataSource ds, final RetryPolicy policy) {
+        super(ds);
+        this.policy = Objects.requireNonNull(policy, "policy");
+    }
+
+    /**
+     * Constructs a runner that takes connections from a {@code DataSource} and configures statements.
+     *
+     * @param ds The {@code DataSource} to retrieve connections from.
+     * @param stmtConfig The configuration to apply to statements when they are prepared.
+     * @param policy When to retry.
+     */
+    public RetryingQueryRunner(final DataSource ds, final StatementConfiguration stmtConfig, final RetryPolicy policy) {
+        super(ds, stmtConfig);
+        this.policy = Objects.requireNonNull(policy, "policy");
+    }
+
+    /**
+     * Runs a batch with retries, isolating the rows that fail.
+     *
+     * @param sql The SQL statement to execute.
+     * @param params An array of query replacement parameters.  Each row in
+     * this array is one set of batch replacement values.
+     * @return The number of rows updated per statement.
+     * @throws SQLException if the connection fails, or a
+     * {@code BatchUpdateException} reporting the failed rows after the other
+     * rows are committed
+     */
+    @Override
+    public int[] batch(final String sql, final Object[][] params) throws SQLException {
+        if (params == null || getTransactionConnection() != null) {
+            return super.batch(sql, params);
+        }
+        final int[] counts = new int[params.length];
+        final List<SQLException> failures = new ArrayList<>();
+        try (Connection conn = prepareConnection()) {
+            final boolean autoCommit = conn.getAutoCommit();
+            if (autoCommit) {
+                conn.setAutoCommit(false);
+            }
+            try {
+                bisect(conn, sql, params, 0, params.length, counts, failures);
+                if (!failures.isEmpty()) {
+                    final SQLException first = failures.get(0);
+                    final BatchUpdateException e = new BatchUpdateException(failures.size() + " of " + params.length + " rows failed. Query: " + sql,
+                            first.getSQLState(), first.getErrorCode(), counts, null);
+                    failures.forEach(e::setNextException);
+                    throw e;
+                }
+            } catch (final SQLException | RuntimeException | Error e) {
+                if (autoCommit) {
+                    // Keep the failure if auto-commit cannot be restored either.
+                    try {
+                        conn.setAutoCommit(true);
+                    } catch (final SQLException suppressed) {
+                        e.addSuppressed(suppressed);
+                    }
+                }
+                throw e;
+            }
+            if (autoCommit) {
+                conn.setAutoCommit(true);
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Runs rows {@code from} to {@code to} of a batch in a transaction, and
+     * splits them in halves if they fail.
+     */
+    private void bisect(final Connection conn, final String sql, final Object[][] params, final int from, final int to, final int[] counts,
+            final List<SQLException> failures) throws SQLException {
+        final Object[][] slice = from == 0 && to == params.length ? params : Arrays.copyOfRange(params, from, to);
+        for (int attempt = 1;; attempt++) {
+            try {
+                final int[] rows = batch(conn, sql, slice);
+                conn.commit();
+                System.arraycopy(rows, 0, counts, from, Math.min(rows.length, to - from));
+                return;
+            } catch (final SQLException e) {
+                conn.rollback();
+                if (attempt < policy.getMaxAttempts() && policy.isTransient(e)) {
+                    pause(attempt, e);
+                    continue;
+                }
+                if (to - from == 1) {
+                    counts[from] = Statement.EXECUTE_FAILED;
+                    failures.add(e);
+                    return;
+                }
+                if (!isBatchFailure(e) && !policy.isTransient(e)) {
+                    throw e;
+                }
+                final int middle = (from + to) >>> 1;
+                bisect(conn, sql, params, from, middle, counts, failures);
+                bisect(conn, sql, params, middle, to, counts, failures);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Runs a statement with retries.
+     */
+    @Override
+    public int execute(final String sql, final Object... params) throws SQLException {
+        return retry(conn -> execute(conn, sql, params));
+    }
+
+    /**
+     * Runs a statement with retries.
+     */
+    @Override
+    public <T> List<T> execute(final String sql, final ResultSetHandler<T> rsh, final Object... params) throws SQLException {
+        return retry(conn -> execute(conn, sql, rsh, params));
+    }
+
+    /**
+     * Gets the number of retries made.
+     *
+     * @return The number of attempts that followed a transient failure.
+     */
+    public long getRetryCount() {
+        return retries.get();
+    }
+
+    /**
+     * Runs an INSERT with retries.
+     */
+    @Override
+    public <T> T insert(final String sql, final ResultSetHandler<T> rsh) throws SQLException {
+        return retry(conn -> insert(conn, sql, rsh));
+    }
+
+    /**
+     * Runs an INSERT with retries.
+     */
+    @Override
+    public <T> T insert(final String sql, final ResultSetHandler<T> rsh, final Object... params) throws SQLException {
+        return retry(conn -> insert(conn, sql, rsh, params));
+    }
+
+    /**
+     * Runs a batch of INSERTs with retries.
+     */
+    @Override
+    public <T> T insertBatch(final String sql, final ResultSetHandler<T> rsh, final Object[][] params) throws SQLException {
+        return retry(conn -> insertBatch(conn, sql, rsh, params));
+    }
+
+    /**
+     * Runs a batch of INSERTs with retries.
+     */
+    @Override
+    public long[] insertBatchKeys(final String sql, final String[] keyColumns, final Object[][] params) throws SQLException {
+        return retry(conn -> insertBatchKeys(conn, sql, keyColumns, params));
+    }
+
+    /**
+     * Runs a batch of INSERTs with retries.
+     */
+    @Override
+    public long[] insertBatchKeys(final String sql, final String[] keyColumns, final String keyProperty, final List<?> beans,
+            final String... propertyNames) throws SQLException {
+        return retry(conn -> insertBatchKeys(conn, sql, keyColumns, keyProperty, beans, propertyNames));
+    }
+
+    /**
+     * Waits before a retry.
+     *
+     * @param attempt The number of the attempt that failed.
+     * @param cause The failure, thrown if the thread is interrupted.
+     */
+    private void pause(final int attempt, final SQLException cause) throws SQLException {
+        retries.incrementAndGet();
+        try {
+            TimeUnit.NANOSECONDS.sleep(policy.getBackoff(attempt).toNanos());
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw cause;
+        }
+    }
+
+    /**
+     * Runs a query with retries.
+     */
+    @Override
+    public <T> T query(final String sql, final ResultSetHandler<T> rsh) throws SQLException {
+        return retry(conn -> query(conn, sql, rsh));
+    }
+
+    /**
+     * Runs a query with retries.
+     */
+    @Override
+    public <T> T query(final String sql, final ResultSetHandler<T> rsh, final Object... params) throws SQLException {
+        return retry(conn -> query(conn, sql, rsh, params));
+    }
+
+    private <T> T retry(final Call<T> call) throws SQLException {
+        final boolean retrying = getTransactionConnection() == null;
+        for (int attempt = 1;; attempt++) {
+            try (Connection conn = prepareConnection()) {
+                return call.call(conn);
+            } catch (final SQLException e) {
+                if (!retrying || attempt >= policy.getMaxAttempts() || !policy.isTransient(e)) {
+                    throw e;
+                }
+                pause(attempt, e);
+            }
+        }
+    }
+
+    /**
+     * Runs an UPDATE, INSERT or DELETE with retries.
+     */
+    @Override
+    public int update(final String sql) throws SQLException {
+        return retry(conn -> update(conn, sql));
+    }
+
+    /**
+     * Runs an UPDATE, INSERT or DELETE with retries.
+     */
+    @Override
+    public int update(final String sql, final Object param) throws SQLException {
+        return retry(conn -> update(conn, sql, param));
+    }
+
+    /**
+     * Runs an UPDATE, INSERT or DELETE with retries.
+     */
+    @Override
+    public int update(final String sql, final Object... params) throws SQLException {
+        return retry(conn -> update(conn, sql, params));
+    }
+}
@@ -0,0 +1,422 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.dbutils;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.sql.DataSource;
+
+/**
+ * A {@code QueryRunner} that sends queries to replica {@code DataSource}s and
+ * everything else to the primary.
+ *
+ * <pre>
+ * RoutingQueryRunner runner = new RoutingQueryRunner(primary, Arrays.asList(replica1, replica2),
+ *     RoutingQueryRunner.Strategy.LEAST_IN_FLIGHT, Duration.ofSeconds(2));
+ * runner.update("UPDATE person SET name = ? WHERE id = ?", name, id); // primary
+ * runner.query("SELECT name FROM person WHERE id = ?", handler, id);   // primary, within 2 seconds of the write
+ * </pre>
+ *
+ * <p>
+ * The {@code query}, {@code queryNamed} and {@code queryExpanded} methods
+ * that do not take a {@code Connection} read from a replica chosen by the
+ * {@link Strategy}. The {@code update}, {@code insert}, {@code batch} and
+ * {@code execute} methods, and the deprecated {@code query} variants, use the
+ * primary. Methods given a {@code Connection} use that connection, and
+ * queries in {@link #inTransaction(TransactionCallback)} use the connection
+ * of the transaction.
+ * </p>
+ * <p>
+ * Replicas lag behind the primary. After a thread writes through this runner,
+ * its queries go to the primary for the read-your-writes window, so it sees
+ * its own changes. Call {@link #markWritten()} after writes made outside of
+ * this runner. If a replica does not provide a connection, the query falls
+ * back to the primary.
+ * </p>
+ *
+ * @since 1.9.0
+ */
+public class RoutingQueryRunner extends QueryRunner {
+
+    /**
+     * A query on a connection.
+     *
+     * @param <T> The type of the result.
+     */
+    @FunctionalInterface
+    private interface Read<T> {
+        T read(Connection conn) throws SQLException;
+    }
+
+    /**
+     * A replica and its load.
+     */
+    private static final class Replica {
+
+        private final DataSource dataSource;
+
+        private final AtomicInteger inFlight = new AtomicInteger();
+
+        /**
+         * Moving average of the query time in nanoseconds, 0 before the first query.
+         */
+        private final AtomicLong latency = new AtomicLong();
+
+        private Replica(final DataSource dataSource) {
+            this.dataSource = Objects.requireNonNull(dataSource, "replica");
+        }
+
+        private void record(final long nanos) {
+            final long sample = Math.max(nanos, 1);
+            latency.getAndUpdate(average -> average == 0 ? sample : average + (sample - average) / LATENCY_SMOOTHING);
+        }
+
+        private double weight() {
+            return 1.0 / Math.max(latency.get(), MIN_LATENCY_NANOS);
+        }
+    }
+
+    /**
+     * How a replica is chosen for a query.
+     */
+    public enum Strategy {
+
+        /**
+         * Each replica in turn.
+         */
+        ROUND_ROBIN,
+
+        /**
+         * The replica running the fewest queries of this runner, in turn among equals.
+         */
+        LEAST_IN_FLIGHT,
+
+        /**
+         * A random replica, with a probability inversely proportional to the
+         * moving average of its query time.
+         */
+        LATENCY_WEIGHTED
+    }
+
+    /**
+     * The weight of older query times in the moving average, as {@code 1 - 1 / LATENCY_SMOOTHING}.
+     */
+    private static final int LATENCY_SMOOTHING = 8;
+
+    /**
+     * Query times below this count as this, so that one fast query does not
+     * take all the traffic.
+     */
+    private static final long MIN_LATENCY_NANOS = 100_000;
+
+    private final List<Replica> replicas;
+
+    private final Strategy strategy;
+
+    private final long windowNanos;
+
+    private final AtomicInteger next = new AtomicInteger();
+
+    private final AtomicLong fallbacks = new AtomicLong();
+
+    /**
+     * When the current thread last wrote, in {@link System#nanoTime()}, or null.
+     */
+    private final ThreadLocal<Long> lastWrite = new ThreadLocal<>();
+
+    /**
+     * Constructs a runner.
+     *
+     * @param primary The {@code DataSource} of writes.
+     * @param replicas The {@code DataSource}s of queries; queries use the primary if empty.
+     * @param strategy How to choose a replica for a query.
+     * @param readYourWritesWindow How long a thread reads from the primary after a write, may be null or zero.
+     */
+    public RoutingQueryRunner(final DataSource primary, final List<? extends DataSource> replicas, final Strategy strategy,
+            final Duration readYourWritesWindow) {
+        this(primary, replicas, strategy, readYourWritesWindow, null);
+    }
+
+    /**
+     * Constructs a runner that configures statements.
+     *
+     * @param primary The {@code DataSource} of writes.
+     * @param replicas The {@code DataSource}s of queries; queries use the primary if empty.
+     * @param strategy How to choose a replica for a query.
+     * @param readYourWritesWindow How long a thread reads from the primary after a write, may be null or zero.
+     * @param stmtConfig The configuration to apply to statements when they are prepared, may be null.
+     */
+    public RoutingQueryRunner(final DataSource primary, final List<? extends DataSource> replicas, final Strategy strategy,
+            final Duration readYourWritesWindow, final StatementConfiguration stmtConfig) {
+        super(Objects.requireNonNull(primary, "primary"), stmtConfig);
+        this.replicas = new ArrayList<>(replicas.size());
+        for (final DataSource replica : replicas) {
+            this.replicas.add(new Replica(replica));
+        }
+        this.strategy = Objects.requireNonNull(strategy, "strategy");
+        if (readYourWritesWindow != null && readYourWritesWindow.isNegative()) {
+            throw new IllegalArgumentException("readYourWritesWindow must not be negative: " + readYourWritesWindow);
+        }
+        this.windowNanos = readYourWritesWindow == null ? 0 : readYourWritesWindow.toNanos();
+    }
+
+    /**
+     * Runs a batch on the primary and opens the read-your-writes window.
+     */
+    @Override
+    public int[] batch(final Connection conn, final String sql, final Iterable<?> beans, final String... propertyNames) throws SQLException {
+        try {
+            return super.batch(conn, sql, beans, propertyNames);
+        } finally {
+            markWritten();
+        }
+    }
+
+    /**
+     * Runs a batch on the primary and opens the read-your-writes window.
+     */
+    @Override
+    public int[] batch(final Connection conn, final String sql, final Object[][] params) throws SQLException {
+        try {
+            return super.batch(conn, sql, params);
+        } finally {
+            markWritten();
+        }
+    }
+
+    /**
+     * Runs a statement on the primary and opens the read-your-writes window.
+     */
+    @Override
+    public int execute(final Connection conn, final String sql, final Object... params) throws SQLException {
+        try {
+            return super.execute(conn, sql, params);
+        } finally {
+            markWritten();
+        }
+    }
+
+    /**
+     * Runs a statement on the primary and opens the read-your-writes window.
+     */
+    @Override
+    public <T> List<T> execute(final Connection conn, final String sql, final ResultSetHandler<T> rsh, final Object... params) throws SQLException {
+        try {
+            return super.execute(conn, sql, rsh, params);
+        } finally {
+            markWritten();
+        }
+    }
+
+    /**
+     * Gets the number of queries that used the primary because a replica did
+     * not provide a connection.
+     *
+     * @return The number of fallbacks.
+     */
+    public long getFallbackCount() {
+        return fallbacks.get();
+    }
+
+    /**
+     * Gets the number of queries of this runner running on a replica.
+     *
+     * @param index The index of the replica, in the order given to the constructor.
+     * @return The number of queries in flight.
+     */
+    public int getInFlight(final int index) {
+        return replicas.get(index).inFlight.get();
+    }
+
+    /**
+     * Gets the moving average of the query time of a replica.
+     *
+     * @param index The index of the replica, in the order given to the constructor.
+     * @return The average query time, zero before the first query.
+     */
+    public Duration getLatency(final int index) {
+        return Duration.ofNanos(replicas.get(index).latency.get());
+    }
+
+    /**
+     * Runs an INSERT on the primary and opens the read-your-writes window.
+     */
+    @Override
+    public <T> T insert(final Connection conn, final String sql, final ResultSetHandler<T> rsh, final Object... params) throws SQLException {
+        try {
+            return super.insert(conn, sql, rsh, params);
+        } finally {
+            markWritten();
+        }
+    }
+
+    /**
+     * Runs a batch of INSERTs on the primary and opens the read-your-writes window.
+     */
+    @Override
+    public <T> T insertBatch(final Connection conn, final String sql, final ResultSetHandler<T> rsh, final Object[][] params) throws SQLException {
+        try {
+            return super.insertBatch(conn, sql, rsh, params);
+        } finally {
+            markWritten();
+        }
+    }
+
+    /**
+     * Runs a batch of INSERTs on the primary and opens the read-your-writes window.
+     */
+    @Override
+    public long[] insertBatchKeys(final Connection conn, final String sql, final String[] keyColumns, final Object[][] params) throws SQLException {
+        try {
+            return super.insertBatchKeys(conn, sql, keyColumns, params);
+        } finally {
+            markWritten();
+        }
+    }
+
+    /**
+     * Opens the read-your-writes window of the current thread, for writes
+     * made without this runner.
+     */
+    public void markWritten() {
+        if (windowNanos > 0) {
+            lastWrite.set(Long.valueOf(System.nanoTime()));
+        }
+    }
+
+    /**
+     * Runs the query on a replica, or on the primary within the read-your-writes window.
+     */
+    @Override
+    public <T> T query(final String sql, final ResultSetHandler<T> rsh) throws SQLException {
+        return read(conn -> query(conn, sql, rsh));
+    }
+
+    /**
+     * Runs the query on a replica, or on the primary within the read-your-writes window.
+     */
+    @Override
+    public <T> T query(final String sql, final ResultSetHandler<T> rsh, final Object... params) throws SQLException {
+        return read(conn -> query(conn, sql, rsh, params));
+    }
+
+    /**
+     * Runs the query on a replica, or on the primary within the read-your-writes window.
+     */
+    @Override
+    public <T> T queryExpanded(final String sql, final ResultSetHandler<T> rsh, final Object... params) throws SQLException {
+        return read(conn -> queryExpanded(conn, sql, rsh, params));
+    }
+
+    private <T> T read(final Read<T> read) throws SQLException {
+        final Replica replica = readsPrimary() ? null : select();
+        if (replica == null) {
+            try (Connection conn = prepareConnection()) {
+                return read.read(conn);
+            }
+        }
+        final Connection conn;
+        try {
+            conn = replica.dataSource.getConnection();
+        } catch (final SQLException e) {
+            fallbacks.incrementAndGet();
+            try (Connection primary = prepareConnection()) {
+                return read.read(primary);
+            }
+        }
+        replica.inFlight.incrementAndGet();
+        final long start = System.nanoTime();
+        try (Connection c = conn) {
+            return read.read(c);
+        } finally {
+            replica.record(System.nanoTime() - start);
+            replica.inFlight.decrementAndGet();
+        }
+    }
+
+    /**
+     * Tests whether the current thread reads from the primary.
+     *
+     * @return Whether there are no replicas, the thread runs a transaction, or
+     * it wrote within the window.
+     */
+    private boolean readsPrimary() {
+        if (replicas.isEmpty() || getTransactionConnection() != null) {
+            return true;
+        }
+        final Long written = lastWrite.get();
+        if (written == null) {
+            return false;
+        }
+        if (System.nanoTime() - written.longValue() < windowNanos) {
+            return true;
+        }
+        lastWrite.remove();
+        return false;
+    }
+
+    private Replica select() {
+        final int size = replicas.size();
+        final int start = Math.floorMod(next.getAndIncrement(), size);
+        switch (strategy) {
+        case LEAST_IN_FLIGHT:
+            Replica least = replicas.get(start);
+            for (int i = 1; i < size; i++) {
+                final Replica replica = replicas.get((start + i) % size);
+                if (replica.inFlight.get() < least.inFlight.get()) {
+                    least = replica;
+                }
+            }
+            return least;
+        case LATENCY_WEIGHTED:
+            double total = 0;
+            for (final Replica replica : replicas) {
+                total += replica.weight();
+            }
+            double point = ThreadLocalRandom.current().nextDouble(total);
+            for (final Replica replica : replicas) {
+                point -= replica.weight();
+                if (point < 0) {
+                    return replica;
+                }
+            }
+            return replicas.get(size - 1);
+        default:
+            return replicas.get(start);
+        }
+    }
+
+    /**
+     * Runs an UPDATE, INSERT or DELETE on the primary and opens the read-your-writes window.
+     */
+    @Override
+    public int update(final Connection conn, final String sql, final Object... params) throws SQLException {
+        try {
+            return super.update(conn, sql, params);
+        } finally {
+            markWritten();
+        }
+    }
+}
@@ -0,0 +1,282 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.dbutils;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Lexical helpers for the SQL rewriting done by {@code QueryRunner}. They
+ * recognize string literals, quoted identifiers and comments well enough to
+ * find placeholders and keywords outside of them; they do not parse SQL.
+ */
+final class SqlText {
+
+    /**
+     * Keywords followed by a table name.
+     */
+    private static final String[] TABLE_KEYWORDS = { "FROM", "JOIN", "INTO", "UPDATE", "TABLE", "USING" };
+
+    /**
+     * Words that end a table reference instead of naming its alias.
+     */
+    private static final Set<String> CLAUSE_KEYWORDS = new HashSet<>(Arrays.asList("CONNECT", "CROSS", "EXCEPT", "FETCH", "FOR", "FULL",
+            "GROUP", "HAVING", "INNER", "INTERSECT", "JOIN", "LEFT", "LIMIT", "MINUS", "NATURAL", "OFFSET", "ON", "ORDER", "OUTER", "RETURNING",
+            "RIGHT", "SELECT", "SET", "START", "UNION", "USING", "VALUES", "WHEN", "WHERE", "WINDOW", "WITH"));
+
+    /**
+     * Tests whether a character can be part of an unquoted identifier.
+     *
+     * @param c The character.
+     * @return Whether {@code c} is a letter, a digit, {@code _} or {@code $}.
+     */
+    static boolean isIdentifierPart(final char c) {
+        return Character.isLetterOrDigit(c) || c == '_' || c == '$';
+    }
+
+    /**
+     * Tests whether an unquoted keyword starts at an index, as a whole word.
+     *
+     * @param sql The SQL text.
+     * @param index The index to test.
+     * @param keyword The keyword, in upper case.
+     * @return Whether {@code keyword} starts at {@code index}, ignoring case.
+     */
+    static boolean isKeyword(final String sql, final int index, final String keyword) {
+        final int end = index + keyword.length();
+        return sql.regionMatches(true, index, keyword, 0, keyword.length())
+                && (index == 0 || !isIdentifierPart(sql.charAt(index - 1)))
+                && (end == sql.length() || !isIdentifierPart(sql.charAt(end)));
+    }
+
+    /**
+     * Reads a possibly qualified and quoted name.
+     *
+     * @param sql The SQL text.
+     * @param index The index of the name.
+     * @param name Receives the last part of the name, in lower case.
+     * @return The index after the name, or {@code index} if no name starts there.
+     */
+    private static int readName(final String sql, final int index, final StringBuilder name) {
+        int i = index;
+        while (i < sql.length()) {
+            name.setLength(0);
+            final char c = sql.charAt(i);
+            final int start = i;
+            if (c == '"' || c == '`') {
+                i = skipQuotedOrComment(sql, i);
+                name.append(sql, start + 1, i - 1);
+            } else if (c == '[') {
+                final int close = sql.indexOf(']', i);
+                if (close < 0) {
+                    throw new IllegalArgumentException("Unterminated quote at " + i + ": " + sql);
+                }
+                i = close + 1;
+                name.append(sql, start + 1, close);
+            } else {
+                while (i < sql.length() && isIdentifierPart(sql.charAt(i))) {
+                    i++;
+                }
+                name.append(sql, start, i);
+            }
+            if (i == start || i >= sql.length() || sql.charAt(i) != '.') {
+                break;
+            }
+            i++;
+        }
+        final String lower = name.toString().toLowerCase(Locale.ROOT);
+        name.setLength(0);
+        name.append(lower);
+        return i;
+    }
+
+    /**
+     * Skips the alias of a table reference, if any.
+     *
+     * @param sql The SQL text.
+     * @param index The index after the table name and whitespace.
+     * @param name A buffer.
+     * @return The index after the alias and whitespace.
+     */
+    private static int skipAlias(final String sql, final int index, final StringBuilder name) {
+        int i = index;
+        if (isKeyword(sql, i, "AS")) {
+            i = skipWhitespaceAndComments(sql, i + 2);
+        } else {
+            final int end = readName(sql, i, name);
+            if (end == i || CLAUSE_KEYWORDS.contains(name.toString().toUpperCase(Locale.ROOT))) {
+                return i;
+            }
+        }
+        return skipWhitespaceAndComments(sql, readName(sql, i, name));
+    }
+
+    /**
+     * Skips a string literal, a quoted identifier or a comment.
+     *
+     * @param sql The SQL text.
+     * @param index The index of a character.
+     * @return The index after the literal or comment starting at {@code index},
+     * or {@code index} if none starts there.
+     * @throws IllegalArgumentException if the literal or block comment is not terminated.
+     */
+    static int skipQuotedOrComment(final String sql, final int index) {
+        final char c = sql.charAt(index);
+        switch (c) {
+        case '\'':
+        case '"':
+        case '`':
+            // A doubled quote character is parsed as two adjacent literals.
+            final int close = sql.indexOf(c, index + 1);
+            if (close < 0) {
+                throw new IllegalArgumentException("Unterminated quote at " + index + ": " + sql);
+            }
+            return close + 1;
+        case '-':
+            if (index + 1 < sql.length() && sql.charAt(index + 1) == '-') {
+                final int newline = sql.indexOf('\n', index + 2);
+                return newline < 0 ? sql.length() : newline + 1;
+            }
+            return index;
+        case '/':
+            if (index + 1 < sql.length() && sql.charAt(index + 1) == '*') {
+                final int end = sql.indexOf("*/", index + 2);
+                if (end < 0) {
+                    throw new IllegalArgumentException("Unterminated comment at " + index + ": " + sql);
+                }
+                return end + 2;
+            }
+            return index;
+        default:
+            return index;
+        }
+    }
+
+    /**
+     * Skips whitespace and comments.
+     *
+     * @param sql The SQL text.
+     * @param index The index to start at.
+     * @return The index of the next character that is neither whitespace nor
+     * part of a comment, or the length of {@code sql}.
+     */
+    static int skipWhitespaceAndComments(final String sql, final int index) {
+        int i = index;
+        while (i < sql.length()) {
+            final char c = sql.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if (c == '-' || c == '/') {
+                final int next = skipQuotedOrComment(sql, i);
+                if (next == i) {
+                    return i;
+                }
+                i = next;
+            } else {
+                return i;
+            }
+        }
+        return i;
+    }
+
+    /**
+     * Finds the keyword followed by a table name that starts at an index.
+     *
+     * @param sql The SQL text.
+     * @param index The index to test.
+     * @return The keyword in upper case, or null.
+     */
+    private static String tableKeyword(final String sql, final int index) {
+        if (index > 0 && isIdentifierPart(sql.charAt(index - 1))) {
+            return null;
+        }
+        for (final String keyword : TABLE_KEYWORDS) {
+            if (isKeyword(sql, index, keyword)) {
+                return keyword;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Normalizes a table name the way {@link #tableNames(String)} does.
+     *
+     * @param name A table name, possibly qualified.
+     * @return The last part of the name, in lower case.
+     */
+    static String tableName(final String name) {
+        return name.substring(name.lastIndexOf('.') + 1).toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Finds the tables a statement reads or writes: the names after
+     * {@code FROM}, {@code JOIN}, {@code INTO}, {@code UPDATE},
+     * {@code TABLE} and {@code USING}, including comma separated
+     * {@code FROM} lists. Schema and catalog qualifiers are dropped and names
+     * are lower cased. The result can name more tables than the statement
+     * uses, such as common table expressions, but not fewer for the simple
+     * statements it understands.
+     *
+     * @param sql The SQL text.
+     * @return The table names, empty if none were found.
+     * @throws IllegalArgumentException if a literal or comment is not terminated.
+     */
+    static Set<String> tableNames(final String sql) {
+        final Set<String> tables = new LinkedHashSet<>();
+        final StringBuilder name = new StringBuilder();
+        int i = 0;
+        while (i < sql.length()) {
+            final int next = skipQuotedOrComment(sql, i);
+            if (next != i) {
+                i = next;
+                continue;
+            }
+            final String keyword = tableKeyword(sql, i);
+            if (keyword == null) {
+                i++;
+                continue;
+            }
+            i += keyword.length();
+            boolean list = "FROM".equals(keyword);
+            do {
+                i = skipWhitespaceAndComments(sql, i);
+                final int end = readName(sql, i, name);
+                if (end == i || name.length() == 0 || CLAUSE_KEYWORDS.contains(name.toString().toUpperCase(Locale.ROOT))) {
+                    // A subquery, or no table such as in UPDATE SET of MERGE; nested keywords are found later.
+                    break;
+                }
+                tables.add(name.toString());
+                i = skipWhitespaceAndComments(sql, end);
+                if (list) {
+                    i = skipAlias(sql, i, name);
+                    list = i < sql.length() && sql.charAt(i) == ',';
+                    if (list) {
+                        i++;
+                    }
+                }
+            } while (list);
+        }
+        return tables;
+    }
+
+    private SqlText() {
+        // static only
+    }
+}
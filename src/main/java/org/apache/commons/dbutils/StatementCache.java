@@ -0,0 +1,453 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.dbutils;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A bounded, per-connection LRU cache of {@code PreparedStatement}s, so that
+ * loops of {@code QueryRunner} calls on one {@code Connection} prepare each
+ * SQL string once instead of on every call.
+ *
+ * <pre>
+ * StatementCache cache = new StatementCache(32);
+ * QueryRunner runner = new QueryRunner(null, false, null, cache);
+ * for (Object[] row : rows) {
+ *     runner.update(conn, "UPDATE person SET name = ? WHERE id = ?", row);
+ * }
+ * cache.close(conn);
+ * conn.close();
+ * </pre>
+ *
+ * <p>
+ * Statements are keyed by connection, SQL, the {@code returnedKeys} flag and
+ * the {@link StatementConfiguration} they were configured with, so a cache
+ * may be shared by several runners. A statement is taken out of the cache
+ * while a call uses it and put back, with its parameters cleared, when the
+ * runner would otherwise close it; nested or concurrent calls with the same
+ * key therefore prepare their own statement. Statements pushed out of a full
+ * connection entry are closed.
+ * </p>
+ * <p>
+ * Only connections passed in by the caller are cached. Connections the
+ * runner obtains from its {@code DataSource} are closed after every call, so
+ * statement pooling for them belongs to the connection pool. Call
+ * {@link #close(Connection)} before closing a connection to release its
+ * statements right away. Cached statements keep their connection reachable,
+ * so the entry of a connection closed without it stays in the cache until
+ * the number of connections with cached statements has doubled; the cache
+ * then closes the statements of every idle connection found closed.
+ * </p>
+ * <p>
+ * This class is thread safe.
+ * </p>
+ *
+ * @since 1.9.0
+ */
+public class StatementCache {
+
+    /**
+     * Identifies interchangeable statements of one connection.
+     */
+    private static final class Key {
+
+        private final String sql;
+
+        private final int returnedKeys;
+
+        /**
+         * Compared by identity.
+         */
+        private final StatementConfiguration stmtConfig;
+
+        private Key(final String sql, final int returnedKeys, final StatementConfiguration stmtConfig) {
+            this.sql = sql;
+            this.returnedKeys = returnedKeys;
+            this.stmtConfig = stmtConfig;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            final Key other = (Key) obj;
+            return returnedKeys == other.returnedKeys && stmtConfig == other.stmtConfig && sql.equals(other.sql);
+        }
+
+        @Override
+        public int hashCode() {
+            return (sql.hashCode() * 31 + returnedKeys) * 31 + System.identityHashCode(stmtConfig);
+        }
+    }
+
+    /**
+     * A statement in use, to be put back on release.
+     */
+    private static final class Lease {
+
+        private final Connection conn;
+
+        private final Key key;
+
+        private Lease(final Connection conn, final Key key) {
+            this.conn = conn;
+            this.key = key;
+        }
+    }
+
+    /**
+     * The default maximum number of idle statements per connection.
+     */
+    public static final int DEFAULT_MAX_STATEMENTS_PER_CONNECTION = 64;
+
+    /**
+     * The {@code returnedKeys} of statements prepared without that flag.
+     */
+    static final int NO_RETURNED_KEYS = Integer.MIN_VALUE;
+
+    /**
+     * The number of connections with cached statements below which closed
+     * connections are not looked for.
+     */
+    private static final int MIN_PURGE_THRESHOLD = 16;
+
+    private static void closeAll(final List<PreparedStatement> statements) {
+        for (final PreparedStatement stmt : statements) {
+            DbUtils.closeQuietly(stmt);
+        }
+    }
+
+    private final int maxStatementsPerConnection;
+
+    /**
+     * Idle statements per connection in LRU order; a null value marks a
+     * connection that is never cached. The weak keys only let such markers
+     * go; statements keep their connection reachable, so entries holding
+     * statements are removed by {@link #close(Connection)} or
+     * {@link #purgeClosed(List)}. Guarded by {@code this}.
+     */
+    private final Map<Connection, LinkedHashMap<Key, PreparedStatement>> idle = new WeakHashMap<>();
+
+    /**
+     * The number of non-null values of {@code idle}. Guarded by {@code this}.
+     */
+    private int cachedConnections;
+
+    /**
+     * The value of {@code cachedConnections} that triggers the next purge.
+     * Guarded by {@code this}.
+     */
+    private int purgeThreshold = MIN_PURGE_THRESHOLD;
+
+    /**
+     * Statements taken out of the cache or prepared for it, and not yet
+     * released. Guarded by {@code this}.
+     */
+    private final Map<PreparedStatement, Lease> leased = new IdentityHashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * Creates a cache that keeps up to {@link #DEFAULT_MAX_STATEMENTS_PER_CONNECTION}
+     * idle statements per connection.
+     */
+    public StatementCache() {
+        this(DEFAULT_MAX_STATEMENTS_PER_CONNECTION);
+    }
+
+    /**
+     * Creates a cache.
+     *
+     * @param maxStatementsPerConnection The maximum number of idle statements kept per connection, must be positive.
+     */
+    public StatementCache(final int maxStatementsPerConnection) {
+        if (maxStatementsPerConnection <= 0) {
+            throw new IllegalArgumentException("maxStatementsPerConnection must be positive: " + maxStatementsPerConnection);
+        }
+        this.maxStatementsPerConnection = maxStatementsPerConnection;
+    }
+
+    /**
+     * Marks a connection whose statements must never be cached, such as a
+     * connection the runner obtained from its {@code DataSource}.
+     *
+     * @param conn The connection.
+     */
+    synchronized void bypass(final Connection conn) {
+        final LinkedHashMap<Key, PreparedStatement> statements = idle.put(conn, null);
+        if (statements != null) {
+            cachedConnections--;
+            closeAll(new ArrayList<>(statements.values()));
+        }
+    }
+
+    /**
+     * Closes and removes all idle statements.
+     */
+    public void clear() {
+        final List<PreparedStatement> closing = new ArrayList<>();
+        synchronized (this) {
+            for (final LinkedHashMap<Key, PreparedStatement> statements : idle.values()) {
+                if (statements != null) {
+                    closing.addAll(statements.values());
+                }
+            }
+            idle.clear();
+            cachedConnections = 0;
+        }
+        closeAll(closing);
+    }
+
+    /**
+     * Closes and removes the idle statements of a connection. Statements in
+     * use are closed when they are released. Call this before closing a
+     * connection whose statements are cached.
+     *
+     * @param conn The connection.
+     */
+    public void close(final Connection conn) {
+        final List<PreparedStatement> closing = new ArrayList<>();
+        synchronized (this) {
+            final LinkedHashMap<Key, PreparedStatement> statements = idle.remove(conn);
+            if (statements != null) {
+                cachedConnections--;
+                closing.addAll(statements.values());
+            }
+            for (final Iterator<Lease> it = leased.values().iterator(); it.hasNext();) {
+                if (it.next().conn == conn) {
+                    it.remove();
+                }
+            }
+        }
+        closeAll(closing);
+    }
+
+    /**
+     * Gets the number of statements that were closed because their
+     * connection entry was full.
+     *
+     * @return The number of evictions.
+     */
+    public long getEvictionCount() {
+        return evictions.get();
+    }
+
+    /**
+     * Gets the number of statements served from the cache.
+     *
+     * @return The number of hits.
+     */
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    /**
+     * Gets the number of statements that had to be prepared.
+     *
+     * @return The number of misses.
+     */
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    private boolean isBypassed(final Connection conn) {
+        return idle.containsKey(conn) && idle.get(conn) == null;
+    }
+
+    /**
+     * Records a newly prepared statement as in use, so that it is cached when
+     * it is released.
+     *
+     * @param conn The connection of the statement.
+     * @param sql The SQL of the statement.
+     * @param returnedKeys The {@code returnedKeys} flag, or {@link #NO_RETURNED_KEYS}.
+     * @param stmtConfig The configuration applied to the statement, may be null.
+     * @param stmt The statement.
+     */
+    void lease(final Connection conn, final String sql, final int returnedKeys, final StatementConfiguration stmtConfig,
+            final PreparedStatement stmt) {
+        final List<Connection> purging;
+        synchronized (this) {
+            if (isBypassed(conn)) {
+                return;
+            }
+            leased.put(stmt, new Lease(conn, new Key(sql, returnedKeys, stmtConfig)));
+            if (cachedConnections < purgeThreshold) {
+                return;
+            }
+            // Only connections with idle statements that no call is using.
+            final Set<Connection> inUse = Collections.newSetFromMap(new IdentityHashMap<>());
+            for (final Lease lease : leased.values()) {
+                inUse.add(lease.conn);
+            }
+            purging = new ArrayList<>();
+            for (final Map.Entry<Connection, LinkedHashMap<Key, PreparedStatement>> entry : idle.entrySet()) {
+                if (entry.getValue() != null && !inUse.contains(entry.getKey())) {
+                    purging.add(entry.getKey());
+                }
+            }
+            purgeThreshold = Integer.MAX_VALUE;
+        }
+        purgeClosed(purging);
+    }
+
+    /**
+     * Closes and removes the statements of connections that were closed
+     * without {@link #close(Connection)}, then sets the threshold of the next
+     * purge to twice the number of connections left.
+     *
+     * @param connections The connections to check.
+     */
+    private void purgeClosed(final List<Connection> connections) {
+        try {
+            for (final Connection conn : connections) {
+                boolean closed;
+                try {
+                    closed = conn.isClosed();
+                } catch (final SQLException e) {
+                    closed = true;
+                }
+                if (closed) {
+                    close(conn);
+                }
+            }
+        } finally {
+            synchronized (this) {
+                purgeThreshold = Math.max(MIN_PURGE_THRESHOLD, 2 * cachedConnections);
+            }
+        }
+    }
+
+    /**
+     * Puts a statement back into the cache, with its parameters cleared.
+     *
+     * @param stmt The statement the runner is done with.
+     * @return true if the statement belongs to the cache and must not be closed by the caller.
+     */
+    boolean release(final Statement stmt) {
+        final Lease lease;
+        synchronized (this) {
+            lease = leased.remove(stmt);
+        }
+        if (lease == null) {
+            return false;
+        }
+        final PreparedStatement ps = (PreparedStatement) stmt;
+        try {
+            ps.clearParameters();
+            ps.clearBatch();
+        } catch (final SQLException e) {
+            DbUtils.closeQuietly(ps);
+            return true;
+        }
+        final List<PreparedStatement> closing = new ArrayList<>();
+        synchronized (this) {
+            LinkedHashMap<Key, PreparedStatement> statements = idle.get(lease.conn);
+            if (statements == null) {
+                statements = new LinkedHashMap<>(16, 0.75f, true);
+                idle.put(lease.conn, statements);
+                cachedConnections++;
+            }
+            if (statements.putIfAbsent(lease.key, ps) != null) {
+                // A concurrent call put back the same statement first.
+                closing.add(ps);
+            } else if (statements.size() > maxStatementsPerConnection) {
+                final Iterator<PreparedStatement> eldest = statements.values().iterator();
+                closing.add(eldest.next());
+                eldest.remove();
+                evictions.incrementAndGet();
+            }
+        }
+        closeAll(closing);
+        return true;
+    }
+
+    /**
+     * Gets the number of idle statements of a connection.
+     *
+     * @param conn The connection.
+     * @return The number of idle statements cached for {@code conn}.
+     */
+    public synchronized int size(final Connection conn) {
+        final LinkedHashMap<Key, PreparedStatement> statements = idle.get(conn);
+        return statements != null ? statements.size() : 0;
+    }
+
+    /**
+     * Takes an idle statement out of the cache.
+     *
+     * @param conn The connection.
+     * @param sql The SQL.
+     * @param returnedKeys The {@code returnedKeys} flag, or {@link #NO_RETURNED_KEYS}.
+     * @param stmtConfig The configuration the statement must have been configured with, may be null.
+     * @return A statement with cleared parameters, or null if the statement must be prepared and then {@link #lease leased}.
+     */
+    PreparedStatement take(final Connection conn, final String sql, final int returnedKeys, final StatementConfiguration stmtConfig) {
+        Objects.requireNonNull(sql, "sql");
+        final Key key = new Key(sql, returnedKeys, stmtConfig);
+        PreparedStatement stmt;
+        synchronized (this) {
+            if (isBypassed(conn)) {
+                return null;
+            }
+            final LinkedHashMap<Key, PreparedStatement> statements = idle.get(conn);
+            stmt = statements != null ? statements.remove(key) : null;
+            if (stmt != null) {
+                leased.put(stmt, new Lease(conn, key));
+            }
+        }
+        if (stmt != null) {
+            boolean closed;
+            try {
+                closed = stmt.isClosed();
+            } catch (final SQLException e) {
+                closed = true;
+            }
+            if (!closed) {
+                hits.incrementAndGet();
+                return stmt;
+            }
+            synchronized (this) {
+                leased.remove(stmt);
+            }
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+}
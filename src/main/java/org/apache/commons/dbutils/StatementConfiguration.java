@@ -16,6 +16,7 @@
  */
 package org.apache.commons.dbutils;
 
+import java.sql.ResultSet;
 import java.time.Duration;
 
 /**
@@ -33,6 +34,15 @@ public class StatementConfiguration {
         private Integer maxRows;
         private Duration queryTimeout;
         private Integer maxFieldSize;
+        private Integer multiRowInsertWidth;
+        private Integer maxInListSize;
+        private Integer resultSetType;
+        private Integer resultSetConcurrency;
+        private Integer resultSetHoldability;
+        private Boolean poolable;
+        private Long largeMaxRows;
+        private Boolean escapeProcessing;
+        private AdaptiveFetchSize adaptiveFetchSize;
 
         /**
          * Constructs a new instance.
@@ -41,13 +51,66 @@ public class StatementConfiguration {
             // empty
         }
 
+        /**
+         * Constructs a new instance with the values of a configuration, to
+         * override some of them, for example for a single call.
+         *
+         * @param config The configuration to start from.
+         * @since 1.9.0
+         */
+        public Builder(final StatementConfiguration config) {
+            this.fetchDirection = config.fetchDirection;
+            this.fetchSize = config.fetchSize;
+            this.maxRows = config.maxRows;
+            this.queryTimeout = config.queryTimeout;
+            this.maxFieldSize = config.maxFieldSize;
+            this.multiRowInsertWidth = config.multiRowInsertWidth;
+            this.maxInListSize = config.maxInListSize;
+            this.resultSetType = config.resultSetType;
+            this.resultSetConcurrency = config.resultSetConcurrency;
+            this.resultSetHoldability = config.resultSetHoldability;
+            this.poolable = config.poolable;
+            this.largeMaxRows = config.largeMaxRows;
+            this.escapeProcessing = config.escapeProcessing;
+            this.adaptiveFetchSize = config.adaptiveFetchSize;
+        }
+
+        /**
+         * Sets the learned fetch sizes to use for queries instead of a fixed
+         * fetch size.
+         *
+         * @param adaptiveFetchSize The learned fetch sizes, null to use {@link #fetchSize(Integer)}.
+         * @return This builder for chaining.
+         * @see StatementConfiguration#getAdaptiveFetchSize()
+         * @since 1.9.0
+         */
+        public Builder adaptiveFetchSize(final AdaptiveFetchSize adaptiveFetchSize) {
+            this.adaptiveFetchSize = adaptiveFetchSize;
+            return this;
+        }
+
         /**
          * Builds a new {@link StatementConfiguration}.
          *
          * @return A new and configured {@link StatementConfiguration}.
          */
         public StatementConfiguration build() {
-            return new StatementConfiguration(fetchDirection, fetchSize, maxFieldSize, maxRows, queryTimeout);
+            return new StatementConfiguration(this);
+        }
+
+        /**
+         * Sets whether the driver translates JDBC escape syntax such as
+         * {@code {fn ...}} and {@code {ts ...}}; disabling it saves parsing
+         * the SQL on each execution.
+         *
+         * @param escapeProcessing Whether to process escapes, null for the driver default.
+         * @return This builder for chaining.
+         * @see java.sql.Statement#setEscapeProcessing(boolean)
+         * @since 1.9.0
+         */
+        public Builder escapeProcessing(final Boolean escapeProcessing) {
+            this.escapeProcessing = escapeProcessing;
+            return this;
         }
 
         /**
@@ -74,6 +137,21 @@ public class StatementConfiguration {
             return this;
         }
 
+        /**
+         * Sets the maximum number of rows that a {@code ResultSet} can
+         * produce, beyond {@code Integer.MAX_VALUE}; takes precedence over
+         * {@link #maxRows(Integer)}.
+         *
+         * @param largeMaxRows The maximum number of rows that a {@code ResultSet} can produce.
+         * @return This builder for chaining.
+         * @see java.sql.Statement#setLargeMaxRows(long)
+         * @since 1.9.0
+         */
+        public Builder largeMaxRows(final Long largeMaxRows) {
+            this.largeMaxRows = largeMaxRows;
+            return this;
+        }
+
         /**
          * Sets the maximum number of bytes that can be returned for character and binary column values.
          *
@@ -86,6 +164,20 @@ public class StatementConfiguration {
             return this;
         }
 
+        /**
+         * Sets the maximum number of values of an expanded IN-list; longer
+         * lists are split over several executions.
+         *
+         * @param maxInListSize The maximum number of values of an IN-list, at least 1, or null for the default.
+         * @return This builder for chaining.
+         * @see StatementConfiguration#getMaxInListSize()
+         * @since 1.9.0
+         */
+        public Builder maxInListSize(final Integer maxInListSize) {
+            this.maxInListSize = maxInListSize;
+            return this;
+        }
+
         /**
          * Sets the maximum number of rows that a {@code ResultSet} can produce.
          *
@@ -98,6 +190,34 @@ public class StatementConfiguration {
             return this;
         }
 
+        /**
+         * Sets the number of rows a batched single-row INSERT is rewritten to
+         * insert per statement, as in {@code INSERT ... VALUES (...), (...)}.
+         *
+         * @param multiRowInsertWidth The number of rows per rewritten INSERT, at least 1, or null to disable rewriting.
+         * @return This builder for chaining.
+         * @see StatementConfiguration#getMultiRowInsertWidth()
+         * @since 1.9.0
+         */
+        public Builder multiRowInsertWidth(final Integer multiRowInsertWidth) {
+            this.multiRowInsertWidth = multiRowInsertWidth;
+            return this;
+        }
+
+        /**
+         * Sets whether the statements should be pooled by a statement pool of
+         * the driver or the connection pool.
+         *
+         * @param poolable Whether the statements should be pooled, null for the driver default.
+         * @return This builder for chaining.
+         * @see java.sql.Statement#setPoolable(boolean)
+         * @since 1.9.0
+         */
+        public Builder poolable(final Boolean poolable) {
+            this.poolable = poolable;
+            return this;
+        }
+
         /**
          * Sets the number of seconds the driver will wait for execution.
          *
@@ -124,6 +244,48 @@ public class StatementConfiguration {
             this.queryTimeout = queryTimeout != null ? Duration.ofSeconds(queryTimeout) : null;
             return this;
         }
+
+        /**
+         * Sets the concurrency of the result sets, such as
+         * {@link ResultSet#CONCUR_READ_ONLY}.
+         *
+         * @param resultSetConcurrency The concurrency, null for the driver default.
+         * @return This builder for chaining.
+         * @see StatementConfiguration#getResultSetConcurrency()
+         * @since 1.9.0
+         */
+        public Builder resultSetConcurrency(final Integer resultSetConcurrency) {
+            this.resultSetConcurrency = resultSetConcurrency;
+            return this;
+        }
+
+        /**
+         * Sets the holdability of the result sets, such as
+         * {@link ResultSet#CLOSE_CURSORS_AT_COMMIT}.
+         *
+         * @param resultSetHoldability The holdability, null for the connection default.
+         * @return This builder for chaining.
+         * @see StatementConfiguration#getResultSetHoldability()
+         * @since 1.9.0
+         */
+        public Builder resultSetHoldability(final Integer resultSetHoldability) {
+            this.resultSetHoldability = resultSetHoldability;
+            return this;
+        }
+
+        /**
+         * Sets the type of the result sets, such as
+         * {@link ResultSet#TYPE_FORWARD_ONLY}.
+         *
+         * @param resultSetType The type, null for the driver default.
+         * @return This builder for chaining.
+         * @see StatementConfiguration#getResultSetType()
+         * @since 1.9.0
+         */
+        public Builder resultSetType(final Integer resultSetType) {
+            this.resultSetType = resultSetType;
+            return this;
+        }
     }
 
     private final Integer fetchDirection;
@@ -131,6 +293,56 @@ public class StatementConfiguration {
     private final Integer maxFieldSize;
     private final Integer maxRows;
     private final Duration queryTimeout;
+    private final Integer multiRowInsertWidth;
+    private final Integer maxInListSize;
+    private final Integer resultSetType;
+    private final Integer resultSetConcurrency;
+    private final Integer resultSetHoldability;
+    private final Boolean poolable;
+    private final Long largeMaxRows;
+    private final Boolean escapeProcessing;
+    private final AdaptiveFetchSize adaptiveFetchSize;
+
+    private StatementConfiguration(final Builder builder) {
+        this.fetchDirection = builder.fetchDirection;
+        this.fetchSize = builder.fetchSize;
+        this.maxFieldSize = builder.maxFieldSize;
+        this.maxRows = builder.maxRows;
+        if (builder.queryTimeout != null && builder.queryTimeout.getSeconds() > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException(String.format("queryTimeout overflow: %d > %,d", builder.queryTimeout.getSeconds(), Integer.MAX_VALUE));
+        }
+        this.queryTimeout = builder.queryTimeout;
+        if (builder.multiRowInsertWidth != null && builder.multiRowInsertWidth < 1) {
+            throw new IllegalArgumentException("multiRowInsertWidth must be positive: " + builder.multiRowInsertWidth);
+        }
+        this.multiRowInsertWidth = builder.multiRowInsertWidth;
+        if (builder.maxInListSize != null && builder.maxInListSize < 1) {
+            throw new IllegalArgumentException("maxInListSize must be positive: " + builder.maxInListSize);
+        }
+        this.maxInListSize = builder.maxInListSize;
+        if (builder.resultSetType != null && builder.resultSetType != ResultSet.TYPE_FORWARD_ONLY
+                && builder.resultSetType != ResultSet.TYPE_SCROLL_INSENSITIVE && builder.resultSetType != ResultSet.TYPE_SCROLL_SENSITIVE) {
+            throw new IllegalArgumentException("Invalid resultSetType: " + builder.resultSetType);
+        }
+        this.resultSetType = builder.resultSetType;
+        if (builder.resultSetConcurrency != null && builder.resultSetConcurrency != ResultSet.CONCUR_READ_ONLY
+                && builder.resultSetConcurrency != ResultSet.CONCUR_UPDATABLE) {
+            throw new IllegalArgumentException("Invalid resultSetConcurrency: " + builder.resultSetConcurrency);
+        }
+        this.resultSetConcurrency = builder.resultSetConcurrency;
+        if (builder.resultSetHoldability != null && builder.resultSetHoldability != ResultSet.HOLD_CURSORS_OVER_COMMIT
+                && builder.resultSetHoldability != ResultSet.CLOSE_CURSORS_AT_COMMIT) {
+            throw new IllegalArgumentException("Invalid resultSetHoldability: " + builder.resultSetHoldability);
+        }
+        this.resultSetHoldability = builder.resultSetHoldability;
+        this.poolable = builder.poolable;
+        if (builder.largeMaxRows != null && builder.largeMaxRows < 0) {
+            throw new IllegalArgumentException("largeMaxRows must not be negative: " + builder.largeMaxRows);
+        }
+        this.largeMaxRows = builder.largeMaxRows;
+        this.escapeProcessing = builder.escapeProcessing;
+        this.adaptiveFetchSize = builder.adaptiveFetchSize;
+    }
 
     /**
      * Constructor for {@code StatementConfiguration}.  For more flexibility, use {@link Builder}.
@@ -145,14 +357,7 @@ public class StatementConfiguration {
     public StatementConfiguration(final Integer fetchDirection, final Integer fetchSize,
                                   final Integer maxFieldSize, final Integer maxRows,
                                   final Duration queryTimeout) {
-        this.fetchDirection = fetchDirection;
-        this.fetchSize = fetchSize;
-        this.maxFieldSize = maxFieldSize;
-        this.maxRows = maxRows;
-        if (queryTimeout != null && queryTimeout.getSeconds() > Integer.MAX_VALUE) {
-            throw new IllegalArgumentException(String.format("queryTimeout overflow: %d > %,d", queryTimeout.getSeconds(), Integer.MAX_VALUE));
-        }
-        this.queryTimeout = queryTimeout;
+        this(new Builder().fetchDirection(fetchDirection).fetchSize(fetchSize).maxFieldSize(maxFieldSize).maxRows(maxRows).queryTimeout(queryTimeout));
     }
 
     /**
@@ -178,6 +383,26 @@ public class StatementConfiguration {
         // SpotBugs CT_CONSTRUCTOR_THROW
     }
 
+    /**
+     * Gets the learned fetch sizes, which take precedence over the fetch size.
+     *
+     * @return The learned fetch sizes or null if not set.
+     * @since 1.9.0
+     */
+    public AdaptiveFetchSize getAdaptiveFetchSize() {
+        return adaptiveFetchSize;
+    }
+
+    /**
+     * Gets whether the driver processes escape syntax.
+     *
+     * @return Whether escapes are processed or null if not set.
+     * @since 1.9.0
+     */
+    public Boolean getEscapeProcessing() {
+        return escapeProcessing;
+    }
+
     /**
      * Gets the fetch direction.
      *
@@ -196,6 +421,16 @@ public class StatementConfiguration {
         return fetchSize;
     }
 
+    /**
+     * Gets the large max rows.
+     *
+     * @return The large max rows or null if not set.
+     * @since 1.9.0
+     */
+    public Long getLargeMaxRows() {
+        return largeMaxRows;
+    }
+
     /**
      * Gets the max field size.
      *
@@ -205,6 +440,16 @@ public class StatementConfiguration {
         return maxFieldSize;
     }
 
+    /**
+     * Gets the maximum number of values of an expanded IN-list.
+     *
+     * @return The maximum number of values of an IN-list or null if not set.
+     * @since 1.9.0
+     */
+    public Integer getMaxInListSize() {
+        return maxInListSize;
+    }
+
     /**
      * Gets the max rows.
      *
@@ -214,6 +459,27 @@ public class StatementConfiguration {
         return maxRows;
     }
 
+    /**
+     * Gets the number of rows a batched single-row INSERT is rewritten to
+     * insert per statement.
+     *
+     * @return The number of rows per rewritten INSERT or null if not set.
+     * @since 1.9.0
+     */
+    public Integer getMultiRowInsertWidth() {
+        return multiRowInsertWidth;
+    }
+
+    /**
+     * Gets whether statements should be pooled.
+     *
+     * @return Whether statements should be pooled or null if not set.
+     * @since 1.9.0
+     */
+    public Boolean getPoolable() {
+        return poolable;
+    }
+
     /**
      * Gets the query timeout.
      *
@@ -235,6 +501,56 @@ public class StatementConfiguration {
         return queryTimeout;
     }
 
+    /**
+     * Gets the result set concurrency.
+     *
+     * @return The result set concurrency or null if not set.
+     * @since 1.9.0
+     */
+    public Integer getResultSetConcurrency() {
+        return resultSetConcurrency;
+    }
+
+    /**
+     * Gets the result set holdability.
+     *
+     * @return The result set holdability or null if not set.
+     * @since 1.9.0
+     */
+    public Integer getResultSetHoldability() {
+        return resultSetHoldability;
+    }
+
+    /**
+     * Gets the result set type.
+     *
+     * @return The result set type or null if not set.
+     * @since 1.9.0
+     */
+    public Integer getResultSetType() {
+        return resultSetType;
+    }
+
+    /**
+     * Tests whether learned fetch sizes are set.
+     *
+     * @return true if set, false otherwise.
+     * @since 1.9.0
+     */
+    public boolean isAdaptiveFetchSizeSet() {
+        return adaptiveFetchSize != null;
+    }
+
+    /**
+     * Tests whether escape processing is set.
+     *
+     * @return true if set, false otherwise.
+     * @since 1.9.0
+     */
+    public boolean isEscapeProcessingSet() {
+        return escapeProcessing != null;
+    }
+
     /**
      * Tests whether fetch direction is set.
      *
@@ -253,6 +569,16 @@ public class StatementConfiguration {
         return fetchSize != null;
     }
 
+    /**
+     * Tests whether large max rows is set.
+     *
+     * @return true if set, false otherwise.
+     * @since 1.9.0
+     */
+    public boolean isLargeMaxRowsSet() {
+        return largeMaxRows != null;
+    }
+
     /**
      * Tests whether max field size is set.
      *
@@ -262,6 +588,16 @@ public class StatementConfiguration {
         return maxFieldSize != null;
     }
 
+    /**
+     * Tests whether the maximum number of values of an IN-list is set.
+     *
+     * @return true if set, false otherwise.
+     * @since 1.9.0
+     */
+    public boolean isMaxInListSizeSet() {
+        return maxInListSize != null;
+    }
+
     /**
      * Tests whether max rows is set.
      *
@@ -271,6 +607,26 @@ public class StatementConfiguration {
         return maxRows != null;
     }
 
+    /**
+     * Tests whether the multi-row INSERT width is set.
+     *
+     * @return true if set, false otherwise.
+     * @since 1.9.0
+     */
+    public boolean isMultiRowInsertWidthSet() {
+        return multiRowInsertWidth != null;
+    }
+
+    /**
+     * Tests whether poolable is set.
+     *
+     * @return true if set, false otherwise.
+     * @since 1.9.0
+     */
+    public boolean isPoolableSet() {
+        return poolable != null;
+    }
+
     /**
      * Tests whether query timeout is set.
      *
@@ -279,4 +635,34 @@ public class StatementConfiguration {
     public boolean isQueryTimeoutSet() {
         return queryTimeout != null;
     }
+
+    /**
+     * Tests whether the result set concurrency is set.
+     *
+     * @return true if set, false otherwise.
+     * @since 1.9.0
+     */
+    public boolean isResultSetConcurrencySet() {
+        return resultSetConcurrency != null;
+    }
+
+    /**
+     * Tests whether the result set holdability is set.
+     *
+     * @return true if set, false otherwise.
+     * @since 1.9.0
+     */
+    public boolean isResultSetHoldabilitySet() {
+        return resultSetHoldability != null;
+    }
+
+    /**
+     * Tests whether the result set type is set.
+     *
+     * @return true if set, false otherwise.
+     * @since 1.9.0
+     */
+    public boolean isResultSetTypeSet() {
+        return resultSetType != null;
+    }
 }
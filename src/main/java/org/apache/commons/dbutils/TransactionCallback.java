@@ -0,0 +1,41 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.dbutils;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * The work of a transaction run by {@link QueryRunner#inTransaction(TransactionCallback)}.
+ *
+ * @param <T> The type of the result of the work.
+ * @since 1.9.0
+ */
+@FunctionalInterface
+public interface TransactionCallback<T> {
+
+    /**
+     * Does the work of a transaction. Methods of the runner that take no
+     * {@code Connection} use {@code conn} while this method runs on the
+     * calling thread.
+     *
+     * @param conn The connection of the transaction; closing it has no effect.
+     * @return The result of the work, returned by {@code inTransaction}.
+     * @throws SQLException if a database access error occurs, to roll back the work.
+     */
+    T doInTransaction(Connection conn) throws SQLException;
+}
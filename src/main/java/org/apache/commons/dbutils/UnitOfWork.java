@@ -0,0 +1,365 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.dbutils;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Buffers INSERT, UPDATE and DELETE statements of a unit of work and sends
+ * them as one batch per SQL text, instead of one round trip per statement.
+ * The example below runs in three batches however many orders and items
+ * there are.
+ *
+ * <pre>
+ * UnitOfWork work = new UnitOfWork(runner, conn, 1_000).dependsOn("order_item", "orders");
+ * for (Order order : orders) {
+ *     work.update("INSERT INTO orders (id, customer) VALUES (?, ?)", order.getId(), order.getCustomer());
+ *     for (Item item : order.getItems()) {
+ *         work.update("INSERT INTO order_item (order_id, sku) VALUES (?, ?)", order.getId(), item.getSku());
+ *     }
+ *     work.update("UPDATE customer SET orders = orders + 1 WHERE id = ?", order.getCustomer());
+ * }
+ * work.commit();
+ * </pre>
+ *
+ * <p>
+ * Statements with the same SQL join one batch, and batches run in an order
+ * that respects the foreign keys declared with
+ * {@link #dependsOn(String, String...)}: INSERT batches of referenced tables
+ * run before those of the tables referencing them, and DELETE batches run
+ * the other way around, whatever order their statements were added in.
+ * Other statements on related tables, statements on the same table and
+ * statements whose tables are not found in their SQL run in the order they
+ * were added, so such a statement starts a new batch when a statement it
+ * must follow was added after the last one with its SQL. Declare the foreign
+ * keys between the tables of a unit of work: without them, a child row can
+ * be sent before the parent row it references when the child SQL was first
+ * added before the parent SQL.
+ * </p>
+ * <p>
+ * Batches run through {@link QueryRunner#batch(Connection, String, Object[][])}
+ * when {@link #flush()} or {@link #commit()} is called, and when
+ * {@code maxStatements} statements are buffered. Update counts are reported
+ * per SQL text; the counts of one SQL are in the order its statements were
+ * added.
+ * </p>
+ * <p>
+ * This class is not thread safe.
+ * </p>
+ *
+ * @since 1.9.0
+ */
+public class UnitOfWork {
+
+    /**
+     * The statements of one batch.
+     */
+    private static final class Group {
+
+        private final String sql;
+
+        private final Set<String> tables;
+
+        private final Kind kind;
+
+        private final List<Object[]> params = new ArrayList<>();
+
+        private Group(final String sql, final Set<String> tables, final Kind kind) {
+            this.sql = sql;
+            this.tables = tables;
+            this.kind = kind;
+        }
+    }
+
+    /**
+     * The kinds of statements that are ordered by foreign keys.
+     */
+    private enum Kind {
+        INSERT, DELETE, OTHER
+    }
+
+    private static int[] concat(final int[] first, final int[] second) {
+        if (first == null) {
+            return second;
+        }
+        final int[] counts = new int[first.length + second.length];
+        System.arraycopy(first, 0, counts, 0, first.length);
+        System.arraycopy(second, 0, counts, first.length, second.length);
+        return counts;
+    }
+
+    /**
+     * Finds the kind of a statement from its leading keyword.
+     */
+    private static Kind kind(final String sql) {
+        final int start;
+        try {
+            start = SqlText.skipWhitespaceAndComments(sql, 0);
+        } catch (final IllegalArgumentException e) {
+            return Kind.OTHER;
+        }
+        if (SqlText.isKeyword(sql, start, "INSERT") || SqlText.isKeyword(sql, start, "MERGE")) {
+            return Kind.INSERT;
+        }
+        return SqlText.isKeyword(sql, start, "DELETE") ? Kind.DELETE : Kind.OTHER;
+    }
+
+    private final QueryRunner runner;
+
+    private final Connection conn;
+
+    private final int maxStatements;
+
+    /**
+     * The tables each table references, directly or not.
+     */
+    private final Map<String, Set<String>> references = new HashMap<>();
+
+    private final Map<String, Set<String>> tablesBySql = new HashMap<>();
+
+    /**
+     * The batches in the order they run.
+     */
+    private final List<Group> groups = new ArrayList<>();
+
+    private final Map<String, Group> lastGroupBySql = new HashMap<>();
+
+    private final Map<String, int[]> updateCounts = new LinkedHashMap<>();
+
+    private int buffered;
+
+    /**
+     * Creates a unit of work.
+     *
+     * @param runner The runner that executes the batches.
+     * @param conn The connection to execute the batches on.
+     * @param maxStatements The number of buffered statements that triggers a flush, must be positive.
+     */
+    public UnitOfWork(final QueryRunner runner, final Connection conn, final int maxStatements) {
+        if (maxStatements <= 0) {
+            throw new IllegalArgumentException("maxStatements must be positive: " + maxStatements);
+        }
+        this.runner = Objects.requireNonNull(runner, "runner");
+        this.conn = Objects.requireNonNull(conn, "conn");
+        this.maxStatements = maxStatements;
+    }
+
+    /**
+     * Commits the connection after flushing the buffered statements.
+     *
+     * @return The update counts of the statements flushed, by SQL.
+     * @throws SQLException if a database access error occurs
+     */
+    public Map<String, int[]> commit() throws SQLException {
+        final Map<String, int[]> counts = flush();
+        conn.commit();
+        return counts;
+    }
+
+    /**
+     * Declares that rows of a table reference rows of other tables, so that
+     * INSERT statements on the referenced tables run first and DELETE
+     * statements on them run last.
+     *
+     * @param table The referencing table.
+     * @param referencedTables The referenced tables.
+     * @return This unit of work.
+     */
+    public UnitOfWork dependsOn(final String table, final String... referencedTables) {
+        final String name = SqlText.tableName(table);
+        final Set<String> added = new HashSet<>();
+        for (final String referenced : referencedTables) {
+            final String other = SqlText.tableName(referenced);
+            added.add(other);
+            final Set<String> indirect = references.get(other);
+            if (indirect != null) {
+                added.addAll(indirect);
+            }
+        }
+        references.computeIfAbsent(name, k -> new HashSet<>()).addAll(added);
+        // Tables that reference the table now reference its references too.
+        for (final Set<String> referenced : references.values()) {
+            if (referenced.contains(name)) {
+                referenced.addAll(added);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Discards the buffered statements without running them.
+     */
+    public void discard() {
+        groups.clear();
+        lastGroupBySql.clear();
+        buffered = 0;
+    }
+
+    /**
+     * Runs the buffered statements, one batch per group of statements with the
+     * same SQL. On failure the statements not run yet are discarded; roll the
+     * connection back.
+     *
+     * @return The update counts of the statements flushed, by SQL in the order
+     * their first batch ran.
+     * @throws SQLException if a database access error occurs
+     */
+    public Map<String, int[]> flush() throws SQLException {
+        final List<Group> flushing = new ArrayList<>(groups);
+        discard();
+        final Map<String, int[]> counts = new LinkedHashMap<>();
+        for (final Group group : flushing) {
+            final int[] rows = runner.batch(conn, group.sql, group.params.toArray(new Object[0][]));
+            counts.merge(group.sql, rows, UnitOfWork::concat);
+            updateCounts.merge(group.sql, rows, UnitOfWork::concat);
+        }
+        return counts;
+    }
+
+    /**
+     * Gets the number of batches the buffered statements would run in.
+     *
+     * @return The number of batches of the next flush.
+     */
+    public int getBatchCount() {
+        return groups.size();
+    }
+
+    /**
+     * Gets the number of statements buffered.
+     *
+     * @return The number of statements not run yet.
+     */
+    public int getBufferedCount() {
+        return buffered;
+    }
+
+    /**
+     * Gets the update counts of all statements run so far.
+     *
+     * @return The update counts by SQL, in the order the first batch of each
+     * SQL ran.
+     */
+    public Map<String, int[]> getUpdateCounts() {
+        return Collections.unmodifiableMap(updateCounts);
+    }
+
+    /**
+     * Compares the batch of an earlier statement with a statement being added.
+     *
+     * @return A negative number if the batch must run first, a positive number
+     * if the statement must run first, zero if either may run first.
+     */
+    private int order(final Group earlier, final Set<String> tables, final Kind kind) {
+        if (tables.isEmpty() || earlier.tables.isEmpty() || !Collections.disjoint(tables, earlier.tables)) {
+            return -1;
+        }
+        final boolean child = references(tables, earlier.tables);
+        final boolean parent = references(earlier.tables, tables);
+        if (!child && !parent) {
+            return 0;
+        }
+        if (child != parent && kind == earlier.kind && kind != Kind.OTHER) {
+            // Parent rows are inserted first and child rows deleted first.
+            return child == (kind == Kind.INSERT) ? -1 : 1;
+        }
+        return -1;
+    }
+
+    /**
+     * Tests whether one of some tables references one of other tables.
+     */
+    private boolean references(final Set<String> tables, final Set<String> others) {
+        for (final String table : tables) {
+            final Set<String> referenced = references.get(table);
+            if (referenced != null && !Collections.disjoint(referenced, others)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Rolls the connection back after discarding the buffered statements.
+     *
+     * @throws SQLException if a database access error occurs
+     */
+    public void rollback() throws SQLException {
+        discard();
+        conn.rollback();
+    }
+
+    /**
+     * Buffers an INSERT, UPDATE or DELETE statement, and flushes the buffer
+     * when it holds {@code maxStatements} statements.
+     *
+     * @param sql The SQL to execute.
+     * @param params The replacement parameters.
+     * @return This unit of work.
+     * @throws SQLException if a flush fails
+     */
+    public UnitOfWork update(final String sql, final Object... params) throws SQLException {
+        Objects.requireNonNull(sql, "sql");
+        final Set<String> tables = tablesBySql.computeIfAbsent(sql, k -> {
+            try {
+                return SqlText.tableNames(k);
+            } catch (final IllegalArgumentException e) {
+                return Collections.emptySet();
+            }
+        });
+        final Kind kind = kind(sql);
+        Group group = lastGroupBySql.get(sql);
+        int index = -1;
+        // The statement must run after groups.get(after) and before groups.get(before).
+        int after = -1;
+        int before = groups.size();
+        for (int i = 0; i < groups.size(); i++) {
+            final Group other = groups.get(i);
+            if (other == group) {
+                index = i;
+                continue;
+            }
+            final int order = order(other, tables, kind);
+            if (order < 0) {
+                after = i;
+            } else if (order > 0 && before == groups.size()) {
+                before = i;
+            }
+        }
+        if (group == null || index <= after || index >= before) {
+            group = new Group(sql, tables, kind);
+            // Statements that cannot satisfy both run in the order they were added.
+            groups.add(after < before ? before : groups.size(), group);
+            lastGroupBySql.put(sql, group);
+        }
+        group.params.add(params == null ? new Object[0] : params.clone());
+        if (++buffered >= maxStatements) {
+            flush();
+        }
+        return this;
+    }
+}
@@ -0,0 +1,240 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.dbutils;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Canonicalizes repeated immutable column values while rows are read, so that
+ * materialized results of low cardinality columns (status codes, country
+ * codes, currencies, ...) share one instance per distinct value instead of
+ * holding one copy per row.
+ *
+ * <p>
+ * An interner keeps a bounded dictionary per column. Columns are selected
+ * either by name, or, when no names are configured, by a cardinality
+ * heuristic: every column is interned until its dictionary overflows, at which
+ * point the column is considered high cardinality, its dictionary is dropped,
+ * and its values pass through untouched from then on. For named columns, values
+ * seen after the dictionary is full are simply not interned.
+ * </p>
+ * <p>
+ * Only values of immutable types are interned: {@code String},
+ * {@code BigDecimal}, {@code BigInteger}, the primitive wrappers,
+ * {@code UUID} and the {@code java.time} local and instant types. Mutable JDBC
+ * types such as {@code java.sql.Timestamp} are never shared.
+ * </p>
+ * <p>
+ * Use with {@link BasicRowProcessor#BasicRowProcessor(BeanProcessor, ValueInterner)} or
+ * {@link BeanProcessor#BeanProcessor(java.util.Map, ValueInterner)}. Dictionaries live
+ * as long as the interner, so share one instance across queries that read the
+ * same columns and call {@link #clear()} to release them.
+ * </p>
+ * <p>
+ * This class is thread safe.
+ * </p>
+ *
+ * @since 1.9.0
+ */
+public class ValueInterner {
+
+    /**
+     * Builder class for {@code ValueInterner} for more flexible construction.
+     */
+    public static final class Builder {
+
+        private final Set<String> columnNames = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+        private int maxValuesPerColumn = DEFAULT_MAX_VALUES_PER_COLUMN;
+
+        /**
+         * Constructs a new instance.
+         */
+        public Builder() {
+            // empty
+        }
+
+        /**
+         * Builds a new {@link ValueInterner}.
+         *
+         * @return A new and configured {@link ValueInterner}.
+         */
+        public ValueInterner build() {
+            return new ValueInterner(columnNames, maxValuesPerColumn);
+        }
+
+        /**
+         * Adds columns to intern, matched case insensitively against column
+         * labels. If no columns are added, all columns are candidates and the
+         * cardinality heuristic decides.
+         *
+         * @param columnNames The column names to intern.
+         * @return This builder for chaining.
+         */
+        public Builder columns(final String... columnNames) {
+            this.columnNames.addAll(Arrays.asList(columnNames));
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of distinct values kept per column.
+         *
+         * @param maxValuesPerColumn The maximum number of distinct values kept per column, must be positive.
+         * @return This builder for chaining.
+         */
+        public Builder maxValuesPerColumn(final int maxValuesPerColumn) {
+            if (maxValuesPerColumn <= 0) {
+                throw new IllegalArgumentException("maxValuesPerColumn must be positive: " + maxValuesPerColumn);
+            }
+            this.maxValuesPerColumn = maxValuesPerColumn;
+            return this;
+        }
+    }
+
+    /**
+     * The dictionary of a single column.
+     */
+    private static final class Dictionary {
+
+        private final ConcurrentMap<Object, Object> values = new ConcurrentHashMap<>();
+
+        /**
+         * Whether this column is no longer interned.
+         */
+        private volatile boolean disabled;
+
+        private Dictionary(final boolean disabled) {
+            this.disabled = disabled;
+        }
+    }
+
+    /**
+     * The default maximum number of distinct values kept per column.
+     */
+    public static final int DEFAULT_MAX_VALUES_PER_COLUMN = 1024;
+
+    /**
+     * Shared by all columns that are never interned.
+     */
+    private static final Dictionary DISABLED = new Dictionary(true);
+
+    /**
+     * The immutable value types that can be shared safely.
+     */
+    private static final Set<Class<?>> INTERNABLE_TYPES = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+            String.class, BigDecimal.class, BigInteger.class, Integer.class, Long.class, Short.class, Byte.class,
+            Double.class, Float.class, Character.class, UUID.class, LocalDate.class, LocalTime.class,
+            LocalDateTime.class, OffsetDateTime.class, Instant.class)));
+
+    /**
+     * The explicitly selected columns, empty to use the cardinality heuristic.
+     */
+    private final Set<String> columnNames;
+
+    private final int maxValuesPerColumn;
+
+    /**
+     * Column label to dictionary.
+     */
+    private final ConcurrentMap<String, Dictionary> dictionaries = new ConcurrentHashMap<>();
+
+    private ValueInterner(final Set<String> columnNames, final int maxValuesPerColumn) {
+        final Set<String> names = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+        names.addAll(columnNames);
+        this.columnNames = names;
+        this.maxValuesPerColumn = maxValuesPerColumn;
+    }
+
+    /**
+     * Drops all dictionaries. Columns that the heuristic classified as high
+     * cardinality become candidates again.
+     */
+    public void clear() {
+        dictionaries.clear();
+    }
+
+    private Dictionary dictionary(final String columnName) {
+        return dictionaries.computeIfAbsent(columnName,
+                k -> columnNames.isEmpty() || columnNames.contains(k) ? new Dictionary(false) : DISABLED);
+    }
+
+    /**
+     * Returns the canonical instance of a column value.
+     *
+     * @param columnName The column label the value was read from.
+     * @param value The value read from the {@code ResultSet}, may be null.
+     * @return An equal value, shared with earlier rows when possible, or
+     *         {@code value} itself.
+     */
+    public Object intern(final String columnName, final Object value) {
+        if (value == null || columnName == null || !INTERNABLE_TYPES.contains(value.getClass())) {
+            return value;
+        }
+        final Dictionary dictionary = dictionary(columnName);
+        if (dictionary.disabled) {
+            return value;
+        }
+        final Object canonical = dictionary.values.get(value);
+        if (canonical != null) {
+            return canonical;
+        }
+        if (dictionary.values.size() >= maxValuesPerColumn) {
+            if (columnNames.isEmpty()) {
+                // Too many distinct values: stop paying for lookups on this column.
+                dictionary.disabled = true;
+                dictionary.values.clear();
+            }
+            return value;
+        }
+        final Object previous = dictionary.values.putIfAbsent(value, value);
+        return previous != null ? previous : value;
+    }
+
+    /**
+     * Tests whether values of the given column are currently interned.
+     *
+     * @param columnName The column label.
+     * @return true if new values of this column are looked up in a dictionary.
+     */
+    public boolean isInterned(final String columnName) {
+        return !dictionary(columnName).disabled;
+    }
+
+    /**
+     * Gets the number of distinct values held for a column.
+     *
+     * @param columnName The column label.
+     * @return The size of the column's dictionary.
+     */
+    public int size(final String columnName) {
+        final Dictionary dictionary = dictionaries.get(columnName);
+        return dictionary != null ? dictionary.values.size() : 0;
+    }
+}
@@ -0,0 +1,40 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.dbutils;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Access to virtual threads, which need Java 21. This is the version for
+ * older runtimes; the multi-release JAR holds a Java 21 version of this
+ * class under {@code META-INF/versions/21}.
+ */
+final class VirtualThreads {
+
+    /**
+     * Gets an executor that starts a new virtual thread per task.
+     *
+     * @return The executor, or null if the runtime has no virtual threads.
+     */
+    static Executor perTaskExecutor() {
+        return null;
+    }
+
+    private VirtualThreads() {
+        // static only
+    }
+}
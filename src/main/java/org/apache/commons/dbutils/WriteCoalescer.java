@@ -0,0 +1,292 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.dbutils;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Groups single-row writes of concurrent callers into batches, so that
+ * thousands of threads each writing one row share a few transactions instead
+ * of running one each.
+ *
+ * <pre>
+ * WriteCoalescer writes = new WriteCoalescer(runner, 500, Duration.ofMillis(5), scheduler);
+ * CompletableFuture&lt;Integer&gt; rows = writes.update("UPDATE counter SET hits = hits + 1 WHERE id = ?", id);
+ * </pre>
+ *
+ * <p>
+ * Pending updates with the same SQL are sent as one batch, in one
+ * transaction on a connection from the runner's {@code DataSource}, when
+ * {@code maxBatchSize} of them are pending or {@code maxDelay} after the first
+ * of them, whichever comes first. Each future completes with the update count
+ * of its own row, which may be {@link Statement#SUCCESS_NO_INFO}. If
+ * the batch fails it is rolled back and its rows are retried one at a time,
+ * so that only the futures of the failing rows complete exceptionally.
+ * </p>
+ * <p>
+ * Callers no longer see their write when the future is returned, but when it
+ * completes. Batches run on the given scheduler, which is not shut down by
+ * {@link #close()}. This class is thread safe.
+ * </p>
+ *
+ * @since 1.9.0
+ */
+public class WriteCoalescer implements AutoCloseable {
+
+    /**
+     * The pending updates of one SQL text.
+     */
+    private static final class Batch {
+
+        private final String sql;
+
+        private final List<Object[]> params = new ArrayList<>();
+
+        private final List<CompletableFuture<Integer>> futures = new ArrayList<>();
+
+        private Batch(final String sql) {
+            this.sql = sql;
+        }
+    }
+
+    private final QueryRunner runner;
+
+    private final int maxBatchSize;
+
+    private final long maxDelayNanos;
+
+    private final ScheduledExecutorService scheduler;
+
+    /**
+     * Guarded by {@code this}.
+     */
+    private final Map<String, Batch> pending = new HashMap<>();
+
+    /**
+     * Guarded by {@code this}.
+     */
+    private boolean closed;
+
+    private final AtomicLong batches = new AtomicLong();
+
+    private final AtomicLong rows = new AtomicLong();
+
+    /**
+     * Creates a coalescer.
+     *
+     * @param runner The runner that executes the batches; it must have a {@code DataSource}.
+     * @param maxBatchSize The number of pending updates that triggers a batch, must be positive.
+     * @param maxDelay How long an update waits for others before its batch runs.
+     * @param scheduler Runs the batches.
+     */
+    public WriteCoalescer(final QueryRunner runner, final int maxBatchSize, final Duration maxDelay, final ScheduledExecutorService scheduler) {
+        if (maxBatchSize <= 0) {
+            throw new IllegalArgumentException("maxBatchSize must be positive: " + maxBatchSize);
+        }
+        if (maxDelay.isNegative()) {
+            throw new IllegalArgumentException("maxDelay must not be negative: " + maxDelay);
+        }
+        this.runner = Objects.requireNonNull(runner, "runner");
+        this.maxBatchSize = maxBatchSize;
+        this.maxDelayNanos = maxDelay.toNanos();
+        this.scheduler = Objects.requireNonNull(scheduler, "scheduler");
+    }
+
+    /**
+     * Stops accepting updates and sends the pending ones.
+     */
+    @Override
+    public void close() {
+        final List<Batch> flushing;
+        synchronized (this) {
+            closed = true;
+            flushing = new ArrayList<>(pending.values());
+            pending.clear();
+        }
+        flushing.forEach(this::submit);
+    }
+
+    private void execute(final Batch batch) {
+        batches.incrementAndGet();
+        rows.addAndGet(batch.params.size());
+        final Connection conn;
+        try {
+            conn = runner.prepareConnection();
+        } catch (final SQLException | RuntimeException e) {
+            batch.futures.forEach(future -> future.completeExceptionally(e));
+            return;
+        }
+        boolean restoreAutoCommit = false;
+        try {
+            restoreAutoCommit = conn.getAutoCommit();
+            if (restoreAutoCommit) {
+                conn.setAutoCommit(false);
+            }
+            final int[] counts;
+            try {
+                counts = runner.batch(conn, batch.sql, batch.params.toArray(new Object[0][]));
+                conn.commit();
+            } catch (final SQLException e) {
+                conn.rollback();
+                executeEach(conn, batch);
+                return;
+            }
+            for (int i = 0; i < batch.futures.size(); i++) {
+                batch.futures.get(i).complete(Integer.valueOf(i < counts.length ? counts[i] : Statement.SUCCESS_NO_INFO));
+            }
+        } catch (final SQLException | RuntimeException e) {
+            // Some drivers commit on close.
+            DbUtils.rollbackQuietly(conn);
+            batch.futures.forEach(future -> future.completeExceptionally(e));
+        } finally {
+            if (restoreAutoCommit) {
+                try {
+                    conn.setAutoCommit(true);
+                } catch (final SQLException e) {
+                    // The futures are complete; closing the connection is all that is left.
+                }
+            }
+            DbUtils.closeQuietly(conn);
+        }
+    }
+
+    /**
+     * Runs the updates of a failed batch one at a time, each in its own transaction.
+     */
+    private void executeEach(final Connection conn, final Batch batch) throws SQLException {
+        for (int i = 0; i < batch.futures.size(); i++) {
+            final CompletableFuture<Integer> future = batch.futures.get(i);
+            try {
+                final int count = runner.update(conn, batch.sql, batch.params.get(i));
+                conn.commit();
+                future.complete(Integer.valueOf(count));
+            } catch (final SQLException e) {
+                conn.rollback();
+                future.completeExceptionally(e);
+            }
+        }
+    }
+
+    /**
+     * Gets the number of batches sent.
+     *
+     * @return The number of batches.
+     */
+    public long getBatchCount() {
+        return batches.get();
+    }
+
+    /**
+     * Gets the number of updates waiting for their batch.
+     *
+     * @return The number of pending updates.
+     */
+    public synchronized int getPendingCount() {
+        int count = 0;
+        for (final Batch batch : pending.values()) {
+            count += batch.params.size();
+        }
+        return count;
+    }
+
+    /**
+     * Gets the number of updates sent in batches.
+     *
+     * @return The number of updates.
+     */
+    public long getUpdateCount() {
+        return rows.get();
+    }
+
+    private void submit(final Batch batch) {
+        try {
+            scheduler.execute(() -> execute(batch));
+        } catch (final RejectedExecutionException e) {
+            batch.futures.forEach(future -> future.completeExceptionally(e));
+        }
+    }
+
+    private void timeout(final Batch batch) {
+        synchronized (this) {
+            if (pending.get(batch.sql) != batch) {
+                // Already sent because it was full, or by close().
+                return;
+            }
+            pending.remove(batch.sql);
+        }
+        execute(batch);
+    }
+
+    /**
+     * Adds an update to the batch of its SQL.
+     *
+     * @param sql The INSERT, UPDATE or DELETE to execute.
+     * @param params The replacement parameters.
+     * @return A future of the number of rows updated by this update.
+     */
+    public CompletableFuture<Integer> update(final String sql, final Object... params) {
+        Objects.requireNonNull(sql, "sql");
+        final CompletableFuture<Integer> future = new CompletableFuture<>();
+        Batch full = null;
+        Batch started = null;
+        synchronized (this) {
+            if (closed) {
+                future.completeExceptionally(new RejectedExecutionException("WriteCoalescer is closed"));
+                return future;
+            }
+            Batch batch = pending.get(sql);
+            if (batch == null) {
+                batch = new Batch(sql);
+                pending.put(sql, batch);
+                started = batch;
+            }
+            batch.params.add(params == null ? new Object[0] : params.clone());
+            batch.futures.add(future);
+            if (batch.params.size() >= maxBatchSize) {
+                pending.remove(sql);
+                full = batch;
+            }
+        }
+        if (full != null) {
+            submit(full);
+        } else if (started != null) {
+            final Batch batch = started;
+            try {
+                scheduler.schedule(() -> timeout(batch), maxDelayNanos, TimeUnit.NANOSECONDS);
+            } catch (final RejectedExecutionException e) {
+                synchronized (this) {
+                    pending.remove(sql, batch);
+                }
+                batch.futures.forEach(f -> f.completeExceptionally(e));
+            }
+        }
+        return future;
+    }
+}
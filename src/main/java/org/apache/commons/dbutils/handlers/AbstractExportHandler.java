@@ -0,0 +1,375 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.dbutils.handlers;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Base64;
+import java.util.Objects;
+
+import org.apache.commons.dbutils.ResultSetHandler;
+
+/**
+ * Base class of the handlers that stream a {@code ResultSet} to a
+ * {@code WritableByteChannel} as text, one row at a time. Column types are
+ * resolved once from the {@code ResultSetMetaData}; integral, boolean and
+ * temporal values are read with the typed {@code ResultSet} getters and
+ * formatted straight into a reusable buffer. Floating point and decimal
+ * values, binary values and text still pass through a {@code String} per
+ * value, as the JDK formats them. Memory use does not depend on the number of
+ * rows.
+ *
+ * <p>
+ * Handlers write to a single target and should not be shared between threads.
+ * The target is never closed by the handler.
+ * </p>
+ *
+ * @see CsvExportHandler
+ * @see JsonLinesExportHandler
+ */
+abstract class AbstractExportHandler implements ResultSetHandler<Long> {
+
+    /**
+     * The default number of characters buffered before they are written.
+     */
+    static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    /** Column kind: read with {@code getLong}. */
+    private static final int KIND_INTEGRAL = 0;
+
+    /** Column kind: read with {@code getBoolean}. */
+    private static final int KIND_BOOLEAN = 1;
+
+    /** Column kind: read with {@code getFloat}, so a {@code REAL} is not widened. */
+    private static final int KIND_REAL = 2;
+
+    /** Column kind: read with {@code getDouble}. */
+    private static final int KIND_FLOATING = 3;
+
+    /** Column kind: read with {@code getBigDecimal}. */
+    private static final int KIND_DECIMAL = 4;
+
+    /** Column kind: read with {@code getDate}. */
+    private static final int KIND_DATE = 5;
+
+    /** Column kind: read with {@code getTime}. */
+    private static final int KIND_TIME = 6;
+
+    /** Column kind: read with {@code getTimestamp}. */
+    private static final int KIND_TIMESTAMP = 7;
+
+    /** Column kind: read with {@code getBytes}, written as Base64. */
+    private static final int KIND_BINARY = 8;
+
+    /** Column kind: read with {@code getString}. */
+    private static final int KIND_TEXT = 9;
+
+    private static int kind(final int sqlType) {
+        switch (sqlType) {
+        case Types.TINYINT:
+        case Types.SMALLINT:
+        case Types.INTEGER:
+        case Types.BIGINT:
+            return KIND_INTEGRAL;
+        case Types.BIT:
+        case Types.BOOLEAN:
+            return KIND_BOOLEAN;
+        case Types.REAL:
+            return KIND_REAL;
+        case Types.FLOAT:
+        case Types.DOUBLE:
+            return KIND_FLOATING;
+        case Types.DECIMAL:
+        case Types.NUMERIC:
+            return KIND_DECIMAL;
+        case Types.DATE:
+            return KIND_DATE;
+        case Types.TIME:
+            return KIND_TIME;
+        case Types.TIMESTAMP:
+            return KIND_TIMESTAMP;
+        case Types.BINARY:
+        case Types.VARBINARY:
+        case Types.LONGVARBINARY:
+        case Types.BLOB:
+            return KIND_BINARY;
+        default:
+            return KIND_TEXT;
+        }
+    }
+
+    private final WritableByteChannel channel;
+
+    /**
+     * The stream behind {@code channel}, flushed after each export, may be null.
+     */
+    private final OutputStream outputStream;
+
+    private final Charset charset;
+
+    private final int bufferSize;
+
+    /**
+     * Creates a new handler.
+     *
+     * @param channel The channel to write to.
+     * @param outputStream The stream behind {@code channel} to flush at the end, or null.
+     * @param charset The charset of the output.
+     * @param bufferSize The number of characters buffered before they are written.
+     */
+    AbstractExportHandler(final WritableByteChannel channel, final OutputStream outputStream, final Charset charset, final int bufferSize) {
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("bufferSize must be positive: " + bufferSize);
+        }
+        this.channel = Objects.requireNonNull(channel, "channel");
+        this.outputStream = outputStream;
+        this.charset = Objects.requireNonNull(charset, "charset");
+        this.bufferSize = bufferSize;
+    }
+
+    /**
+     * Writes the end of a row.
+     *
+     * @param out The buffer to write to.
+     * @throws IOException if an I/O error occurs
+     */
+    abstract void endRow(ExportBuffer out) throws IOException;
+
+    /**
+     * Writes all rows of the {@code ResultSet} to the channel.
+     *
+     * @param resultSet {@code ResultSet} to process.
+     * @return The number of rows written.
+     * @throws SQLException Thrown if a database access error occurs or the
+     * output cannot be written.
+     */
+    @Override
+    public Long handle(final ResultSet resultSet) throws SQLException {
+        final ResultSetMetaData rsmd = resultSet.getMetaData();
+        final int cols = rsmd.getColumnCount();
+        final String[] labels = new String[cols];
+        final int[] kinds = new int[cols];
+        for (int i = 0; i < cols; i++) {
+            String label = rsmd.getColumnLabel(i + 1);
+            if (label == null || label.isEmpty()) {
+                label = rsmd.getColumnName(i + 1);
+            }
+            labels[i] = label != null ? label : Integer.toString(i + 1);
+            kinds[i] = kind(rsmd.getColumnType(i + 1));
+        }
+        final char[][] prefixes = valuePrefixes(labels);
+        final ExportBuffer out = new ExportBuffer(channel, charset, bufferSize);
+        long rows = 0;
+        try {
+            start(out, labels);
+            while (resultSet.next()) {
+                startRow(out);
+                for (int i = 0; i < cols; i++) {
+                    out.append(prefixes[i]);
+                    writeValue(out, resultSet, i + 1, kinds[i]);
+                }
+                endRow(out);
+                rows++;
+            }
+            out.flush();
+            if (outputStream != null) {
+                outputStream.flush();
+            }
+        } catch (final IOException e) {
+            throw new SQLException("Cannot write row " + (rows + 1) + ": " + e.getMessage(), e);
+        }
+        return Long.valueOf(rows);
+    }
+
+    /**
+     * Writes what precedes the first row, such as a header.
+     *
+     * @param out The buffer to write to.
+     * @param labels The column labels.
+     * @throws IOException if an I/O error occurs
+     */
+    abstract void start(ExportBuffer out, String[] labels) throws IOException;
+
+    /**
+     * Writes the start of a row.
+     *
+     * @param out The buffer to write to.
+     * @throws IOException if an I/O error occurs
+     */
+    abstract void startRow(ExportBuffer out) throws IOException;
+
+    /**
+     * Computes what to write before the value of each column, such as a
+     * separator or a key. Called once per export.
+     *
+     * @param labels The column labels.
+     * @return The characters to write before each value.
+     */
+    abstract char[][] valuePrefixes(String[] labels);
+
+    /**
+     * Writes a SQL NULL.
+     *
+     * @param out The buffer to write to.
+     * @throws IOException if an I/O error occurs
+     */
+    abstract void writeNull(ExportBuffer out) throws IOException;
+
+    /**
+     * Writes a value that needs no escaping but is not a number, like a date;
+     * formats that distinguish strings quote it.
+     *
+     * @param out The buffer to write to.
+     * @param start Whether this is the start or the end of the value.
+     * @throws IOException if an I/O error occurs
+     */
+    abstract void writeQuote(ExportBuffer out, boolean start) throws IOException;
+
+    /**
+     * Writes a string value, escaped as the format requires.
+     *
+     * @param out The buffer to write to.
+     * @param value The value.
+     * @throws IOException if an I/O error occurs
+     */
+    abstract void writeText(ExportBuffer out, String value) throws IOException;
+
+    private void writeValue(final ExportBuffer out, final ResultSet resultSet, final int index, final int kind)
+            throws SQLException, IOException {
+        switch (kind) {
+        case KIND_INTEGRAL: {
+            final long value = resultSet.getLong(index);
+            if (resultSet.wasNull()) {
+                writeNull(out);
+            } else {
+                out.appendLong(value);
+            }
+            break;
+        }
+        case KIND_BOOLEAN: {
+            final boolean value = resultSet.getBoolean(index);
+            if (resultSet.wasNull()) {
+                writeNull(out);
+            } else {
+                out.append(value ? "true" : "false");
+            }
+            break;
+        }
+        case KIND_REAL: {
+            final float value = resultSet.getFloat(index);
+            if (resultSet.wasNull()) {
+                writeNull(out);
+            } else if (Float.isNaN(value) || Float.isInfinite(value)) {
+                writeText(out, Float.toString(value));
+            } else {
+                out.append(Float.toString(value));
+            }
+            break;
+        }
+        case KIND_FLOATING: {
+            final double value = resultSet.getDouble(index);
+            if (resultSet.wasNull()) {
+                writeNull(out);
+            } else if (Double.isNaN(value) || Double.isInfinite(value)) {
+                writeText(out, Double.toString(value));
+            } else {
+                out.append(Double.toString(value));
+            }
+            break;
+        }
+        case KIND_DECIMAL: {
+            final BigDecimal value = resultSet.getBigDecimal(index);
+            if (value == null) {
+                writeNull(out);
+            } else {
+                out.append(value.toPlainString());
+            }
+            break;
+        }
+        case KIND_DATE: {
+            final Date value = resultSet.getDate(index);
+            if (value == null) {
+                writeNull(out);
+            } else {
+                final LocalDate date = value.toLocalDate();
+                writeQuote(out, true);
+                out.appendDate(date.getYear(), date.getMonthValue(), date.getDayOfMonth());
+                writeQuote(out, false);
+            }
+            break;
+        }
+        case KIND_TIME: {
+            final Time value = resultSet.getTime(index);
+            if (value == null) {
+                writeNull(out);
+            } else {
+                final LocalTime time = value.toLocalTime();
+                writeQuote(out, true);
+                out.appendTime(time.getHour(), time.getMinute(), time.getSecond(), time.getNano());
+                writeQuote(out, false);
+            }
+            break;
+        }
+        case KIND_TIMESTAMP: {
+            final Timestamp value = resultSet.getTimestamp(index);
+            if (value == null) {
+                writeNull(out);
+            } else {
+                final LocalDateTime dateTime = value.toLocalDateTime();
+                writeQuote(out, true);
+                out.appendDate(dateTime.getYear(), dateTime.getMonthValue(), dateTime.getDayOfMonth());
+                out.append('T');
+                out.appendTime(dateTime.getHour(), dateTime.getMinute(), dateTime.getSecond(), dateTime.getNano());
+                writeQuote(out, false);
+            }
+            break;
+        }
+        case KIND_BINARY: {
+            final byte[] value = resultSet.getBytes(index);
+            if (value == null) {
+                writeNull(out);
+            } else {
+                writeQuote(out, true);
+                out.append(Base64.getEncoder().encodeToString(value));
+                writeQuote(out, false);
+            }
+            break;
+        }
+        default: {
+            final String value = resultSet.getString(index);
+            if (value == null) {
+                writeNull(out);
+            } else {
+                writeText(out, value);
+            }
+        }
+        }
+    }
+}
@@ -0,0 +1,262 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.dbutils.handlers;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+
+/**
+ * A reusable character buffer that encodes its content into a byte buffer
+ * and writes it to a channel whenever it fills up. Numbers and dates are
+ * formatted digit by digit, without intermediate Strings.
+ *
+ * <p>
+ * This class is not thread safe; each export uses its own instance.
+ * </p>
+ */
+final class ExportBuffer {
+
+    private static final char[] LONG_MIN_VALUE = Long.toString(Long.MIN_VALUE).toCharArray();
+
+    private final WritableByteChannel channel;
+
+    private final CharsetEncoder encoder;
+
+    private final CharBuffer chars;
+
+    private final ByteBuffer bytes;
+
+    /**
+     * Scratch space for the digits of a long, written in reverse.
+     */
+    private final char[] digits = new char[20];
+
+    /**
+     * Creates a new buffer.
+     *
+     * @param channel The channel to write to.
+     * @param charset The charset to encode with.
+     * @param bufferSize The number of characters buffered before they are encoded and written.
+     */
+    ExportBuffer(final WritableByteChannel channel, final Charset charset, final int bufferSize) {
+        this.channel = channel;
+        this.encoder = charset.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        // Room for a dangling high surrogate plus one more char.
+        this.chars = CharBuffer.allocate(Math.max(bufferSize, 2));
+        this.bytes = ByteBuffer.allocate((int) Math.ceil(chars.capacity() * (double) encoder.maxBytesPerChar()));
+    }
+
+    /**
+     * Appends a character.
+     *
+     * @param c The character.
+     * @throws IOException if an I/O error occurs
+     */
+    void append(final char c) throws IOException {
+        if (!chars.hasRemaining()) {
+            drain(false);
+        }
+        chars.put(c);
+    }
+
+    /**
+     * Appends all characters of an array.
+     *
+     * @param value The characters.
+     * @throws IOException if an I/O error occurs
+     */
+    void append(final char[] value) throws IOException {
+        int offset = 0;
+        while (offset < value.length) {
+            if (!chars.hasRemaining()) {
+                drain(false);
+            }
+            final int count = Math.min(chars.remaining(), value.length - offset);
+            chars.put(value, offset, count);
+            offset += count;
+        }
+    }
+
+    /**
+     * Appends a character sequence.
+     *
+     * @param value The characters.
+     * @throws IOException if an I/O error occurs
+     */
+    void append(final CharSequence value) throws IOException {
+        final int length = value.length();
+        for (int i = 0; i < length; i++) {
+            append(value.charAt(i));
+        }
+    }
+
+    /**
+     * Appends a date as {@code yyyy-MM-dd}.
+     *
+     * @param year The year.
+     * @param month The month, from 1 to 12.
+     * @param day The day of the month.
+     * @throws IOException if an I/O error occurs
+     */
+    void appendDate(final int year, final int month, final int day) throws IOException {
+        if (year >= 0 && year <= 9999) {
+            appendPadded(year, 4);
+        } else {
+            appendLong(year);
+        }
+        append('-');
+        appendPadded(month, 2);
+        append('-');
+        appendPadded(day, 2);
+    }
+
+    /**
+     * Appends the decimal digits of a long.
+     *
+     * @param value The value.
+     * @throws IOException if an I/O error occurs
+     */
+    void appendLong(final long value) throws IOException {
+        if (value == Long.MIN_VALUE) {
+            append(LONG_MIN_VALUE);
+            return;
+        }
+        long v = value;
+        if (v < 0) {
+            append('-');
+            v = -v;
+        }
+        int pos = digits.length;
+        do {
+            digits[--pos] = (char) ('0' + v % 10);
+            v /= 10;
+        } while (v != 0);
+        for (int i = pos; i < digits.length; i++) {
+            append(digits[i]);
+        }
+    }
+
+    /**
+     * Appends a non-negative int padded with leading zeros.
+     *
+     * @param value The value.
+     * @param width The minimum number of digits.
+     * @throws IOException if an I/O error occurs
+     */
+    void appendPadded(final int value, final int width) throws IOException {
+        int v = value;
+        int pos = digits.length;
+        do {
+            digits[--pos] = (char) ('0' + v % 10);
+            v /= 10;
+        } while (v != 0);
+        for (int i = digits.length - pos; i < width; i++) {
+            append('0');
+        }
+        for (int i = pos; i < digits.length; i++) {
+            append(digits[i]);
+        }
+    }
+
+    /**
+     * Appends a time as {@code HH:mm:ss}, followed by the fraction of a
+     * second in groups of three digits when it is not zero, like
+     * {@link java.time.LocalTime#toString()}.
+     *
+     * @param hour The hour.
+     * @param minute The minute.
+     * @param second The second.
+     * @param nanos The fraction of a second, in nanoseconds.
+     * @throws IOException if an I/O error occurs
+     */
+    void appendTime(final int hour, final int minute, final int second, final int nanos) throws IOException {
+        appendPadded(hour, 2);
+        append(':');
+        appendPadded(minute, 2);
+        append(':');
+        appendPadded(second, 2);
+        if (nanos != 0) {
+            append('.');
+            if (nanos % 1_000_000 == 0) {
+                appendPadded(nanos / 1_000_000, 3);
+            } else if (nanos % 1_000 == 0) {
+                appendPadded(nanos / 1_000, 6);
+            } else {
+                appendPadded(nanos, 9);
+            }
+        }
+    }
+
+    /**
+     * Encodes the buffered characters and writes the bytes. The byte buffer
+     * holds a full character buffer, so each call issues one large write.
+     *
+     * @param endOfInput Whether no more characters follow.
+     * @throws IOException if an I/O error occurs
+     */
+    private void drain(final boolean endOfInput) throws IOException {
+        chars.flip();
+        while (true) {
+            final CoderResult result = encoder.encode(chars, bytes, endOfInput);
+            if (result.isOverflow()) {
+                write();
+            } else if (result.isUnderflow()) {
+                break;
+            } else {
+                result.throwException();
+            }
+        }
+        // Keeps a dangling high surrogate for the next round.
+        chars.compact();
+        write();
+    }
+
+    /**
+     * Encodes and writes everything buffered so far.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    void flush() throws IOException {
+        drain(true);
+        CoderResult result;
+        do {
+            result = encoder.flush(bytes);
+            write();
+        } while (result.isOverflow());
+        if (result.isError()) {
+            throw new CharacterCodingException();
+        }
+        encoder.reset();
+    }
+
+    private void write() throws IOException {
+        bytes.flip();
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+        bytes.clear();
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.dbutils.handlers;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * {@code ResultSetHandler} implementation that writes a {@code ResultSet}
+ * as JSON Lines, one JSON object per row keyed by column label, straight to a
+ * {@code WritableByteChannel} or {@code OutputStream}, without materializing
+ * the rows, and returns the number of rows written.
+ *
+ * <p>
+ * Numbers and booleans are written as JSON numbers and booleans, SQL NULL as
+ * {@code null}. Dates, times and timestamps are written as ISO-8601 strings,
+ * binary values as Base64 strings, and the non-finite doubles as the strings
+ * {@code "NaN"}, {@code "Infinity"} and {@code "-Infinity"}.
+ * </p>
+ * <p>
+ * Instances write to a single target and should not be shared between
+ * threads. The target is flushed but not closed.
+ * </p>
+ *
+ * @see org.apache.commons.dbutils.ResultSetHandler
+ * @see <a href="https://jsonlines.org/">JSON Lines</a>
+ * @since 1.9.0
+ */
+public class JsonLinesExportHandler extends AbstractExportHandler {
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    /**
+     * Creates a new instance of JsonLinesExportHandler that encodes as UTF-8.
+     *
+     * @param outputStream The stream to write to.
+     */
+    public JsonLinesExportHandler(final OutputStream outputStream) {
+        super(Channels.newChannel(outputStream), outputStream, StandardCharsets.UTF_8, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Creates a new instance of JsonLinesExportHandler that encodes as UTF-8.
+     *
+     * @param channel The channel to write to.
+     */
+    public JsonLinesExportHandler(final WritableByteChannel channel) {
+        this(channel, StandardCharsets.UTF_8, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Creates a new instance of JsonLinesExportHandler.
+     *
+     * @param channel The channel to write to.
+     * @param charset The charset of the output.
+     * @param bufferSize The number of characters buffered before they are encoded and written.
+     */
+    public JsonLinesExportHandler(final WritableByteChannel channel, final Charset charset, final int bufferSize) {
+        super(channel, null, charset, bufferSize);
+    }
+
+    @Override
+    void endRow(final ExportBuffer out) throws IOException {
+        out.append('}');
+        out.append('\n');
+    }
+
+    @Override
+    void start(final ExportBuffer out, final String[] labels) {
+        // JSON Lines has no header
+    }
+
+    @Override
+    void startRow(final ExportBuffer out) throws IOException {
+        out.append('{');
+    }
+
+    @Override
+    char[][] valuePrefixes(final String[] labels) {
+        final char[][] prefixes = new char[labels.length][];
+        final StringBuilder key = new StringBuilder();
+        for (int i = 0; i < labels.length; i++) {
+            key.setLength(0);
+            if (i > 0) {
+                key.append(',');
+            }
+            key.append('"');
+            escape(key, labels[i]);
+            key.append('"').append(':');
+            prefixes[i] = key.toString().toCharArray();
+        }
+        return prefixes;
+    }
+
+    @Override
+    void writeNull(final ExportBuffer out) throws IOException {
+        out.append("null");
+    }
+
+    @Override
+    void writeQuote(final ExportBuffer out, final boolean start) throws IOException {
+        out.append('"');
+    }
+
+    @Override
+    void writeText(final ExportBuffer out, final String value) throws IOException {
+        out.append('"');
+        final int length = value.length();
+        for (int i = 0; i < length; i++) {
+            final char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                out.append('\\');
+                out.append(c);
+            } else if (c < 0x20) {
+                switch (c) {
+                case '\n':
+                    out.append("\\n");
+                    break;
+                case '\r':
+                    out.append("\\r");
+                    break;
+                case '\t':
+                    out.append("\\t");
+                    break;
+                default:
+                    out.append("\\u00");
+                    out.append(HEX[c >> 4]);
+                    out.append(HEX[c & 0xF]);
+                }
+            } else {
+                out.append(c);
+            }
+        }
+        out.append('"');
+    }
+
+    private static void escape(final StringBuilder out, final String value) {
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                out.append('\\').append(c);
+            } else if (c < 0x20) {
+                out.append("\\u00").append(HEX[c >> 4]).append(HEX[c & 0xF]);
+            } else {
+                out.append(c);
+            }
+        }
+    }
+}
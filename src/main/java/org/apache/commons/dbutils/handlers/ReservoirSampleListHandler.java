@@ -0,0 +1,151 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.dbutils.handlers;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.apache.commons.dbutils.ResultSetHandler;
+
+/**
+ * {@code ResultSetHandler} implementation that returns a uniform random
+ * sample of at most {@code sampleSize} rows from a {@code ResultSet} of
+ * unknown length. Memory use is proportional to {@code sampleSize}.
+ *
+ * <p>
+ * The sample is drawn with reservoir sampling (Li's "Algorithm L"), which
+ * computes how many rows to skip between replacements, so rows that do not
+ * enter the sample are stepped over with {@code ResultSet.next()} and are
+ * never converted by the delegate handler.
+ * </p>
+ * <p>
+ * The rows of the returned list are in no particular order. This class is
+ * thread safe if the given {@code Random} is.
+ * </p>
+ *
+ * @param <T> The type of the rows.
+ * @see org.apache.commons.dbutils.ResultSetHandler
+ * @since 1.9.0
+ */
+public class ReservoirSampleListHandler<T> implements ResultSetHandler<List<T>> {
+
+    /**
+     * Converts each sampled row into an object.
+     */
+    private final AbstractListHandler<T> rowHandler;
+
+    /**
+     * The maximum number of rows to return.
+     */
+    private final int sampleSize;
+
+    /**
+     * The source of randomness, or null to use {@link ThreadLocalRandom}.
+     */
+    private final Random random;
+
+    /**
+     * Creates a new instance of ReservoirSampleListHandler that uses
+     * {@link ThreadLocalRandom}.
+     *
+     * @param rowHandler The handler used to convert each sampled row, for
+     * example an {@link ArrayListHandler} or a {@link MapListHandler}.
+     * @param sampleSize The maximum number of rows to return, must not be
+     * negative.
+     */
+    public ReservoirSampleListHandler(final AbstractListHandler<T> rowHandler, final int sampleSize) {
+        this(rowHandler, sampleSize, null);
+    }
+
+    /**
+     * Creates a new instance of ReservoirSampleListHandler.
+     *
+     * @param rowHandler The handler used to convert each sampled row, for
+     * example an {@link ArrayListHandler} or a {@link MapListHandler}.
+     * @param sampleSize The maximum number of rows to return, must not be
+     * negative.
+     * @param random The source of randomness, for example a seeded
+     * {@code Random} for reproducible samples; null uses
+     * {@link ThreadLocalRandom}.
+     */
+    public ReservoirSampleListHandler(final AbstractListHandler<T> rowHandler, final int sampleSize, final Random random) {
+        if (sampleSize < 0) {
+            throw new IllegalArgumentException("sampleSize must not be negative: " + sampleSize);
+        }
+        this.rowHandler = Objects.requireNonNull(rowHandler, "rowHandler");
+        this.sampleSize = sampleSize;
+        this.random = random;
+    }
+
+    /**
+     * Reads the whole {@code ResultSet} and returns a uniform random sample
+     * of its rows. If the {@code ResultSet} has no more than
+     * {@code sampleSize} rows, all of them are returned in their original
+     * order.
+     *
+     * @param resultSet {@code ResultSet} to process.
+     * @return A list of at most {@code sampleSize} rows, never {@code null}.
+     * @throws SQLException Thrown if a database access error occurs
+     * @see org.apache.commons.dbutils.ResultSetHandler#handle(java.sql.ResultSet)
+     */
+    @Override
+    public List<T> handle(final ResultSet resultSet) throws SQLException {
+        final List<T> reservoir = new ArrayList<>(Math.min(sampleSize, 1024));
+        if (sampleSize == 0) {
+            return reservoir;
+        }
+        while (reservoir.size() < sampleSize) {
+            if (!resultSet.next()) {
+                return reservoir;
+            }
+            reservoir.add(rowHandler.handleRow(resultSet));
+        }
+        final Random rnd = random != null ? random : ThreadLocalRandom.current();
+        double w = Math.exp(Math.log(nextOpenDouble(rnd)) / sampleSize);
+        while (true) {
+            // Casting +Infinity (w underflowed to 0) yields Long.MAX_VALUE, NaN yields 0.
+            final long skip = (long) Math.floor(Math.log(nextOpenDouble(rnd)) / Math.log1p(-w));
+            for (long i = 0; i < skip; i++) {
+                if (!resultSet.next()) {
+                    return reservoir;
+                }
+            }
+            if (!resultSet.next()) {
+                return reservoir;
+            }
+            reservoir.set(rnd.nextInt(sampleSize), rowHandler.handleRow(resultSet));
+            w *= Math.exp(Math.log(nextOpenDouble(rnd)) / sampleSize);
+        }
+    }
+
+    /**
+     * Returns a uniformly distributed double in (0, 1], so that its logarithm
+     * is always finite.
+     *
+     * @param rnd The source of randomness.
+     * @return A double in (0, 1].
+     */
+    private static double nextOpenDouble(final Random rnd) {
+        return 1.0 - rnd.nextDouble();
+    }
+
+}
@@ -0,0 +1,430 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.dbutils.handlers;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Date;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * A read-only {@code List} of rows that keeps its first rows on the heap and
+ * spills the rest into a memory-mapped temporary file, created by
+ * {@link SpillingListHandler}. Spilled rows are stored in a compact binary
+ * format and decoded on every access, so {@link #get(int)} returns a new
+ * array each time for them.
+ *
+ * <p>
+ * Spilled values must be {@code null}, a {@code String}, a primitive wrapper,
+ * a {@code BigDecimal}, a {@code BigInteger}, a {@code byte[]}, a
+ * {@code java.sql.Date}, {@code Time} or {@code Timestamp}, or otherwise
+ * {@code Serializable}.
+ * </p>
+ * <p>
+ * Call {@link #close()} to delete the temporary file; the list cannot be
+ * used afterwards. This class is not thread safe while it is filled, and safe
+ * for concurrent reads afterwards.
+ * </p>
+ *
+ * @since 1.9.0
+ */
+public final class SpillingList extends AbstractList<Object[]> implements RandomAccess, Closeable {
+
+    private static final byte NULL = 0;
+    private static final byte STRING = 1;
+    private static final byte INTEGER = 2;
+    private static final byte LONG = 3;
+    private static final byte DOUBLE = 4;
+    private static final byte FLOAT = 5;
+    private static final byte SHORT = 6;
+    private static final byte BYTE = 7;
+    private static final byte TRUE = 8;
+    private static final byte FALSE = 9;
+    private static final byte BIG_DECIMAL = 10;
+    private static final byte BIG_INTEGER = 11;
+    private static final byte BYTES = 12;
+    private static final byte DATE = 13;
+    private static final byte TIME = 14;
+    private static final byte TIMESTAMP = 15;
+    private static final byte SERIALIZED = 16;
+
+    /**
+     * The default size of a mapped file segment.
+     */
+    static final int DEFAULT_SEGMENT_SIZE = 32 * 1024 * 1024;
+
+    /**
+     * Estimates the heap size of a row, for the heap budget.
+     *
+     * @param row The row.
+     * @return The approximate number of bytes the row occupies on the heap.
+     */
+    static long estimateSize(final Object[] row) {
+        long size = 16 + 8L * row.length;
+        for (final Object value : row) {
+            if (value instanceof String) {
+                size += 40 + 2L * ((String) value).length();
+            } else if (value instanceof byte[]) {
+                size += 16 + ((byte[]) value).length;
+            } else if (value != null) {
+                size += 32;
+            }
+        }
+        return size;
+    }
+
+    private final List<Object[]> heapRows = new ArrayList<>();
+
+    private final Path tempDirectory;
+
+    private final int segmentSize;
+
+    private Path file;
+
+    private FileChannel channel;
+
+    /**
+     * The mapped segments of the file; rows never span two segments.
+     */
+    private final List<MappedByteBuffer> segments = new ArrayList<>();
+
+    /**
+     * The index of the first spilled row of each segment.
+     */
+    private int[] segmentFirstRows = new int[4];
+
+    /**
+     * The offset of each spilled row within its segment.
+     */
+    private int[] offsets = new int[1024];
+
+    private int spilledRows;
+
+    /**
+     * The file position where the next segment starts.
+     */
+    private long fileSize;
+
+    /**
+     * Reused to encode one row before it is copied into a segment.
+     */
+    private ByteBuffer scratch = ByteBuffer.allocate(4096);
+
+    private volatile boolean closed;
+
+    /**
+     * Creates a new empty list.
+     *
+     * @param tempDirectory The directory of the temporary file, or null for the default temporary directory.
+     * @param segmentSize The size of a mapped file segment.
+     */
+    SpillingList(final Path tempDirectory, final int segmentSize) {
+        this.tempDirectory = tempDirectory;
+        this.segmentSize = segmentSize;
+    }
+
+    /**
+     * Adds a row on the heap.
+     *
+     * @param row The row.
+     */
+    void addToHeap(final Object[] row) {
+        heapRows.add(row);
+    }
+
+    /**
+     * Adds a row to the temporary file, creating it on first use.
+     *
+     * @param row The row.
+     * @throws IOException if the row cannot be written
+     */
+    void addToFile(final Object[] row) throws IOException {
+        checkOpen();
+        if (heapRows.size() + (long) spilledRows >= Integer.MAX_VALUE) {
+            throw new IOException("Too many rows for a List: " + Integer.MAX_VALUE);
+        }
+        scratch.clear();
+        encode(row);
+        scratch.flip();
+        MappedByteBuffer segment = segments.isEmpty() ? null : segments.get(segments.size() - 1);
+        if (segment == null || segment.remaining() < scratch.remaining()) {
+            segment = map(Math.max(segmentSize, scratch.remaining()));
+        }
+        if (spilledRows == offsets.length) {
+            offsets = Arrays.copyOf(offsets, offsets.length * 2);
+        }
+        offsets[spilledRows++] = segment.position();
+        segment.put(scratch);
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("SpillingList is closed");
+        }
+    }
+
+    /**
+     * Deletes the temporary file. The list cannot be used afterwards.
+     *
+     * @throws IOException if the file cannot be deleted
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        heapRows.clear();
+        segments.clear();
+        if (channel != null) {
+            try {
+                channel.close();
+            } finally {
+                // Mapped buffers are only released by the garbage collector;
+                // platforms that refuse to delete mapped files retry at exit.
+                try {
+                    Files.deleteIfExists(file);
+                } catch (final IOException e) {
+                    file.toFile().deleteOnExit();
+                }
+            }
+        }
+    }
+
+    private Object decode(final ByteBuffer in) {
+        final byte tag = in.get();
+        switch (tag) {
+        case NULL:
+            return null;
+        case STRING:
+            return new String(readBytes(in), StandardCharsets.UTF_8);
+        case INTEGER:
+            return Integer.valueOf(in.getInt());
+        case LONG:
+            return Long.valueOf(in.getLong());
+        case DOUBLE:
+            return Double.valueOf(in.getDouble());
+        case FLOAT:
+            return Float.valueOf(in.getFloat());
+        case SHORT:
+            return Short.valueOf(in.getShort());
+        case BYTE:
+            return Byte.valueOf(in.get());
+        case TRUE:
+            return Boolean.TRUE;
+        case FALSE:
+            return Boolean.FALSE;
+        case BIG_DECIMAL: {
+            final int scale = in.getInt();
+            return new BigDecimal(new BigInteger(readBytes(in)), scale);
+        }
+        case BIG_INTEGER:
+            return new BigInteger(readBytes(in));
+        case BYTES:
+            return readBytes(in);
+        case DATE:
+            return new Date(in.getLong());
+        case TIME:
+            return new Time(in.getLong());
+        case TIMESTAMP: {
+            final Timestamp timestamp = new Timestamp(in.getLong());
+            timestamp.setNanos(in.getInt());
+            return timestamp;
+        }
+        case SERIALIZED:
+            try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(readBytes(in)))) {
+                return ois.readObject();
+            } catch (final IOException | ClassNotFoundException e) {
+                throw new IllegalStateException("Cannot read spilled value", e);
+            }
+        default:
+            throw new IllegalStateException("Corrupt spill file, unknown tag " + tag);
+        }
+    }
+
+    private void encode(final Object[] row) throws IOException {
+        ensureScratch(4);
+        scratch.putInt(row.length);
+        for (final Object value : row) {
+            encode(value);
+        }
+    }
+
+    private void encode(final Object value) throws IOException {
+        ensureScratch(13);
+        if (value == null) {
+            scratch.put(NULL);
+        } else if (value instanceof String) {
+            scratch.put(STRING);
+            writeBytes(((String) value).getBytes(StandardCharsets.UTF_8));
+        } else if (value instanceof Integer) {
+            scratch.put(INTEGER).putInt((Integer) value);
+        } else if (value instanceof Long) {
+            scratch.put(LONG).putLong((Long) value);
+        } else if (value instanceof Double) {
+            scratch.put(DOUBLE).putDouble((Double) value);
+        } else if (value instanceof Float) {
+            scratch.put(FLOAT).putFloat((Float) value);
+        } else if (value instanceof Short) {
+            scratch.put(SHORT).putShort((Short) value);
+        } else if (value instanceof Byte) {
+            scratch.put(BYTE).put((Byte) value);
+        } else if (value instanceof Boolean) {
+            scratch.put((Boolean) value ? TRUE : FALSE);
+        } else if (value.getClass() == BigDecimal.class) {
+            final BigDecimal decimal = (BigDecimal) value;
+            scratch.put(BIG_DECIMAL).putInt(decimal.scale());
+            writeBytes(decimal.unscaledValue().toByteArray());
+        } else if (value.getClass() == BigInteger.class) {
+            scratch.put(BIG_INTEGER);
+            writeBytes(((BigInteger) value).toByteArray());
+        } else if (value instanceof byte[]) {
+            scratch.put(BYTES);
+            writeBytes((byte[]) value);
+        } else if (value.getClass() == Date.class) {
+            scratch.put(DATE).putLong(((Date) value).getTime());
+        } else if (value.getClass() == Time.class) {
+            scratch.put(TIME).putLong(((Time) value).getTime());
+        } else if (value.getClass() == Timestamp.class) {
+            final Timestamp timestamp = (Timestamp) value;
+            scratch.put(TIMESTAMP).putLong(timestamp.getTime()).putInt(timestamp.getNanos());
+        } else if (value instanceof Serializable) {
+            final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (ObjectOutputStream oos = new ObjectOutputStream(bytes)) {
+                oos.writeObject(value);
+            }
+            scratch.put(SERIALIZED);
+            writeBytes(bytes.toByteArray());
+        } else {
+            throw new IOException("Cannot spill a value of " + value.getClass());
+        }
+    }
+
+    private void ensureScratch(final int bytes) {
+        if (scratch.remaining() < bytes) {
+            final ByteBuffer bigger = ByteBuffer.allocate(Math.max(scratch.capacity() * 2, scratch.position() + bytes));
+            scratch.flip();
+            bigger.put(scratch);
+            scratch = bigger;
+        }
+    }
+
+    /**
+     * Returns the row at the given index. Spilled rows are decoded into a new
+     * array on each call.
+     *
+     * @param index The index of the row.
+     * @return The row.
+     */
+    @Override
+    public Object[] get(final int index) {
+        checkOpen();
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+        }
+        if (index < heapRows.size()) {
+            return heapRows.get(index);
+        }
+        final int spilled = index - heapRows.size();
+        int segment = Arrays.binarySearch(segmentFirstRows, 0, segments.size(), spilled);
+        if (segment < 0) {
+            segment = -segment - 2;
+        }
+        final ByteBuffer in = segments.get(segment).duplicate();
+        in.position(offsets[spilled]);
+        final Object[] row = new Object[in.getInt()];
+        for (int i = 0; i < row.length; i++) {
+            row[i] = decode(in);
+        }
+        return row;
+    }
+
+    /**
+     * Gets the number of rows held on the heap.
+     *
+     * @return The number of rows held on the heap.
+     */
+    public int getHeapRowCount() {
+        return heapRows.size();
+    }
+
+    /**
+     * Gets the number of rows stored in the temporary file.
+     *
+     * @return The number of rows stored in the temporary file.
+     */
+    public int getSpilledRowCount() {
+        return spilledRows;
+    }
+
+    private MappedByteBuffer map(final int size) throws IOException {
+        if (channel == null) {
+            file = tempDirectory != null ? Files.createTempFile(tempDirectory, "dbutils-", ".spill")
+                    : Files.createTempFile("dbutils-", ".spill");
+            channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        }
+        final MappedByteBuffer segment = channel.map(FileChannel.MapMode.READ_WRITE, fileSize, size);
+        fileSize += size;
+        if (segments.size() == segmentFirstRows.length) {
+            segmentFirstRows = Arrays.copyOf(segmentFirstRows, segmentFirstRows.length * 2);
+        }
+        segmentFirstRows[segments.size()] = spilledRows;
+        segments.add(segment);
+        return segment;
+    }
+
+    private static byte[] readBytes(final ByteBuffer in) {
+        final byte[] bytes = new byte[in.getInt()];
+        in.get(bytes);
+        return bytes;
+    }
+
+    /**
+     * Gets the number of rows.
+     *
+     * @return The number of rows.
+     */
+    @Override
+    public int size() {
+        return heapRows.size() + spilledRows;
+    }
+
+    private void writeBytes(final byte[] bytes) {
+        ensureScratch(4 + bytes.length);
+        scratch.putInt(bytes.length).put(bytes);
+    }
+}
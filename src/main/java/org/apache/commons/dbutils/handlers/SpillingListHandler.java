@@ -0,0 +1,174 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.dbutils.handlers;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Objects;
+
+import org.apache.commons.dbutils.ResultSetHandler;
+import org.apache.commons.dbutils.RowProcessor;
+
+/**
+ * {@code ResultSetHandler} implementation that converts the
+ * {@code ResultSet} into a {@link SpillingList} of {@code Object[]}s. Rows
+ * are kept on the heap until either the row budget or the estimated byte
+ * budget is exhausted; all further rows are written to a memory-mapped
+ * temporary file, so a result much larger than usual does not exhaust the
+ * heap.
+ *
+ * <pre>
+ * try (SpillingList rows = runner.query(sql, new SpillingListHandler(10_000, 64L * 1024 * 1024))) {
+ *     for (Object[] row : rows) {
+ *         ...
+ *     }
+ * }
+ * </pre>
+ *
+ * <p>
+ * The caller must close the returned list to delete the temporary file.
+ * This class is thread safe.
+ * </p>
+ *
+ * @see org.apache.commons.dbutils.ResultSetHandler
+ * @since 1.9.0
+ */
+public class SpillingListHandler implements ResultSetHandler<SpillingList> {
+
+    /**
+     * The RowProcessor implementation to use when converting rows
+     * into Object[]s.
+     */
+    private final RowProcessor convert;
+
+    /**
+     * The maximum number of rows kept on the heap.
+     */
+    private final int maxHeapRows;
+
+    /**
+     * The maximum estimated number of bytes of rows kept on the heap.
+     */
+    private final long maxHeapBytes;
+
+    /**
+     * The directory of the temporary files, or null for the default.
+     */
+    private final Path tempDirectory;
+
+    private final int segmentSize;
+
+    /**
+     * Creates a new instance of SpillingListHandler using a
+     * {@code BasicRowProcessor} for conversions and the default temporary
+     * directory.
+     *
+     * @param maxHeapRows The maximum number of rows kept on the heap, must not be negative.
+     * @param maxHeapBytes The maximum estimated size of the rows kept on the heap, in bytes, must not be negative.
+     */
+    public SpillingListHandler(final int maxHeapRows, final long maxHeapBytes) {
+        this(ArrayHandler.ROW_PROCESSOR, maxHeapRows, maxHeapBytes, null);
+    }
+
+    /**
+     * Creates a new instance of SpillingListHandler.
+     *
+     * @param convert The {@code RowProcessor} implementation
+     * to use when converting rows into Object[]s.
+     * @param maxHeapRows The maximum number of rows kept on the heap, must not be negative.
+     * @param maxHeapBytes The maximum estimated size of the rows kept on the heap, in bytes, must not be negative.
+     * @param tempDirectory The directory of the temporary files, or null for the default temporary directory.
+     */
+    public SpillingListHandler(final RowProcessor convert, final int maxHeapRows, final long maxHeapBytes, final Path tempDirectory) {
+        this(convert, maxHeapRows, maxHeapBytes, tempDirectory, SpillingList.DEFAULT_SEGMENT_SIZE);
+    }
+
+    /**
+     * Creates a new instance of SpillingListHandler with the given mapped
+     * segment size.
+     *
+     * @param convert The {@code RowProcessor} implementation to use.
+     * @param maxHeapRows The maximum number of rows kept on the heap.
+     * @param maxHeapBytes The maximum estimated size of the rows kept on the heap.
+     * @param tempDirectory The directory of the temporary files, or null.
+     * @param segmentSize The size of a mapped file segment.
+     */
+    SpillingListHandler(final RowProcessor convert, final int maxHeapRows, final long maxHeapBytes, final Path tempDirectory,
+            final int segmentSize) {
+        if (maxHeapRows < 0) {
+            throw new IllegalArgumentException("maxHeapRows must not be negative: " + maxHeapRows);
+        }
+        if (maxHeapBytes < 0) {
+            throw new IllegalArgumentException("maxHeapBytes must not be negative: " + maxHeapBytes);
+        }
+        if (segmentSize <= 0) {
+            throw new IllegalArgumentException("segmentSize must be positive: " + segmentSize);
+        }
+        this.convert = Objects.requireNonNull(convert, "convert");
+        this.maxHeapRows = maxHeapRows;
+        this.maxHeapBytes = maxHeapBytes;
+        this.tempDirectory = tempDirectory;
+        this.segmentSize = segmentSize;
+    }
+
+    /**
+     * Converts all rows of the {@code ResultSet}, spilling them to a
+     * temporary file once the heap budget is exhausted.
+     *
+     * @param resultSet {@code ResultSet} to process.
+     * @return A list of all rows, never {@code null}; close it when done.
+     * @throws SQLException Thrown if a database access error occurs or a row
+     * cannot be written to the temporary file.
+     * @see org.apache.commons.dbutils.ResultSetHandler#handle(java.sql.ResultSet)
+     */
+    @Override
+    public SpillingList handle(final ResultSet resultSet) throws SQLException {
+        final SpillingList rows = new SpillingList(tempDirectory, segmentSize);
+        boolean done = false;
+        try {
+            long heapBytes = 0;
+            boolean spilling = false;
+            while (resultSet.next()) {
+                final Object[] row = convert.toArray(resultSet);
+                if (!spilling) {
+                    heapBytes += SpillingList.estimateSize(row);
+                    spilling = rows.size() >= maxHeapRows || heapBytes > maxHeapBytes;
+                }
+                if (spilling) {
+                    rows.addToFile(row);
+                } else {
+                    rows.addToHeap(row);
+                }
+            }
+            done = true;
+            return rows;
+        } catch (final IOException e) {
+            throw new SQLException("Cannot spill row " + (rows.size() + 1) + ": " + e.getMessage(), e);
+        } finally {
+            if (!done) {
+                try {
+                    rows.close();
+                } catch (final IOException e) { // NOPMD
+                    // quiet, the original failure is more relevant
+                }
+            }
+        }
+    }
+
+}
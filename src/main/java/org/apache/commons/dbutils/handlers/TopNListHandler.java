@@ -0,0 +1,112 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.dbutils.handlers;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.PriorityQueue;
+
+import org.apache.commons.dbutils.ResultSetHandler;
+
+/**
+ * {@code ResultSetHandler} implementation that keeps only the first
+ * {@code limit} rows of a {@code ResultSet} in the order defined by a
+ * {@code Comparator}, like {@code ORDER BY ... LIMIT} would. Rows are
+ * converted by a delegate {@link AbstractListHandler} and held in a bounded
+ * heap, so memory use is proportional to {@code limit} and not to the number
+ * of rows in the {@code ResultSet}. This class is thread safe.
+ *
+ * <pre>
+ * ResultSetHandler&lt;List&lt;Object[]&gt;&gt; h = new TopNListHandler&lt;&gt;(new ArrayListHandler(), 10,
+ *         Comparator.comparing(row -&gt; (Integer) row[2]));
+ * </pre>
+ *
+ * @param <T> The type of the rows.
+ * @see org.apache.commons.dbutils.ResultSetHandler
+ * @since 1.9.0
+ */
+public class TopNListHandler<T> implements ResultSetHandler<List<T>> {
+
+    /**
+     * Converts each row into an object.
+     */
+    private final AbstractListHandler<T> rowHandler;
+
+    /**
+     * The maximum number of rows to keep.
+     */
+    private final int limit;
+
+    /**
+     * Defines the order of the rows; the smallest rows are kept.
+     */
+    private final Comparator<? super T> comparator;
+
+    /**
+     * Creates a new instance of TopNListHandler.
+     *
+     * @param rowHandler The handler used to convert each row, for example
+     * an {@link ArrayListHandler} or a {@link MapListHandler}.
+     * @param limit The maximum number of rows to keep, must not be negative.
+     * @param comparator The order of the rows; the first {@code limit} rows in
+     * this order are kept.
+     */
+    public TopNListHandler(final AbstractListHandler<T> rowHandler, final int limit, final Comparator<? super T> comparator) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("limit must not be negative: " + limit);
+        }
+        this.rowHandler = Objects.requireNonNull(rowHandler, "rowHandler");
+        this.limit = limit;
+        this.comparator = Objects.requireNonNull(comparator, "comparator");
+    }
+
+    /**
+     * Reads the whole {@code ResultSet} and returns the first {@code limit}
+     * rows in comparator order. Rows that compare equal keep the one read
+     * first.
+     *
+     * @param resultSet {@code ResultSet} to process.
+     * @return A sorted list of at most {@code limit} rows, never {@code null}.
+     * @throws SQLException Thrown if a database access error occurs
+     * @see org.apache.commons.dbutils.ResultSetHandler#handle(java.sql.ResultSet)
+     */
+    @Override
+    public List<T> handle(final ResultSet resultSet) throws SQLException {
+        if (limit == 0) {
+            return new ArrayList<>();
+        }
+        // A max-heap on the comparator: the head is the row to evict next.
+        final PriorityQueue<T> heap = new PriorityQueue<>(Math.min(limit, 1024), comparator.reversed());
+        while (resultSet.next()) {
+            final T row = rowHandler.handleRow(resultSet);
+            if (heap.size() < limit) {
+                heap.add(row);
+            } else if (comparator.compare(row, heap.peek()) < 0) {
+                heap.poll();
+                heap.add(row);
+            }
+        }
+        final List<T> rows = new ArrayList<>(heap);
+        rows.sort(comparator);
+        return rows;
+    }
+
+}
@@ -0,0 +1,47 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.dbutils.handlers.parameters;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+import org.apache.commons.dbutils.ParameterHandler;
+
+/**
+ * A {@code byte[]} parameter handler.
+ *
+ * @since 1.9.0
+ */
+public class BytesParameterHandler implements ParameterHandler<byte[]> {
+
+    /**
+     * Constructs a new instance.
+     */
+    public BytesParameterHandler() {
+        // empty
+    }
+
+    @Override
+    public void apply(final PreparedStatement stmt, final int parameterIndex, final byte[] value) throws SQLException {
+        stmt.setBytes(parameterIndex, value);
+    }
+
+    @Override
+    public boolean match(final Class<?> valueType) {
+        return valueType.equals(byte[].class);
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.dbutils.handlers.parameters;
+
+import java.sql.JDBCType;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLType;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.OffsetTime;
+import java.time.temporal.Temporal;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.commons.dbutils.ParameterHandler;
+
+/**
+ * A {@code java.time} parameter handler that binds {@link LocalDate}, {@link LocalTime}, {@link LocalDateTime}, {@link OffsetTime} and
+ * {@link OffsetDateTime} with {@link PreparedStatement#setObject(int, Object, SQLType)} and the matching {@link JDBCType}. Drivers that do not support that
+ * method get a plain {@link PreparedStatement#setObject(int, Object)}.
+ *
+ * @since 1.9.0
+ */
+public class TemporalParameterHandler implements ParameterHandler<Temporal> {
+
+    private static final Map<Class<?>, SQLType> SQL_TYPES = new HashMap<>();
+
+    static {
+        SQL_TYPES.put(LocalDate.class, JDBCType.DATE);
+        SQL_TYPES.put(LocalTime.class, JDBCType.TIME);
+        SQL_TYPES.put(LocalDateTime.class, JDBCType.TIMESTAMP);
+        SQL_TYPES.put(OffsetTime.class, JDBCType.TIME_WITH_TIMEZONE);
+        SQL_TYPES.put(OffsetDateTime.class, JDBCType.TIMESTAMP_WITH_TIMEZONE);
+    }
+
+    /**
+     * Constructs a new instance.
+     */
+    public TemporalParameterHandler() {
+        // empty
+    }
+
+    @Override
+    public void apply(final PreparedStatement stmt, final int parameterIndex, final Temporal value) throws SQLException {
+        try {
+            stmt.setObject(parameterIndex, value, SQL_TYPES.get(value.getClass()));
+        } catch (final SQLFeatureNotSupportedException e) {
+            stmt.setObject(parameterIndex, value);
+        }
+    }
+
+    @Override
+    public boolean match(final Class<?> valueType) {
+        return SQL_TYPES.containsKey(valueType);
+    }
+}
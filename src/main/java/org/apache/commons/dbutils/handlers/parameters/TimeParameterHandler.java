@@ -0,0 +1,48 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.dbutils.handlers.parameters;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Time;
+
+import org.apache.commons.dbutils.ParameterHandler;
+
+/**
+ * A {@link Time} parameter handler.
+ *
+ * @since 1.9.0
+ */
+public class TimeParameterHandler implements ParameterHandler<Time> {
+
+    /**
+     * Constructs a new instance.
+     */
+    public TimeParameterHandler() {
+        // empty
+    }
+
+    @Override
+    public void apply(final PreparedStatement stmt, final int parameterIndex, final Time value) throws SQLException {
+        stmt.setTime(parameterIndex, value);
+    }
+
+    @Override
+    public boolean match(final Class<?> valueType) {
+        return valueType.equals(Time.class);
+    }
+}
@@ -0,0 +1,42 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.dbutils;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Access to virtual threads. This is the Java 21 version of this class,
+ * packaged under {@code META-INF/versions/21} of the multi-release JAR.
+ */
+final class VirtualThreads {
+
+    private static final ThreadFactory FACTORY = Thread.ofVirtual().name("commons-dbutils-", 0).factory();
+
+    /**
+     * Gets an executor that starts a new virtual thread per task.
+     *
+     * @return The executor.
+     */
+    static Executor perTaskExecutor() {
+        return task -> FACTORY.newThread(task).start();
+    }
+
+    private VirtualThreads() {
+        // static only
+    }
+}
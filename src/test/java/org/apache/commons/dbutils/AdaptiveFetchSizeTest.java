@@ -0,0 +1,150 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.dbutils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.commons.dbutils.handlers.ColumnListHandler;
+import org.junit.jupiter.api.Test;
+
+class AdaptiveFetchSizeTest {
+
+    private static final String SQL = "SELECT name FROM person";
+
+    private static final Object[][] ROWS = { { "abcd" }, { "efgh" }, { "ijkl" } };
+
+    private static ResultSet createResultSet() {
+        return MockResultSet.create(MockResultSetMetaData.create(new String[] { "name" }), ROWS, true);
+    }
+
+    @Test
+    void testBounded() {
+        final AdaptiveFetchSize fetchSizes = new AdaptiveFetchSize.Builder().maxEntries(2).build();
+        fetchSizes.record("a", 100, 1, 1, 1);
+        fetchSizes.record("b", 100, 1, 1, 1);
+        fetchSizes.getFetchSize("a");
+        fetchSizes.record("c", 100, 1, 1, 1);
+        assertEquals(2, fetchSizes.size());
+        assertEquals(Arrays.asList("a", "c"), new ArrayList<>(fetchSizes.getEstimates().keySet()));
+        fetchSizes.clear();
+        assertEquals(0, fetchSizes.size());
+    }
+
+    @Test
+    void testBuilder() {
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveFetchSize.Builder().minFetchSize(0));
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveFetchSize.Builder().targetLatency(Duration.ZERO));
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveFetchSize.Builder().initialFetchSize(5).minFetchSize(10).build());
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveFetchSize.Builder().maxFetchSize(50).build());
+    }
+
+    @Test
+    void testGrowsForNarrowFastRows() {
+        final AdaptiveFetchSize fetchSizes = new AdaptiveFetchSize.Builder().build();
+        assertEquals(AdaptiveFetchSize.DEFAULT_INITIAL_FETCH_SIZE, fetchSizes.getFetchSize(SQL));
+        assertNull(fetchSizes.getEstimate(SQL));
+
+        // 1 microsecond and 16 bytes per row: the latency target allows 50000 rows, growing by 2 at most
+        int fetchSize = fetchSizes.getFetchSize(SQL);
+        for (final int expected : new int[] { 200, 400, 800, 1600, 3200, 6400, 10_000, 10_000 }) {
+            fetchSizes.record(SQL, fetchSize, 20_000, 20_000_000, 320_000);
+            fetchSize = fetchSizes.getFetchSize(SQL);
+            assertEquals(expected, fetchSize);
+        }
+        final AdaptiveFetchSize.Estimate estimate = fetchSizes.getEstimate(SQL);
+        assertEquals(8, estimate.getExecutions());
+        assertEquals(1000, estimate.getNanosPerRow(), 0.001);
+        assertEquals(16, estimate.getBytesPerRow(), 0.001);
+        assertEquals(Duration.ofMillis(10), estimate.getRoundTripLatency());
+    }
+
+    @Test
+    void testMeasure() throws Exception {
+        final AdaptiveFetchSize fetchSizes = new AdaptiveFetchSize.Builder().minFetchSize(1).build();
+        try (ResultSet resultSet = fetchSizes.measure(SQL, 2, createResultSet())) {
+            assertEquals(Arrays.asList("abcd", "efgh", "ijkl"), new ColumnListHandler<String>(1).handle(resultSet));
+        }
+        final AdaptiveFetchSize.Estimate estimate = fetchSizes.getEstimate(SQL);
+        assertEquals(1, estimate.getExecutions());
+        // 4 characters of 2 bytes each
+        assertEquals(8, estimate.getBytesPerRow(), 0.001);
+        assertEquals(4, estimate.getFetchSize());
+    }
+
+    @Test
+    void testQueryRunner() throws Exception {
+        final AdaptiveFetchSize fetchSizes = new AdaptiveFetchSize.Builder().initialFetchSize(2).minFetchSize(1).build();
+        final List<Integer> fetchSizesSet = new ArrayList<>();
+        final Connection conn = ProxyFactory.instance().createConnection((connection, connMethod, connArgs) -> {
+            if (!"createStatement".equals(connMethod.getName())) {
+                return null;
+            }
+            return ProxyFactory.instance().createStatement((proxy, method, args) -> {
+                switch (method.getName()) {
+                case "setFetchSize":
+                    fetchSizesSet.add((Integer) args[0]);
+                    return null;
+                case "getFetchSize":
+                    return fetchSizesSet.get(fetchSizesSet.size() - 1);
+                case "executeQuery":
+                    return createResultSet();
+                default:
+                    return null;
+                }
+            });
+        });
+        final QueryRunner runner = new QueryRunner(new StatementConfiguration.Builder().fetchSize(1000).adaptiveFetchSize(fetchSizes).build());
+
+        runner.query(conn, SQL, new ColumnListHandler<String>(1));
+        runner.query(conn, SQL, new ColumnListHandler<String>(1));
+
+        assertEquals(Arrays.asList(2, 4), fetchSizesSet);
+        assertEquals(2, fetchSizes.getEstimate(SQL).getExecutions());
+        assertTrue(fetchSizes.toString().contains("size=1"));
+    }
+
+    @Test
+    void testShrinksForWideRows() {
+        final AdaptiveFetchSize fetchSizes = new AdaptiveFetchSize.Builder().memoryBudget(1_000_000).build();
+        int fetchSize = fetchSizes.getFetchSize(SQL);
+        // 100 KB per row: the budget allows 10 rows, shrinking by 2 at most
+        for (final int expected : new int[] { 50, 25, 12, 10, 10 }) {
+            fetchSizes.record(SQL, fetchSize, 1000, 1000, 100_000_000);
+            fetchSize = fetchSizes.getFetchSize(SQL);
+            assertEquals(expected, fetchSize);
+        }
+    }
+
+    @Test
+    void testSmallResultsDoNotGrow() {
+        final AdaptiveFetchSize fetchSizes = new AdaptiveFetchSize.Builder().build();
+        fetchSizes.record(SQL, 100, 5, 5000, 80);
+        assertEquals(100, fetchSizes.getFetchSize(SQL));
+        fetchSizes.record(SQL, 100, 0, 0, 0);
+        assertEquals(1, fetchSizes.getEstimate(SQL).getExecutions());
+    }
+}
@@ -16,7 +16,10 @@
  */
 package org.apache.commons.dbutils;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doThrow;
@@ -33,6 +36,7 @@ import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
@@ -373,6 +377,81 @@ class AsyncQueryRunnerTest {
         callGoodUpdate(conn);
     }
 
+    @Test
+    void testAsyncComposes() throws Exception {
+        when(meta.getParameterCount()).thenReturn(2);
+        when(prepStmt.executeUpdate()).thenReturn(3);
+
+        final CompletableFuture<Integer> future = runner.queryAsync("select * from blah where ? = ?", handler, "unit", "test")
+                .thenCompose(row -> runner.updateAsync("update blah set ? = ?", "unit", "test"));
+
+        assertEquals(3, future.get(10, TimeUnit.SECONDS));
+        verify(prepStmt, times(1)).executeQuery();
+        verify(prepStmt, times(1)).executeUpdate();
+        verify(conn, times(2)).close();
+    }
+
+    @Test
+    void testAsyncException() throws Exception {
+        doThrow(new SQLException("unit")).when(prepStmt).executeUpdate();
+        when(meta.getParameterCount()).thenReturn(2);
+
+        final CompletableFuture<Integer> future = runner.updateAsync("update blah set ? = ?", "unit", "test");
+
+        final ExecutionException e = assertThrows(ExecutionException.class, () -> future.get(10, TimeUnit.SECONDS));
+        assertTrue(e.getCause() instanceof SQLException);
+    }
+
+    @Test
+    void testAsyncUsesGivenQueryRunner() throws Exception {
+        final QueryRunner mockQueryRunner = mock(QueryRunner.class);
+        final Object[][] params = { { "unit" } };
+        runner = new AsyncQueryRunner(Executors.newSingleThreadExecutor(), mockQueryRunner);
+        final List<CompletableFuture<?>> futures = new ArrayList<>();
+        futures.add(runner.batchAsync("1", params));
+        futures.add(runner.batchAsync(conn, "2", params));
+        futures.add(runner.insertAsync("3", handler, "param1"));
+        futures.add(runner.insertAsync(conn, "4", handler, "param1"));
+        futures.add(runner.queryAsync("5", handler, "param1"));
+        futures.add(runner.queryAsync(conn, "6", handler, "param1"));
+        futures.add(runner.updateAsync("7", "param1"));
+        futures.add(runner.updateAsync(conn, "8", "param1"));
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(10, TimeUnit.SECONDS);
+        verify(mockQueryRunner).batch("1", params);
+        verify(mockQueryRunner).batch(conn, "2", params);
+        verify(mockQueryRunner).insert("3", handler, "param1");
+        verify(mockQueryRunner).insert(conn, "4", handler, "param1");
+        verify(mockQueryRunner).query("5", handler, "param1");
+        verify(mockQueryRunner).query(conn, "6", handler, "param1");
+        verify(mockQueryRunner).update("7", new Object[] { "param1" });
+        verify(mockQueryRunner).update(conn, "8", new Object[] { "param1" });
+        assertFalse(runner.usesVirtualThreads());
+    }
+
+    @Test
+    void testWithVirtualThreads() throws Exception {
+        when(meta.getParameterCount()).thenReturn(2);
+        runner = AsyncQueryRunner.withVirtualThreads(Executors.newSingleThreadExecutor(), new QueryRunner(dataSource));
+
+        runner.queryAsync("select * from blah where ? = ?", handler, "unit", "test").get(10, TimeUnit.SECONDS);
+
+        verify(prepStmt, times(1)).executeQuery();
+        verify(conn, times(1)).close();
+
+        // Tests run on target/classes, without the Java 21 classes; VirtualThreadsIT runs against the JAR.
+        final AsyncQueryRunner threads = AsyncQueryRunner.withVirtualThreads(Executors.newSingleThreadExecutor(), new QueryRunner() {
+            @Override
+            public int update(final String sql, final Object... params) {
+                try {
+                    return VirtualThreadsIT.isVirtual(Thread.currentThread()) ? 1 : 0;
+                } catch (final ReflectiveOperationException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        });
+        assertEquals(threads.usesVirtualThreads() ? 1 : 0, threads.updateAsync("UPDATE t SET x = 1").get(10, TimeUnit.SECONDS).intValue());
+    }
+
     @Test
     void testInsertUsesGivenQueryRunner() throws Exception {
         final QueryRunner mockQueryRunner = mock(QueryRunner.class, org.mockito.Mockito.withSettings().verboseLogging()); // debug for Continuum
@@ -0,0 +1,74 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.dbutils;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+class BeanParameterPlanTest {
+
+    @Test
+    void testCachedPerClassAndNames() {
+        final BeanParameterPlan plan = BeanParameterPlan.of(TestBean.class, "one", "intTest");
+        assertSame(plan, BeanParameterPlan.of(TestBean.class, new String[] { "one", "intTest" }));
+        assertNotSame(plan, BeanParameterPlan.of(TestBean.class, "intTest", "one"));
+        assertEquals(TestBean.class, plan.getType());
+        assertEquals(2, plan.size());
+    }
+
+    @Test
+    void testExtract() {
+        final TestBean bean = new TestBean();
+        bean.setOne("1");
+        bean.setIntTest(2);
+        bean.setIntegerTest(null);
+        final BeanParameterPlan plan = BeanParameterPlan.of(TestBean.class, "one", "intTest", "integerTest");
+        assertArrayEquals(new Object[] { "1", Integer.valueOf(2), null }, plan.extract(bean));
+
+        final Object[] params = { "x", "y", "z", "unchanged" };
+        bean.setOne("one");
+        plan.extract(bean, params);
+        assertArrayEquals(new Object[] { "one", Integer.valueOf(2), null, "unchanged" }, params);
+    }
+
+    @Test
+    void testNoReadMethod() {
+        assertThrows(IllegalArgumentException.class, () -> BeanParameterPlan.of(WriteOnlyBean.class, "value"));
+    }
+
+    @Test
+    void testNullName() {
+        assertThrows(NullPointerException.class, () -> BeanParameterPlan.of(TestBean.class, "one", null));
+    }
+
+    @Test
+    void testUnknownProperty() {
+        assertThrows(IllegalStateException.class, () -> BeanParameterPlan.of(TestBean.class, "unknown"));
+    }
+
+    public static class WriteOnlyBean {
+
+        public void setValue(final String value) {
+            // no getter
+        }
+    }
+}
@@ -0,0 +1,210 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.dbutils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.ParameterMetaData;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@SuppressWarnings("boxing") // test code
+@ExtendWith(MockitoExtension.class)
+class BulkLoaderTest {
+
+    public static final class Person {
+        private final int id;
+        private final String name;
+
+        Person(final int id, final String name) {
+            this.id = id;
+            this.name = name;
+        }
+
+        public int getId() {
+            return id;
+        }
+
+        public String getName() {
+            return name;
+        }
+    }
+
+    private static final String SQL = "INSERT INTO person (id, name) VALUES (?, ?)";
+
+    private static List<Object[]> rows(final int count) {
+        final List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            rows.add(new Object[] { i, "name" + i });
+        }
+        return rows;
+    }
+
+    @Mock(strictness = Mock.Strictness.LENIENT)
+    private Connection conn;
+
+    @Mock(strictness = Mock.Strictness.LENIENT)
+    private PreparedStatement prepStmt;
+
+    @Mock(strictness = Mock.Strictness.LENIENT)
+    private ParameterMetaData meta;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        when(conn.prepareStatement(any())).thenReturn(prepStmt);
+        when(prepStmt.getParameterMetaData()).thenReturn(meta);
+        when(meta.getParameterCount()).thenReturn(2);
+    }
+
+    @Test
+    void testCommitInterval() throws Exception {
+        when(conn.getAutoCommit()).thenReturn(true);
+        final BulkLoader loader = new BulkLoader.Builder().batchSize(1).commitInterval(2).build();
+
+        assertEquals(5, loader.load(conn, SQL, rows(5).iterator()));
+
+        final InOrder inOrder = inOrder(conn);
+        inOrder.verify(conn).setAutoCommit(false);
+        inOrder.verify(conn, times(3)).commit();
+        inOrder.verify(conn).setAutoCommit(true);
+        verify(conn, never()).rollback();
+        verify(prepStmt, times(5)).executeBatch();
+    }
+
+    @Test
+    void testDoubleBuffered() throws Exception {
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            final List<Long> progress = new ArrayList<>();
+            final BulkLoader loader = new BulkLoader.Builder().batchSize(3).doubleBuffered(executor)
+                    .progressListener((rows, batches) -> progress.add(rows)).build();
+
+            assertEquals(10, loader.load(conn, SQL, rows(10).iterator()));
+            assertEquals(Arrays.asList(3L, 6L, 9L, 10L), progress);
+            verify(prepStmt, times(10)).addBatch();
+            verify(prepStmt, times(4)).executeBatch();
+            verify(prepStmt).close();
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void testFailureRollsBack() throws Exception {
+        when(conn.getAutoCommit()).thenReturn(true);
+        when(prepStmt.executeBatch()).thenReturn(new int[] { 1 }).thenThrow(new SQLException("duplicate key"));
+        final BulkLoader loader = new BulkLoader.Builder().batchSize(1).commitInterval(1).build();
+
+        assertThrows(SQLException.class, () -> loader.load(conn, SQL, rows(3).iterator()));
+        verify(conn, times(1)).commit();
+        verify(conn).rollback();
+        verify(conn).setAutoCommit(true);
+        verify(prepStmt).close();
+    }
+
+    @Test
+    void testFailureSurvivesAutoCommitReset() throws Exception {
+        when(conn.getAutoCommit()).thenReturn(true);
+        when(prepStmt.executeBatch()).thenThrow(new SQLException("duplicate key"));
+        doThrow(new SQLException("connection reset")).when(conn).setAutoCommit(true);
+        final BulkLoader loader = new BulkLoader.Builder().batchSize(1).commitInterval(1).build();
+
+        final SQLException e = assertThrows(SQLException.class, () -> loader.load(conn, SQL, rows(3).iterator()));
+        assertTrue(e.getMessage().startsWith("duplicate key"));
+        assertEquals(1, e.getSuppressed().length);
+        assertEquals("connection reset", e.getSuppressed()[0].getMessage());
+        verify(conn).rollback();
+    }
+
+    @Test
+    void testLoadBeans() throws Exception {
+        final BulkLoader loader = new BulkLoader.Builder().build();
+
+        assertEquals(2, loader.loadBeans(conn, SQL, Stream.of(new Person(1, "a"), new Person(2, "b")), "id", "name"));
+        verify(prepStmt).setInt(1, 1);
+        verify(prepStmt).setString(2, "a");
+        verify(prepStmt).setInt(1, 2);
+        verify(prepStmt).setString(2, "b");
+        verify(prepStmt, times(1)).executeBatch();
+        verify(conn, never()).commit();
+    }
+
+    @Test
+    void testLoadCsv() throws Exception {
+        final byte[] csv = "id,name\r\n1,\"Smith, J\"\r\n2,\r\n".getBytes(StandardCharsets.UTF_8);
+        final BulkLoader loader = new BulkLoader.Builder().build();
+
+        assertEquals(2, loader.loadCsv(conn, SQL, Channels.newChannel(new ByteArrayInputStream(csv))));
+        verify(prepStmt).setString(1, "1");
+        verify(prepStmt).setString(2, "Smith, J");
+        verify(prepStmt).setString(1, "2");
+        verify(prepStmt).setNull(eq(2), anyInt());
+    }
+
+    @Test
+    void testLoadInBatches() throws Exception {
+        final List<Long> batches = new ArrayList<>();
+        final BulkLoader loader = new BulkLoader.Builder().batchSize(2).progressListener((rows, count) -> batches.add(count)).build();
+
+        assertEquals(5, loader.load(conn, SQL, rows(5).iterator()));
+        assertEquals(Arrays.asList(1L, 2L, 3L), batches);
+        verify(prepStmt, times(1)).getParameterMetaData();
+        verify(prepStmt, times(5)).addBatch();
+        verify(prepStmt, times(3)).executeBatch();
+        verify(prepStmt).close();
+        verify(conn, never()).setAutoCommit(false);
+    }
+
+    @Test
+    void testNullArguments() {
+        final BulkLoader loader = new BulkLoader.Builder().build();
+
+        assertThrows(SQLException.class, () -> loader.load(null, SQL, rows(1).iterator()));
+        assertThrows(SQLException.class, () -> loader.load(conn, null, rows(1).iterator()));
+        assertThrows(SQLException.class, () -> loader.load(conn, SQL, null));
+        assertThrows(IllegalArgumentException.class, () -> new BulkLoader.Builder().batchSize(0));
+    }
+
+}
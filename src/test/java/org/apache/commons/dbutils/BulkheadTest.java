@@ -0,0 +1,195 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.dbutils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class BulkheadTest {
+
+    private ExecutorService executorService;
+
+    private CountDownLatch blocker;
+
+    private CompletableFuture<String> block(final Bulkhead bulkhead) {
+        return bulkhead.submit(Bulkhead.PRIORITY_NORMAL, () -> {
+            blocker.await();
+            return "blocked";
+        });
+    }
+
+    @BeforeEach
+    void setUp() {
+        executorService = Executors.newCachedThreadPool();
+        blocker = new CountDownLatch(1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        blocker.countDown();
+        executorService.shutdownNow();
+    }
+
+    @Test
+    void testConstructor() {
+        assertThrows(IllegalArgumentException.class, () -> new Bulkhead(executorService, 0, 1));
+        assertThrows(IllegalArgumentException.class, () -> new Bulkhead(executorService, 1, -1));
+        assertThrows(NullPointerException.class, () -> new Bulkhead(null, 1, 1));
+    }
+
+    @Test
+    void testLimitsConcurrency() throws Exception {
+        final Bulkhead bulkhead = new Bulkhead(executorService, 3, 100);
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maxRunning = new AtomicInteger();
+        final List<CompletableFuture<Integer>> futures = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            final int value = i;
+            futures.add(bulkhead.submit(Bulkhead.PRIORITY_NORMAL, () -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                // Synthetic statement latency
+                Thread.sleep(2);
+                running.decrementAndGet();
+                return value;
+            }));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(10, TimeUnit.SECONDS);
+        assertTrue(maxRunning.get() <= 3);
+        assertEquals(30, bulkhead.getCompletedCount());
+        assertEquals(0, bulkhead.getInFlight());
+        assertEquals(0, bulkhead.getQueued());
+        assertTrue(bulkhead.getExecutionTimeNanos() >= TimeUnit.MILLISECONDS.toNanos(60));
+        assertTrue(bulkhead.getMaxExecutionTimeNanos() >= TimeUnit.MILLISECONDS.toNanos(2));
+        assertTrue(bulkhead.getMaxQueueTimeNanos() > 0);
+    }
+
+    @Test
+    void testPriorities() throws Exception {
+        final Bulkhead bulkhead = new Bulkhead(executorService, 1, 10);
+        final CompletableFuture<String> blocked = block(bulkhead);
+        final List<String> order = Collections.synchronizedList(new ArrayList<>());
+        final CompletableFuture<Boolean> low = bulkhead.submit(Bulkhead.PRIORITY_LOW, () -> order.add("low"));
+        final CompletableFuture<Boolean> normal1 = bulkhead.submit(Bulkhead.PRIORITY_NORMAL, () -> order.add("normal1"));
+        final CompletableFuture<Boolean> high = bulkhead.submit(Bulkhead.PRIORITY_HIGH, () -> order.add("high"));
+        final CompletableFuture<Boolean> normal2 = bulkhead.submit(Bulkhead.PRIORITY_NORMAL, () -> order.add("normal2"));
+        assertEquals(4, bulkhead.getQueued());
+        assertEquals(1, bulkhead.getInFlight());
+
+        blocker.countDown();
+        CompletableFuture.allOf(blocked, low, normal1, high, normal2).get(10, TimeUnit.SECONDS);
+        assertEquals(List.of("high", "normal1", "normal2", "low"), order);
+    }
+
+    @Test
+    void testRejectsWhenQueueFull() throws Exception {
+        final Bulkhead bulkhead = new Bulkhead(executorService, 1, 1);
+        final CompletableFuture<String> blocked = block(bulkhead);
+        final CompletableFuture<String> queued = bulkhead.submit(Bulkhead.PRIORITY_NORMAL, () -> "queued");
+        final CompletableFuture<String> rejected = bulkhead.submit(Bulkhead.PRIORITY_HIGH, () -> "rejected");
+
+        final ExecutionException e = assertThrows(ExecutionException.class, () -> rejected.get(1, TimeUnit.SECONDS));
+        assertTrue(e.getCause() instanceof RejectedExecutionException);
+        assertThrows(RejectedExecutionException.class, () -> bulkhead.execute(() -> { }));
+        assertEquals(2, bulkhead.getRejectedCount());
+
+        blocker.countDown();
+        assertEquals("blocked", blocked.get(10, TimeUnit.SECONDS));
+        assertEquals("queued", queued.get(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testRejectedQueuedCallFailsAsyncFuture() throws Exception {
+        final ExecutorService single = Executors.newSingleThreadExecutor();
+        final Bulkhead bulkhead = new Bulkhead(single, 1, 10);
+        final AsyncQueryRunner runner = AsyncQueryRunner.withBulkhead(executorService, new QueryRunner(), bulkhead);
+        final CompletableFuture<String> blocked = block(bulkhead);
+        final CompletableFuture<Integer> queued = runner.updateAsync("UPDATE person SET name = ?", "a");
+        single.shutdown();
+
+        blocker.countDown();
+        assertEquals("blocked", blocked.get(10, TimeUnit.SECONDS));
+        final ExecutionException e = assertThrows(ExecutionException.class, () -> queued.get(10, TimeUnit.SECONDS));
+        assertTrue(e.getCause() instanceof RejectedExecutionException);
+        assertEquals(1, bulkhead.getRejectedCount());
+        assertEquals(0, bulkhead.getInFlight());
+    }
+
+    @Test
+    void testSkipsCancelledAsyncCalls() throws Exception {
+        final AtomicInteger calls = new AtomicInteger();
+        final QueryRunner queryRunner = new QueryRunner() {
+            @Override
+            public int update(final String sql, final Object... params) {
+                return calls.incrementAndGet();
+            }
+        };
+        final Bulkhead bulkhead = new Bulkhead(executorService, 1, 10);
+        final AsyncQueryRunner runner = AsyncQueryRunner.withBulkhead(executorService, queryRunner, bulkhead);
+        final CompletableFuture<String> blocked = block(bulkhead);
+        final CompletableFuture<Integer> cancelled = runner.updateAsync("UPDATE person SET name = ?", "a");
+        final CompletableFuture<Integer> next = runner.updateAsync("UPDATE person SET name = ?", "b");
+        cancelled.cancel(false);
+
+        blocker.countDown();
+        blocked.get(10, TimeUnit.SECONDS);
+        assertEquals(1, next.get(10, TimeUnit.SECONDS).intValue());
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void testSkipsCancelledCalls() throws Exception {
+        final Bulkhead bulkhead = new Bulkhead(executorService, 1, 10);
+        final CompletableFuture<String> blocked = block(bulkhead);
+        final AtomicInteger calls = new AtomicInteger();
+        final CompletableFuture<Integer> cancelled = bulkhead.submit(Bulkhead.PRIORITY_NORMAL, calls::incrementAndGet);
+        final CompletableFuture<Integer> next = bulkhead.submit(Bulkhead.PRIORITY_NORMAL, calls::incrementAndGet);
+        cancelled.cancel(false);
+
+        blocker.countDown();
+        blocked.get(10, TimeUnit.SECONDS);
+        assertEquals(1, next.get(10, TimeUnit.SECONDS).intValue());
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void testPropagatesFailures() {
+        final Bulkhead bulkhead = new Bulkhead(executorService, 1, 0);
+        final CompletableFuture<Object> future = bulkhead.submit(Bulkhead.PRIORITY_NORMAL, () -> {
+            throw new SQLException("unit");
+        });
+        final ExecutionException e = assertThrows(ExecutionException.class, () -> future.get(10, TimeUnit.SECONDS));
+        assertTrue(e.getCause() instanceof SQLException);
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.dbutils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.ParameterMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+import javax.sql.DataSource;
+
+import org.apache.commons.dbutils.handlers.ArrayHandler;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class CachingQueryRunnerTest {
+
+    private final ArrayHandler handler = new ArrayHandler();
+
+    private QueryResultCache cache;
+
+    private CachingQueryRunner runner;
+
+    @Mock(strictness = Mock.Strictness.LENIENT)
+    private DataSource dataSource;
+
+    @Mock(strictness = Mock.Strictness.LENIENT)
+    private Connection conn;
+
+    @Mock(strictness = Mock.Strictness.LENIENT)
+    private PreparedStatement prepStmt;
+
+    @Mock(strictness = Mock.Strictness.LENIENT)
+    private Statement stmt;
+
+    @Mock(strictness = Mock.Strictness.LENIENT)
+    private ParameterMetaData meta;
+
+    @Mock(strictness = Mock.Strictness.LENIENT)
+    private ResultSet results;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        when(dataSource.getConnection()).thenReturn(conn);
+        when(conn.prepareStatement(any(String.class))).thenReturn(prepStmt);
+        when(conn.createStatement()).thenReturn(stmt);
+        when(prepStmt.getParameterMetaData()).thenReturn(meta);
+        when(prepStmt.executeQuery()).thenReturn(results);
+        when(stmt.executeQuery(any(String.class))).thenReturn(results);
+        when(results.next()).thenReturn(false);
+        when(meta.getParameterCount()).thenReturn(1);
+
+        cache = new QueryResultCache.Builder().build();
+        runner = new CachingQueryRunner(dataSource, cache);
+    }
+
+    @Test
+    void testCachesQueries() throws Exception {
+        runner.query("select * from person where id = ?", handler, 1);
+        runner.query("select * from person where id = ?", handler, 1);
+        runner.query("select * from person where id = ?", handler, 2);
+        runner.query("select * from person", handler);
+        runner.query("select * from person", handler);
+
+        verify(prepStmt, times(2)).executeQuery();
+        verify(stmt, times(1)).executeQuery("select * from person");
+        verify(conn, times(3)).close();
+        assertEquals(2, cache.getHitCount());
+        assertEquals(3, cache.getMissCount());
+        assertEquals(3, cache.size());
+    }
+
+    @Test
+    void testDoesNotCacheCallConfiguration() throws Exception {
+        final StatementConfiguration limited = new StatementConfiguration.Builder().maxRows(1).build();
+        runner.query(limited, "select * from person", handler);
+        runner.query("select * from person", handler);
+        runner.query(limited, "select * from person", handler);
+
+        verify(stmt, times(3)).executeQuery("select * from person");
+        verify(stmt, times(2)).setMaxRows(1);
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void testDoesNotCacheCallerConnection() throws Exception {
+        runner.query(conn, "select * from person where id = ?", handler, 1);
+        runner.query(conn, "select * from person where id = ?", handler, 1);
+
+        verify(prepStmt, times(2)).executeQuery();
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void testInvalidatesOnBatch() throws Exception {
+        when(prepStmt.executeBatch()).thenReturn(new int[] { 1 });
+        runner.query("select * from person where id = ?", handler, 1);
+
+        runner.batch("insert into person (id) values (?)", new Object[][] { { 2 } });
+
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void testInvalidatesOnUpdate() throws Exception {
+        runner.query("select * from person where id = ?", handler, 1);
+        runner.query("select * from address where id = ?", handler, 1);
+
+        runner.update("update person set name = ? where id = 1", "unit");
+        assertEquals(1, cache.size());
+        runner.query("select * from person where id = ?", handler, 1);
+        runner.query("select * from address where id = ?", handler, 1);
+
+        verify(prepStmt, times(3)).executeQuery();
+        verify(prepStmt, times(1)).executeUpdate();
+    }
+
+    @Test
+    void testInvalidatesOnUpdateWithCallerConnection() throws Exception {
+        runner.query("select * from person where id = ?", handler, 1);
+
+        runner.update(conn, "delete from person where id = ?", 1);
+
+        assertEquals(0, cache.size());
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.dbutils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.InvocationTargetException;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+class ConcatenatedResultSetTest {
+
+    private static final ResultSetMetaData META_DATA = MockResultSetMetaData.create(new String[] { "id" });
+
+    private final AtomicInteger closed = new AtomicInteger();
+
+    /**
+     * Counts the calls to {@code close()} of a mock {@code ResultSet}.
+     */
+    private ResultSet counting(final Object[][] rows) {
+        final ResultSet resultSet = MockResultSet.create(META_DATA, rows, true);
+        return ProxyFactory.instance().createResultSet((proxy, method, args) -> {
+            if (method.getName().equals("close")) {
+                closed.incrementAndGet();
+            }
+            try {
+                return method.invoke(resultSet, args);
+            } catch (final InvocationTargetException e) {
+                throw e.getCause();
+            }
+        });
+    }
+
+    @Test
+    void testConcatenate() throws SQLException {
+        final ResultSet first = counting(new Object[][] { { 1 }, { 2 } });
+        final ResultSet empty = counting(new Object[][] {});
+        final ResultSet last = counting(new Object[][] { { 3 } });
+        try (ResultSet resultSet = ConcatenatedResultSet.concatenate(first, empty, last)) {
+            assertTrue(resultSet.next());
+            assertEquals(1, resultSet.getInt(1));
+            assertTrue(resultSet.next());
+            assertEquals(2, resultSet.getInt("id"));
+            assertTrue(resultSet.next());
+            assertEquals(3, resultSet.getInt(1));
+            assertFalse(resultSet.next());
+            assertFalse(resultSet.next());
+        }
+        assertEquals(3, closed.get());
+    }
+
+    @Test
+    void testSingle() {
+        final ResultSet single = MockResultSet.create(META_DATA, new Object[][] {}, false);
+        assertSame(single, ConcatenatedResultSet.concatenate(single));
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.dbutils;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.util.NoSuchElementException;
+
+import org.junit.jupiter.api.Test;
+
+class CsvRowIteratorTest {
+
+    @Test
+    void testEmptyInput() {
+        final CsvRowIterator rows = new CsvRowIterator(new StringReader(""), ',', true);
+        assertFalse(rows.hasNext());
+        assertThrows(NoSuchElementException.class, rows::next);
+    }
+
+    @Test
+    void testNullsAndEmptyStrings() {
+        final CsvRowIterator rows = new CsvRowIterator(new StringReader("a,,\"\"\n,\n"), ',', false);
+        assertArrayEquals(new Object[] { "a", null, "" }, rows.next());
+        assertArrayEquals(new Object[] { null, null }, rows.next());
+        assertFalse(rows.hasNext());
+    }
+
+    @Test
+    void testQuotedFields() {
+        final CsvRowIterator rows = new CsvRowIterator(new StringReader("id;text\r\n1;\"a;\"\"b\"\"\r\nc\"\r\n2;d"), ';', true);
+        assertArrayEquals(new Object[] { "1", "a;\"b\"\r\nc" }, rows.next());
+        assertArrayEquals(new Object[] { "2", "d" }, rows.next());
+        assertFalse(rows.hasNext());
+    }
+
+    @Test
+    void testUnterminatedQuote() {
+        final CsvRowIterator rows = new CsvRowIterator(new StringReader("\"abc"), ',', false);
+        assertThrows(UncheckedIOException.class, rows::hasNext);
+    }
+
+}
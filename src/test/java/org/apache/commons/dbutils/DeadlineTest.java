@@ -0,0 +1,200 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.dbutils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.apache.commons.dbutils.handlers.ScalarHandler;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class DeadlineTest {
+
+    private final List<String> calls = Collections.synchronizedList(new ArrayList<>());
+
+    private final AtomicInteger queryTimeout = new AtomicInteger();
+
+    /** Counted down when a query starts running. */
+    private final CountDownLatch started = new CountDownLatch(1);
+
+    /** Counted down by Statement.cancel(); queries block until then. */
+    private final CountDownLatch cancelled = new CountDownLatch(1);
+
+    private final CountDownLatch closed = new CountDownLatch(1);
+
+    private ExecutorService executor;
+
+    private QueryRunner runner;
+
+    private Statement createStatement() {
+        return ProxyFactory.instance().createStatement((proxy, method, args) -> {
+            calls.add(method.getName());
+            switch (method.getName()) {
+            case "cancel":
+                cancelled.countDown();
+                return null;
+            case "equals":
+                return Boolean.valueOf(proxy == args[0]);
+            case "executeQuery":
+                started.countDown();
+                cancelled.await(10, TimeUnit.SECONDS);
+                throw new SQLException("Statement cancelled", Deadline.SQL_STATE_CANCELLED);
+            case "getQueryTimeout":
+                return Integer.valueOf(queryTimeout.get());
+            case "hashCode":
+                return Integer.valueOf(System.identityHashCode(proxy));
+            case "isClosed":
+                return Boolean.FALSE;
+            case "setQueryTimeout":
+                queryTimeout.set((Integer) args[0]);
+                return null;
+            default:
+                return null;
+            }
+        });
+    }
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newCachedThreadPool();
+        final Connection conn = ProxyFactory.instance().createConnection((proxy, method, args) -> {
+            switch (method.getName()) {
+            case "close":
+                closed.countDown();
+                return null;
+            case "createStatement":
+                return createStatement();
+            default:
+                return null;
+            }
+        });
+        final DataSource ds = (DataSource) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { DataSource.class },
+                (proxy, method, args) -> {
+                    calls.add(method.getName());
+                    return conn;
+                });
+        runner = new QueryRunner(ds);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void testAsyncCancel() throws Exception {
+        final AsyncQueryRunner async = new AsyncQueryRunner(executor, runner);
+        final CompletableFuture<Integer> future = async.queryAsync(Deadline.after(Duration.ofMinutes(1)), "SELECT 1", new ScalarHandler<>());
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+        assertTrue(future.cancel(true));
+        assertTrue(cancelled.await(10, TimeUnit.SECONDS));
+        assertTrue(closed.await(10, TimeUnit.SECONDS));
+        assertEquals(60, queryTimeout.get());
+    }
+
+    @Test
+    void testAsyncTimeout() throws Exception {
+        final AsyncQueryRunner async = new AsyncQueryRunner(executor, runner);
+        final CompletableFuture<Integer> future = async.updateAsync(Deadline.after(Duration.ZERO), "UPDATE t SET x = 1");
+        final ExecutionException e = assertThrows(ExecutionException.class, () -> future.get(10, TimeUnit.SECONDS));
+        assertTrue(e.getCause() instanceof TimeoutException);
+
+        final CompletableFuture<Integer> query = async.queryAsync(Deadline.after(Duration.ofMillis(50)), "SELECT 1", new ScalarHandler<>());
+        assertTrue(assertThrows(ExecutionException.class, () -> query.get(10, TimeUnit.SECONDS)).getCause() instanceof TimeoutException);
+        assertTrue(cancelled.await(10, TimeUnit.SECONDS));
+        assertTrue(closed.await(10, TimeUnit.SECONDS));
+        assertEquals(1, queryTimeout.get());
+    }
+
+    @Test
+    void testCancelBeforeStart() {
+        final Deadline deadline = Deadline.after(Duration.ofMinutes(1));
+        deadline.cancel();
+        assertTrue(deadline.isCancelled());
+        final SQLException e = assertThrows(SQLException.class, () -> runner.query(deadline, "SELECT 1", new ScalarHandler<>()));
+        assertEquals(Deadline.SQL_STATE_CANCELLED, e.getSQLState());
+        assertFalse(calls.contains("getConnection"));
+    }
+
+    @Test
+    void testExpired() {
+        final Deadline deadline = Deadline.after(Duration.ofMillis(-1));
+        assertTrue(deadline.isExpired());
+        assertEquals(Duration.ZERO, deadline.getRemaining());
+        assertThrows(SQLTimeoutException.class, () -> runner.update(deadline, "UPDATE t SET x = 1"));
+        assertFalse(calls.contains("getConnection"));
+    }
+
+    @Test
+    void testRegister() throws SQLException {
+        final Deadline deadline = Deadline.after(Duration.ofMillis(2500));
+        final Statement stmt = createStatement();
+        deadline.register(stmt);
+        assertEquals(3, queryTimeout.get());
+
+        queryTimeout.set(1);
+        deadline.register(stmt);
+        assertEquals(1, queryTimeout.get());
+
+        deadline.release(stmt);
+        deadline.cancel();
+        assertFalse(calls.contains("cancel"));
+        assertThrows(SQLException.class, () -> deadline.register(stmt));
+    }
+
+    @Test
+    void testSyncCancel() throws Exception {
+        final Deadline deadline = Deadline.after(Duration.ofMinutes(1));
+        final CompletableFuture<Integer> future = CompletableFuture.supplyAsync(() -> {
+            try {
+                return runner.query(deadline, "SELECT 1", new ScalarHandler<Integer>());
+            } catch (final SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        }, executor);
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+        deadline.cancel();
+        final ExecutionException e = assertThrows(ExecutionException.class, () -> future.get(10, TimeUnit.SECONDS));
+        assertTrue(e.getCause().getCause() instanceof SQLException);
+        assertTrue(calls.contains("cancel"));
+        assertTrue(closed.await(10, TimeUnit.SECONDS));
+    }
+}
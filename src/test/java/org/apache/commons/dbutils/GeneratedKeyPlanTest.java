@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.dbutils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.math.BigInteger;
+
+import org.junit.jupiter.api.Test;
+
+class GeneratedKeyPlanTest {
+
+    public static class KeyBean {
+
+        private BigInteger big;
+
+        private Long id;
+
+        private String name;
+
+        public BigInteger getBig() {
+            return big;
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setBig(final BigInteger big) {
+            this.big = big;
+        }
+
+        public void setId(final Long id) {
+            this.id = id;
+        }
+
+        public void setName(final String name) {
+            this.name = name;
+        }
+
+        public void setUnsupported(final Thread thread) {
+            // not a key type
+        }
+
+        public Object getReadOnly() {
+            return null;
+        }
+    }
+
+    @Test
+    void testApply() {
+        final KeyBean bean = new KeyBean();
+        GeneratedKeyPlan.of(KeyBean.class, "id").apply(bean, 42);
+        GeneratedKeyPlan.of(KeyBean.class, "name").apply(bean, 43);
+        GeneratedKeyPlan.of(KeyBean.class, "big").apply(bean, 44);
+        assertEquals(Long.valueOf(42), bean.getId());
+        assertEquals("43", bean.getName());
+        assertEquals(BigInteger.valueOf(44), bean.getBig());
+    }
+
+    @Test
+    void testApplyInt() {
+        final TestBean bean = new TestBean();
+        final GeneratedKeyPlan plan = GeneratedKeyPlan.of(TestBean.class, "intTest");
+        plan.apply(bean, 7);
+        assertEquals(7, bean.getIntTest());
+        assertThrows(IllegalArgumentException.class, () -> plan.apply(bean, Long.MAX_VALUE));
+    }
+
+    @Test
+    void testCachedPerClassAndName() {
+        final GeneratedKeyPlan plan = GeneratedKeyPlan.of(KeyBean.class, "id");
+        assertSame(plan, GeneratedKeyPlan.of(KeyBean.class, "id"));
+        assertEquals(KeyBean.class, plan.getType());
+    }
+
+    @Test
+    void testInvalidProperty() {
+        assertThrows(IllegalArgumentException.class, () -> GeneratedKeyPlan.of(KeyBean.class, "readOnly"));
+        assertThrows(IllegalArgumentException.class, () -> GeneratedKeyPlan.of(KeyBean.class, "unsupported"));
+        assertThrows(IllegalStateException.class, () -> GeneratedKeyPlan.of(KeyBean.class, "unknown"));
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.dbutils;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class InListSqlTest {
+
+    @Test
+    void testBucket() {
+        assertEquals(1, InListSql.bucket(0, 1000));
+        assertEquals(1, InListSql.bucket(1, 1000));
+        assertEquals(2, InListSql.bucket(2, 1000));
+        assertEquals(4, InListSql.bucket(3, 1000));
+        assertEquals(8, InListSql.bucket(5, 1000));
+        assertEquals(512, InListSql.bucket(512, 1000));
+        assertEquals(1000, InListSql.bucket(513, 1000));
+        assertEquals(1000, InListSql.bucket(1000, 1000));
+    }
+
+    @Test
+    void testEmptyList() throws SQLException {
+        final List<InListSql.Execution> executions = InListSql.of("SELECT * FROM t WHERE id IN (?)").expand(new Object[] { Collections.emptyList() }, 10);
+        assertEquals(1, executions.size());
+        assertEquals("SELECT * FROM t WHERE id IN (?)", executions.get(0).getSql());
+        assertArrayEquals(new Object[] { null }, executions.get(0).getParams());
+    }
+
+    @Test
+    void testExpand() throws SQLException {
+        final InListSql sql = InListSql.of("SELECT * FROM t WHERE a = ? AND id IN (?) AND b <> '?'");
+        final List<InListSql.Execution> executions = sql.expand(new Object[] { "x", Arrays.asList(1, 2, 3) }, 1000);
+        assertEquals(1, executions.size());
+        assertEquals("SELECT * FROM t WHERE a = ? AND id IN (?, ?, ?, ?) AND b <> '?'", executions.get(0).getSql());
+        assertArrayEquals(new Object[] { "x", 1, 2, 3, 3 }, executions.get(0).getParams());
+
+        // Same bucket, same SQL instance
+        final InListSql.Execution other = sql.expand(new Object[] { "y", Arrays.asList(4, 5, 6, 7) }, 1000).get(0);
+        assertSame(executions.get(0).getSql(), other.getSql());
+        assertArrayEquals(new Object[] { "y", 4, 5, 6, 7 }, other.getParams());
+    }
+
+    @Test
+    void testNoCollections() throws SQLException {
+        final Object[] params = { 1, "a" };
+        final List<InListSql.Execution> executions = InListSql.of("SELECT * FROM t WHERE a = ? AND b = ?").expand(params, 10);
+        assertEquals("SELECT * FROM t WHERE a = ? AND b = ?", executions.get(0).getSql());
+        assertSame(params, executions.get(0).getParams());
+    }
+
+    @Test
+    void testSplit() throws SQLException {
+        final InListSql sql = InListSql.of("SELECT * FROM t WHERE id IN (?) AND c IN (?)");
+        final List<InListSql.Execution> executions = sql.expand(new Object[] { Arrays.asList(1, 2, 3, 4, 5, 6, 7), Arrays.asList("a", "b") }, 3);
+        assertEquals(3, executions.size());
+        assertEquals("SELECT * FROM t WHERE id IN (?, ?, ?) AND c IN (?, ?)", executions.get(0).getSql());
+        assertArrayEquals(new Object[] { 1, 2, 3, "a", "b" }, executions.get(0).getParams());
+        assertArrayEquals(new Object[] { 4, 5, 6, "a", "b" }, executions.get(1).getParams());
+        assertEquals("SELECT * FROM t WHERE id IN (?) AND c IN (?, ?)", executions.get(2).getSql());
+        assertArrayEquals(new Object[] { 7, "a", "b" }, executions.get(2).getParams());
+
+        assertThrows(SQLException.class, () -> sql.expand(new Object[] { Arrays.asList(1, 2, 3, 4), Arrays.asList(1, 2, 3, 4) }, 3));
+    }
+
+    @Test
+    void testWrongParameterCount() throws SQLException {
+        assertThrows(SQLException.class, () -> InListSql.of("SELECT * FROM t WHERE id IN (?)").expand(new Object[0], 10));
+        assertThrows(SQLException.class, () -> InListSql.of("SELECT '"));
+    }
+}
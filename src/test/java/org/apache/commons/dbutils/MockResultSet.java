@@ -51,8 +51,23 @@ public class MockResultSet implements InvocationHandler {
         return ProxyFactory.instance().createResultSet(new MockResultSet(metaData, rows, unsupportedToDefault));
     }
 
+    /**
+     * Create a {@code MockResultSet} proxy object whose {@code getBigDecimal}, {@code getBytes}, {@code getDate},
+     * {@code getTime} and {@code getTimestamp} methods return the row values as they are.
+     *
+     * @param metaData Result set metadata.
+     * @param rows     A null value indicates an empty {@code ResultSet}.
+     */
+    public static ResultSet createTyped(final ResultSetMetaData metaData, final Object[][] rows) {
+        final MockResultSet mock = new MockResultSet(metaData, rows, false);
+        mock.typedGetters = true;
+        return ProxyFactory.instance().createResultSet(mock);
+    }
+
     private Object[] currentRow;
 
+    private boolean typedGetters;
+
     private Iterator<Object[]> iterator;
 
     private final ResultSetMetaData metaData;
@@ -281,6 +296,18 @@ public class MockResultSet implements InvocationHandler {
             return getObject(columnIndex(args));
         case "getShort":
             return getShort(columnIndex(args));
+        case "getBigDecimal":
+        case "getBytes":
+        case "getDate":
+        case "getTime":
+        case "getTimestamp":
+            if (typedGetters) {
+                return getObject(columnIndex(args));
+            }
+            if (unsupportedToDefault) {
+                return unsupportedToDefault(method);
+            }
+            throw new UnsupportedOperationException("Unsupported column method: " + methodName);
         case "getString":
             return getString(columnIndex(args));
         case "wasNull":
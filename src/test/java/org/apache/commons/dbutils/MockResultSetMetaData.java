@@ -39,19 +39,37 @@ public class MockResultSetMetaData implements InvocationHandler {
         return ProxyFactory.instance().createResultSetMetaData(new MockResultSetMetaData(columnNames));
     }
 
+    /**
+     * Creates a {@code MockResultSetMetaData} proxy object that also reports column types.
+     *
+     * @param columnNames
+     * @param columnTypes The {@link java.sql.Types} of the columns.
+     * @return The proxy object
+     */
+    public static ResultSetMetaData create(final String[] columnNames, final int[] columnTypes) {
+        return ProxyFactory.instance().createResultSetMetaData(new MockResultSetMetaData(columnNames, new String[columnNames.length], columnTypes));
+    }
+
     private final String[] columnNames;
 
     private final String[] columnLabels;
 
+    private final int[] columnTypes;
+
     public MockResultSetMetaData(final String[] columnNames) {
         this.columnNames = columnNames;
         this.columnLabels = new String[columnNames.length];
-
+        this.columnTypes = null;
     }
 
     public MockResultSetMetaData(final String[] columnNames, final String[] columnLabels) {
+        this(columnNames, columnLabels, null);
+    }
+
+    public MockResultSetMetaData(final String[] columnNames, final String[] columnLabels, final int[] columnTypes) {
         this.columnNames = columnNames;
         this.columnLabels = columnLabels;
+        this.columnTypes = columnTypes;
     }
 
     @Override
@@ -66,6 +84,11 @@ public class MockResultSetMetaData implements InvocationHandler {
         case "getColumnLabel":
             final int col2 = ((Integer) args[0]).intValue() - 1;
             return this.columnLabels[col2];
+        case "getColumnType":
+            if (this.columnTypes == null) {
+                break;
+            }
+            return Integer.valueOf(this.columnTypes[((Integer) args[0]).intValue() - 1]);
         case "hashCode":
             return Integer.valueOf(System.identityHashCode(proxy));
         case "toString":
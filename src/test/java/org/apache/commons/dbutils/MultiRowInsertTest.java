@@ -0,0 +1,95 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.dbutils;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import org.junit.jupiter.api.Test;
+
+class MultiRowInsertTest {
+
+    @Test
+    void testCached() {
+        final String sql = "INSERT INTO cached (a) VALUES (?)";
+        final MultiRowInsert insert = MultiRowInsert.of(sql);
+        assertSame(insert, MultiRowInsert.of(sql));
+        assertSame(insert.sql(3), insert.sql(3));
+        assertNull(MultiRowInsert.of("UPDATE cached SET a = ?"));
+        assertNull(MultiRowInsert.of("UPDATE cached SET a = ?"));
+    }
+
+    @Test
+    void testCopy() throws SQLException {
+        final MultiRowInsert insert = MultiRowInsert.parse("INSERT INTO t (a, b) VALUES (?, ?)");
+        final Object[][] params = { { 1, "a" }, { 2, "b" }, { 3, "c" } };
+        final Object[] chunk = new Object[4];
+        insert.copy(params, 1, 2, chunk);
+        assertArrayEquals(new Object[] { 2, "b", 3, "c" }, chunk);
+
+        final Object[][] wrong = { { 1, "a" }, { 2 } };
+        assertThrows(SQLException.class, () -> insert.copy(wrong, 0, 2, chunk));
+    }
+
+    @Test
+    void testNotRewritable() {
+        assertNull(MultiRowInsert.parse("UPDATE t SET a = ?"));
+        assertNull(MultiRowInsert.parse("INSERT INTO t (a) SELECT a FROM s WHERE b = ?"));
+        assertNull(MultiRowInsert.parse("INSERT INTO t (a) VALUES (?), (?)"));
+        assertNull(MultiRowInsert.parse("INSERT INTO t (a) VALUES (?) ON CONFLICT DO NOTHING"));
+        assertNull(MultiRowInsert.parse("INSERT INTO t (a) VALUES (?) RETURNING id"));
+        assertNull(MultiRowInsert.parse("INSERT INTO t DEFAULT VALUES"));
+        assertNull(MultiRowInsert.parse("INSERT INTO t (a) VALUES ('unterminated)"));
+        assertNull(MultiRowInsert.parse("INSERT INTO t (a) VALUES (?"));
+        assertNull(MultiRowInsert.parse("INSERT INTO t (a) VALUES (?); DELETE FROM t"));
+    }
+
+    @Test
+    void testRewrite() {
+        final MultiRowInsert insert = MultiRowInsert.parse("insert into t (a, b, c) values (?, lower(?), 'x')");
+        assertNotNull(insert);
+        assertEquals(2, insert.getParameterCount());
+        assertEquals("insert into t (a, b, c) values (?, lower(?), 'x')", insert.sql(1));
+        assertEquals("insert into t (a, b, c) values (?, lower(?), 'x'), (?, lower(?), 'x'), (?, lower(?), 'x')", insert.sql(3));
+    }
+
+    @Test
+    void testRewriteIgnoresLiteralsAndComments() {
+        final MultiRowInsert insert = MultiRowInsert.parse(
+                "/* values (?) */ INSERT INTO \"values\" (a, b) -- values (?)\n VALUES (?, '?)') ;  -- done");
+        assertNotNull(insert);
+        assertEquals(1, insert.getParameterCount());
+        assertEquals("/* values (?) */ INSERT INTO \"values\" (a, b) -- values (?)\n VALUES (?, '?)'), (?, '?)') ;  -- done", insert.sql(2));
+    }
+
+    @Test
+    void testSpread() {
+        final int[] counts = new int[7];
+        MultiRowInsert.spread(3, counts, 0, 3);
+        MultiRowInsert.spread(1, counts, 3, 2);
+        MultiRowInsert.spread(Statement.EXECUTE_FAILED, counts, 5, 1);
+        MultiRowInsert.spread(0, counts, 6, 1);
+        assertArrayEquals(new int[] { 1, 1, 1, Statement.SUCCESS_NO_INFO, Statement.SUCCESS_NO_INFO, Statement.EXECUTE_FAILED, 0 }, counts);
+    }
+}
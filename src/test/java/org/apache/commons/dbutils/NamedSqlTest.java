@@ -0,0 +1,95 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.dbutils;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+class NamedSqlTest {
+
+    @Test
+    void testBindBean() {
+        final TestBean bean = new TestBean();
+        bean.setOne("1");
+        bean.setIntTest(2);
+        final NamedSql named = NamedSql.parse("UPDATE t SET a = :one, b = :intTest WHERE a <> :one");
+        assertArrayEquals(new Object[] { "1", 2, "1" }, named.bind(bean));
+        assertThrows(IllegalStateException.class, () -> NamedSql.parse("SELECT :unknown").bind(bean));
+    }
+
+    @Test
+    void testBindMap() {
+        final NamedSql named = NamedSql.parse("SELECT * FROM t WHERE a = :a OR b = :b OR c = :a");
+        final Map<String, Object> params = new HashMap<>();
+        params.put("a", 1);
+        params.put("b", null);
+        assertArrayEquals(new Object[] { 1, null, 1 }, named.bind(params));
+        assertArrayEquals(new Object[] { 1, null, 1 }, named.bind((Object) params));
+        assertThrows(IllegalArgumentException.class, () -> named.bind(Collections.singletonMap("a", 1)));
+        assertThrows(IllegalArgumentException.class, () -> named.bind((Object) null));
+    }
+
+    @Test
+    void testCached() {
+        final NamedSql named = NamedSql.of("SELECT * FROM cached WHERE id = :id");
+        assertSame(named, NamedSql.of("SELECT * FROM cached WHERE id = :id"));
+    }
+
+    @Test
+    void testMixedParameters() {
+        assertThrows(IllegalArgumentException.class, () -> NamedSql.parse("SELECT * FROM t WHERE a = :a AND b = ?"));
+        assertEquals("SELECT * FROM t WHERE b = ?", NamedSql.parse("SELECT * FROM t WHERE b = ?").getSql());
+    }
+
+    @Test
+    void testNoParameters() {
+        final NamedSql named = NamedSql.parse("SELECT 1");
+        assertEquals(0, named.getParameterCount());
+        assertArrayEquals(new Object[0], named.bind((Object) null));
+    }
+
+    @Test
+    void testParse() {
+        final NamedSql named = NamedSql.parse("SELECT * FROM t WHERE a = :first_name AND b = :n2 AND c = :first_name");
+        assertEquals("SELECT * FROM t WHERE a = ? AND b = ? AND c = ?", named.getSql());
+        assertEquals(Arrays.asList("first_name", "n2"), named.getParameterNames());
+        assertEquals(3, named.getParameterCount());
+    }
+
+    @Test
+    void testParseSkipsLiteralsCommentsAndCasts() {
+        final NamedSql named = NamedSql.parse("SELECT ':no', \":no\", x::text, y := 1, z[1:2] -- :no\n"
+                + "FROM t /* :no */ WHERE a = :yes::int");
+        assertEquals("SELECT ':no', \":no\", x::text, y := 1, z[1:2] -- :no\n"
+                + "FROM t /* :no */ WHERE a = ?::int", named.getSql());
+        assertEquals(Collections.singletonList("yes"), named.getParameterNames());
+    }
+
+    @Test
+    void testUnterminatedLiteral() {
+        assertThrows(IllegalArgumentException.class, () -> NamedSql.parse("SELECT * FROM t WHERE a = ':a"));
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.dbutils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.ParameterMetaData;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@SuppressWarnings("boxing") // test code
+@ExtendWith(MockitoExtension.class)
+class ParameterMetaDataCacheTest {
+
+    private static final String SQL = "UPDATE person SET age = ? WHERE id = 1";
+
+    @Mock(strictness = Mock.Strictness.LENIENT)
+    private Connection conn;
+
+    @Mock(strictness = Mock.Strictness.LENIENT)
+    private PreparedStatement prepStmt;
+
+    @Mock(strictness = Mock.Strictness.LENIENT)
+    private ParameterMetaData meta;
+
+    private ParameterMetaDataCache cache;
+
+    private QueryRunner runner;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        when(conn.prepareStatement(any())).thenReturn(prepStmt);
+        when(prepStmt.getParameterMetaData()).thenReturn(meta);
+        when(meta.getParameterCount()).thenReturn(1);
+        when(meta.getParameterType(1)).thenReturn(Types.INTEGER);
+        cache = new ParameterMetaDataCache(8);
+        runner = new QueryRunner(null, false, null, null, cache);
+    }
+
+    @Test
+    void testCountIsCached() throws Exception {
+        runner.update(conn, SQL, 1);
+        runner.update(conn, SQL, 2);
+        runner.update(conn, SQL, 3);
+
+        verify(prepStmt, times(1)).getParameterMetaData();
+        verify(meta, times(1)).getParameterCount();
+        assertEquals(2, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+        assertEquals(1, cache.size());
+        assertSame(cache, runner.getParameterMetaDataCache());
+    }
+
+    @Test
+    void testInvalidate() throws Exception {
+        runner.update(conn, SQL, 1);
+        cache.invalidate(SQL);
+        assertEquals(0, cache.size());
+        runner.update(conn, SQL, 2);
+        verify(prepStmt, times(2)).getParameterMetaData();
+
+        cache.invalidateAll();
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void testInvalidMaxEntries() {
+        assertThrows(IllegalArgumentException.class, () -> new ParameterMetaDataCache(0));
+    }
+
+    @Test
+    void testMaxEntries() throws Exception {
+        final ParameterMetaDataCache small = new ParameterMetaDataCache(1);
+        final QueryRunner smallRunner = new QueryRunner(null, false, null, null, small);
+        smallRunner.update(conn, SQL, 1);
+        smallRunner.update(conn, SQL + " AND 1 = 1", 1);
+        smallRunner.update(conn, SQL, 1);
+
+        assertEquals(1, small.size());
+        assertEquals(3, small.getMissCount());
+    }
+
+    @Test
+    void testNullTypeIsCached() throws Exception {
+        runner.update(conn, SQL, (Object) null);
+        runner.update(conn, SQL, (Object) null);
+
+        verify(meta, times(1)).getParameterType(1);
+        verify(prepStmt, times(2)).setNull(1, Types.INTEGER);
+    }
+
+    @Test
+    void testWrongParameterCount() throws Exception {
+        runner.update(conn, SQL, 1);
+        assertThrows(SQLException.class, () -> runner.update(conn, SQL, 1, 2));
+        verify(prepStmt, times(1)).getParameterMetaData();
+    }
+
+}
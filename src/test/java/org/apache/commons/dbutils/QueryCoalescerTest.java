@@ -0,0 +1,232 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.dbutils;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.UnaryOperator;
+
+import org.apache.commons.dbutils.handlers.ArrayListHandler;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class QueryCoalescerTest {
+
+    private static final String SQL = "SELECT * FROM person WHERE id = ?";
+
+    private final ArrayListHandler handler = new ArrayListHandler();
+
+    private final Object source = new Object();
+
+    private ExecutorService executorService;
+
+    private CountDownLatch started;
+
+    private CountDownLatch release;
+
+    private AtomicInteger calls;
+
+    private List<Object[]> blockingQuery() throws InterruptedException {
+        calls.incrementAndGet();
+        started.countDown();
+        release.await();
+        final List<Object[]> rows = new ArrayList<>();
+        rows.add(new Object[] { 1, "unit" });
+        return rows;
+    }
+
+    @BeforeEach
+    void setUp() {
+        executorService = Executors.newCachedThreadPool();
+        started = new CountDownLatch(1);
+        release = new CountDownLatch(1);
+        calls = new AtomicInteger();
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        executorService.shutdownNow();
+    }
+
+    /**
+     * Waits until {@code count} calls joined the query in flight.
+     */
+    private void awaitHits(final QueryCoalescer coalescer, final int count) throws InterruptedException {
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (coalescer.getHitCount() < count && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertEquals(count, coalescer.getHitCount());
+    }
+
+    @Test
+    void testAsync() throws Exception {
+        final QueryCoalescer coalescer = new QueryCoalescer();
+        final CompletableFuture<List<Object[]>> first = coalescer.executeAsync(source, SQL, handler, new Object[] { 1 },
+            () -> CompletableFuture.supplyAsync(() -> {
+                try {
+                    return blockingQuery();
+                } catch (final InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+            }, executorService));
+        started.await();
+        final CompletableFuture<List<Object[]>> second = coalescer.executeAsync(source, SQL, handler, new Object[] { 1 },
+            () -> {
+                throw new AssertionError("must coalesce");
+            });
+        assertEquals(1, coalescer.getInFlight());
+
+        release.countDown();
+        assertArrayEquals(new Object[] { 1, "unit" }, first.get(10, TimeUnit.SECONDS).get(0));
+        assertArrayEquals(new Object[] { 1, "unit" }, second.get(10, TimeUnit.SECONDS).get(0));
+        assertNotSame(first.get(), second.get());
+        assertEquals(1, coalescer.getExecutionCount());
+        assertEquals(1, coalescer.getHitCount());
+        assertEquals(0, coalescer.getInFlight());
+    }
+
+    @Test
+    void testCoalescesConcurrentCalls() throws Exception {
+        final QueryCoalescer coalescer = new QueryCoalescer();
+        final List<Future<List<Object[]>>> futures = new ArrayList<>();
+        futures.add(executorService.submit(() -> coalescer.execute(source, SQL, handler, new Object[] { 1 }, this::blockingQuery)));
+        started.await();
+        for (int i = 0; i < 10; i++) {
+            futures.add(executorService.submit(() -> coalescer.execute(source, SQL, handler, new Object[] { 1 }, this::blockingQuery)));
+        }
+        awaitHits(coalescer, 10);
+
+        release.countDown();
+        final List<List<Object[]>> results = new ArrayList<>();
+        for (final Future<List<Object[]>> future : futures) {
+            results.add(future.get(10, TimeUnit.SECONDS));
+        }
+        assertEquals(1, calls.get());
+        assertEquals(1, coalescer.getExecutionCount());
+        assertEquals(0, coalescer.getInFlight());
+        // Each caller gets its own copy
+        results.get(0).get(0)[1] = "changed";
+        for (final List<Object[]> result : results.subList(1, results.size())) {
+            assertArrayEquals(new Object[] { 1, "unit" }, result.get(0));
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testDefaultCopier() {
+        final Map<String, Object> row = new HashMap<>();
+        row.put("id", 1);
+        final List<Object> value = new ArrayList<>(Arrays.asList(row, new int[] { 1, 2 }, "unit"));
+        final List<Object> copy = (List<Object>) QueryCoalescer.DEFAULT_COPIER.apply(value);
+        assertEquals(value.size(), copy.size());
+        assertNotSame(value, copy);
+        assertThrows(UnsupportedOperationException.class, () -> ((Map<String, Object>) copy.get(0)).put("id", 2));
+        assertNotSame(value.get(1), copy.get(1));
+        assertArrayEquals((int[]) value.get(1), (int[]) copy.get(1));
+        assertSame(value.get(2), copy.get(2));
+    }
+
+    @Test
+    void testDoesNotCoalesceDifferentCalls() throws Exception {
+        final QueryCoalescer coalescer = new QueryCoalescer(UnaryOperator.identity());
+        final Future<List<Object[]>> first = executorService.submit(() -> coalescer.execute(source, SQL, handler, new Object[] { 1 },
+            this::blockingQuery));
+        started.await();
+        coalescer.execute(source, SQL, handler, new Object[] { 2 }, ArrayList::new);
+        coalescer.execute(new Object(), SQL, handler, new Object[] { 1 }, ArrayList::new);
+        coalescer.execute(source, SQL, new ArrayListHandler(), new Object[] { 1 }, ArrayList::new);
+        coalescer.execute(source, SQL + " ", handler, new Object[] { 1 }, ArrayList::new);
+        assertEquals(5, coalescer.getExecutionCount());
+        assertEquals(0, coalescer.getHitCount());
+
+        release.countDown();
+        first.get(10, TimeUnit.SECONDS);
+        // Nothing is kept once the query completes
+        coalescer.execute(source, SQL, handler, new Object[] { 1 }, ArrayList::new);
+        assertEquals(6, coalescer.getExecutionCount());
+    }
+
+    @Test
+    void testQueryRunnerBypassesTransactions() throws Exception {
+        final QueryCoalescer coalescer = new QueryCoalescer();
+        final QueryRunner runner = new QueryRunner() {
+            @Override
+            protected Connection prepareConnection() {
+                return ProxyFactory.instance().createConnection((proxy, method, args) -> null);
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public <T> T query(final String sql, final ResultSetHandler<T> rsh, final Object... params) {
+                calls.incrementAndGet();
+                return (T) new ArrayList<Object[]>();
+            }
+        };
+        runner.inTransaction(tx -> runner.queryCoalesced(coalescer, SQL, handler, 1));
+        assertEquals(1, calls.get());
+        assertEquals(0, coalescer.getExecutionCount());
+
+        runner.queryCoalesced(coalescer, SQL, handler, 1);
+        assertEquals(2, calls.get());
+        assertEquals(1, coalescer.getExecutionCount());
+    }
+
+    @Test
+    void testSharesFailures() throws Exception {
+        final QueryCoalescer coalescer = new QueryCoalescer();
+        final Future<Object> first = executorService.submit(() -> coalescer.execute(source, SQL, handler, new Object[] { 1 }, () -> {
+            started.countDown();
+            release.await();
+            throw new SQLException("unit", "42000", 7);
+        }));
+        started.await();
+        final Future<Object> second = executorService.submit(() -> coalescer.execute(source, SQL, handler, new Object[] { 1 }, ArrayList::new));
+        awaitHits(coalescer, 1);
+
+        release.countDown();
+        final ExecutionException e1 = assertThrows(ExecutionException.class, () -> first.get(10, TimeUnit.SECONDS));
+        assertEquals("unit", e1.getCause().getMessage());
+        final ExecutionException e2 = assertThrows(ExecutionException.class, () -> second.get(10, TimeUnit.SECONDS));
+        assertTrue(e2.getCause() instanceof SQLException);
+        assertEquals("42000", ((SQLException) e2.getCause()).getSQLState());
+        assertEquals(7, ((SQLException) e2.getCause()).getErrorCode());
+        assertEquals(0, coalescer.getInFlight());
+    }
+}
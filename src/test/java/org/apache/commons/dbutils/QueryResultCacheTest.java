@@ -0,0 +1,251 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.dbutils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.dbutils.handlers.ArrayListHandler;
+import org.apache.commons.dbutils.handlers.ScalarHandler;
+import org.junit.jupiter.api.Test;
+
+class QueryResultCacheTest {
+
+    private static final String SQL = "SELECT name FROM person WHERE id = ?";
+
+    private final ArrayListHandler handler = new ArrayListHandler();
+
+    private final Object source = new Object();
+
+    private final AtomicInteger calls = new AtomicInteger();
+
+    private final AtomicLong now = new AtomicLong();
+
+    private List<Object[]> query(final QueryResultCache cache, final String sql, final Object... params) throws SQLException {
+        return cache.query(source, sql, handler, params, rows(params));
+    }
+
+    private Callable<List<Object[]>> rows(final Object... params) {
+        return () -> {
+            calls.incrementAndGet();
+            final List<Object[]> rows = new ArrayList<>();
+            rows.add(params.clone());
+            return rows;
+        };
+    }
+
+    private static LinkedHashSet<String> set(final String... names) {
+        return new LinkedHashSet<>(Arrays.asList(names));
+    }
+
+    @Test
+    void testBuilderValidation() {
+        assertThrows(IllegalArgumentException.class, () -> new QueryResultCache.Builder().maxEntries(0));
+        assertThrows(IllegalArgumentException.class, () -> new QueryResultCache.Builder().maxWeight(0, value -> 1));
+        assertThrows(NullPointerException.class, () -> new QueryResultCache.Builder().ttl(SQL, null));
+    }
+
+    @Test
+    void testCopiesResults() throws Exception {
+        final QueryResultCache cache = new QueryResultCache.Builder().build();
+        final List<Object[]> first = query(cache, SQL, 1);
+        first.clear();
+        final List<Object[]> second = query(cache, SQL, 1);
+        assertEquals(1, second.size());
+        assertNotSame(second, query(cache, SQL, 1));
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void testDeclaredTables() throws Exception {
+        final QueryResultCache cache = new QueryResultCache.Builder()
+                .tables("{call rates()}", "app.Rate")
+                .tables("{call refresh_rates()}", "rate")
+                .build();
+        cache.query(source, "{call rates()}", handler, null, rows());
+        cache.query(source, "{call rates()}", handler, null, rows());
+        assertEquals(1, calls.get());
+        query(cache, SQL, 1);
+
+        cache.invalidate("{call refresh_rates()}");
+        assertEquals(1, cache.size());
+        cache.query(source, "{call rates()}", handler, null, rows());
+        assertEquals(3, calls.get());
+    }
+
+    @Test
+    void testEvictsLeastRecentlyUsed() throws Exception {
+        final QueryResultCache cache = new QueryResultCache.Builder().maxEntries(2).build();
+        query(cache, SQL, 1);
+        query(cache, SQL, 2);
+        query(cache, SQL, 1);
+        query(cache, SQL, 3);
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictionCount());
+
+        query(cache, SQL, 1);
+        query(cache, SQL, 3);
+        assertEquals(3, cache.getHitCount());
+        query(cache, SQL, 2);
+        assertEquals(4, calls.get());
+    }
+
+    @Test
+    void testEvictsByWeight() throws Exception {
+        final QueryResultCache cache = new QueryResultCache.Builder().maxWeight(3, value -> ((List<?>) value).size() + 1L).build();
+        query(cache, SQL, 1);
+        assertEquals(2, cache.getWeight());
+        query(cache, SQL, 2);
+        assertEquals(1, cache.size());
+        assertEquals(2, cache.getWeight());
+        assertEquals(1, cache.getEvictionCount());
+
+        // Heavier than the whole cache
+        cache.query(source, "SELECT * FROM person", handler, null, () -> Arrays.asList(new Object[0], new Object[0], new Object[0]));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void testExpires() throws Exception {
+        final QueryResultCache cache = new QueryResultCache.Builder()
+                .ttl(Duration.ofSeconds(10))
+                .ttl("SELECT * FROM rate", Duration.ofSeconds(1))
+                .ttl("SELECT * FROM audit", Duration.ZERO)
+                .ticker(now::get)
+                .build();
+        query(cache, SQL, 1);
+        query(cache, "SELECT * FROM rate");
+        query(cache, "SELECT * FROM audit");
+        query(cache, "SELECT * FROM audit");
+        assertEquals(4, calls.get());
+
+        now.addAndGet(Duration.ofSeconds(2).toNanos());
+        query(cache, SQL, 1);
+        query(cache, "SELECT * FROM rate");
+        assertEquals(5, calls.get());
+        assertEquals(1, cache.getEvictionCount());
+
+        now.addAndGet(Duration.ofSeconds(9).toNanos());
+        query(cache, SQL, 1);
+        assertEquals(6, calls.get());
+    }
+
+    @Test
+    void testInvalidatesTables() throws Exception {
+        final QueryResultCache cache = new QueryResultCache.Builder().build();
+        query(cache, SQL, 1);
+        query(cache, "SELECT * FROM address a JOIN person p ON a.person_id = p.id");
+        query(cache, "SELECT * FROM rate");
+        assertEquals(3, cache.size());
+
+        cache.invalidate("UPDATE \"PUBLIC\".\"PERSON\" SET name = ? WHERE id = ?");
+        assertEquals(1, cache.size());
+        query(cache, "SELECT * FROM rate");
+        assertEquals(3, calls.get());
+
+        cache.invalidate("{call cleanup()}");
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void testInvalidationDuringQuery() throws Exception {
+        final QueryResultCache cache = new QueryResultCache.Builder().build();
+        cache.query(source, SQL, handler, new Object[] { 1 }, () -> {
+            cache.invalidateTables("person");
+            return Collections.emptyList();
+        });
+        assertEquals(0, cache.size());
+        cache.query(source, SQL, handler, new Object[] { 1 }, () -> {
+            cache.invalidateTables("other");
+            return Collections.emptyList();
+        });
+        assertEquals(1, cache.size());
+        cache.query(source, "SELECT * FROM rate", handler, null, () -> {
+            cache.invalidateAll();
+            return Collections.emptyList();
+        });
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void testKeys() throws Exception {
+        final QueryResultCache cache = new QueryResultCache.Builder().build();
+        query(cache, SQL, 1);
+        query(cache, SQL, 2);
+        cache.query(new Object(), SQL, handler, new Object[] { 1 }, rows(1));
+        cache.query(source, SQL, new ArrayListHandler(), new Object[] { 1 }, rows(1));
+        query(cache, SQL, 1);
+        assertEquals(4, calls.get());
+        assertEquals(1, cache.getHitCount());
+        assertEquals(4, cache.getMissCount());
+    }
+
+    @Test
+    void testNullResult() throws Exception {
+        final QueryResultCache cache = new QueryResultCache.Builder().build();
+        final ScalarHandler<String> scalar = new ScalarHandler<>();
+        final Callable<String> call = () -> {
+            calls.incrementAndGet();
+            return null;
+        };
+        cache.query(source, SQL, scalar, new Object[] { 1 }, call);
+        cache.query(source, SQL, scalar, new Object[] { 1 }, call);
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void testSkipsUnknownTables() throws Exception {
+        final QueryResultCache cache = new QueryResultCache.Builder().build();
+        query(cache, "{call rates()}");
+        query(cache, "{call rates()}");
+        assertEquals(2, calls.get());
+        assertEquals(0, cache.size());
+        assertThrows(SQLException.class, () -> cache.query(source, SQL, handler, null, () -> {
+            throw new SQLException("unit");
+        }));
+    }
+
+    @Test
+    void testTableNames() {
+        assertEquals(set("person"), SqlText.tableNames(SQL));
+        assertEquals(set("person", "address", "city"),
+                SqlText.tableNames("select * from app.person p, address AS a left join \"City\" c on c.id = a.city_id where p.id = a.person_id"));
+        assertEquals(set("person", "address"), SqlText.tableNames("SELECT * FROM person WHERE id IN (SELECT person_id FROM address)"));
+        assertEquals(set("person"), SqlText.tableNames("SELECT 'from x' FROM person -- join y"));
+        assertEquals(set("person"), SqlText.tableNames("INSERT INTO person (id, name) VALUES (?, ?)"));
+        assertEquals(set("person"), SqlText.tableNames("UPDATE [dbo].[Person] SET name = ?"));
+        assertEquals(set("person"), SqlText.tableNames("DELETE FROM `person` WHERE id = ?"));
+        assertEquals(set("person"), SqlText.tableNames("TRUNCATE TABLE person"));
+        assertEquals(set("person", "staging"),
+                SqlText.tableNames("MERGE INTO person p USING staging s ON p.id = s.id WHEN MATCHED THEN UPDATE SET p.name = s.name"));
+        assertTrue(SqlText.tableNames("{call my_proc(?)}").isEmpty());
+        assertTrue(SqlText.tableNames("SELECT 1").isEmpty());
+    }
+}
@@ -16,10 +16,12 @@
  */
 package org.apache.commons.dbutils;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.fail;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
@@ -35,10 +37,14 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
+import java.sql.Savepoint;
 import java.sql.Statement;
 import java.sql.Types;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import javax.sql.DataSource;
 
@@ -732,6 +738,29 @@ class QueryRunnerTest {
         callGoodBatch(params);
     }
 
+    @Test
+    void testGoodBatchBeans() throws Exception {
+        final MyBean first = new MyBean();
+        first.setA(1);
+        first.setC("unit");
+        final MyBean second = new MyBean();
+        second.setA(2);
+        second.setC("test");
+        when(meta.getParameterCount()).thenReturn(2);
+
+        runner.batch("select * from blah where ? = ?", Arrays.asList(first, second), "a", "c");
+
+        verify(prepStmt, times(1)).getParameterMetaData();
+        verify(prepStmt).setInt(1, 1);
+        verify(prepStmt).setString(2, "unit");
+        verify(prepStmt).setInt(1, 2);
+        verify(prepStmt).setString(2, "test");
+        verify(prepStmt, times(2)).addBatch();
+        verify(prepStmt, times(1)).executeBatch();
+        verify(prepStmt, times(1)).close();    // make sure we closed the statement
+        verify(conn, times(1)).close();    // make sure we closed the connection
+    }
+
     @Test
     void testGoodBatchDefaultConstructor() throws Exception {
         runner = new QueryRunner();
@@ -774,6 +803,133 @@ class QueryRunnerTest {
         assertEquals(2, generatedKeys.size());
     }
 
+    @Test
+    void testGoodBatchMultiRowInsert() throws Exception {
+        runner = new QueryRunner(dataSource, new StatementConfiguration.Builder().multiRowInsertWidth(2).build());
+        when(meta.getParameterCount()).thenReturn(4, 2);
+        when(prepStmt.executeBatch()).thenReturn(new int[] { 2 }, new int[] { 1 });
+        final Object[][] params = { { "a", 1 }, { "b", 2 }, { "c", 3 } };
+
+        final int[] rows = runner.batch("INSERT INTO blah (name, id) VALUES (?, ?)", params);
+
+        assertArrayEquals(new int[] { 1, 1, 1 }, rows);
+        verify(conn).prepareStatement("INSERT INTO blah (name, id) VALUES (?, ?), (?, ?)");
+        verify(conn).prepareStatement("INSERT INTO blah (name, id) VALUES (?, ?)");
+        verify(prepStmt).setString(1, "a");
+        verify(prepStmt).setInt(2, 1);
+        verify(prepStmt).setString(3, "b");
+        verify(prepStmt).setInt(4, 2);
+        verify(prepStmt).setString(1, "c");
+        verify(prepStmt).setInt(2, 3);
+        verify(prepStmt, times(2)).addBatch();
+        verify(prepStmt, times(2)).executeBatch();
+        verify(prepStmt, times(2)).close();    // make sure we closed the statements
+        verify(conn, times(1)).close();    // make sure we closed the connection
+    }
+
+    @Test
+    void testGoodBatchInsertMultiRow() throws Exception {
+        runner = new QueryRunner(dataSource, new StatementConfiguration.Builder().multiRowInsertWidth(2).build());
+        final ResultSet firstKeys = mock(ResultSet.class);
+        final ResultSet lastKeys = mock(ResultSet.class);
+        when(meta.getParameterCount()).thenReturn(4, 2);
+        when(conn.prepareStatement(any(String.class), eq(Statement.RETURN_GENERATED_KEYS))).thenReturn(prepStmt);
+        when(prepStmt.getGeneratedKeys()).thenReturn(firstKeys, lastKeys);
+        when(firstKeys.next()).thenReturn(true, true, false);
+        when(firstKeys.getLong(1)).thenReturn(10L, 11L);
+        when(lastKeys.next()).thenReturn(true, false);
+        when(lastKeys.getLong(1)).thenReturn(12L);
+        final Object[][] params = { { "a", 1 }, { "b", 2 }, { "c", 3 } };
+
+        final List<Long> keys = runner.insertBatch("INSERT INTO blah (name, id) VALUES (?, ?)", rs -> {
+            final List<Long> list = new ArrayList<>();
+            while (rs.next()) {
+                list.add(rs.getLong(1));
+            }
+            return list;
+        }, params);
+
+        assertEquals(Arrays.asList(10L, 11L, 12L), keys);
+        verify(conn).prepareStatement("INSERT INTO blah (name, id) VALUES (?, ?), (?, ?)", Statement.RETURN_GENERATED_KEYS);
+        verify(conn).prepareStatement("INSERT INTO blah (name, id) VALUES (?, ?)", Statement.RETURN_GENERATED_KEYS);
+        verify(firstKeys).close();
+        verify(lastKeys).close();
+        verify(prepStmt, times(2)).close();
+        verify(conn, times(1)).close();
+    }
+
+    @Test
+    void testGoodBatchInsertKeys() throws Exception {
+        final ResultSet keys = mock(ResultSet.class);
+        when(meta.getParameterCount()).thenReturn(2);
+        when(conn.prepareStatement(any(String.class), any(String[].class))).thenReturn(prepStmt);
+        when(prepStmt.getGeneratedKeys()).thenReturn(keys);
+        when(keys.next()).thenReturn(true, true, false);
+        when(keys.getLong(1)).thenReturn(7L, 8L);
+        final Object[][] params = { { "a", 1 }, { "b", 2 } };
+
+        final long[] generated = runner.insertBatchKeys("INSERT INTO blah (name, id) VALUES (?, ?)", new String[] { "ID" }, params);
+
+        assertArrayEquals(new long[] { 7, 8 }, generated);
+        verify(conn).prepareStatement("INSERT INTO blah (name, id) VALUES (?, ?)", new String[] { "ID" });
+        verify(prepStmt, times(2)).addBatch();
+        verify(keys).close();
+        verify(prepStmt).close();
+        verify(conn).close();
+    }
+
+    @Test
+    void testGoodBatchInsertKeysBeans() throws Exception {
+        final ResultSet keys = mock(ResultSet.class);
+        when(meta.getParameterCount()).thenReturn(1);
+        when(conn.prepareStatement(any(String.class), eq(Statement.RETURN_GENERATED_KEYS))).thenReturn(prepStmt);
+        when(prepStmt.getGeneratedKeys()).thenReturn(keys);
+        when(keys.next()).thenReturn(true, true, false);
+        when(keys.getLong(1)).thenReturn(7L, 8L);
+        final TestBean first = new TestBean();
+        first.setOne("a");
+        final TestBean second = new TestBean();
+        second.setOne("b");
+
+        final long[] generated = runner.insertBatchKeys("INSERT INTO blah (name) VALUES (?)", null, "intTest", Arrays.asList(first, second), "one");
+
+        assertArrayEquals(new long[] { 7, 8 }, generated);
+        assertEquals(7, first.getIntTest());
+        assertEquals(8, second.getIntTest());
+        verify(prepStmt).setString(1, "a");
+        verify(prepStmt).setString(1, "b");
+        verify(conn).close();
+    }
+
+    @Test
+    void testBatchInsertKeysMissing() throws Exception {
+        final ResultSet keys = mock(ResultSet.class);
+        when(meta.getParameterCount()).thenReturn(2);
+        when(conn.prepareStatement(any(String.class), eq(Statement.RETURN_GENERATED_KEYS))).thenReturn(prepStmt);
+        when(prepStmt.getGeneratedKeys()).thenReturn(keys);
+        when(keys.next()).thenReturn(true, false);
+        when(keys.getLong(1)).thenReturn(7L);
+        final Object[][] params = { { "a", 1 }, { "b", 2 } };
+
+        assertThrows(SQLException.class, () -> runner.insertBatchKeys("INSERT INTO blah (name, id) VALUES (?, ?)", null, params));
+        verify(keys).close();
+        verify(prepStmt).close();
+        verify(conn).close();
+    }
+
+    @Test
+    void testGoodBatchMultiRowNotRewritable() throws Exception {
+        runner = new QueryRunner(dataSource, new StatementConfiguration.Builder().multiRowInsertWidth(2).build());
+        when(meta.getParameterCount()).thenReturn(2);
+        final String[][] params = { { "unit", "unit" }, { "test", "test" } };
+
+        runner.batch("UPDATE blah SET unit = ? WHERE test = ?", params);
+
+        verify(conn).prepareStatement("UPDATE blah SET unit = ? WHERE test = ?");
+        verify(prepStmt, times(2)).addBatch();
+        verify(prepStmt, times(1)).executeBatch();
+    }
+
     @Test
     void testGoodBatchPmdTrue() throws Exception {
         runner = new QueryRunner(dataSource, true);
@@ -846,6 +1002,73 @@ class QueryRunnerTest {
         callGoodQuery(conn);
     }
 
+    @Test
+    void testGoodQueryExpanded() throws Exception {
+        runner = new QueryRunner(dataSource, new StatementConfiguration.Builder().maxInListSize(2).build());
+        when(meta.getParameterCount()).thenReturn(3, 2);
+
+        runner.queryExpanded("select * from blah where id in (?) and name = ?", handler, Arrays.asList(1, 2, 3), "unit");
+
+        verify(conn).prepareStatement("select * from blah where id in (?, ?) and name = ?");
+        verify(conn).prepareStatement("select * from blah where id in (?) and name = ?");
+        verify(prepStmt).setInt(1, 1);
+        verify(prepStmt).setInt(2, 2);
+        verify(prepStmt).setInt(1, 3);
+        verify(prepStmt, times(2)).executeQuery();
+        verify(results, times(2)).close();
+        verify(prepStmt, times(2)).close();    // make sure we closed the statements
+        verify(conn, times(1)).close();    // make sure we closed the connection
+    }
+
+    @Test
+    void testGoodUpdateExpanded() throws Exception {
+        when(meta.getParameterCount()).thenReturn(4);
+        when(prepStmt.executeUpdate()).thenReturn(3);
+
+        assertEquals(3, runner.updateExpanded(conn, "delete from blah where id in (?)", Arrays.asList(1, 2, 3)));
+
+        verify(conn).prepareStatement("delete from blah where id in (?, ?, ?, ?)");
+        verify(prepStmt).setInt(3, 3);
+        verify(prepStmt).setInt(4, 3);
+        verify(prepStmt, times(1)).close();    // make sure we closed the statement
+        verify(conn, times(0)).close();    // make sure we do not close the connection
+    }
+
+    @Test
+    void testGoodQueryCoalesced() throws Exception {
+        when(meta.getParameterCount()).thenReturn(2);
+        final QueryCoalescer coalescer = new QueryCoalescer();
+
+        runner.queryCoalesced(coalescer, "select * from blah where ? = ?", handler, "unit", "test");
+
+        verify(prepStmt, times(1)).executeQuery();
+        verify(results, times(1)).close();
+        verify(prepStmt, times(1)).close();    // make sure we closed the statement
+        verify(conn, times(1)).close();    // make sure we closed the connection
+        assertEquals(1, coalescer.getExecutionCount());
+        assertEquals(0, coalescer.getHitCount());
+        assertEquals(0, coalescer.getInFlight());
+    }
+
+    @Test
+    void testGoodQueryNamed() throws Exception {
+        when(meta.getParameterCount()).thenReturn(3);
+        final Map<String, Object> params = new HashMap<>();
+        params.put("name", "unit");
+        params.put("id", 1);
+
+        runner.queryNamed("select * from blah where name = :name and id = :id or alias = :name", handler, params);
+
+        verify(conn).prepareStatement("select * from blah where name = ? and id = ? or alias = ?");
+        verify(prepStmt).setString(1, "unit");
+        verify(prepStmt).setInt(2, 1);
+        verify(prepStmt).setString(3, "unit");
+        verify(prepStmt, times(1)).executeQuery();
+        verify(results, times(1)).close();
+        verify(prepStmt, times(1)).close();    // make sure we closed the statement
+        verify(conn, times(1)).close();    // make sure we closed the connection
+    }
+
     @Test
     void testGoodQueryPmdTrue() throws Exception {
         runner = new QueryRunner(true);
@@ -863,12 +1086,91 @@ class QueryRunnerTest {
         callGoodUpdate(conn);
     }
 
+    @Test
+    void testGoodUpdateNamed() throws Exception {
+        final MyBean bean = new MyBean();
+        bean.setA(1);
+        bean.setC("unit");
+        when(meta.getParameterCount()).thenReturn(2);
+
+        runner.updateNamed(conn, "update blah set c = :c where a = :a", bean);
+
+        verify(conn).prepareStatement("update blah set c = ? where a = ?");
+        verify(prepStmt).setString(1, "unit");
+        verify(prepStmt).setInt(2, 1);
+        verify(prepStmt, times(1)).executeUpdate();
+        verify(prepStmt, times(1)).close();    // make sure we closed the statement
+        verify(conn, times(0)).close();    // make sure we do not close the connection
+    }
+
     @Test
     void testGoodUpdatePmdTrue() throws Exception {
         runner = new QueryRunner(true);
         callGoodUpdate(conn);
     }
 
+    @Test
+    void testInTransaction() throws Exception {
+        when(meta.getParameterCount()).thenReturn(1);
+
+        final Integer result = runner.inTransaction(tx -> {
+            runner.update("update blah set a = ?", "unit");
+            runner.update("update blah set b = ?", "test");
+            tx.close();
+            return 2;
+        });
+
+        assertEquals(2, result.intValue());
+        verify(dataSource, times(1)).getConnection();
+        verify(conn, times(1)).setAutoCommit(false);
+        verify(prepStmt, times(2)).executeUpdate();
+        verify(conn, times(1)).commit();
+        verify(conn, never()).rollback();
+        verify(conn, times(1)).close();    // make sure we closed the connection once
+    }
+
+    @Test
+    void testInTransactionNested() throws Exception {
+        when(meta.getParameterCount()).thenReturn(1);
+        final Savepoint savepoint = mock(Savepoint.class);
+        when(conn.setSavepoint()).thenReturn(savepoint);
+
+        runner.inTransaction(tx -> {
+            runner.update("update blah set a = ?", "unit");
+            assertThrows(SQLException.class, () -> runner.inTransaction(nested -> {
+                runner.update("update blah set b = ?", "test");
+                throw new SQLException("unit");
+            }));
+            return runner.inTransaction(nested -> runner.update("update blah set c = ?", "test"));
+        });
+
+        verify(dataSource, times(1)).getConnection();
+        verify(conn, times(2)).setSavepoint();
+        verify(conn, times(1)).rollback(savepoint);
+        verify(conn, times(1)).releaseSavepoint(savepoint);
+        verify(prepStmt, times(3)).executeUpdate();
+        verify(conn, times(1)).commit();
+        verify(conn, never()).rollback();
+        verify(conn, times(1)).close();
+    }
+
+    @Test
+    void testInTransactionRollsBack() throws Exception {
+        when(meta.getParameterCount()).thenReturn(1);
+
+        assertThrows(SQLException.class, () -> runner.inTransaction(tx -> {
+            runner.update("update blah set a = ?", "unit");
+            throw new SQLException("unit");
+        }));
+        runner.update("update blah set b = ?", "test");
+
+        verify(dataSource, times(2)).getConnection();
+        verify(conn, times(1)).setAutoCommit(false);
+        verify(conn, times(1)).rollback();
+        verify(conn, never()).commit();
+        verify(conn, times(2)).close();    // the update after the transaction takes its own connection
+    }
+
     @Test
     void testNoParamsExecute() throws Exception {
         callGoodExecute();
@@ -967,6 +1269,11 @@ class QueryRunnerTest {
             runner.batch("select * from blah where ? = ?", null));
     }
 
+    @Test
+    void testNullBeansBatch() throws Exception {
+        assertThrows(SQLException.class, () -> runner.batch("select * from blah where ? = ?", (Iterable<?>) null, "a", "c"));
+    }
+
     @Test
     void testNullParamsBatch() throws Exception {
         final String[][] params = { { null, "unit" }, { "test", null } };
@@ -1020,6 +1327,37 @@ class QueryRunnerTest {
         verify(prepStmt).setQueryTimeout(eq(5));
     }
 
+    @Test
+    void testStatementConfigurationCursorOptions() throws Exception {
+        final StatementConfiguration stmtConfig = new StatementConfiguration.Builder().resultSetType(ResultSet.TYPE_SCROLL_INSENSITIVE)
+                .resultSetHoldability(ResultSet.CLOSE_CURSORS_AT_COMMIT).poolable(false).largeMaxRows(10L).escapeProcessing(false).build();
+        when(conn.prepareStatement(any(String.class), anyInt(), anyInt(), anyInt())).thenReturn(prepStmt);
+        final QueryRunner queryRunner = new QueryRunner(stmtConfig);
+        queryRunner.prepareStatement(conn, "select 1");
+
+        verify(conn).prepareStatement("select 1", ResultSet.TYPE_SCROLL_INSENSITIVE, ResultSet.CONCUR_READ_ONLY, ResultSet.CLOSE_CURSORS_AT_COMMIT);
+        verify(prepStmt).setPoolable(false);
+        verify(prepStmt).setLargeMaxRows(10L);
+        verify(prepStmt).setEscapeProcessing(false);
+        verify(prepStmt, never()).setMaxRows(anyInt());
+    }
+
+    @Test
+    void testStatementConfigurationPerCall() throws Exception {
+        final StatementConfiguration stmtConfig = new StatementConfiguration.Builder().fetchSize(10).build();
+        runner = new QueryRunner(dataSource, stmtConfig);
+        final StatementConfiguration export = new StatementConfiguration.Builder(stmtConfig).fetchSize(5000).build();
+        when(meta.getParameterCount()).thenReturn(2);
+
+        runner.query(export, "select * from blah where ? = ?", handler, "unit", "test");
+        verify(prepStmt).setFetchSize(5000);
+        verify(prepStmt, never()).setFetchSize(10);
+
+        runner.query(conn, "select * from blah", handler);
+        verify(stmt, never()).setFetchSize(5000);
+        verify(stmt).setFetchSize(10);
+    }
+
     @Test
     void testTooFewParamsBatch() throws Exception {
         final String[][] params = { { "unit" }, { "test" } };
@@ -0,0 +1,70 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.dbutils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+
+class RetryPolicyTest {
+
+    @Test
+    void testBackoff() {
+        final RetryPolicy policy = new RetryPolicy.Builder().backoff(Duration.ofMillis(10), Duration.ofMillis(25)).build();
+        for (int i = 0; i < 100; i++) {
+            assertTrue(policy.getBackoff(1).compareTo(Duration.ofMillis(10)) <= 0);
+            assertTrue(policy.getBackoff(2).compareTo(Duration.ofMillis(20)) <= 0);
+            assertTrue(policy.getBackoff(40).compareTo(Duration.ofMillis(25)) <= 0);
+            assertFalse(policy.getBackoff(3).isNegative());
+        }
+    }
+
+    @Test
+    void testBuilder() {
+        assertEquals(RetryPolicy.DEFAULT_MAX_ATTEMPTS, new RetryPolicy.Builder().build().getMaxAttempts());
+        assertThrows(IllegalArgumentException.class, () -> new RetryPolicy.Builder().maxAttempts(0));
+        assertThrows(IllegalArgumentException.class, () -> new RetryPolicy.Builder().backoff(Duration.ofSeconds(2), Duration.ofSeconds(1)));
+    }
+
+    @Test
+    void testIsTransient() {
+        final RetryPolicy policy = new RetryPolicy.Builder().transientSqlStates("40", "08006").build();
+        assertTrue(policy.isTransient(new SQLException("deadlock", "40P01")));
+        assertTrue(policy.isTransient(new SQLException("connection lost", "08006")));
+        assertTrue(policy.isTransient(new SQLTransientConnectionException("timeout")));
+        assertTrue(policy.isTransient(new SQLException("wrapped", new SQLTransientConnectionException())));
+        assertFalse(policy.isTransient(new SQLException("constraint", "23505")));
+        assertFalse(policy.isTransient(new SQLException("no state")));
+
+        final SQLException chained = new SQLException("wrapper", "HY000");
+        chained.setNextException(new SQLException("serialization", "40001"));
+        assertTrue(policy.isTransient(chained));
+
+        assertTrue(policy.isTransient(new SQLException("wrapper", "HY000", new SQLException("deadlock", "40001"))));
+        final SQLException rethrown = new SQLException("wrapper", "HY000");
+        rethrown.setNextException(new SQLException("driver", new RuntimeException(new SQLException("deadlock", "40001"))));
+        assertTrue(policy.isTransient(rethrown));
+        assertFalse(policy.isTransient(new SQLException("wrapper", "HY000", new SQLException("constraint", "23505"))));
+    }
+}
@@ -0,0 +1,180 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.dbutils;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.BatchUpdateException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransactionRollbackException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class RetryingQueryRunnerTest {
+
+    private static final String SQL = "UPDATE account SET balance = ? WHERE id = ?";
+
+    private final List<String> calls = Collections.synchronizedList(new ArrayList<>());
+
+    /** Number of transient failures left before updates succeed. */
+    private final AtomicInteger deadlocks = new AtomicInteger();
+
+    /** Whether restoring auto-commit fails. */
+    private boolean failAutoCommitReset;
+
+    private RetryingQueryRunner runner;
+
+    @BeforeEach
+    void setUp() {
+        final RetryPolicy policy = new RetryPolicy.Builder().maxAttempts(3).backoff(Duration.ofMillis(1), Duration.ofMillis(2)).build();
+        // Rows with a negative first parameter fail; each batch also fails while deadlocks remain.
+        runner = new RetryingQueryRunner(null, policy) {
+
+            @Override
+            public int[] batch(final Connection conn, final String sql, final Object[][] params) throws SQLException {
+                calls.add("batch x" + params.length);
+                if (deadlocks.getAndUpdate(n -> Math.max(0, n - 1)) > 0) {
+                    throw new SQLTransactionRollbackException("deadlock", "40001");
+                }
+                final int[] counts = new int[params.length];
+                for (int i = 0; i < params.length; i++) {
+                    if ((Integer) params[i][0] < 0) {
+                        throw new BatchUpdateException("check constraint", "23513", 0, Arrays.copyOf(counts, i), null);
+                    }
+                    counts[i] = 1;
+                }
+                return counts;
+            }
+
+            @Override
+            protected Connection prepareConnection() {
+                calls.add("getConnection");
+                return ProxyFactory.instance().createConnection((proxy, method, args) -> {
+                    if (method.getName().equals("getAutoCommit")) {
+                        return Boolean.TRUE;
+                    }
+                    if (failAutoCommitReset && method.getName().equals("setAutoCommit") && Boolean.TRUE.equals(args[0])) {
+                        throw new SQLException("connection reset");
+                    }
+                    calls.add(method.getName());
+                    return null;
+                });
+            }
+
+            @Override
+            public int update(final Connection conn, final String sql, final Object... params) throws SQLException {
+                calls.add("update");
+                if (deadlocks.getAndUpdate(n -> Math.max(0, n - 1)) > 0) {
+                    throw new SQLException("deadlock", "40P01");
+                }
+                if ((Integer) params[0] < 0) {
+                    throw new SQLException("check constraint", "23513");
+                }
+                return 1;
+            }
+        };
+    }
+
+    @Test
+    void testBatch() throws Exception {
+        assertArrayEquals(new int[] { 1, 1, 1 }, runner.batch(SQL, new Object[][] { { 1, 1 }, { 2, 2 }, { 3, 3 } }));
+        assertEquals(Collections.singletonList("batch x3"), calls.subList(2, 3));
+        assertEquals(1, Collections.frequency(calls, "commit"));
+        assertEquals(0, runner.getRetryCount());
+    }
+
+    @Test
+    void testBatchBisectsFailingRows() {
+        final Object[][] params = { { 1, 1 }, { -2, 2 }, { 3, 3 }, { 4, 4 }, { -5, 5 } };
+        final BatchUpdateException e = assertThrows(BatchUpdateException.class, () -> runner.batch(SQL, params));
+        assertArrayEquals(new int[] { 1, Statement.EXECUTE_FAILED, 1, 1, Statement.EXECUTE_FAILED }, e.getUpdateCounts());
+        assertTrue(e.getMessage().startsWith("2 of 5 rows failed"));
+        assertEquals("23513", e.getSQLState());
+        final SQLException first = e.getNextException();
+        assertTrue(first != null && first.getNextException() != null);
+        assertEquals(null, first.getNextException().getNextException());
+        // Rows 0, 2 and 3 are committed as single-row slices.
+        assertEquals(3, Collections.frequency(calls, "commit"));
+        assertTrue(calls.contains("rollback"));
+        assertEquals(0, runner.getRetryCount());
+    }
+
+    @Test
+    void testBatchRetriesTransientFailure() throws Exception {
+        deadlocks.set(2);
+        assertArrayEquals(new int[] { 1, 1 }, runner.batch(SQL, new Object[][] { { 1, 1 }, { 2, 2 } }));
+        assertEquals(3, Collections.frequency(calls, "batch x2"));
+        assertEquals(2, Collections.frequency(calls, "rollback"));
+        assertEquals(2, runner.getRetryCount());
+    }
+
+    @Test
+    void testBatchKeepsFailureWhenAutoCommitResetFails() {
+        failAutoCommitReset = true;
+        final BatchUpdateException e = assertThrows(BatchUpdateException.class, () -> runner.batch(SQL, new Object[][] { { 1, 1 }, { -2, 2 } }));
+        assertEquals("23513", e.getSQLState());
+        assertEquals(1, e.getSuppressed().length);
+        assertEquals("connection reset", e.getSuppressed()[0].getMessage());
+    }
+
+    @Test
+    void testInTransactionIsNotRetried() {
+        deadlocks.set(1);
+        assertThrows(SQLException.class, () -> runner.inTransaction(conn -> runner.update(SQL, 1, 1)));
+        assertEquals(1, Collections.frequency(calls, "update"));
+        assertEquals(0, runner.getRetryCount());
+    }
+
+    @Test
+    void testUpdateGivesUp() {
+        deadlocks.set(5);
+        final SQLException e = assertThrows(SQLException.class, () -> runner.update(SQL, 1, 1));
+        assertEquals("40P01", e.getSQLState());
+        assertEquals(3, Collections.frequency(calls, "update"));
+        assertEquals(3, Collections.frequency(calls, "getConnection"));
+        assertEquals(2, runner.getRetryCount());
+    }
+
+    @Test
+    void testUpdateNotTransient() {
+        assertThrows(SQLException.class, () -> runner.update(SQL, -1, 1));
+        assertEquals(1, Collections.frequency(calls, "update"));
+        assertFalse(calls.contains("rollback"));
+    }
+
+    @Test
+    void testUpdateRetries() throws Exception {
+        deadlocks.set(2);
+        assertEquals(1, runner.update(SQL, 1, 1));
+        assertEquals(3, Collections.frequency(calls, "update"));
+        assertEquals(3, Collections.frequency(calls, "close"));
+        assertEquals(2, runner.getRetryCount());
+    }
+}
@@ -0,0 +1,193 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.dbutils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.apache.commons.dbutils.handlers.ScalarHandler;
+import org.junit.jupiter.api.Test;
+
+class RoutingQueryRunnerTest {
+
+    /**
+     * A database whose queries return its name.
+     */
+    private static final class Database {
+
+        private final String name;
+
+        private final AtomicInteger connections = new AtomicInteger();
+
+        private volatile CountDownLatch block;
+
+        private volatile boolean down;
+
+        private Database(final String name) {
+            this.name = name;
+        }
+
+        private DataSource dataSource() {
+            return (DataSource) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { DataSource.class }, (proxy, method, args) -> {
+                if (!"getConnection".equals(method.getName())) {
+                    throw new UnsupportedOperationException(method.getName());
+                }
+                if (down) {
+                    throw new SQLException(name + " is down");
+                }
+                connections.incrementAndGet();
+                return ProxyFactory.instance().createConnection((c, m, a) -> "createStatement".equals(m.getName()) ? statement() : null);
+            });
+        }
+
+        private Statement statement() {
+            return ProxyFactory.instance().createStatement((proxy, method, args) -> {
+                switch (method.getName()) {
+                case "executeQuery":
+                    if (block != null) {
+                        block.await();
+                    }
+                    return MockResultSet.create(MockResultSetMetaData.create(new String[] { "name" }), new Object[][] { { name } }, true);
+                case "executeUpdate":
+                    return Integer.valueOf(1);
+                default:
+                    return null;
+                }
+            });
+        }
+    }
+
+    private static final String SQL = "SELECT name FROM server";
+
+    private final ScalarHandler<String> handler = new ScalarHandler<>();
+
+    private final Database primary = new Database("primary");
+
+    private final Database replica1 = new Database("replica1");
+
+    private final Database replica2 = new Database("replica2");
+
+    private RoutingQueryRunner runner(final RoutingQueryRunner.Strategy strategy, final Duration window) {
+        return new RoutingQueryRunner(primary.dataSource(), Arrays.asList(replica1.dataSource(), replica2.dataSource()), strategy, window);
+    }
+
+    @Test
+    void testFallsBackToPrimary() throws Exception {
+        final RoutingQueryRunner runner = runner(RoutingQueryRunner.Strategy.ROUND_ROBIN, null);
+        replica1.down = true;
+        assertEquals("primary", runner.query(SQL, handler));
+        assertEquals("replica2", runner.query(SQL, handler));
+        assertEquals(1, runner.getFallbackCount());
+    }
+
+    @Test
+    void testLatencyWeighted() throws Exception {
+        final RoutingQueryRunner runner = runner(RoutingQueryRunner.Strategy.LATENCY_WEIGHTED, null);
+        for (int i = 0; i < 200; i++) {
+            runner.query(SQL, handler);
+        }
+        assertTrue(replica1.connections.get() > 0);
+        assertTrue(replica2.connections.get() > 0);
+        assertEquals(200, replica1.connections.get() + replica2.connections.get());
+        assertTrue(runner.getLatency(0).toNanos() > 0);
+    }
+
+    @Test
+    void testLeastInFlight() throws Exception {
+        final RoutingQueryRunner runner = runner(RoutingQueryRunner.Strategy.LEAST_IN_FLIGHT, null);
+        replica1.block = new CountDownLatch(1);
+        final CompletableFuture<String> blocked = CompletableFuture.supplyAsync(() -> {
+            try {
+                return runner.query(SQL, handler);
+            } catch (final SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (runner.getInFlight(0) == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertEquals(1, runner.getInFlight(0));
+        for (int i = 0; i < 5; i++) {
+            assertEquals("replica2", runner.query(SQL, handler));
+        }
+        replica1.block.countDown();
+        assertEquals("replica1", blocked.get(10, TimeUnit.SECONDS));
+        assertEquals(0, runner.getInFlight(0));
+    }
+
+    @Test
+    void testNegativeWindow() {
+        assertThrows(IllegalArgumentException.class, () -> runner(RoutingQueryRunner.Strategy.ROUND_ROBIN, Duration.ofSeconds(-1)));
+    }
+
+    @Test
+    void testNoReplicas() throws Exception {
+        final RoutingQueryRunner runner = new RoutingQueryRunner(primary.dataSource(), Collections.emptyList(),
+                RoutingQueryRunner.Strategy.ROUND_ROBIN, null);
+        assertEquals("primary", runner.query(SQL, handler));
+    }
+
+    @Test
+    void testReadYourWrites() throws Exception {
+        final RoutingQueryRunner runner = runner(RoutingQueryRunner.Strategy.ROUND_ROBIN, Duration.ofMillis(200));
+        assertEquals("replica1", runner.query(SQL, handler));
+
+        runner.update("UPDATE server SET name = name");
+        assertEquals("primary", runner.query(SQL, handler));
+        // Other threads still read from the replicas
+        assertTrue(CompletableFuture.supplyAsync(() -> {
+            try {
+                return runner.query(SQL, handler);
+            } catch (final SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        }).get(10, TimeUnit.SECONDS).startsWith("replica"));
+
+        Thread.sleep(250);
+        assertTrue(runner.query(SQL, handler).startsWith("replica"));
+        runner.markWritten();
+        assertEquals("primary", runner.query(SQL, handler));
+    }
+
+    @Test
+    void testRoundRobin() throws Exception {
+        final RoutingQueryRunner runner = runner(RoutingQueryRunner.Strategy.ROUND_ROBIN, Duration.ofSeconds(10));
+        assertEquals("replica1", runner.query(SQL, handler));
+        assertEquals("replica2", runner.query(SQL, handler));
+        assertEquals("replica1", runner.query(SQL, handler));
+        assertEquals(1, runner.update("DELETE FROM server"));
+        assertEquals(1, primary.connections.get());
+        assertEquals(2, replica1.connections.get());
+        assertEquals(1, replica2.connections.get());
+    }
+}
@@ -21,6 +21,7 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 import java.util.ServiceLoader;
 
 import org.apache.commons.dbutils.handlers.columns.TestColumnHandler;
+import org.apache.commons.dbutils.handlers.parameters.TestParameterHandler;
 import org.apache.commons.dbutils.handlers.properties.TestPropertyHandler;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -28,11 +29,13 @@ import org.junit.jupiter.api.Test;
 class ServiceLoaderTest {
     private ServiceLoader<ColumnHandler> columns;
     private ServiceLoader<PropertyHandler> properties;
+    private ServiceLoader<ParameterHandler> parameters;
 
     @BeforeEach
     public void setUp() {
         columns = ServiceLoader.load(ColumnHandler.class);
         properties = ServiceLoader.load(PropertyHandler.class);
+        parameters = ServiceLoader.load(ParameterHandler.class);
     }
 
     /**
@@ -48,6 +51,19 @@ class ServiceLoaderTest {
         assertTrue(count > 1);
     }
 
+    /**
+     * Verifying 'more than 1' shows that we found more than we loaded locally which assumes the core handlers were loaded, too.
+     */
+    @Test
+    void testFindMoreThanLocalParameters() {
+        int count = 0;
+        for (final ParameterHandler<?> handler : parameters) {
+            count++;
+        }
+
+        assertTrue(count > 1);
+    }
+
     /**
      * Verifying 'more than 1' shows that we found more than we loaded locally which assumes the core handlers were loaded, too.
      */
@@ -74,6 +90,19 @@ class ServiceLoaderTest {
         assertTrue(found);
     }
 
+    @Test
+    void testFindsLocalParameterHandler() {
+        boolean found = false;
+        for (final ParameterHandler<?> handler : parameters) {
+            // this class is defined outside of the main classes in dbutils
+            if (handler instanceof TestParameterHandler) {
+                found = true;
+            }
+        }
+
+        assertTrue(found);
+    }
+
     @Test
     void testFindsLocalPropertyHandler() {
         boolean found = false;
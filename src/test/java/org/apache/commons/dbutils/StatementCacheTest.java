@@ -0,0 +1,194 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.dbutils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.ParameterMetaData;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@SuppressWarnings("boxing") // test code
+@ExtendWith(MockitoExtension.class)
+class StatementCacheTest {
+
+    private static final String SQL = "UPDATE person SET name = ? WHERE id = 1";
+
+    @Mock(strictness = Mock.Strictness.LENIENT)
+    private DataSource dataSource;
+
+    @Mock(strictness = Mock.Strictness.LENIENT)
+    private Connection conn;
+
+    @Mock(strictness = Mock.Strictness.LENIENT)
+    private PreparedStatement prepStmt;
+
+    @Mock(strictness = Mock.Strictness.LENIENT)
+    private PreparedStatement otherStmt;
+
+    @Mock(strictness = Mock.Strictness.LENIENT)
+    private ParameterMetaData meta;
+
+    private StatementCache cache;
+
+    private QueryRunner runner;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        when(dataSource.getConnection()).thenReturn(conn);
+        when(conn.prepareStatement(SQL)).thenReturn(prepStmt);
+        when(conn.prepareStatement(any(), anyInt())).thenReturn(otherStmt);
+        when(prepStmt.getParameterMetaData()).thenReturn(meta);
+        when(otherStmt.getParameterMetaData()).thenReturn(meta);
+        when(meta.getParameterCount()).thenReturn(1);
+        cache = new StatementCache(8);
+        runner = new QueryRunner(dataSource, false, null, cache);
+    }
+
+    @Test
+    void testCloseConnection() throws Exception {
+        runner.update(conn, SQL, "a");
+        assertEquals(1, cache.size(conn));
+
+        cache.close(conn);
+        assertEquals(0, cache.size(conn));
+        verify(prepStmt).close();
+    }
+
+    @Test
+    void testClosedStatementIsReplaced() throws Exception {
+        runner.update(conn, SQL, "a");
+        when(prepStmt.isClosed()).thenReturn(true);
+        runner.update(conn, SQL, "b");
+
+        verify(conn, times(2)).prepareStatement(SQL);
+        assertEquals(0, cache.getHitCount());
+        assertEquals(2, cache.getMissCount());
+    }
+
+    @Test
+    void testClosedConnectionIsPurged() throws Exception {
+        runner.update(conn, SQL, "a");
+        assertEquals(1, cache.size(conn));
+        when(conn.isClosed()).thenReturn(true);
+
+        // The cache looks for closed connections once 16 connections have statements.
+        final Connection[] others = new Connection[16];
+        for (int i = 0; i < others.length; i++) {
+            others[i] = mock(Connection.class);
+            when(others[i].prepareStatement(SQL)).thenReturn(otherStmt);
+            if (i == others.length - 2) {
+                verify(conn, never()).isClosed();
+            }
+            runner.update(others[i], SQL, "b");
+        }
+
+        verify(prepStmt).close();
+        assertEquals(0, cache.size(conn));
+        assertEquals(1, cache.size(others[0]));
+        verify(others[others.length - 1], never()).isClosed();
+    }
+
+    @Test
+    void testDataSourceConnectionsAreNotCached() throws Exception {
+        runner.update(SQL, "a");
+        runner.update(SQL, "b");
+
+        verify(conn, times(2)).prepareStatement(SQL);
+        verify(prepStmt, times(2)).close();
+        verify(conn, times(2)).close();
+        assertEquals(0, cache.getHitCount());
+        assertEquals(0, cache.size(conn));
+    }
+
+    @Test
+    void testEviction() throws Exception {
+        final StatementCache small = new StatementCache(1);
+        final QueryRunner smallRunner = new QueryRunner(null, false, null, small);
+        smallRunner.update(conn, SQL, "a");
+        smallRunner.close(smallRunner.prepareStatement(conn, SQL, Statement.RETURN_GENERATED_KEYS));
+
+        verify(prepStmt).close();
+        verify(otherStmt, never()).close();
+        assertEquals(1, small.getEvictionCount());
+        assertEquals(1, small.size(conn));
+    }
+
+    @Test
+    void testInvalidSize() {
+        assertThrows(IllegalArgumentException.class, () -> new StatementCache(0));
+    }
+
+    @Test
+    void testNestedUsePreparesSecondStatement() throws Exception {
+        final PreparedStatement first = runner.prepareStatement(conn, SQL);
+        when(conn.prepareStatement(SQL)).thenReturn(otherStmt);
+        final PreparedStatement second = runner.prepareStatement(conn, SQL);
+        runner.close(second);
+        runner.close(first);
+
+        verify(prepStmt).close();
+        verify(otherStmt, never()).close();
+        assertEquals(1, cache.size(conn));
+        assertSame(otherStmt, runner.prepareStatement(conn, SQL));
+    }
+
+    @Test
+    void testReturnedKeysArePartOfTheKey() throws Exception {
+        runner.close(runner.prepareStatement(conn, SQL));
+        runner.close(runner.prepareStatement(conn, SQL, Statement.RETURN_GENERATED_KEYS));
+
+        assertSame(prepStmt, runner.prepareStatement(conn, SQL));
+        assertSame(otherStmt, runner.prepareStatement(conn, SQL, Statement.RETURN_GENERATED_KEYS));
+        assertEquals(2, cache.getHitCount());
+        assertEquals(2, cache.getMissCount());
+    }
+
+    @Test
+    void testReuseOnCallerConnection() throws Exception {
+        runner.update(conn, SQL, "a");
+        runner.update(conn, SQL, "b");
+        runner.update(conn, SQL, "c");
+
+        verify(conn, times(1)).prepareStatement(SQL);
+        verify(prepStmt, times(3)).clearParameters();
+        verify(prepStmt, times(3)).executeUpdate();
+        verify(prepStmt, never()).close();
+        assertEquals(2, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+        assertSame(cache, runner.getStatementCache());
+    }
+
+}
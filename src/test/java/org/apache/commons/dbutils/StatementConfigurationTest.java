@@ -18,8 +18,11 @@ package org.apache.commons.dbutils;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.sql.ResultSet;
 import java.time.Duration;
 
 import org.junit.jupiter.api.Test;
@@ -88,5 +91,62 @@ class StatementConfigurationTest {
         assertFalse(config.isMaxFieldSizeSet());
         assertFalse(config.isMaxRowsSet());
         assertFalse(config.isQueryTimeoutSet());
+        assertFalse(config.isMultiRowInsertWidthSet());
+        assertFalse(config.isResultSetTypeSet());
+        assertFalse(config.isResultSetConcurrencySet());
+        assertFalse(config.isResultSetHoldabilitySet());
+        assertFalse(config.isPoolableSet());
+        assertFalse(config.isLargeMaxRowsSet());
+        assertFalse(config.isEscapeProcessingSet());
+        assertFalse(config.isAdaptiveFetchSizeSet());
+    }
+
+    @Test
+    void testCopyBuilder() {
+        final StatementConfiguration base = new StatementConfiguration.Builder().fetchSize(10).maxRows(4).queryTimeout(Duration.ofSeconds(5))
+                .multiRowInsertWidth(8).poolable(true).adaptiveFetchSize(new AdaptiveFetchSize.Builder().build()).build();
+        final StatementConfiguration export = new StatementConfiguration.Builder(base).fetchSize(5000).resultSetType(ResultSet.TYPE_FORWARD_ONLY)
+                .build();
+
+        assertEquals(Integer.valueOf(5000), export.getFetchSize());
+        assertEquals(Integer.valueOf(4), export.getMaxRows());
+        assertEquals(Duration.ofSeconds(5), export.getQueryTimeoutDuration());
+        assertEquals(Integer.valueOf(8), export.getMultiRowInsertWidth());
+        assertEquals(Boolean.TRUE, export.getPoolable());
+        assertTrue(export.isAdaptiveFetchSizeSet());
+        assertSame(base.getAdaptiveFetchSize(), export.getAdaptiveFetchSize());
+        assertEquals(Integer.valueOf(ResultSet.TYPE_FORWARD_ONLY), export.getResultSetType());
+        assertEquals(Integer.valueOf(10), base.getFetchSize());
+        assertFalse(base.isResultSetTypeSet());
+    }
+
+    @Test
+    void testCursorOptions() {
+        final StatementConfiguration config = new StatementConfiguration.Builder().resultSetType(ResultSet.TYPE_SCROLL_INSENSITIVE)
+                .resultSetConcurrency(ResultSet.CONCUR_READ_ONLY).resultSetHoldability(ResultSet.CLOSE_CURSORS_AT_COMMIT).poolable(false)
+                .largeMaxRows(5_000_000_000L).escapeProcessing(false).build();
+
+        assertEquals(Integer.valueOf(ResultSet.TYPE_SCROLL_INSENSITIVE), config.getResultSetType());
+        assertEquals(Integer.valueOf(ResultSet.CONCUR_READ_ONLY), config.getResultSetConcurrency());
+        assertEquals(Integer.valueOf(ResultSet.CLOSE_CURSORS_AT_COMMIT), config.getResultSetHoldability());
+        assertEquals(Boolean.FALSE, config.getPoolable());
+        assertEquals(Long.valueOf(5_000_000_000L), config.getLargeMaxRows());
+        assertEquals(Boolean.FALSE, config.getEscapeProcessing());
+
+        assertThrows(IllegalArgumentException.class, () -> new StatementConfiguration.Builder().resultSetType(0).build());
+        assertThrows(IllegalArgumentException.class, () -> new StatementConfiguration.Builder().resultSetConcurrency(0).build());
+        assertThrows(IllegalArgumentException.class, () -> new StatementConfiguration.Builder().resultSetHoldability(0).build());
+        assertThrows(IllegalArgumentException.class, () -> new StatementConfiguration.Builder().largeMaxRows(-1L).build());
+    }
+
+    @Test
+    void testMultiRowInsertWidth() {
+        final StatementConfiguration config = new StatementConfiguration.Builder().fetchSize(2).multiRowInsertWidth(100).build();
+
+        assertTrue(config.isMultiRowInsertWidthSet());
+        assertEquals(Integer.valueOf(100), config.getMultiRowInsertWidth());
+        assertEquals(Integer.valueOf(2), config.getFetchSize());
+        assertFalse(new StatementConfiguration(1, 2, 3, 4, Duration.ofSeconds(5)).isMultiRowInsertWidthSet());
+        assertThrows(IllegalArgumentException.class, () -> new StatementConfiguration.Builder().multiRowInsertWidth(0).build());
     }
 }
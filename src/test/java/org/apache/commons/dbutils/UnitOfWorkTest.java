@@ -0,0 +1,184 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.dbutils;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class UnitOfWorkTest {
+
+    private static final String INSERT_ORDER = "INSERT INTO orders (id) VALUES (?)";
+
+    private static final String INSERT_ITEM = "INSERT INTO order_item (order_id, sku) VALUES (?, ?)";
+
+    private static final String UPDATE_ORDER = "UPDATE orders SET total = ? WHERE id = ?";
+
+    private final List<String> calls = new ArrayList<>();
+
+    private Connection conn;
+
+    private QueryRunner runner;
+
+    /**
+     * Records the batches, one update count per row numbered in execution order.
+     */
+    @BeforeEach
+    void setUp() {
+        conn = ProxyFactory.instance().createConnection((proxy, method, args) -> {
+            calls.add(method.getName());
+            return null;
+        });
+        runner = new QueryRunner() {
+            private int row;
+
+            @Override
+            public int[] batch(final Connection connection, final String sql, final Object[][] params) throws SQLException {
+                calls.add(sql + " x" + params.length);
+                if (sql.contains("fail")) {
+                    throw new SQLException("unit");
+                }
+                final int[] rows = new int[params.length];
+                for (int i = 0; i < rows.length; i++) {
+                    rows[i] = ++row;
+                }
+                return rows;
+            }
+        };
+    }
+
+    @Test
+    void testCommit() throws Exception {
+        final UnitOfWork work = new UnitOfWork(runner, conn, 100);
+        work.update(INSERT_ORDER, 1).update(INSERT_ITEM, 1, "a").update(INSERT_ORDER, 2).update(INSERT_ITEM, 2, "b").update(INSERT_ITEM, 2, "c");
+        assertEquals(5, work.getBufferedCount());
+        assertEquals(2, work.getBatchCount());
+
+        final Map<String, int[]> counts = work.commit();
+
+        assertEquals(Arrays.asList(INSERT_ORDER + " x2", INSERT_ITEM + " x3", "commit"), calls);
+        assertArrayEquals(new int[] { 1, 2 }, counts.get(INSERT_ORDER));
+        assertArrayEquals(new int[] { 3, 4, 5 }, counts.get(INSERT_ITEM));
+        assertEquals(0, work.getBufferedCount());
+    }
+
+    @Test
+    void testConstructor() {
+        assertThrows(IllegalArgumentException.class, () -> new UnitOfWork(runner, conn, 0));
+        assertThrows(NullPointerException.class, () -> new UnitOfWork(runner, null, 1));
+    }
+
+    @Test
+    void testDeclaredDependencies() throws Exception {
+        final UnitOfWork work = new UnitOfWork(runner, conn, 100).dependsOn("order_item", "app.Orders");
+        work.update(INSERT_ITEM, 0, "a").update(INSERT_ORDER, 1).update(INSERT_ITEM, 1, "b");
+        work.update(INSERT_ORDER, 2).update(INSERT_ITEM, 2, "c");
+        assertEquals(2, work.getBatchCount());
+        work.flush();
+        assertEquals(Arrays.asList(INSERT_ORDER + " x2", INSERT_ITEM + " x3"), calls);
+
+        calls.clear();
+        final UnitOfWork undeclared = new UnitOfWork(runner, conn, 100);
+        undeclared.update(INSERT_ITEM, 0, "a").update(INSERT_ORDER, 1).update(INSERT_ITEM, 1, "b");
+        assertEquals(2, undeclared.getBatchCount());
+        undeclared.flush();
+        assertEquals(Arrays.asList(INSERT_ITEM + " x2", INSERT_ORDER + " x1"), calls);
+    }
+
+    @Test
+    void testDeletesChildTablesFirst() throws Exception {
+        final String deleteOrder = "DELETE FROM orders WHERE id = ?";
+        final String deleteItem = "DELETE FROM order_item WHERE order_id = ?";
+        final UnitOfWork work = new UnitOfWork(runner, conn, 100).dependsOn("order_item", "orders");
+        for (int i = 0; i < 3; i++) {
+            work.update(deleteOrder, i).update(deleteItem, i);
+        }
+        work.update(INSERT_ORDER, 3).update(INSERT_ITEM, 3, "a");
+
+        work.flush();
+
+        assertEquals(Arrays.asList(deleteItem + " x3", deleteOrder + " x3", INSERT_ORDER + " x1", INSERT_ITEM + " x1"), calls);
+    }
+
+    @Test
+    void testIndirectDependencies() throws Exception {
+        final String insertCustomer = "INSERT INTO customer (id) VALUES (?)";
+        final UnitOfWork work = new UnitOfWork(runner, conn, 100).dependsOn("order_item", "orders").dependsOn("orders", "customer");
+        for (int i = 0; i < 3; i++) {
+            work.update(INSERT_ITEM, i, "a").update(insertCustomer, i).update(INSERT_ORDER, i);
+        }
+
+        work.flush();
+
+        assertEquals(Arrays.asList(insertCustomer + " x3", INSERT_ORDER + " x3", INSERT_ITEM + " x3"), calls);
+    }
+
+    @Test
+    void testDiscardAndRollback() throws Exception {
+        final UnitOfWork work = new UnitOfWork(runner, conn, 100);
+        work.update(INSERT_ORDER, 1);
+        work.rollback();
+        assertEquals(0, work.getBufferedCount());
+        assertEquals(Arrays.asList("rollback"), calls);
+        assertEquals(0, work.flush().size());
+    }
+
+    @Test
+    void testFailedFlushDiscards() throws Exception {
+        final UnitOfWork work = new UnitOfWork(runner, conn, 100);
+        work.update("UPDATE fail SET a = ?", 1).update(INSERT_ORDER, 1);
+        assertThrows(SQLException.class, work::flush);
+        assertEquals(0, work.getBufferedCount());
+        assertEquals(Arrays.asList("UPDATE fail SET a = ? x1"), calls);
+    }
+
+    @Test
+    void testFlushesAtThreshold() throws Exception {
+        final UnitOfWork work = new UnitOfWork(runner, conn, 3);
+        for (int i = 0; i < 7; i++) {
+            work.update(INSERT_ORDER, i);
+        }
+        assertEquals(Arrays.asList(INSERT_ORDER + " x3", INSERT_ORDER + " x3"), calls);
+        assertEquals(1, work.getBufferedCount());
+        work.flush();
+        assertArrayEquals(new int[] { 1, 2, 3, 4, 5, 6, 7 }, work.getUpdateCounts().get(INSERT_ORDER));
+    }
+
+    @Test
+    void testKeepsOrderOnSameTable() throws Exception {
+        final UnitOfWork work = new UnitOfWork(runner, conn, 100);
+        work.update(INSERT_ORDER, 1).update(UPDATE_ORDER, 10, 1).update(INSERT_ORDER, 2).update(UPDATE_ORDER, 20, 2);
+        work.update("{call audit(?)}", 1).update(INSERT_ORDER, 3);
+
+        work.flush();
+
+        assertEquals(Arrays.asList(INSERT_ORDER + " x1", UPDATE_ORDER + " x1", INSERT_ORDER + " x1", UPDATE_ORDER + " x1",
+                "{call audit(?)} x1", INSERT_ORDER + " x1"), calls);
+        assertArrayEquals(new int[] { 1, 3, 6 }, work.getUpdateCounts().get(INSERT_ORDER));
+        assertArrayEquals(new int[] { 2, 4 }, work.getUpdateCounts().get(UPDATE_ORDER));
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.dbutils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.dbutils.handlers.BeanListHandler;
+import org.apache.commons.dbutils.handlers.MapListHandler;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test the ValueInterner class.
+ */
+class ValueInternerTest {
+
+    private static ResultSet createResultSet() {
+        final Object[][] rows = { { new String("DE"), new String("a") }, { new String("DE"), new String("b") } };
+        return MockResultSet.create(MockResultSetMetaData.create(new String[] { "one", "two" }), rows, false);
+    }
+
+    @Test
+    void testBeanProcessor() throws SQLException {
+        final ValueInterner interner = new ValueInterner.Builder().columns("ONE").build();
+        final BeanProcessor beanProcessor = new BeanProcessor(new HashMap<>(), interner);
+        final List<TestBean> beans = new BeanListHandler<>(TestBean.class, new BasicRowProcessor(beanProcessor)).handle(createResultSet());
+
+        assertEquals(2, beans.size());
+        assertEquals("DE", beans.get(0).getOne());
+        assertSame(beans.get(0).getOne(), beans.get(1).getOne());
+        assertEquals(1, interner.size("one"));
+        assertEquals(0, interner.size("two"));
+    }
+
+    @Test
+    void testHeuristicDropsHighCardinalityColumns() {
+        final ValueInterner interner = new ValueInterner.Builder().maxValuesPerColumn(2).build();
+        interner.intern("id", "1");
+        interner.intern("id", "2");
+        assertTrue(interner.isInterned("id"));
+
+        interner.intern("id", "3");
+        assertFalse(interner.isInterned("id"));
+        assertEquals(0, interner.size("id"));
+
+        interner.clear();
+        assertTrue(interner.isInterned("id"));
+    }
+
+    @Test
+    void testIntern() {
+        final ValueInterner interner = new ValueInterner.Builder().build();
+        final String first = new String("EUR");
+        final String second = new String("EUR");
+
+        assertSame(first, interner.intern("currency", first));
+        assertSame(first, interner.intern("currency", second));
+        assertSame(second, interner.intern("other", second));
+        assertEquals(1, interner.size("currency"));
+    }
+
+    @Test
+    void testInternKeepsScale() {
+        final ValueInterner interner = new ValueInterner.Builder().build();
+        final BigDecimal one = new BigDecimal("1.0");
+        final BigDecimal onePointZeroZero = new BigDecimal("1.00");
+
+        assertSame(one, interner.intern("amount", one));
+        assertSame(onePointZeroZero, interner.intern("amount", onePointZeroZero));
+        assertSame(one, interner.intern("amount", new BigDecimal("1.0")));
+    }
+
+    @Test
+    void testMapListHandler() throws SQLException {
+        final ValueInterner interner = new ValueInterner.Builder().columns("one").build();
+        final List<Map<String, Object>> rows = new MapListHandler(new BasicRowProcessor(new BeanProcessor(), interner)).handle(createResultSet());
+
+        assertSame(rows.get(0).get("one"), rows.get(1).get("one"));
+    }
+
+    @Test
+    void testMaxValuesPerColumn() {
+        assertThrows(IllegalArgumentException.class, () -> new ValueInterner.Builder().maxValuesPerColumn(0));
+    }
+
+    @Test
+    void testNamedColumnStopsGrowing() {
+        final ValueInterner interner = new ValueInterner.Builder().columns("status").maxValuesPerColumn(1).build();
+        final String open = new String("OPEN");
+        interner.intern("status", "NEW");
+
+        assertSame(open, interner.intern("status", open));
+        assertTrue(interner.isInterned("status"));
+        assertEquals(1, interner.size("status"));
+    }
+
+    @Test
+    void testToArray() throws SQLException {
+        final ValueInterner interner = new ValueInterner.Builder().build();
+        final RowProcessor processor = new BasicRowProcessor(new BeanProcessor(), interner);
+        final ResultSet resultSet = createResultSet();
+
+        assertTrue(resultSet.next());
+        final Object[] first = processor.toArray(resultSet);
+        assertTrue(resultSet.next());
+        final Object[] second = processor.toArray(resultSet);
+
+        assertSame(first[0], second[0]);
+        assertNotSame(first[1], second[1]);
+    }
+
+    @Test
+    void testUnsupportedTypesAreNotShared() {
+        final ValueInterner interner = new ValueInterner.Builder().build();
+        final Timestamp first = new Timestamp(0);
+        final Timestamp second = new Timestamp(0);
+
+        assertSame(first, interner.intern("ts", first));
+        assertSame(second, interner.intern("ts", second));
+        assertEquals(0, interner.size("ts"));
+    }
+}
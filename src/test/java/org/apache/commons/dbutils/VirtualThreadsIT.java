@@ -0,0 +1,66 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.dbutils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Runs against the multi-release JAR, whose {@code META-INF/versions/21}
+ * classes the tests on {@code target/classes} never load.
+ */
+class VirtualThreadsIT {
+
+    /**
+     * Tests whether a thread is virtual, on any Java version.
+     */
+    static boolean isVirtual(final Thread thread) throws ReflectiveOperationException {
+        if (Runtime.version().feature() < 21) {
+            return false;
+        }
+        return ((Boolean) Thread.class.getMethod("isVirtual").invoke(thread)).booleanValue();
+    }
+
+    @Test
+    void testRunsOnVirtualThreads() throws Exception {
+        assumeTrue(Runtime.version().feature() >= 21, "Virtual threads need Java 21");
+        final ExecutorService executorService = Executors.newSingleThreadExecutor();
+        try {
+            final AsyncQueryRunner runner = AsyncQueryRunner.withVirtualThreads(executorService, new QueryRunner() {
+                @Override
+                public int update(final String sql, final Object... params) {
+                    try {
+                        return isVirtual(Thread.currentThread()) ? 1 : 0;
+                    } catch (final ReflectiveOperationException e) {
+                        throw new IllegalStateException(e);
+                    }
+                }
+            });
+            assertTrue(runner.usesVirtualThreads());
+            assertEquals(1, runner.updateAsync("UPDATE t SET x = 1").get(10, TimeUnit.SECONDS).intValue());
+        } finally {
+            executorService.shutdown();
+        }
+    }
+}
@@ -0,0 +1,183 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.dbutils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class WriteCoalescerTest {
+
+    private static final String SQL = "UPDATE counter SET hits = hits + 1 WHERE id = ?";
+
+    private final List<String> calls = Collections.synchronizedList(new ArrayList<>());
+
+    private ScheduledExecutorService scheduler;
+
+    private QueryRunner runner;
+
+    @BeforeEach
+    void setUp() {
+        scheduler = Executors.newScheduledThreadPool(2);
+        final Connection conn = ProxyFactory.instance().createConnection((proxy, method, args) -> {
+            if (method.getName().equals("getAutoCommit")) {
+                return Boolean.TRUE;
+            }
+            calls.add(method.getName() + (method.getName().equals("setAutoCommit") ? args[0] : ""));
+            return null;
+        });
+        // Update counts are the ids; id -1 fails, id 0 fails with a runtime exception.
+        runner = new QueryRunner() {
+
+            @Override
+            public int[] batch(final Connection connection, final String sql, final Object[][] params) throws SQLException {
+                calls.add("batch x" + params.length);
+                final int[] counts = new int[params.length];
+                for (int i = 0; i < params.length; i++) {
+                    counts[i] = (Integer) params[i][0];
+                    if (counts[i] == 0) {
+                        throw new IllegalStateException("unit");
+                    }
+                    if (counts[i] < 0) {
+                        throw new SQLException("unit");
+                    }
+                }
+                return counts;
+            }
+
+            @Override
+            protected Connection prepareConnection() {
+                calls.add("getConnection");
+                return conn;
+            }
+
+            @Override
+            public int update(final Connection connection, final String sql, final Object... params) throws SQLException {
+                calls.add("update");
+                final int count = (Integer) params[0];
+                if (count < 0) {
+                    throw new SQLException("unit");
+                }
+                return count;
+            }
+        };
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    void testBatchesByCount() throws Exception {
+        final WriteCoalescer writes = new WriteCoalescer(runner, 3, Duration.ofHours(1), scheduler);
+        final List<CompletableFuture<Integer>> futures = new ArrayList<>();
+        for (int i = 1; i <= 6; i++) {
+            futures.add(writes.update(SQL, i));
+        }
+        for (int i = 1; i <= 6; i++) {
+            assertEquals(i, futures.get(i - 1).get(10, TimeUnit.SECONDS).intValue());
+        }
+        assertEquals(2, writes.getBatchCount());
+        assertEquals(6, writes.getUpdateCount());
+        assertEquals(0, writes.getPendingCount());
+        assertEquals(2, Collections.frequency(calls, "commit"));
+    }
+
+    @Test
+    void testBatchesByTime() throws Exception {
+        final WriteCoalescer writes = new WriteCoalescer(runner, 100, Duration.ofMillis(20), scheduler);
+        final CompletableFuture<Integer> first = writes.update(SQL, 1);
+        final CompletableFuture<Integer> second = writes.update(SQL, 2);
+        final CompletableFuture<Integer> other = writes.update("DELETE FROM counter WHERE id = ?", 3);
+        assertEquals(3, writes.getPendingCount());
+
+        assertEquals(1, first.get(10, TimeUnit.SECONDS).intValue());
+        assertEquals(2, second.get(10, TimeUnit.SECONDS).intValue());
+        assertEquals(3, other.get(10, TimeUnit.SECONDS).intValue());
+        assertEquals(2, writes.getBatchCount());
+        assertTrue(calls.contains("batch x2"));
+    }
+
+    @Test
+    void testClose() throws Exception {
+        final WriteCoalescer writes = new WriteCoalescer(runner, 100, Duration.ofHours(1), scheduler);
+        final CompletableFuture<Integer> pending = writes.update(SQL, 1);
+        writes.close();
+        assertEquals(1, pending.get(10, TimeUnit.SECONDS).intValue());
+
+        final ExecutionException e = assertThrows(ExecutionException.class, () -> writes.update(SQL, 2).get(10, TimeUnit.SECONDS));
+        assertTrue(e.getCause() instanceof RejectedExecutionException);
+    }
+
+    @Test
+    void testConstructor() {
+        assertThrows(IllegalArgumentException.class, () -> new WriteCoalescer(runner, 0, Duration.ZERO, scheduler));
+        assertThrows(IllegalArgumentException.class, () -> new WriteCoalescer(runner, 1, Duration.ofMillis(-1), scheduler));
+    }
+
+    @Test
+    void testRollsBackOnRuntimeException() throws Exception {
+        final WriteCoalescer writes = new WriteCoalescer(runner, 2, Duration.ofHours(1), scheduler);
+        final CompletableFuture<Integer> first = writes.update(SQL, 1);
+        final CompletableFuture<Integer> failing = writes.update(SQL, 0);
+
+        final ExecutionException e = assertThrows(ExecutionException.class, () -> first.get(10, TimeUnit.SECONDS));
+        assertTrue(e.getCause() instanceof IllegalStateException);
+        assertThrows(ExecutionException.class, () -> failing.get(10, TimeUnit.SECONDS));
+        // The connection is closed after the futures complete.
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!calls.contains("close") && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertEquals(Arrays.asList("getConnection", "setAutoCommitfalse", "batch x2", "rollback", "setAutoCommittrue", "close"), calls);
+    }
+
+    @Test
+    void testIsolatesFailures() throws Exception {
+        final WriteCoalescer writes = new WriteCoalescer(runner, 3, Duration.ofHours(1), scheduler);
+        final CompletableFuture<Integer> first = writes.update(SQL, 1);
+        final CompletableFuture<Integer> failing = writes.update(SQL, -1);
+        final CompletableFuture<Integer> third = writes.update(SQL, 3);
+
+        assertEquals(1, first.get(10, TimeUnit.SECONDS).intValue());
+        assertEquals(3, third.get(10, TimeUnit.SECONDS).intValue());
+        final ExecutionException e = assertThrows(ExecutionException.class, () -> failing.get(10, TimeUnit.SECONDS));
+        assertTrue(e.getCause() instanceof SQLException);
+        assertEquals(3, Collections.frequency(calls, "update"));
+        assertEquals(2, Collections.frequency(calls, "commit"));
+        assertEquals(2, Collections.frequency(calls, "rollback"));
+    }
+}
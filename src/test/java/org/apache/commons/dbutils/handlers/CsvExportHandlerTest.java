@@ -0,0 +1,115 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.dbutils.handlers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import org.apache.commons.dbutils.MockResultSet;
+import org.apache.commons.dbutils.MockResultSetMetaData;
+import org.junit.jupiter.api.Test;
+
+/**
+ * CsvExportHandlerTest
+ */
+class CsvExportHandlerTest {
+
+    private static final String[] COLUMN_NAMES = { "id", "name", "amount", "created", "born", "active" };
+
+    private static final int[] COLUMN_TYPES = { Types.BIGINT, Types.VARCHAR, Types.DECIMAL, Types.TIMESTAMP, Types.DATE, Types.BOOLEAN };
+
+    private static ResultSet createResultSet() {
+        final Object[][] rows = {
+            { Long.valueOf(1), "plain", new BigDecimal("10.50"), Timestamp.valueOf(LocalDateTime.of(2024, 1, 2, 3, 4, 5, 6_000_000)),
+                Date.valueOf(LocalDate.of(1999, 12, 31)), Boolean.TRUE },
+            { Long.valueOf(-42), "with, comma and \"quotes\"", null, null, null, Boolean.FALSE },
+            { null, "line\nbreak", new BigDecimal("1E+3"), Timestamp.valueOf(LocalDateTime.of(2024, 1, 2, 3, 4, 5)), null, null } };
+        return MockResultSet.createTyped(MockResultSetMetaData.create(COLUMN_NAMES, COLUMN_TYPES), rows);
+    }
+
+    @Test
+    void testBufferSmallerThanRow() throws SQLException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new CsvExportHandler(Channels.newChannel(out), ';', false, StandardCharsets.UTF_8, 3).handle(createResultSet());
+
+        assertEquals("1;plain;10.50;2024-01-02T03:04:05.006;1999-12-31;true\r\n"
+                + "-42;\"with, comma and \"\"quotes\"\"\";;;;false\r\n"
+                + ";\"line\nbreak\";1000;2024-01-02T03:04:05;;\r\n", out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testEmptyResultSet() throws SQLException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final ResultSet resultSet = MockResultSet.createTyped(MockResultSetMetaData.create(COLUMN_NAMES, COLUMN_TYPES), null);
+
+        assertEquals(Long.valueOf(0), new CsvExportHandler(out).handle(resultSet));
+        assertEquals("id,name,amount,created,born,active\r\n", out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testHandle() throws SQLException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final Long rows = new CsvExportHandler(out).handle(createResultSet());
+
+        assertEquals(Long.valueOf(3), rows);
+        assertEquals("id,name,amount,created,born,active\r\n"
+                + "1,plain,10.50,2024-01-02T03:04:05.006,1999-12-31,true\r\n"
+                + "-42,\"with, comma and \"\"quotes\"\"\",,,,false\r\n"
+                + ",\"line\nbreak\",1000,2024-01-02T03:04:05,,\r\n", out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testFloatingPoint() throws SQLException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        // A driver that widens REAL values to double.
+        final Object[][] rows = { { Double.valueOf(0.1f), Double.valueOf(0.1) }, { Double.valueOf(Float.NaN), null } };
+        final ResultSet resultSet = MockResultSet.createTyped(MockResultSetMetaData.create(new String[] { "real", "double" },
+                new int[] { Types.REAL, Types.DOUBLE }), rows);
+        new CsvExportHandler(Channels.newChannel(out), ',', false, StandardCharsets.UTF_8, 1024).handle(resultSet);
+
+        assertEquals("0.1,0.1\r\nNaN,\r\n", out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testIllegalDelimiter() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new CsvExportHandler(Channels.newChannel(new ByteArrayOutputStream()), '"', true, StandardCharsets.UTF_8, 1024));
+    }
+
+    @Test
+    void testNonAscii() throws SQLException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final Object[][] rows = { { "caf\u00e9 \ud83d\ude00" } };
+        final ResultSet resultSet = MockResultSet.createTyped(MockResultSetMetaData.create(new String[] { "text" }, new int[] { Types.VARCHAR }), rows);
+        // A one char buffer splits the surrogate pair across two encoder calls.
+        new CsvExportHandler(Channels.newChannel(out), ',', false, StandardCharsets.UTF_8, 1).handle(resultSet);
+
+        assertEquals("caf\u00e9 \ud83d\ude00\r\n", out.toString(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.dbutils.handlers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Time;
+import java.sql.Types;
+
+import org.apache.commons.dbutils.MockResultSet;
+import org.apache.commons.dbutils.MockResultSetMetaData;
+import org.junit.jupiter.api.Test;
+
+/**
+ * JsonLinesExportHandlerTest
+ */
+class JsonLinesExportHandlerTest {
+
+    private static final String[] COLUMN_NAMES = { "id", "na\"me", "score", "at", "data" };
+
+    private static final int[] COLUMN_TYPES = { Types.INTEGER, Types.VARCHAR, Types.DOUBLE, Types.TIME, Types.VARBINARY };
+
+    private static ResultSet createResultSet() {
+        final Object[][] rows = {
+            { Integer.valueOf(7), "tab\there \\ \"q\" \u0001", Double.valueOf(1.5), Time.valueOf("12:30:00"), new byte[] { 1, 2, 3 } },
+            { null, null, Double.valueOf(Double.NaN), null, null } };
+        return MockResultSet.createTyped(MockResultSetMetaData.create(COLUMN_NAMES, COLUMN_TYPES), rows);
+    }
+
+    @Test
+    void testEmptyResultSet() throws SQLException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final ResultSet resultSet = MockResultSet.createTyped(MockResultSetMetaData.create(COLUMN_NAMES, COLUMN_TYPES), null);
+
+        assertEquals(Long.valueOf(0), new JsonLinesExportHandler(out).handle(resultSet));
+        assertEquals(0, out.size());
+    }
+
+    @Test
+    void testHandle() throws SQLException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final Long rows = new JsonLinesExportHandler(out).handle(createResultSet());
+
+        assertEquals(Long.valueOf(2), rows);
+        assertEquals("{\"id\":7,\"na\\\"me\":\"tab\\there \\\\ \\\"q\\\" \\u0001\",\"score\":1.5,\"at\":\"12:30:00\",\"data\":\"AQID\"}\n"
+                + "{\"id\":null,\"na\\\"me\":null,\"score\":\"NaN\",\"at\":null,\"data\":null}\n", out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testSmallBuffer() throws SQLException {
+        final ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        new JsonLinesExportHandler(expected).handle(createResultSet());
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new JsonLinesExportHandler(Channels.newChannel(out), StandardCharsets.UTF_8, 5).handle(createResultSet());
+
+        assertEquals(expected.toString(StandardCharsets.UTF_8), out.toString(StandardCharsets.UTF_8));
+    }
+}
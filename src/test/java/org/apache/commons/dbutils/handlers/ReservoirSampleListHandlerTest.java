@@ -0,0 +1,110 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.dbutils.handlers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.apache.commons.dbutils.BaseTestCase;
+import org.apache.commons.dbutils.MockResultSet;
+import org.apache.commons.dbutils.MockResultSetMetaData;
+import org.apache.commons.dbutils.ResultSetHandler;
+import org.junit.jupiter.api.Test;
+
+/**
+ * ReservoirSampleListHandlerTest
+ */
+class ReservoirSampleListHandlerTest extends BaseTestCase {
+
+    private static ResultSet createIntegerResultSet(final int count) {
+        final Object[][] rows = new Object[count][];
+        for (int i = 0; i < count; i++) {
+            rows[i] = new Object[] { Integer.valueOf(i) };
+        }
+        return MockResultSet.create(MockResultSetMetaData.create(new String[] { "value" }), rows, false);
+    }
+
+    @Test
+    void testEmptyResultSetHandle() throws SQLException {
+        final ResultSetHandler<List<Object[]>> h = new ReservoirSampleListHandler<>(new ArrayListHandler(), 5);
+        final List<Object[]> results = h.handle(getEmptyResultSet());
+
+        assertNotNull(results);
+        assertTrue(results.isEmpty());
+    }
+
+    @Test
+    void testHandleSmallerThanSample() throws SQLException {
+        final ResultSetHandler<List<String>> h = new ReservoirSampleListHandler<>(new ColumnListHandler<>(), 5);
+        final List<String> results = h.handle(getResultSet());
+
+        assertEquals(Arrays.asList("1", "4"), results);
+    }
+
+    @Test
+    void testNegativeSampleSize() {
+        assertThrows(IllegalArgumentException.class, () -> new ReservoirSampleListHandler<>(new ArrayListHandler(), -1));
+    }
+
+    @Test
+    void testSampleIsDistinctSubset() throws SQLException {
+        final ResultSetHandler<List<Integer>> h = new ReservoirSampleListHandler<>(new ColumnListHandler<>(), 10, new Random(42));
+        final List<Integer> results = h.handle(createIntegerResultSet(1000));
+
+        assertEquals(10, results.size());
+        final Set<Integer> distinct = new HashSet<>(results);
+        assertEquals(10, distinct.size());
+        for (final Integer value : results) {
+            assertTrue(value >= 0 && value < 1000);
+        }
+    }
+
+    @Test
+    void testSampleIsUniform() throws SQLException {
+        final int rows = 20;
+        final int[] counts = new int[rows];
+        final Random random = new Random(7);
+        final ResultSetHandler<List<Integer>> h = new ReservoirSampleListHandler<>(new ColumnListHandler<>(), 5, random);
+        for (int i = 0; i < 4000; i++) {
+            for (final Integer value : h.handle(createIntegerResultSet(rows))) {
+                counts[value]++;
+            }
+        }
+        // Each row is expected 4000 * 5 / 20 = 1000 times.
+        for (final int count : counts) {
+            assertTrue(count > 850 && count < 1150, "count " + count);
+        }
+    }
+
+    @Test
+    void testZeroSampleSize() throws SQLException {
+        final ResultSetHandler<List<Integer>> h = new ReservoirSampleListHandler<>(new ColumnListHandler<>(), 0);
+
+        assertTrue(h.handle(createIntegerResultSet(3)).isEmpty());
+    }
+
+}
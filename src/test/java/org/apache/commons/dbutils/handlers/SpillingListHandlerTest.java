@@ -0,0 +1,183 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.dbutils.handlers;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.Iterator;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import org.apache.commons.dbutils.BaseTestCase;
+import org.apache.commons.dbutils.MockResultSet;
+import org.apache.commons.dbutils.MockResultSetMetaData;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * SpillingListHandlerTest
+ */
+class SpillingListHandlerTest extends BaseTestCase {
+
+    private static ResultSet createResultSet(final int count) {
+        final Object[][] rows = new Object[count][];
+        for (int i = 0; i < count; i++) {
+            rows[i] = new Object[] { Integer.valueOf(i), "row " + i, i % 3 == 0 ? null : Long.valueOf(i * 1000L) };
+        }
+        return MockResultSet.create(MockResultSetMetaData.create(new String[] { "id", "name", "amount" }), rows, false);
+    }
+
+    private Path tempDirectory;
+
+    private long countFiles() throws IOException {
+        try (Stream<Path> files = Files.list(tempDirectory)) {
+            return files.count();
+        }
+    }
+
+    @BeforeEach
+    void createTempDirectory() throws IOException {
+        tempDirectory = Files.createTempDirectory("spill-test");
+    }
+
+    @AfterEach
+    void deleteTempDirectory() throws IOException {
+        Files.deleteIfExists(tempDirectory);
+    }
+
+    @Test
+    void testByteBudget() throws Exception {
+        final SpillingListHandler h = new SpillingListHandler(ArrayHandler.ROW_PROCESSOR, Integer.MAX_VALUE, 0, tempDirectory);
+        try (SpillingList results = h.handle(createResultSet(3))) {
+            assertEquals(0, results.getHeapRowCount());
+            assertEquals(3, results.getSpilledRowCount());
+            assertArrayEquals(new Object[] { Integer.valueOf(2), "row 2", Long.valueOf(2000L) }, results.get(2));
+        }
+    }
+
+    @Test
+    void testCloseDeletesFile() throws Exception {
+        final SpillingListHandler h = new SpillingListHandler(ArrayHandler.ROW_PROCESSOR, 1, Long.MAX_VALUE, tempDirectory);
+        final SpillingList results = h.handle(createResultSet(10));
+        assertEquals(1, countFiles());
+
+        results.close();
+        assertEquals(0, countFiles());
+        assertThrows(IllegalStateException.class, () -> results.get(0));
+        results.close();
+    }
+
+    @Test
+    void testEmptyResultSetHandle() throws Exception {
+        final SpillingListHandler h = new SpillingListHandler(ArrayHandler.ROW_PROCESSOR, 0, 0, tempDirectory);
+        try (SpillingList results = h.handle(getEmptyResultSet())) {
+            assertTrue(results.isEmpty());
+            assertEquals(0, countFiles());
+        }
+    }
+
+    @Test
+    void testHandleWithinBudget() throws Exception {
+        final SpillingListHandler h = new SpillingListHandler(ArrayHandler.ROW_PROCESSOR, 10, Long.MAX_VALUE, tempDirectory);
+        try (SpillingList results = h.handle(getResultSet())) {
+            assertEquals(ROW_COUNT, results.size());
+            assertEquals(ROW_COUNT, results.getHeapRowCount());
+            assertEquals(0, countFiles());
+            assertEquals("1", results.get(0)[0]);
+            assertEquals("SIX", results.get(1)[2]);
+        }
+    }
+
+    @Test
+    void testIterationAndRandomAccessAcrossSegments() throws Exception {
+        final SpillingListHandler h = new SpillingListHandler(ArrayHandler.ROW_PROCESSOR, 5, Long.MAX_VALUE, tempDirectory, 64);
+        try (SpillingList results = h.handle(createResultSet(100))) {
+            assertEquals(100, results.size());
+            assertEquals(5, results.getHeapRowCount());
+            assertEquals(95, results.getSpilledRowCount());
+
+            final Iterator<Object[]> iterator = results.iterator();
+            for (int i = 0; i < 100; i++) {
+                final Object[] row = iterator.next();
+                assertEquals(Integer.valueOf(i), row[0]);
+                assertEquals("row " + i, row[1]);
+                assertEquals(i % 3 == 0 ? null : Long.valueOf(i * 1000L), row[2]);
+            }
+            for (int i = 99; i >= 0; i -= 7) {
+                assertEquals("row " + i, results.get(i)[1]);
+            }
+            assertThrows(IndexOutOfBoundsException.class, () -> results.get(100));
+        }
+    }
+
+    @Test
+    void testNegativeBudget() {
+        assertThrows(IllegalArgumentException.class, () -> new SpillingListHandler(-1, 0));
+        assertThrows(IllegalArgumentException.class, () -> new SpillingListHandler(0, -1));
+    }
+
+    @Test
+    void testSpilledValueTypes() throws Exception {
+        final Timestamp timestamp = Timestamp.valueOf("2024-02-29 12:34:56.123456789");
+        final Object[] row = { "caf\u00e9 \ud83d\ude00", Integer.valueOf(-1), Long.valueOf(Long.MIN_VALUE), Double.valueOf(1.5),
+            Float.valueOf(2.5f), Short.valueOf((short) 3), Byte.valueOf((byte) 4), Boolean.TRUE, Boolean.FALSE,
+            new BigDecimal("-12345678901234567890.000123"), new BigInteger("98765432109876543210"), new byte[] { 1, 2, 3 },
+            Date.valueOf("2024-02-29"), timestamp, UUID.fromString("123e4567-e89b-12d3-a456-426614174000"), null };
+        final String[] names = new String[row.length];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = "c" + i;
+        }
+        final ResultSet rs = MockResultSet.create(MockResultSetMetaData.create(names), new Object[][] { row }, false);
+        final SpillingListHandler h = new SpillingListHandler(ArrayHandler.ROW_PROCESSOR, 0, Long.MAX_VALUE, tempDirectory);
+        try (SpillingList results = h.handle(rs)) {
+            assertEquals(1, results.getSpilledRowCount());
+            final Object[] spilled = results.get(0);
+            assertEquals(row.length, spilled.length);
+            for (int i = 0; i < row.length; i++) {
+                if (row[i] instanceof byte[]) {
+                    assertArrayEquals((byte[]) row[i], (byte[]) spilled[i]);
+                } else {
+                    assertEquals(row[i], spilled[i]);
+                }
+            }
+            assertEquals(timestamp.getNanos(), ((Timestamp) spilled[13]).getNanos());
+        }
+    }
+
+    @Test
+    void testUnsupportedValueDeletesFile() throws Exception {
+        final ResultSet rs = MockResultSet.create(MockResultSetMetaData.create(new String[] { "value" }),
+                new Object[][] { { "first" }, { new Object() } }, false);
+        final SpillingListHandler h = new SpillingListHandler(ArrayHandler.ROW_PROCESSOR, 0, Long.MAX_VALUE, tempDirectory);
+        assertThrows(SQLException.class, () -> h.handle(rs));
+        assertEquals(0, countFiles());
+    }
+
+}
@@ -0,0 +1,94 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.dbutils.handlers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import org.apache.commons.dbutils.BaseTestCase;
+import org.apache.commons.dbutils.MockResultSet;
+import org.apache.commons.dbutils.MockResultSetMetaData;
+import org.apache.commons.dbutils.ResultSetHandler;
+import org.junit.jupiter.api.Test;
+
+/**
+ * TopNListHandlerTest
+ */
+class TopNListHandlerTest extends BaseTestCase {
+
+    private static ResultSet createIntegerResultSet(final int... values) {
+        final Object[][] rows = new Object[values.length][];
+        for (int i = 0; i < values.length; i++) {
+            rows[i] = new Object[] { Integer.valueOf(values[i]) };
+        }
+        return MockResultSet.create(MockResultSetMetaData.create(new String[] { "value" }), rows, false);
+    }
+
+    @Test
+    void testEmptyResultSetHandle() throws SQLException {
+        final ResultSetHandler<List<String>> h = new TopNListHandler<>(new ColumnListHandler<String>(), 5, Comparator.naturalOrder());
+        final List<String> results = h.handle(getEmptyResultSet());
+
+        assertNotNull(results);
+        assertTrue(results.isEmpty());
+    }
+
+    @Test
+    void testHandle() throws SQLException {
+        final ResultSetHandler<List<String>> h = new TopNListHandler<>(new ColumnListHandler<String>(), 1, Comparator.reverseOrder());
+        final List<String> results = h.handle(getResultSet());
+
+        assertEquals(Arrays.asList("4"), results);
+    }
+
+    @Test
+    void testKeepsSmallestInOrder() throws SQLException {
+        final ResultSetHandler<List<Integer>> h = new TopNListHandler<>(new ColumnListHandler<Integer>(), 3, Comparator.naturalOrder());
+        final List<Integer> results = h.handle(createIntegerResultSet(9, 4, 7, 1, 8, 2, 6, 3, 5));
+
+        assertEquals(Arrays.asList(1, 2, 3), results);
+    }
+
+    @Test
+    void testLimitLargerThanResultSet() throws SQLException {
+        final ResultSetHandler<List<Integer>> h = new TopNListHandler<>(new ColumnListHandler<Integer>(), 10, Comparator.reverseOrder());
+        final List<Integer> results = h.handle(createIntegerResultSet(2, 3, 1));
+
+        assertEquals(Arrays.asList(3, 2, 1), results);
+    }
+
+    @Test
+    void testNegativeLimit() {
+        assertThrows(IllegalArgumentException.class, () -> new TopNListHandler<>(new ArrayListHandler(), -1, (a, b) -> 0));
+    }
+
+    @Test
+    void testZeroLimit() throws SQLException {
+        final ResultSetHandler<List<Integer>> h = new TopNListHandler<>(new ColumnListHandler<Integer>(), 0, Comparator.naturalOrder());
+
+        assertTrue(h.handle(createIntegerResultSet(1, 2)).isEmpty());
+    }
+
+}
@@ -0,0 +1,64 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.dbutils.handlers.parameters;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.PreparedStatement;
+
+import org.apache.commons.dbutils.ParameterHandler;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+
+public abstract class AbstractTestParameterHandler<T> {
+
+    @Mock
+    private PreparedStatement stmt;
+    private final ParameterHandler<T> handler;
+    private final Class<?> matchingType;
+
+    public AbstractTestParameterHandler(final ParameterHandler<T> handler, final Class<?> matchingType) {
+        this.handler = handler;
+        this.matchingType = matchingType;
+    }
+
+    public Class<?> getMatchingType() {
+        return this.matchingType;
+    }
+
+    public ParameterHandler<T> getParameterHandler() {
+        return this.handler;
+    }
+
+    public PreparedStatement getStatement() {
+        return this.stmt;
+    }
+
+    @Test
+    public abstract void testApply() throws Exception;
+
+    @Test
+    void testMatch() {
+        assertTrue(handler.match(matchingType));
+    }
+
+    @Test
+    void testMatchNegative() {
+        assertFalse(handler.match(Object.class));
+    }
+}
@@ -0,0 +1,40 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.dbutils.handlers.parameters;
+
+import static org.mockito.Mockito.verify;
+
+import java.math.BigDecimal;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class BigDecimalParameterHandlerTest extends AbstractTestParameterHandler<BigDecimal> {
+
+    public BigDecimalParameterHandlerTest() {
+        super(new BigDecimalParameterHandler(), BigDecimal.class);
+    }
+
+    @Override
+    @Test
+    public void testApply() throws Exception {
+        getParameterHandler().apply(getStatement(), 1, BigDecimal.TEN);
+        verify(getStatement()).setBigDecimal(1, BigDecimal.TEN);
+    }
+}
@@ -0,0 +1,42 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.dbutils.handlers.parameters;
+
+import static org.mockito.Mockito.verify;
+
+import java.sql.Date;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class DateParameterHandlerTest extends AbstractTestParameterHandler<Date> {
+
+    private static final Date VALUE = Date.valueOf("2024-02-29");
+
+    public DateParameterHandlerTest() {
+        super(new DateParameterHandler(), Date.class);
+    }
+
+    @Override
+    @Test
+    public void testApply() throws Exception {
+        getParameterHandler().apply(getStatement(), 1, VALUE);
+        verify(getStatement()).setDate(1, VALUE);
+    }
+}
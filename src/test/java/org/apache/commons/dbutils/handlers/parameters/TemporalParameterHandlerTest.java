@@ -0,0 +1,71 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.dbutils.handlers.parameters;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.verify;
+
+import java.sql.JDBCType;
+import java.sql.SQLFeatureNotSupportedException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.Temporal;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class TemporalParameterHandlerTest extends AbstractTestParameterHandler<Temporal> {
+
+    public TemporalParameterHandlerTest() {
+        super(new TemporalParameterHandler(), LocalDate.class);
+    }
+
+    @Override
+    @Test
+    public void testApply() throws Exception {
+        final LocalDate date = LocalDate.of(2024, 2, 29);
+        getParameterHandler().apply(getStatement(), 1, date);
+        verify(getStatement()).setObject(1, date, JDBCType.DATE);
+
+        final OffsetDateTime dateTime = OffsetDateTime.of(2024, 2, 29, 12, 0, 0, 0, ZoneOffset.UTC);
+        getParameterHandler().apply(getStatement(), 2, dateTime);
+        verify(getStatement()).setObject(2, dateTime, JDBCType.TIMESTAMP_WITH_TIMEZONE);
+    }
+
+    @Test
+    void testApplyWithoutSqlTypeSupport() throws Exception {
+        final LocalDateTime dateTime = LocalDateTime.of(2024, 2, 29, 12, 0);
+        doThrow(new SQLFeatureNotSupportedException()).when(getStatement()).setObject(eq(1), eq(dateTime), eq(JDBCType.TIMESTAMP));
+        getParameterHandler().apply(getStatement(), 1, dateTime);
+        verify(getStatement()).setObject(1, dateTime);
+    }
+
+    @Test
+    void testMatchTypes() {
+        assertTrue(getParameterHandler().match(LocalDateTime.class));
+        assertTrue(getParameterHandler().match(OffsetDateTime.class));
+        assertFalse(getParameterHandler().match(Instant.class));
+    }
+}